@@ -75,4 +75,7 @@ dependencies {
     implementation("io.socket:socket.io-client:2.1.0") {
         exclude(group = "org.json", module = "json")
     }
+
+    // Unit test (JVM)
+    testImplementation("junit:junit:4.13.2")
 }
\ No newline at end of file
@@ -107,7 +107,7 @@ public class AdminCancelRequestsFragment extends Fragment {
                                 }
                             }
                         }
-                        adapter.notifyDataSetChanged();
+                        adapter.submitList(orders);
                         
                         if (orders.isEmpty()) {
                             Toast.makeText(requireContext(), "Không có yêu cầu hủy đơn nào", Toast.LENGTH_SHORT).show();
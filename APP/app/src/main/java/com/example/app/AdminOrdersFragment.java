@@ -17,6 +17,8 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.app.adapters.AdminOrdersAdapter;
+import com.example.app.model.AdminOrdersPage;
+import com.example.app.model.OrderDto;
 import com.example.app.network.AdminApi;
 import com.example.app.network.BackendConfig;
 import com.google.android.material.tabs.TabLayout;
@@ -24,7 +26,6 @@ import com.google.android.material.tabs.TabLayout;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -41,8 +42,8 @@ public class AdminOrdersFragment extends Fragment {
     private TextView tvEmpty;
     private TabLayout tabLayout;
     private AdminOrdersAdapter adapter;
-    private List<Map<String, Object>> allOrders = new ArrayList<>();
-    private List<Map<String, Object>> filteredOrders = new ArrayList<>();
+    private List<OrderDto> allOrders = new ArrayList<>();
+    private List<OrderDto> filteredOrders = new ArrayList<>();
     private String currentStatus = null; // null = all
 
     @Nullable
@@ -124,27 +125,21 @@ public class AdminOrdersFragment extends Fragment {
         tvEmpty.setVisibility(View.GONE);
         
         // Always load all orders, then filter on client side
-        Call<Map<String, Object>> call = adminApi.getOrders(null);
-        call.enqueue(new Callback<Map<String, Object>>() {
+        Call<AdminOrdersPage> call = adminApi.getOrders(null);
+        call.enqueue(new Callback<AdminOrdersPage>() {
             @Override
-            public void onResponse(Call<Map<String, Object>> call, Response<Map<String, Object>> response) {
+            public void onResponse(Call<AdminOrdersPage> call, Response<AdminOrdersPage> response) {
                 progressBar.setVisibility(View.GONE);
                 swipeRefresh.setRefreshing(false);
                 
                 if (response.isSuccessful() && response.body() != null) {
-                    Map<String, Object> data = response.body();
-                    if (data.containsKey("orders")) {
-                        allOrders.clear();
-                        List<?> ordersList = (List<?>) data.get("orders");
-                        if (ordersList != null) {
-                            for (Object item : ordersList) {
-                                if (item instanceof Map) {
-                                    allOrders.add((Map<String, Object>) item);
-                                }
-                            }
+                    allOrders.clear();
+                    for (OrderDto item : response.body().getOrders()) {
+                        if (item != null) {
+                            allOrders.add(item);
                         }
-                        filterOrders();
                     }
+                    filterOrders();
                 } else {
                     Log.e(TAG, "Failed to load orders: " + response.code());
                     Toast.makeText(requireContext(), "Không thể tải danh sách đơn hàng", Toast.LENGTH_SHORT).show();
@@ -153,7 +148,7 @@ public class AdminOrdersFragment extends Fragment {
             }
 
             @Override
-            public void onFailure(Call<Map<String, Object>> call, Throwable t) {
+            public void onFailure(Call<AdminOrdersPage> call, Throwable t) {
                 progressBar.setVisibility(View.GONE);
                 swipeRefresh.setRefreshing(false);
                 Log.e(TAG, "Error loading orders", t);
@@ -171,9 +166,8 @@ public class AdminOrdersFragment extends Fragment {
             filteredOrders.addAll(allOrders);
         } else {
             // Filter by status
-            for (Map<String, Object> order : allOrders) {
-                Object statusObj = order.get("status");
-                String status = statusObj != null ? statusObj.toString() : "";
+            for (OrderDto order : allOrders) {
+                String status = order.status != null ? order.status : "";
                 
                 if (currentStatus.equals("PENDING")) {
                     // Pending includes PENDING and CONFIRMED
@@ -186,7 +180,7 @@ public class AdminOrdersFragment extends Fragment {
             }
         }
         
-        adapter.notifyDataSetChanged();
+        adapter.submitList(filteredOrders);
         
         if (filteredOrders.isEmpty()) {
             showEmpty();
@@ -169,7 +169,7 @@ public class AdminUsersFragment extends Fragment {
                                 }
                             }
                         }
-                        adapter.notifyDataSetChanged();
+                        adapter.submitList(users);
                         
                         if (users.isEmpty()) {
                             tvEmpty.setVisibility(View.VISIBLE);
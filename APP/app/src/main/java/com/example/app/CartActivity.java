@@ -110,22 +110,10 @@ public class CartActivity extends AppCompatActivity implements CartAdapter.OnTot
      * Cập nhật tổng tiền từ dữ liệu thực trong giỏ hàng
      */
     private void updateTotals() {
-        List<CartItem> items = cartRepository.getCartItems().getValue();
-        if (items == null || items.isEmpty()) {
-            tvSubtotal.setText("0 đ");
-            tvTotal.setText("0 đ");
-            return;
-        }
-
-        BigDecimal subtotal = BigDecimal.ZERO;
-        for (CartItem item : items) {
-            BigDecimal price = BigDecimal.valueOf(item.getPrice());
-            BigDecimal qty = BigDecimal.valueOf(item.getQuantity());
-            subtotal = subtotal.add(price.multiply(qty));
-        }
-
-        tvSubtotal.setText(vnd.format(subtotal.longValue()) + " đ");
-        tvTotal.setText(vnd.format(subtotal.longValue()) + " đ");
+        // Tổng tiền đã được CartRepository cộng dần (long đồng), không tính lại ở đây
+        long subtotal = cartRepository.currentSnapshot().subtotal;
+        tvSubtotal.setText(vnd.format(subtotal) + " đ");
+        tvTotal.setText(vnd.format(subtotal) + " đ");
     }
 
     @Override
@@ -30,7 +30,10 @@ import com.example.app.R;
 import com.example.app.adapters.CartAdapter;
 import com.example.app.databinding.FragmentCheckoutBinding;
 import com.example.app.data.CartRepository;
+import com.example.app.data.RestaurantLocations;
+import com.example.app.data.RestaurantRepository;
 import com.example.app.model.CartItem;
+import com.example.app.model.Restaurant;
 import com.example.app.network.BackendConfig;
 import com.example.app.ui.AuthLoginActivity;
 import com.example.app.network.OrdersClient;
@@ -83,6 +86,7 @@ public class CheckoutFragment extends Fragment
     private static final int LOCATION_PERMISSION_REQUEST_CODE = 1002;
     private boolean isLocationFilled = false; // Để tránh ghi đè khi user đang nhập
     private Location currentCustomerLocation; // Lưu vị trí khách hàng để tính phí giao hàng
+    private boolean restaurantLocationRequested; // Đã tải toạ độ quán (1 lần) để tính khoảng cách
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -154,16 +158,9 @@ public class CheckoutFragment extends Fragment
             Log.d(TAG, "Item: " + item.getName() + ", Price: " + item.getPrice() + ", Quantity: " + item.getQuantity());
         }
 
-        // ✅ FIX: Tính tổng tiền trực tiếp từ items trong giỏ hàng
-        BigDecimal calculatedSubtotal = BigDecimal.ZERO;
-        if (!cartItems.isEmpty()) {
-            for (CartItem item : cartItems) {
-                BigDecimal price = BigDecimal.valueOf(item.getPrice());
-                BigDecimal qty = BigDecimal.valueOf(item.getQuantity());
-                calculatedSubtotal = calculatedSubtotal.add(price.multiply(qty));
-            }
-        }
-        Log.d(TAG, "Calculated subtotal directly: " + calculatedSubtotal);
+        // Tổng tiền đã được CartRepository cộng dần (long đồng) cùng lúc với snapshot
+        BigDecimal calculatedSubtotal = BigDecimal.valueOf(cartRepository.currentSnapshot().subtotal);
+        Log.d(TAG, "Cart subtotal: " + calculatedSubtotal);
 
         // ✅ FIX: Đảm bảo listener được set trước khi update data
         if (cartAdapter != null) {
@@ -231,7 +228,8 @@ public class CheckoutFragment extends Fragment
     // ✅ Implement OnQuantityChangeListener (Dùng Item ID để gọi Repository)
     @Override
     public void onQuantityChange(CartItem item, int newQuantity) {
-        String itemId = item.getItemId(); // Lấy ID của CartItem
+        // Repository tra theo cartItemId (không phải productId)
+        String itemId = item.getCartItemId();
 
         if (newQuantity <= 0) {
             // Fix lỗi: removeItem(CartItem) -> removeItem(String itemId)
@@ -396,12 +394,19 @@ public class CheckoutFragment extends Fragment
             return MIN_SHIPPING_FEE;
         }
 
-        // Lấy khoảng cách từ item đầu tiên (tất cả items cùng một restaurant)
+        // Tất cả items cùng một restaurant → lấy theo item đầu tiên
         CartItem firstItem = cartItems.get(0);
-        Double distance = firstItem.getRestaurantDistance();
+        // Đã biết vị trí giao hàng → tính mới; khoảng cách lưu lúc thêm vào giỏ có thể đã cũ
+        Double distance = currentCustomerLocation != null
+                ? calculateDistanceFromCurrentLocation(firstItem.getRestaurantId())
+                : null;
 
-        // Nếu không có khoảng cách, thử tính lại từ vị trí hiện tại
         if (distance == null || distance < 0) {
+            distance = firstItem.getRestaurantDistance();
+        }
+
+        // Chưa có vị trí giao hàng lẫn khoảng cách lưu sẵn → thử vị trí cuối cùng đã biết
+        if ((distance == null || distance < 0) && currentCustomerLocation == null) {
             distance = calculateDistanceFromCurrentLocation(firstItem.getRestaurantId());
         }
 
@@ -424,29 +429,40 @@ public class CheckoutFragment extends Fragment
     }
 
     /**
-     * Tính khoảng cách từ vị trí hiện tại đến restaurant
+     * Tính khoảng cách từ vị trí khách đến restaurant ngay trên máy (RestaurantLocations),
+     * không cần gọi API. Chưa biết toạ độ quán → tải chi tiết quán 1 lần (có cache)
+     * rồi tính lại phí ship.
      */
     private Double calculateDistanceFromCurrentLocation(int restaurantId) {
-        if (!checkLocationPermission()) {
+        if (restaurantId <= 0) {
             return null;
         }
+        String id = String.valueOf(restaurantId);
+        RestaurantLocations locations = RestaurantLocations.getInstance();
+        Double distance = currentCustomerLocation != null
+                ? locations.distanceKm(id, currentCustomerLocation.getLatitude(), currentCustomerLocation.getLongitude())
+                : locations.distanceFromUser(id);
+
+        if (distance == null && locations.get(id) == null && !restaurantLocationRequested) {
+            restaurantLocationRequested = true;
+            RestaurantRepository.getInstance().loadRestaurantDetail(id, new RestaurantRepository.RestaurantDetailCallback() {
+                @Override
+                public void onRestaurantLoaded(Restaurant restaurant) {
+                    // Có thể được gọi ngay (cache RAM) → tính lại ở vòng sau của main loop
+                    if (binding != null)
+                        binding.getRoot().post(() -> {
+                            if (binding != null && !cartItems.isEmpty())
+                                onTotalsCalculated(currentSubtotal);
+                        });
+                }
 
-        try {
-            // Lấy vị trí hiện tại (synchronous - chỉ dùng khi cần)
-            // Tốt hơn là lưu vị trí khi lấy địa chỉ
-            Location currentLocation = null;
-            if (ActivityCompat.checkSelfPermission(requireContext(), Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED
-                    || ActivityCompat.checkSelfPermission(requireContext(), Manifest.permission.ACCESS_COARSE_LOCATION) == PackageManager.PERMISSION_GRANTED) {
-                // Lấy vị trí từ địa chỉ đã nhập (nếu có)
-                // Hoặc lưu vị trí khi lấy địa chỉ
-                // Tạm thời return null, sẽ tính sau
-                return null;
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error calculating distance: " + e.getMessage());
+                @Override
+                public void onError(String message) {
+                    Log.w(TAG, "Không lấy được toạ độ quán " + id + ": " + message);
+                }
+            });
         }
-
-        return null;
+        return distance;
     }
 
     /**
@@ -494,6 +510,12 @@ public class CheckoutFragment extends Fragment
                         binding.etAddress.setHint(getString(R.string.checkout_address_hint));
 
                         if (location != null) {
+                            // Ghi nhớ vị trí ngay để tính phí ship (không chờ geocoding)
+                            RestaurantLocations.getInstance().setUserLocation(location.getLatitude(), location.getLongitude());
+                            currentCustomerLocation = location;
+                            if (!cartItems.isEmpty()) {
+                                onTotalsCalculated(currentSubtotal);
+                            }
                             // Có vị trí -> Reverse geocoding để lấy địa chỉ
                             getAddressFromLocation(location.getLatitude(), location.getLongitude());
                         } else {
@@ -74,11 +74,10 @@ public class CustomerHomeFragment extends Fragment {
         if (checkoutButton != null) {
 
             // 3.1 Observe tổng tiền giỏ hàng -> update text + visibility
-            cartRepository.getCartSubtotal().observe(
+            cartRepository.getCartSnapshot().observe(
                     getViewLifecycleOwner(),
-                    totalDouble -> {
-                        double total = (totalDouble != null) ? totalDouble : 0.0;
-                        long totalLong = (long) total;
+                    snapshot -> {
+                        long totalLong = (snapshot != null) ? snapshot.subtotal : 0L;
 
                         if (totalLong > 0) {
                             String text = "Xem Giỏ Hàng (" +
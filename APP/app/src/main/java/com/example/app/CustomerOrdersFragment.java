@@ -2,6 +2,7 @@ package com.example.app;
 
 import android.os.Bundle;
 import android.util.Log;
+import android.view.Choreographer;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -11,18 +12,23 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.LifecycleOwner;
 import androidx.navigation.fragment.NavHostFragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.app.adapters.CustomerOrdersAdapter;
+import com.example.app.data.PageWindow;
 import com.example.app.databinding.FragmentCustomerOrdersBinding;
+import com.example.app.model.OrderDto;
 import com.example.app.network.BackendConfig;
-import com.example.app.network.OrderTracker;
+import com.example.app.network.OrderStatusCoalescer;
 import com.example.app.network.OrdersApi;
+import com.example.app.network.RealtimeHub;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -32,15 +38,24 @@ import retrofit2.Response;
 
 /**
  * CustomerOrdersFragment: Hiển thị danh sách đơn hàng của khách hàng
+ *
+ * Lịch sử đơn tải theo trang ({@link PageWindow}): cuộn gần cuối thì tải trang kế,
+ * chỉ giữ {@link #MAX_PAGES} trang trong bộ nhớ; socket chỉ sửa đơn đang nằm trong cửa sổ.
  */
 public class CustomerOrdersFragment extends Fragment {
 
     private static final String TAG = "CustomerOrdersFragment";
+    // page_size mặc định của GET /customer/orders
+    private static final int PAGE_SIZE = 20;
+    // Còn ≤ 5 dòng tới cuối phần đã tải → tải trang kế
+    private static final int PREFETCH_DISTANCE = 5;
+    private static final int MAX_PAGES = 5;
+
     private FragmentCustomerOrdersBinding binding;
     private CustomerOrdersAdapter adapter;
-    private final List<Map<String, Object>> orders = new ArrayList<>();
-    private OrderTracker orderTracker;
-    private String backendBase;
+    private PageWindow<OrderDto> pager;
+    @Nullable
+    private volatile OrderStatusCoalescer statusEvents;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -58,12 +73,11 @@ public class CustomerOrdersFragment extends Fragment {
         });
 
         // Setup RecyclerView
-        adapter = new CustomerOrdersAdapter(requireContext(), orders, new CustomerOrdersAdapter.Listener() {
+        adapter = new CustomerOrdersAdapter(requireContext(), Collections.emptyList(), new CustomerOrdersAdapter.Listener() {
             @Override
-            public void onItemClick(@NonNull Map<String, Object> order, int position) {
+            public void onItemClick(@NonNull OrderDto order, int position) {
                 // Điều hướng đến chi tiết đơn hàng
-                Object orderIdObj = order.get("order_id");
-                String orderId = orderIdObj != null ? orderIdObj.toString() : null;
+                String orderId = order.id;
                 if (orderId != null) {
                     Bundle args = new Bundle();
                     args.putString("orderId", orderId);
@@ -73,10 +87,9 @@ public class CustomerOrdersFragment extends Fragment {
             }
 
             @Override
-            public void onCancel(@NonNull Map<String, Object> order, int position, @Nullable String reason) {
+            public void onCancel(@NonNull OrderDto order, int position, @Nullable String reason) {
                 // ✅ FIX: Hiển thị dialog xác nhận trước khi hủy
-                Object orderIdObj = order.get("order_id");
-                String orderId = orderIdObj != null ? orderIdObj.toString() : null;
+                String orderId = order.id;
                 if (orderId == null) {
                     Toast.makeText(requireContext(), "Không tìm thấy ID đơn hàng", Toast.LENGTH_SHORT).show();
                     return;
@@ -94,168 +107,141 @@ public class CustomerOrdersFragment extends Fragment {
             }
         });
 
-        binding.recyclerOrders.setLayoutManager(new LinearLayoutManager(requireContext()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
+        binding.recyclerOrders.setLayoutManager(layoutManager);
         binding.recyclerOrders.setAdapter(adapter);
 
+        OrdersApi ordersApi = BackendConfig.getRetrofit(requireContext()).create(OrdersApi.class);
+        pager = new PageWindow<>((page, pageSize, result) -> loadPage(ordersApi, page, pageSize, result),
+                OrderDto::getId, PAGE_SIZE, PREFETCH_DISTANCE, MAX_PAGES, this::onRowsChanged);
+
+        // Cả khi layout xong (dy = 0) → kiểm tra prefetch sau mỗi trang mới
+        binding.recyclerOrders.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                pager.onVisible(layoutManager.findFirstVisibleItemPosition(),
+                        layoutManager.findLastVisibleItemPosition());
+            }
+        });
+
         // Setup SwipeRefresh
         binding.swipeRefresh.setOnRefreshListener(this::loadOrders);
 
-        // ✅ FIX: Setup socket để nhận update real-time từ merchant
-        backendBase = BackendConfig.getRetrofitRoot(requireContext()).baseUrl().toString();
-        orderTracker = new OrderTracker(requireContext(), backendBase);
-        orderTracker.setAuthToken(BackendConfig.getAccessToken(requireContext()));
-        orderTracker.connect();
-        
-        // ✅ FIX: Identify user để join vào user room khi socket connect
-        String token = BackendConfig.getAccessToken(requireContext());
-        final String userId = extractUserIdFromToken(token);
-        final String role = new com.example.app.network.AuthClient(requireContext()).getRole();
-        if (userId != null) {
-            // Lắng nghe event connect để identify user
-            orderTracker.on(io.socket.client.Socket.EVENT_CONNECT, args -> {
-                if (userId != null) {
-                    orderTracker.identify(userId, role);
-                }
+        // ✅ FIX: Nhận update real-time từ merchant qua socket dùng chung của app.
+        // Server gắn room user_<id> theo token của socket (handshake / "auth");
+        // subscription tự huỷ khi view bị destroy
+        RealtimeHub hub = RealtimeHub.get(requireContext());
+        LifecycleOwner viewOwner = getViewLifecycleOwner();
+
+        // orderUpdate (room user_<id>) và statusUpdate (room order_<id>) cùng báo 1 thay đổi:
+        // decode trên thread socket, gộp theo orderId, giao lên UI tối đa 1 lần / frame
+        Choreographer choreographer = Choreographer.getInstance();
+        statusEvents = new OrderStatusCoalescer(
+                frame -> choreographer.postFrameCallback(frameTimeNanos -> frame.run()),
+                this::applyStatusUpdates);
+        hub.subscribe(viewOwner, RealtimeHub.EVENT_ORDER_UPDATE, this::onStatusEvent);
+        hub.subscribe(viewOwner, RealtimeHub.EVENT_STATUS_UPDATE, this::onStatusEvent);
+        // Mất kết nối lâu hơn khoảng server còn giữ event → chỉ khi đó mới tải lại cả list
+        hub.subscribe(viewOwner, RealtimeHub.EVENT_RESYNC, args -> {
+            if (!isAdded())
+                return;
+            requireActivity().runOnUiThread(() -> {
+                if (binding != null)
+                    loadOrders();
             });
-        }
-        
-        // Lắng nghe update cho tất cả đơn hàng của user
-        orderTracker.on("orderUpdate", args -> {
-            if (args != null && args.length > 0) {
-                Object o = args[0];
-                try {
-                    Log.i(TAG, "Received orderUpdate: " + o);
-                    if (!isAdded())
-                        return;
-                    requireActivity().runOnUiThread(() -> {
-                        if (binding == null)
-                            return;
-                        try {
-                            if (o instanceof Map) {
-                                Object orderIdObj = ((Map<?, ?>) o).get("orderId");
-                                Object statusObj = ((Map<?, ?>) o).get("status");
-                                if (orderIdObj != null && statusObj != null) {
-                                    String orderId = orderIdObj.toString();
-                                    String newStatus = statusObj.toString();
-                                    updateOrderStatus(orderId, newStatus);
-                                }
-                            }
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error processing orderUpdate", e);
-                        }
-                    });
-                } catch (Exception e) {
-                    Log.e(TAG, "Error in orderUpdate callback", e);
-                }
-            }
-        });
-        
-        // Lắng nghe statusUpdate (tương thích)
-        orderTracker.on("statusUpdate", args -> {
-            if (args != null && args.length > 0) {
-                Object o = args[0];
-                try {
-                    Log.i(TAG, "Received statusUpdate: " + o);
-                    if (!isAdded())
-                        return;
-                    requireActivity().runOnUiThread(() -> {
-                        if (binding == null)
-                            return;
-                        try {
-                            if (o instanceof Map) {
-                                Object orderIdObj = ((Map<?, ?>) o).get("orderId");
-                                Object statusObj = ((Map<?, ?>) o).get("status");
-                                if (orderIdObj != null && statusObj != null) {
-                                    String orderId = orderIdObj.toString();
-                                    String newStatus = statusObj.toString();
-                                    updateOrderStatus(orderId, newStatus);
-                                }
-                            }
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error processing statusUpdate", e);
-                        }
-                    });
-                } catch (Exception e) {
-                    Log.e(TAG, "Error in statusUpdate callback", e);
-                }
-            }
         });
 
         // Load orders
         loadOrders();
     }
     
-    // ✅ FIX: Cập nhật status của order trong danh sách khi nhận socket event
-    private void updateOrderStatus(String orderId, String newStatus) {
-        for (int i = 0; i < orders.size(); i++) {
-            Map<String, Object> order = orders.get(i);
-            Object oid = order.get("order_id");
-            if (oid != null && oid.toString().equals(orderId)) {
-                order.put("status", newStatus);
-                adapter.notifyItemChanged(i);
-                Log.i(TAG, "Updated order " + orderId + " status to " + newStatus);
-                return;
+    // Thread event của socket
+    private void onStatusEvent(Object... args) {
+        OrderStatusCoalescer c = statusEvents;
+        if (c != null && args != null && args.length > 0)
+            c.offer(args[0]);
+    }
+
+    // ✅ FIX: Cập nhật status của order trong danh sách khi nhận socket event (UI thread, 1 lần / frame)
+    private void applyStatusUpdates(@NonNull List<OrderStatusCoalescer.Update> updates) {
+        if (binding == null)
+            return;
+        boolean missing = false;
+        boolean changed = false;
+        for (OrderStatusCoalescer.Update u : updates) {
+            OrderDto order = pager.find(u.orderId);
+            if (order == null) {
+                missing = true;
+                continue;
+            }
+            if (!u.status.equals(order.status)) {
+                order.status = u.status;
+                changed = true;
             }
         }
-        // Nếu không tìm thấy, có thể order mới được tạo, reload toàn bộ
-        Log.i(TAG, "Order " + orderId + " not found in list, reloading...");
-        loadOrders();
+        // Diff theo hash nội dung → chỉ các dòng đổi status bị bind lại
+        if (changed)
+            pager.notifyChanged();
+        // Không có trong cửa sổ: đơn mới (→ tải lại trang 1 tại chỗ) hoặc nằm ở trang đã bỏ
+        // (sẽ lấy bản mới khi cuộn tới)
+        if (missing) {
+            Log.i(TAG, "Order not in loaded pages, reloading first page");
+            pager.refreshTop();
+        }
     }
 
+    /** Kéo làm mới / mất đồng bộ socket: tải lại từ trang 1 */
     private void loadOrders() {
         binding.swipeRefresh.setRefreshing(true);
         binding.tvEmpty.setVisibility(View.GONE);
+        pager.refresh();
+    }
 
-        OrdersApi ordersApi = BackendConfig.getRetrofit(requireContext()).create(OrdersApi.class);
-        ordersApi.listOrders(null, null, null).enqueue(new Callback<List<Map<String, Object>>>() {
+    private void loadPage(@NonNull OrdersApi ordersApi, int page, int pageSize,
+            @NonNull PageWindow.Result<OrderDto> result) {
+        ordersApi.listOrders(null, page, pageSize).enqueue(new Callback<List<OrderDto>>() {
             @Override
-            public void onResponse(@NonNull Call<List<Map<String, Object>>> call,
-                                   @NonNull Response<List<Map<String, Object>>> response) {
-                binding.swipeRefresh.setRefreshing(false);
-
-                if (!isAdded()) return;
+            public void onResponse(@NonNull Call<List<OrderDto>> call,
+                                   @NonNull Response<List<OrderDto>> response) {
+                if (!isAdded() || binding == null) return;
 
                 if (response.isSuccessful() && response.body() != null) {
-                    orders.clear();
-                    orders.addAll(response.body());
-                    adapter.notifyDataSetChanged();
-
-                    if (orders.isEmpty()) {
-                        binding.tvEmpty.setVisibility(View.VISIBLE);
-                    } else {
-                        binding.tvEmpty.setVisibility(View.GONE);
-                    }
+                    result.onPage(response.body());
                 } else {
-                    Log.e(TAG, "Failed to load orders: " + response.code());
+                    Log.e(TAG, "Failed to load orders page " + page + ": " + response.code());
                     Toast.makeText(requireContext(), "Không tải được danh sách đơn hàng", Toast.LENGTH_SHORT).show();
-                    if (orders.isEmpty()) {
-                        binding.tvEmpty.setVisibility(View.VISIBLE);
-                    }
+                    result.onError(new IOException("HTTP " + response.code()));
                 }
             }
 
             @Override
-            public void onFailure(@NonNull Call<List<Map<String, Object>>> call, @NonNull Throwable t) {
-                binding.swipeRefresh.setRefreshing(false);
-                if (!isAdded()) return;
+            public void onFailure(@NonNull Call<List<OrderDto>> call, @NonNull Throwable t) {
+                if (!isAdded() || binding == null) return;
 
-                Log.e(TAG, "Error loading orders", t);
+                Log.e(TAG, "Error loading orders page " + page, t);
                 Toast.makeText(requireContext(), "Lỗi kết nối", Toast.LENGTH_SHORT).show();
-                if (orders.isEmpty()) {
-                    binding.tvEmpty.setVisibility(View.VISIBLE);
-                }
+                result.onError(t);
             }
         });
     }
 
+    private void onRowsChanged(@NonNull List<OrderDto> rows) {
+        if (binding == null)
+            return;
+        adapter.submitOrders(rows);
+        if (!pager.isLoading())
+            binding.swipeRefresh.setRefreshing(false);
+        boolean nothing = pager.isEmpty() || (pager.lastError() != null && rows.isEmpty());
+        binding.tvEmpty.setVisibility(nothing ? View.VISIBLE : View.GONE);
+    }
+
     private void cancelOrder(String orderId, @Nullable String reason, int position) {
         Log.d(TAG, "Attempting to cancel order ID: " + orderId);
         
         // Log order details for debugging
-        if (position >= 0 && position < orders.size()) {
-            Map<String, Object> order = orders.get(position);
-            Log.d(TAG, "Order details: " + order.toString());
-            Log.d(TAG, "Order status: " + order.get("status"));
+        OrderDto current = pager.find(orderId);
+        if (current != null) {
+            Log.d(TAG, "Order status: " + current.status);
         }
         
         OrdersApi ordersApi = BackendConfig.getRetrofit(requireContext()).create(OrdersApi.class);
@@ -280,8 +266,12 @@ public class CustomerOrdersFragment extends Fragment {
                     
                     if (Boolean.TRUE.equals(success)) {
                         Toast.makeText(requireContext(), "Đơn hàng đã được hủy thành công", Toast.LENGTH_SHORT).show();
-                        // Reload danh sách đơn hàng
-                        loadOrders();
+                        // Sửa tại chỗ trang đang giữ, không tải lại cả lịch sử
+                        OrderDto cancelled = pager.find(orderId);
+                        if (cancelled != null) {
+                            cancelled.status = "CANCELLED";
+                            pager.notifyChanged();
+                        }
                     } else {
                         String message = (String) result.get("message");
                         Toast.makeText(requireContext(), 
@@ -323,42 +313,18 @@ public class CustomerOrdersFragment extends Fragment {
         });
     }
 
-    // ✅ FIX: Extract userId từ JWT token
-    private String extractUserIdFromToken(String token) {
-        if (token == null || token.isEmpty()) {
-            return null;
-        }
-        try {
-            // JWT format: header.payload.signature
-            String[] parts = token.split("\\.");
-            if (parts.length < 2) {
-                return null;
-            }
-            // Decode payload (base64)
-            String payload = parts[1];
-            // Add padding if needed
-            while (payload.length() % 4 != 0) {
-                payload += "=";
-            }
-            byte[] decoded = android.util.Base64.decode(payload, android.util.Base64.URL_SAFE);
-            String json = new String(decoded, "UTF-8");
-            // Parse JSON
-            org.json.JSONObject obj = new org.json.JSONObject(json);
-            return obj.optString("id", obj.optString("user_id", null));
-        } catch (Exception e) {
-            Log.e(TAG, "Error extracting userId from token", e);
-            return null;
-        }
-    }
-    
     @Override
     public void onDestroyView() {
         super.onDestroyView();
-        // ✅ FIX: Disconnect socket khi fragment bị destroy
-        if (orderTracker != null) {
-            orderTracker.disconnect();
-            orderTracker = null;
+        if (statusEvents != null) {
+            statusEvents.close();
+            Log.i(TAG, "status events: " + statusEvents.stats());
+            statusEvents = null;
         }
+        if (adapter != null)
+            Log.i(TAG, "list refresh: " + adapter.stats());
+        if (pager != null)
+            Log.i(TAG, "paging: " + pager.stats());
         binding = null;
     }
 }
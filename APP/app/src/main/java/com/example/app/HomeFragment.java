@@ -25,7 +25,10 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.app.adapters.MenuAdapter;
 import com.example.app.adapters.OrdersAdapter;
+import com.example.app.data.NearbyCache;
+import com.example.app.data.NearbyRepository;
 import com.example.app.model.MenuItem;
+import com.example.app.model.OrderDto;
 import com.example.app.model.OrderSummary;
 import com.example.app.network.BackendConfig;
 import com.example.app.network.MenuApi;
@@ -262,10 +265,10 @@ public class HomeFragment extends Fragment {
     // ====================== Recent Orders (API thật) ======================
     private void fetchRecentOrders() {
         OrdersApi ordersApi = BackendConfig.getRetrofit(requireContext()).create(OrdersApi.class);
-        ordersApi.getRecentOrders(10).enqueue(new Callback<List<Map<String, Object>>>() {
+        ordersApi.getRecentOrders(10).enqueue(new Callback<List<OrderDto>>() {
             @Override
-            public void onResponse(@NonNull Call<List<Map<String, Object>>> call,
-                                   @NonNull Response<List<Map<String, Object>>> response) {
+            public void onResponse(@NonNull Call<List<OrderDto>> call,
+                                   @NonNull Response<List<OrderDto>> response) {
                 if (!isAdded())
                     return;
 
@@ -285,7 +288,7 @@ public class HomeFragment extends Fragment {
             }
 
             @Override
-            public void onFailure(@NonNull Call<List<Map<String, Object>>> call,
+            public void onFailure(@NonNull Call<List<OrderDto>> call,
                                   @NonNull Throwable t) {
                 if (!isAdded())
                     return;
@@ -294,40 +297,17 @@ public class HomeFragment extends Fragment {
         });
     }
 
-    private void applyRecentOrders(@NonNull List<Map<String, Object>> raw) {
+    private void applyRecentOrders(@NonNull List<OrderDto> raw) {
         orderItems.clear();
-        for (Map<String, Object> m : raw) {
-            String code = str(m.get("order_id"));
-            if (code == null || code.isEmpty())
-                code = str(m.get("code"));
-            if (code == null)
-                code = "";
-
-            String status = str(m.get("status"));
-            if (status == null)
-                status = "";
-
-            long total = 0;
-            Object totalObj = m.get("total");
-            if (totalObj instanceof Number) {
-                total = ((Number) totalObj).longValue();
-            } else if (totalObj != null) {
-                try {
-                    String s = totalObj.toString().replaceAll("[^0-9]", "");
-                    total = s.isEmpty() ? 0 : Long.parseLong(s);
-                } catch (Exception ignore) {
-                }
-            }
-
-            String time = str(m.get("created_at"));
-            if (time == null)
-                time = str(m.get("time"));
-            if (time == null)
-                time = "";
-
-            orderItems.add(new OrderSummary(code, status, total, time));
+        for (OrderDto o : raw) {
+            if (o == null)
+                continue;
+            String code = o.getId() != null ? o.getId() : "";
+            String status = o.status != null ? o.status : "";
+            String time = o.createdAt != null ? o.createdAt : "";
+            orderItems.add(new OrderSummary(code, status, o.total, time));
         }
-        ordersAdapter.notifyDataSetChanged();
+        ordersAdapter.submitList(orderItems);
     }
 
     // ====================== Menu (nearby / featured) ======================
@@ -338,43 +318,27 @@ public class HomeFragment extends Fragment {
             if (tvLocationStatus != null)
                 tvLocationStatus.setText("Đang tìm cửa hàng gần bạn...");
 
-            menuApi.getNearbyStores(lat, lon)
-                    .enqueue(new Callback<List<Map<String, Object>>>() {
+            // Cache theo ô geohash: GPS rung / mở lại màn hình cùng khu vực không gọi lại API
+            NearbyRepository.getInstance().loadNearbyMenuStores(menuApi, lat, lon,
+                    new NearbyCache.Callback<Map<String, Object>>() {
                         @Override
-                        public void onResponse(
-                                Call<List<Map<String, Object>>> call,
-                                Response<List<Map<String, Object>>> response) {
+                        public void onResult(@NonNull List<Map<String, Object>> data, boolean fromCache) {
                             if (!isAdded())
                                 return;
-
-                            // ✅ KHẮC PHỤC LỖI: Xử lý response.body() == null khi DB trống/lỗi.
-                            if (response.isSuccessful()) {
-                                List<Map<String, Object>> data = response.body();
-                                if (data == null) data = new ArrayList<>(); // Nếu body null, coi là list rỗng.
-
-                                Log.d(TAG, "Nearby OK, count=" + data.size());
-                                if (tvLocationStatus != null) {
-                                    tvLocationStatus.setText(
-                                            "Đã tìm thấy " + data.size() + " địa điểm gần bạn.");
-                                }
-                                applyMenuData(data);
-                            } else {
-                                // Nếu có lỗi HTTP (4xx, 5xx), chuyển sang tải Featured
-                                Log.w(TAG, "Nearby API fail: HTTP " + response.code());
-                                if (tvLocationStatus != null) {
-                                    tvLocationStatus.setText("Lỗi server. Đang tải menu nổi bật...");
-                                }
-                                loadFeaturedItems(menuApi);
+                            Log.d(TAG, "Nearby OK, count=" + data.size() + ", cache=" + fromCache);
+                            if (tvLocationStatus != null) {
+                                tvLocationStatus.setText(
+                                        "Đã tìm thấy " + data.size() + " địa điểm gần bạn.");
                             }
+                            applyMenuData(data);
                         }
 
                         @Override
-                        public void onFailure(
-                                Call<List<Map<String, Object>>> call,
-                                Throwable t) {
+                        public void onError(@NonNull String message) {
                             if (!isAdded())
                                 return;
-                            Log.e(TAG, "Nearby API fail: " + t.getMessage());
+                            // Lỗi HTTP / mạng → chuyển sang tải Featured
+                            Log.w(TAG, "Nearby API fail: " + message);
                             if (tvLocationStatus != null) {
                                 tvLocationStatus.setText("Lỗi mạng/server. Đang tải menu nổi bật...");
                             }
@@ -484,7 +448,7 @@ public class HomeFragment extends Fragment {
 
             menuItems.add(new MenuItem(id, title, desc, price, null));
         }
-        menuAdapter.notifyDataSetChanged();
+        menuAdapter.submitList(menuItems);
     }
 
     private void placeTestOrder() {
@@ -493,8 +457,4 @@ public class HomeFragment extends Fragment {
                 "Checkout demo (sẽ nối OrdersApi ở bước sau).",
                 Toast.LENGTH_SHORT).show();
     }
-
-    private static String str(Object o) {
-        return o == null ? null : o.toString();
-    }
 }
\ No newline at end of file
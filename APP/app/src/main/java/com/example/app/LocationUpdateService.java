@@ -10,14 +10,22 @@ import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.location.Location;
 import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.IBinder;
-import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.app.ActivityCompat;
 import androidx.core.app.NotificationCompat;
 
+import com.example.app.location.LocationFix;
+import com.example.app.location.LocationUplink;
+import com.example.app.location.SamplingPolicy;
+import com.example.app.location.TrajectoryFilter;
 import com.example.app.network.AuthClient;
 import com.example.app.network.ShipperApi;
 import com.google.android.gms.location.FusedLocationProviderClient;
@@ -25,11 +33,18 @@ import com.google.android.gms.location.LocationCallback;
 import com.google.android.gms.location.LocationRequest;
 import com.google.android.gms.location.LocationResult;
 import com.google.android.gms.location.LocationServices;
+import com.google.android.gms.location.Priority;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
@@ -42,6 +57,26 @@ import retrofit2.Response;
  * - Quyền: ACCESS_FINE_LOCATION/COARSE, (tuỳ) POST_NOTIFICATIONS cho Android
  * 13+
  * - play-services-location dependency.
+ *
+ * Lấy mẫu thích ứng ({@link SamplingPolicy}):
+ * - Màn shipper báo trạng thái (rảnh / tới quán / đang giao) qua ACTION_SET_MODE
+ * - Độ chính xác, chu kỳ, khoảng cách tối thiểu đổi theo trạng thái + vận tốc;
+ *   chỉ đăng ký lại FusedLocation khi cấu hình thực sự đổi
+ * - Fix thô qua {@link TrajectoryFilter} (bỏ fix kém, làm mượt, rút gọn quỹ đạo):
+ *   chỉ điểm mang thông tin mới (góc cua, heartbeat) mới được gửi
+ *
+ * Gửi theo lô ({@link LocationUplink}):
+ * - Điểm được ghi vào ring buffer trên disk, gửi gộp (delta + gzip) theo chu kỳ
+ *   của trạng thái hoặc khi đủ {@link #FLUSH_MAX_PENDING} điểm
+ * - Mất mạng → giữ lại, có mạng gửi bù đúng thứ tự; mỗi chuyến giao log số request
+ *   và byte/điểm
+ *
+ * Luồng:
+ * - Callback vị trí chạy trên HandlerThread "location-worker" (không chạm main thread);
+ *   policy / filter / notification chỉ được dùng trên thread này
+ * - Disk + mạng của uplink chạy trên thread I/O riêng của {@link LocationUplink}
+ * - Notification dùng lại 1 Builder (PendingIntent tạo 1 lần), cập nhật tối đa
+ *   mỗi {@link #NOTI_MIN_INTERVAL_MS} và chỉ khi nội dung đổi
  */
 public class LocationUpdateService extends Service {
 
@@ -50,21 +85,46 @@ public class LocationUpdateService extends Service {
     public static final String ACTION_STOP = "com.example.app.ACTION_STOP_LOCATION";
     // Public action to start the service
     public static final String ACTION_START = "com.example.app.ACTION_START_LOCATION";
-    // Extra to override push interval (ms)
-    public static final String EXTRA_INTERVAL_MS = "com.example.app.EXTRA_INTERVAL_MS";
-
-    // Interval cấu hình (ms)
-    private static final long LOCATION_INTERVAL_MS = TimeUnit.SECONDS.toMillis(20);
-    private static final long LOCATION_FASTEST_MS = TimeUnit.SECONDS.toMillis(10);
-
-    // Throttle gửi API
-    private static final long API_MIN_INTERVAL_MS = TimeUnit.SECONDS.toMillis(10);
+    // Báo trạng thái shipper cho service đang chạy
+    public static final String ACTION_SET_MODE = "com.example.app.ACTION_SET_LOCATION_MODE";
+    // Tên SamplingPolicy.Mode (IDLE | TO_RESTAURANT | DELIVERING)
+    public static final String EXTRA_MODE = "com.example.app.EXTRA_LOCATION_MODE";
+
+    private static final String TAG = "LocationUpdateService";
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+    // ~4 giờ giao liên tục với nhịp 5s; file cố định ~60KB
+    private static final int BUFFER_CAPACITY = 3000;
+    private static final int FLUSH_MAX_PENDING = 10;
+    private static final long NOTI_MIN_INTERVAL_MS = TimeUnit.SECONDS.toMillis(30);
 
     private FusedLocationProviderClient fusedClient;
     private LocationCallback locationCallback;
 
+    private HandlerThread worker;
+    private Handler workerHandler;
+    // onDestroy đã chạy: worker không đăng ký lại FusedLocation nữa
+    private volatile boolean destroyed;
+
+    // Notification: Builder dựng 1 lần, chỉ dùng trên worker sau onCreate
+    private NotificationManager notificationManager;
+    private NotificationCompat.Builder notificationBuilder;
+    private long lastNotifiedAt;
+    @Nullable
+    private String lastNotifiedText;
+
     private ShipperApi shipperApi;
-    private long lastApiSentAt = 0L;
+
+    private final SamplingPolicy policy = new SamplingPolicy();
+    private final TrajectoryFilter filter = new TrajectoryFilter();
+    // Cấu hình đang đăng ký với FusedLocation (null = chưa đăng ký)
+    @Nullable
+    private SamplingPolicy.Profile activeProfile;
+
+    @Nullable
+    private LocationUplink uplink;
+    // Số liệu uplink lúc bắt đầu chuyến giao hiện tại (null = không đang giao)
+    @Nullable
+    private LocationUplink.Stats deliveryBase;
 
     @Override
     public void onCreate() {
@@ -72,24 +132,45 @@ public class LocationUpdateService extends Service {
 
         shipperApi = new AuthClient(this).getRetrofit().create(ShipperApi.class);
         fusedClient = LocationServices.getFusedLocationProviderClient(this);
-
+        notificationManager = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
         ensureChannel();
+        notificationBuilder = createNotificationBuilder();
         startForeground(NOTI_ID, buildNotification(null));
 
+        worker = new HandlerThread("location-worker", Process.THREAD_PRIORITY_BACKGROUND);
+        worker.start();
+        workerHandler = new Handler(worker.getLooper());
+
+        // Chạy trên worker (looper truyền vào requestLocationUpdates)
         locationCallback = new LocationCallback() {
             @Override
             public void onLocationResult(@NonNull LocationResult result) {
+                if (destroyed)
+                    return;
                 Location loc = result.getLastLocation();
                 if (loc != null) {
+                    double speed = loc.hasSpeed() ? loc.getSpeed() : Double.NaN;
+                    if (policy.onFix(loc.getLatitude(), loc.getLongitude(), speed, loc.getTime()))
+                        requestLocationUpdates();
                     maybeSendLocation(loc);
-                    Notification n = buildNotification(loc);
-                    NotificationManager nm = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
-                    nm.notify(NOTI_ID, n);
+                    maybeUpdateNotification(loc);
                 }
             }
         };
 
-        requestLocationUpdates();
+        workerHandler.post(() -> {
+            openUplink();
+            requestLocationUpdates();
+        });
+    }
+
+    private void openUplink() {
+        try {
+            uplink = LocationUplink.open(new File(getFilesDir(), "location/uplink.buf"),
+                    BUFFER_CAPACITY, this::sendBatch);
+        } catch (IOException e) {
+            Log.e(TAG, "Không mở được buffer vị trí", e);
+        }
     }
 
     @Override
@@ -98,13 +179,28 @@ public class LocationUpdateService extends Service {
             stopSelfSafely();
             return START_NOT_STICKY;
         }
+        if (intent != null && intent.hasExtra(EXTRA_MODE)) {
+            String mode = intent.getStringExtra(EXTRA_MODE);
+            workerHandler.post(() -> applyMode(mode));
+        }
         return START_STICKY;
     }
 
     @Override
     public void onDestroy() {
         super.onDestroy();
-        stopLocationUpdates();
+        destroyed = true;
+        // Huỷ đăng ký trên worker (cùng thread với onLocationResult → không đăng ký lại sau đó),
+        // gửi nốt điểm đang giữ rồi dừng worker (quitSafely chạy hết việc đã post)
+        workerHandler.post(() -> {
+            stopLocationUpdates();
+            sendAll(filter.flush());
+            if (uplink != null) {
+                uplink.close();
+                uplink = null;
+            }
+        });
+        worker.quitSafely();
     }
 
     @Nullable
@@ -115,31 +211,84 @@ public class LocationUpdateService extends Service {
 
     // ========== Location ==========
 
+    private void applyMode(@Nullable String name) {
+        SamplingPolicy.Mode mode;
+        try {
+            mode = SamplingPolicy.Mode.valueOf(name);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return;
+        }
+        SamplingPolicy.Mode previous = policy.mode();
+        if (policy.setMode(mode))
+            requestLocationUpdates();
+        if (mode != previous)
+            onModeChanged(previous, mode);
+    }
+
+    private void onModeChanged(@NonNull SamplingPolicy.Mode from, @NonNull SamplingPolicy.Mode to) {
+        // Đổi việc (lấy hàng / giao xong) → đẩy ngay điểm đang chờ
+        sendAll(filter.flush());
+        if (uplink == null)
+            return;
+        uplink.flushNow();
+        if (to == SamplingPolicy.Mode.DELIVERING) {
+            deliveryBase = uplink.stats();
+        } else if (from == SamplingPolicy.Mode.DELIVERING && deliveryBase != null) {
+            Log.i(TAG, "Chuyến giao: " + uplink.stats().minus(deliveryBase) + " | lọc: " + filter.stats());
+            deliveryBase = null;
+        }
+    }
+
+    /** Đăng ký (lại) theo cấu hình hiện tại của policy; bỏ qua nếu không đổi. */
     private void requestLocationUpdates() {
+        if (destroyed)
+            return;
         if (!hasLocationPermission()) {
             stopSelfSafely();
             return;
         }
 
-        LocationRequest req = new LocationRequest.Builder(LOCATION_INTERVAL_MS)
-                .setMinUpdateIntervalMillis(LOCATION_FASTEST_MS)
-                .setPriority(LocationRequest.PRIORITY_HIGH_ACCURACY)
+        SamplingPolicy.Profile profile = policy.current();
+        if (profile.equals(activeProfile))
+            return;
+
+        LocationRequest req = new LocationRequest.Builder(profile.intervalMs)
+                .setMinUpdateIntervalMillis(profile.fastestMs)
+                .setMinUpdateDistanceMeters(profile.minDistanceM)
+                .setPriority(priorityOf(profile.accuracy))
                 .build();
 
         try {
+            // Cùng callback → FusedLocation thay request cũ, không cần remove trước
             fusedClient.requestLocationUpdates(
                     req,
                     locationCallback,
-                    Looper.getMainLooper());
+                    worker.getLooper());
+            activeProfile = profile;
+            filter.configure(profile.toleranceM, profile.heartbeatMs);
+            if (uplink != null)
+                uplink.setFlushPolicy(profile.flushDelayMs, FLUSH_MAX_PENDING);
         } catch (SecurityException se) {
             stopSelfSafely();
         }
     }
 
+    private static int priorityOf(@NonNull SamplingPolicy.Accuracy accuracy) {
+        switch (accuracy) {
+            case HIGH:
+                return Priority.PRIORITY_HIGH_ACCURACY;
+            case LOW_POWER:
+                return Priority.PRIORITY_LOW_POWER;
+            default:
+                return Priority.PRIORITY_BALANCED_POWER_ACCURACY;
+        }
+    }
+
     private void stopLocationUpdates() {
         if (fusedClient != null && locationCallback != null) {
             fusedClient.removeLocationUpdates(locationCallback);
         }
+        activeProfile = null;
     }
 
     private boolean hasLocationPermission() {
@@ -150,17 +299,28 @@ public class LocationUpdateService extends Service {
     }
 
     private void maybeSendLocation(@NonNull Location loc) {
-        long now = System.currentTimeMillis();
-        if (now - lastApiSentAt < API_MIN_INTERVAL_MS)
+        LocationFix fix = new LocationFix(loc.getTime(), loc.getLatitude(), loc.getLongitude(),
+                loc.hasAccuracy() ? loc.getAccuracy() : Float.NaN);
+        sendAll(filter.offer(fix));
+    }
+
+    private void sendAll(@NonNull List<LocationFix> points) {
+        for (LocationFix p : points)
+            send(p);
+    }
+
+    private void send(@NonNull LocationFix p) {
+        if (uplink != null) {
+            uplink.offer(p);
             return;
+        }
 
+        // Không mở được buffer: gửi lẻ từng điểm như cũ
         Map<String, Object> body = new HashMap<>();
-        body.put("lat", loc.getLatitude());
-        body.put("lng", loc.getLongitude());
-        if (loc.hasAccuracy())
-            body.put("accuracy", loc.getAccuracy());
-
-        lastApiSentAt = now;
+        body.put("lat", p.lat);
+        body.put("lng", p.lng);
+        if (p.hasAccuracy())
+            body.put("accuracy", p.accuracyM);
 
         shipperApi.updateLocation(body).enqueue(new Callback<Map<String, Object>>() {
             @Override
@@ -177,6 +337,19 @@ public class LocationUpdateService extends Service {
         });
     }
 
+    /** Transport của uplink: chạy trên thread "location-uplink" nên gọi đồng bộ. */
+    private boolean sendBatch(@NonNull byte[] gzipBody, int fixCount) throws IOException {
+        Response<Map<String, Object>> response = shipperApi
+                .uploadLocationBatch(RequestBody.create(gzipBody, JSON))
+                .execute();
+        if (response.code() == 400) {
+            // Server không đọc được lô này: bỏ đi để không chặn các lô sau
+            Log.w(TAG, "Batch bị từ chối (" + fixCount + " điểm)");
+            return true;
+        }
+        return response.isSuccessful();
+    }
+
     // ========== Notification ==========
 
     private void ensureChannel() {
@@ -186,21 +359,36 @@ public class LocationUpdateService extends Service {
                     "Theo dõi vị trí Shipper",
                     NotificationManager.IMPORTANCE_LOW);
             ch.setDescription("Cập nhật vị trí thời gian thực để giao hàng");
-            NotificationManager nm = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
-            nm.createNotificationChannel(ch);
+            notificationManager.createNotificationChannel(ch);
         }
     }
 
-    private Notification buildNotification(@Nullable Location last) {
-        String content = "Đang cập nhật vị trí giao hàng…";
-        if (last != null) {
-            content = String.format(
-                    "Vị trí: %.5f, %.5f (±%.0fm)",
-                    last.getLatitude(),
-                    last.getLongitude(),
-                    last.hasAccuracy() ? last.getAccuracy() : 0f);
-        }
+    /** Cập nhật nội dung notification, tối đa mỗi NOTI_MIN_INTERVAL_MS (chạy trên worker). */
+    private void maybeUpdateNotification(@NonNull Location loc) {
+        long now = SystemClock.elapsedRealtime();
+        if (lastNotifiedText != null && now - lastNotifiedAt < NOTI_MIN_INTERVAL_MS)
+            return;
+        String content = String.format(Locale.US,
+                "Vị trí: %.5f, %.5f (±%.0fm)",
+                loc.getLatitude(),
+                loc.getLongitude(),
+                loc.hasAccuracy() ? loc.getAccuracy() : 0f);
+        if (content.equals(lastNotifiedText))
+            return;
+        lastNotifiedAt = now;
+        lastNotifiedText = content;
+        notificationManager.notify(NOTI_ID, buildNotification(content));
+    }
 
+    private Notification buildNotification(@Nullable String content) {
+        String text = content != null ? content : "Đang cập nhật vị trí giao hàng…";
+        return notificationBuilder
+                .setContentText(text)
+                .setStyle(new NotificationCompat.BigTextStyle().bigText(text))
+                .build();
+    }
+
+    private NotificationCompat.Builder createNotificationBuilder() {
         Intent openIntent = new Intent(this, MainActivity.class);
         PendingIntent openPI = PendingIntent.getActivity(
                 this, 1001, openIntent,
@@ -219,8 +407,6 @@ public class LocationUpdateService extends Service {
         return new NotificationCompat.Builder(this, NOTI_CHANNEL_ID)
                 .setSmallIcon(android.R.drawable.ic_menu_mylocation)
                 .setContentTitle("Đang theo dõi vị trí")
-                .setContentText(content)
-                .setStyle(new NotificationCompat.BigTextStyle().bigText(content))
                 .setContentIntent(openPI)
                 .setOngoing(true)
                 .setOnlyAlertOnce(true)
@@ -228,8 +414,7 @@ public class LocationUpdateService extends Service {
                         android.R.drawable.ic_delete,
                         "Dừng",
                         stopPI))
-                .setPriority(NotificationCompat.PRIORITY_LOW)
-                .build();
+                .setPriority(NotificationCompat.PRIORITY_LOW);
     }
 
     private void stopSelfSafely() {
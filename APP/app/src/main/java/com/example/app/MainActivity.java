@@ -22,8 +22,11 @@ import androidx.navigation.ui.AppBarConfiguration;
 import androidx.navigation.ui.NavigationUI;
 
 import com.example.app.auth.AuthEvents;
+import com.example.app.data.CartRepository;
+import com.example.app.data.RestaurantRepository;
 import com.example.app.ui.AuthLoginActivity;
 import com.example.app.network.AuthClient;
+import com.example.app.network.HttpEngine;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.snackbar.Snackbar;
@@ -66,6 +69,12 @@ public class MainActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
+        // Bật disk cache HTTP trước khi bất kỳ Retrofit facade nào được tạo
+        HttpEngine.init(this);
+        // Khôi phục giỏ hàng đã lưu (đọc SQLite trên thread nền)
+        CartRepository.getInstance().init(this);
+        RestaurantRepository.getInstance().init(this);
+
         authClient = new AuthClient(this);
 
         if (!authClient.isSignedIn()) {
@@ -221,6 +230,8 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onStop() {
         super.onStop();
+        // App xuống nền → ghi ngay giỏ hàng đang chờ write-behind
+        CartRepository.getInstance().flush();
         if (authReceiverRegistered) {
             try {
                 unregisterReceiver(authClearedReceiver);
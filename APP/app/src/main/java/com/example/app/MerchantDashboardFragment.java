@@ -13,6 +13,7 @@ import androidx.core.view.ViewCompat;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
 import com.example.app.adapters.MerchantOrdersAdapter;
+import com.example.app.model.OrderDto;
 import com.example.app.databinding.FragmentMerchantDashboardBinding;
 import com.example.app.network.AuthClient;
 import com.example.app.network.MerchantApi;
@@ -48,9 +49,9 @@ public class MerchantDashboardFragment extends Fragment {
 
     private MerchantApi merchantApi;
 
-    private final List<Map<String, Object>> listPending = new ArrayList<>();
-    private final List<Map<String, Object>> listPreparing = new ArrayList<>();
-    private final List<Map<String, Object>> listReady = new ArrayList<>();
+    private final List<OrderDto> listPending = new ArrayList<>();
+    private final List<OrderDto> listPreparing = new ArrayList<>();
+    private final List<OrderDto> listReady = new ArrayList<>();
 
     private MerchantOrdersAdapter adapterPending;
     private MerchantOrdersAdapter adapterPreparing;
@@ -186,21 +187,21 @@ public class MerchantDashboardFragment extends Fragment {
 
     private void fetchOrders(
             @NonNull String status,
-            @NonNull List<Map<String, Object>> target,
+            @NonNull List<OrderDto> target,
             @NonNull MerchantOrdersAdapter adapter) {
         merchantApi.getMerchantOrders(status)
-                .enqueue(new Callback<List<Map<String, Object>>>() {
+                .enqueue(new Callback<List<OrderDto>>() {
                     @Override
                     public void onResponse(
-                            @NonNull Call<List<Map<String, Object>>> call,
-                            @NonNull Response<List<Map<String, Object>>> response) {
+                            @NonNull Call<List<OrderDto>> call,
+                            @NonNull Response<List<OrderDto>> response) {
                         if (!isAdded())
                             return;
 
                         if (response.isSuccessful() && response.body() != null) {
                             target.clear();
                             target.addAll(response.body());
-                            adapter.notifyDataSetChanged();
+                            adapter.submitOrders(target);
 
                         } else {
                             // Fallback: không clear để user vẫn xem data cũ
@@ -212,7 +213,7 @@ public class MerchantDashboardFragment extends Fragment {
 
                     @Override
                     public void onFailure(
-                            @NonNull Call<List<Map<String, Object>>> call,
+                            @NonNull Call<List<OrderDto>> call,
                             @NonNull Throwable t) {
                         if (!isAdded())
                             return;
@@ -236,18 +237,18 @@ public class MerchantDashboardFragment extends Fragment {
     private MerchantOrdersAdapter.Listener callbacks(@NonNull String bucket) {
         return new MerchantOrdersAdapter.Listener() {
             @Override
-            public void onAccept(@NonNull Map<String, Object> order, int position) {
+            public void onAccept(@NonNull OrderDto order, int position) {
                 updateStatus(order, "preparing", () -> {
                     // ✅ FIX: refreshAll() đã được gọi trong updateStatus, không cần di chuyển thủ công
                     // Chỉ cần chuyển tab để user thấy order mới
-                    String actualStatus = order.get("status") != null ? order.get("status").toString() : "";
+                    String actualStatus = order.status != null ? order.status : "";
                     String targetBucket = mapBackendStatusToBucket(actualStatus);
                     showOnly(targetBucket);
                 });
             }
 
             @Override
-            public void onReject(@NonNull Map<String, Object> order, int position) {
+            public void onReject(@NonNull OrderDto order, int position) {
                 updateStatus(order, "cancelled", () -> {
                     // ✅ FIX: refreshAll() đã được gọi trong updateStatus, order sẽ tự động bị xóa khỏi danh sách
                     // Chỉ cần cập nhật empty state
@@ -256,21 +257,20 @@ public class MerchantDashboardFragment extends Fragment {
             }
 
             @Override
-            public void onReady(@NonNull Map<String, Object> order, int position) {
+            public void onReady(@NonNull OrderDto order, int position) {
                 updateStatus(order, "ready", () -> {
                     // ✅ FIX: refreshAll() đã được gọi trong updateStatus, không cần di chuyển thủ công
                     // Chỉ cần chuyển tab để user thấy order mới
-                    String actualStatus = order.get("status") != null ? order.get("status").toString() : "";
+                    String actualStatus = order.status != null ? order.status : "";
                     String targetBucket = mapBackendStatusToBucket(actualStatus);
                     showOnly(targetBucket);
                 });
             }
 
             @Override
-            public void onItemClick(@NonNull Map<String, Object> order, int position) {
+            public void onItemClick(@NonNull OrderDto order, int position) {
                 // ✅ FIX: Navigate đến OrderDetailFragment để xem chi tiết đơn hàng
-                Object orderIdObj = order.get("order_id");
-                String orderId = orderIdObj != null ? orderIdObj.toString() : null;
+                String orderId = order.id;
                 if (orderId != null) {
                     Bundle args = new Bundle();
                     args.putString("orderId", orderId);
@@ -281,11 +281,8 @@ public class MerchantDashboardFragment extends Fragment {
         };
     }
 
-    private void updateStatus(@NonNull Map<String, Object> order, @NonNull String nextStatus, @NonNull Runnable onOk) {
-        Object orderId = order.get("order_id");
-        if (orderId == null)
-            orderId = order.get("code");
-        String id = orderId != null ? orderId.toString() : null;
+    private void updateStatus(@NonNull OrderDto order, @NonNull String nextStatus, @NonNull Runnable onOk) {
+        String id = order.getId();
         if (TextUtils.isEmpty(id))
             return;
 
@@ -311,7 +308,7 @@ public class MerchantDashboardFragment extends Fragment {
                             String targetBucket = mapBackendStatusToBucket(statusStr);
                             
                             // ✅ FIX: Cập nhật status trong order object với status thực tế từ backend
-                            order.put("status", statusStr);
+                            order.status = statusStr;
                             
                             // ✅ FIX: Di chuyển order sang bucket mới ngay lập tức để UI cập nhật
                             moveOrderToBucket(order, targetBucket);
@@ -340,12 +337,9 @@ public class MerchantDashboardFragment extends Fragment {
     /**
      * Di chuyển order sang bucket mới dựa trên status và cập nhật UI ngay lập tức
      */
-    private void moveOrderToBucket(@NonNull Map<String, Object> order, @NonNull String targetBucket) {
-        Object orderId = order.get("order_id");
-        if (orderId == null) orderId = order.get("code");
-        if (orderId == null) return;
-        
-        String idStr = orderId.toString();
+    private void moveOrderToBucket(@NonNull OrderDto order, @NonNull String targetBucket) {
+        String idStr = order.getId();
+        if (idStr == null) return;
         
         // Tìm và xóa order khỏi bucket cũ
         int oldPosition = -1;
@@ -353,10 +347,8 @@ public class MerchantDashboardFragment extends Fragment {
         
         // Tìm trong listPending
         for (int i = 0; i < listPending.size(); i++) {
-            Map<String, Object> o = listPending.get(i);
-            Object oid = o.get("order_id");
-            if (oid == null) oid = o.get("code");
-            if (oid != null && oid.toString().equals(idStr)) {
+            OrderDto o = listPending.get(i);
+            if (idStr.equals(o.getId())) {
                 oldPosition = i;
                 oldBucket = "pending";
                 break;
@@ -366,10 +358,8 @@ public class MerchantDashboardFragment extends Fragment {
         // Nếu không tìm thấy trong pending, tìm trong preparing
         if (oldPosition == -1) {
             for (int i = 0; i < listPreparing.size(); i++) {
-                Map<String, Object> o = listPreparing.get(i);
-                Object oid = o.get("order_id");
-                if (oid == null) oid = o.get("code");
-                if (oid != null && oid.toString().equals(idStr)) {
+                OrderDto o = listPreparing.get(i);
+                if (idStr.equals(o.getId())) {
                     oldPosition = i;
                     oldBucket = "preparing";
                     break;
@@ -380,10 +370,8 @@ public class MerchantDashboardFragment extends Fragment {
         // Nếu không tìm thấy trong preparing, tìm trong ready
         if (oldPosition == -1) {
             for (int i = 0; i < listReady.size(); i++) {
-                Map<String, Object> o = listReady.get(i);
-                Object oid = o.get("order_id");
-                if (oid == null) oid = o.get("code");
-                if (oid != null && oid.toString().equals(idStr)) {
+                OrderDto o = listReady.get(i);
+                if (idStr.equals(o.getId())) {
                     oldPosition = i;
                     oldBucket = "ready";
                     break;
@@ -393,61 +381,50 @@ public class MerchantDashboardFragment extends Fragment {
         
         // Nếu tìm thấy order trong bucket cũ và bucket mới khác bucket cũ
         if (oldPosition >= 0 && oldBucket != null && !oldBucket.equals(targetBucket)) {
-            // Xóa khỏi bucket cũ
-            switch (oldBucket) {
-                case "pending":
-                    listPending.remove(oldPosition);
-                    adapterPending.notifyItemRemoved(oldPosition);
-                    adapterPending.notifyItemRangeChanged(oldPosition, listPending.size() - oldPosition);
-                    break;
-                case "preparing":
-                    listPreparing.remove(oldPosition);
-                    adapterPreparing.notifyItemRemoved(oldPosition);
-                    adapterPreparing.notifyItemRangeChanged(oldPosition, listPreparing.size() - oldPosition);
-                    break;
-                case "ready":
-                    listReady.remove(oldPosition);
-                    adapterReady.notifyItemRemoved(oldPosition);
-                    adapterReady.notifyItemRangeChanged(oldPosition, listReady.size() - oldPosition);
-                    break;
-            }
-            
-            // Thêm vào bucket mới
-            int newPosition = -1;
-            switch (targetBucket) {
-                case "pending":
-                    listPending.add(order);
-                    newPosition = listPending.size() - 1;
-                    adapterPending.notifyItemInserted(newPosition);
-                    break;
-                case "preparing":
-                    listPreparing.add(order);
-                    newPosition = listPreparing.size() - 1;
-                    adapterPreparing.notifyItemInserted(newPosition);
-                    break;
-                case "ready":
-                    listReady.add(order);
-                    newPosition = listReady.size() - 1;
-                    adapterReady.notifyItemInserted(newPosition);
-                    break;
-            }
-            
+            List<OrderDto> from = bucketList(oldBucket);
+            List<OrderDto> to = bucketList(targetBucket);
+            if (from == null || to == null)
+                return;
+            from.remove(oldPosition);
+            to.add(order);
+            // Diff tự sinh animation xoá / thêm
+            bucketAdapter(oldBucket).submitOrders(from);
+            bucketAdapter(targetBucket).submitOrders(to);
+
             // Cập nhật empty state
             updateEmptyState(oldBucket);
             updateEmptyState(targetBucket);
         } else if (oldPosition >= 0 && oldBucket != null && oldBucket.equals(targetBucket)) {
-            // Nếu order vẫn ở cùng bucket, chỉ cần notify item changed
-            switch (targetBucket) {
-                case "pending":
-                    adapterPending.notifyItemChanged(oldPosition);
-                    break;
-                case "preparing":
-                    adapterPreparing.notifyItemChanged(oldPosition);
-                    break;
-                case "ready":
-                    adapterReady.notifyItemChanged(oldPosition);
-                    break;
-            }
+            // Vẫn ở cùng bucket: status đổi → hash đổi → chỉ dòng đó bind lại
+            bucketAdapter(targetBucket).submitOrders(bucketList(targetBucket));
+        }
+    }
+
+    @Nullable
+    private List<OrderDto> bucketList(@NonNull String bucket) {
+        switch (bucket) {
+            case "pending":
+                return listPending;
+            case "preparing":
+                return listPreparing;
+            case "ready":
+                return listReady;
+            default:
+                return null;
+        }
+    }
+
+    @Nullable
+    private MerchantOrdersAdapter bucketAdapter(@NonNull String bucket) {
+        switch (bucket) {
+            case "pending":
+                return adapterPending;
+            case "preparing":
+                return adapterPreparing;
+            case "ready":
+                return adapterReady;
+            default:
+                return null;
         }
     }
     
@@ -466,18 +443,17 @@ public class MerchantDashboardFragment extends Fragment {
         return "pending"; // Default
     }
 
-    private static void removeAt(List<Map<String, Object>> list, int pos, MerchantOrdersAdapter adp) {
+    private static void removeAt(List<OrderDto> list, int pos, MerchantOrdersAdapter adp) {
         if (pos < 0 || pos >= list.size())
             return;
         list.remove(pos);
-        adp.notifyItemRemoved(pos);
-        adp.notifyItemRangeChanged(pos, Math.max(0, list.size() - pos));
+        adp.submitOrders(list);
     }
 
-    private static void safeMoveItem(List<Map<String, Object>> from, int pos, List<Map<String, Object>> to) {
+    private static void safeMoveItem(List<OrderDto> from, int pos, List<OrderDto> to) {
         if (pos < 0 || pos >= from.size())
             return;
-        Map<String, Object> item = from.remove(pos);
+        OrderDto item = from.remove(pos);
         to.add(item);
     }
 
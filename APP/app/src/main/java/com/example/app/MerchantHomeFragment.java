@@ -13,6 +13,7 @@ import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
 import com.example.app.adapters.MerchantOrdersAdapter;
+import com.example.app.model.OrderDto;
 import com.example.app.databinding.FragmentMerchantHomeBinding;
 import com.example.app.network.AuthClient;
 import com.example.app.network.MerchantApi;
@@ -48,10 +49,10 @@ public class MerchantHomeFragment extends Fragment {
     private MerchantApi merchantApi;
 
     // Buckets
-    private final List<Map<String, Object>> listNew = new ArrayList<>();
-    private final List<Map<String, Object>> listInProgress = new ArrayList<>();
-    private final List<Map<String, Object>> listReady = new ArrayList<>();
-    private final List<Map<String, Object>> listCompleted = new ArrayList<>();
+    private final List<OrderDto> listNew = new ArrayList<>();
+    private final List<OrderDto> listInProgress = new ArrayList<>();
+    private final List<OrderDto> listReady = new ArrayList<>();
+    private final List<OrderDto> listCompleted = new ArrayList<>();
 
     // Adapters
     private MerchantOrdersAdapter adpNew;
@@ -224,21 +225,21 @@ public class MerchantHomeFragment extends Fragment {
 
     private void fetchBucket(
             @NonNull String status,
-            @NonNull List<Map<String, Object>> target,
+            @NonNull List<OrderDto> target,
             @NonNull MerchantOrdersAdapter adapter) {
 
-        merchantApi.getMerchantOrders(status).enqueue(new Callback<List<Map<String, Object>>>() {
+        merchantApi.getMerchantOrders(status).enqueue(new Callback<List<OrderDto>>() {
             @Override
             public void onResponse(
-                    @NonNull Call<List<Map<String, Object>>> call,
-                    @NonNull Response<List<Map<String, Object>>> response) {
+                    @NonNull Call<List<OrderDto>> call,
+                    @NonNull Response<List<OrderDto>> response) {
                 if (!isAdded())
                     return;
 
                 if (response.isSuccessful() && response.body() != null) {
                     target.clear();
                     target.addAll(response.body());
-                    adapter.notifyDataSetChanged();
+                    adapter.submitOrders(target);
                 } else {
                     showErrorSnack("Không tải được danh sách (" + status + ").",
                             () -> fetchBucket(status, target, adapter));
@@ -249,7 +250,7 @@ public class MerchantHomeFragment extends Fragment {
 
             @Override
             public void onFailure(
-                    @NonNull Call<List<Map<String, Object>>> call,
+                    @NonNull Call<List<OrderDto>> call,
                     @NonNull Throwable t) {
                 if (!isAdded())
                     return;
@@ -271,7 +272,7 @@ public class MerchantHomeFragment extends Fragment {
     private MerchantOrdersAdapter.Listener callbacks(@NonNull String bucket) {
         return new MerchantOrdersAdapter.Listener() {
             @Override
-            public void onAccept(@NonNull Map<String, Object> order, int position) {
+            public void onAccept(@NonNull OrderDto order, int position) {
                 // Accept = chuyển sang preparing
                 String id = extractId(order);
                 if (TextUtils.isEmpty(id))
@@ -290,8 +291,8 @@ public class MerchantHomeFragment extends Fragment {
                         if (response.isSuccessful()) {
                             if ("new".equals(bucket)) {
                                 moveItem(listNew, position, listInProgress);
-                                adpNew.notifyItemRemoved(position);
-                                adpInProgress.notifyItemInserted(listInProgress.size() - 1);
+                                adpNew.submitOrders(listNew);
+                                adpInProgress.submitOrders(listInProgress);
                                 showOnly("in_progress");
                             }
                         } else {
@@ -312,7 +313,7 @@ public class MerchantHomeFragment extends Fragment {
             }
 
             @Override
-            public void onReady(@NonNull Map<String, Object> order, int position) {
+            public void onReady(@NonNull OrderDto order, int position) {
                 // Mark ready = chuyển sang tab "Sẵn sàng" (READY)
                 String id = extractId(order);
                 if (TextUtils.isEmpty(id))
@@ -332,8 +333,8 @@ public class MerchantHomeFragment extends Fragment {
                             if ("in_progress".equals(bucket)) {
                                 // Chuyển đơn sang tab "Sẵn sàng" (READY)
                                 moveItem(listInProgress, position, listReady);
-                                adpInProgress.notifyItemRemoved(position);
-                                adpReady.notifyItemInserted(listReady.size() - 1);
+                                adpInProgress.submitOrders(listInProgress);
+                                adpReady.submitOrders(listReady);
                                 showOnly("ready");
                             }
                         } else {
@@ -355,7 +356,7 @@ public class MerchantHomeFragment extends Fragment {
             }
 
             @Override
-            public void onComplete(@NonNull Map<String, Object> order, int position) {
+            public void onComplete(@NonNull OrderDto order, int position) {
                 // Complete = chuyển sang DELIVERED (hoàn tất)
                 String id = extractId(order);
                 if (TextUtils.isEmpty(id))
@@ -406,7 +407,7 @@ public class MerchantHomeFragment extends Fragment {
             }
 
             @Override
-            public void onReject(@NonNull Map<String, Object> order, int position) {
+            public void onReject(@NonNull OrderDto order, int position) {
                 // Reject/Cancel
                 String id = extractId(order);
                 if (TextUtils.isEmpty(id))
@@ -443,10 +444,9 @@ public class MerchantHomeFragment extends Fragment {
             }
 
             @Override
-            public void onItemClick(@NonNull Map<String, Object> order, int position) {
+            public void onItemClick(@NonNull OrderDto order, int position) {
                 // ✅ FIX: Navigate đến OrderDetailFragment để xem chi tiết đơn hàng
-                Object orderIdObj = order.get("order_id");
-                String orderId = orderIdObj != null ? orderIdObj.toString() : null;
+                String orderId = order.id;
                 if (orderId != null) {
                     Bundle args = new Bundle();
                     args.putString("orderId", orderId);
@@ -459,44 +459,40 @@ public class MerchantHomeFragment extends Fragment {
 
     // ================= Helpers =================
 
-    private static void moveItem(List<Map<String, Object>> from, int pos, List<Map<String, Object>> to) {
+    private static void moveItem(List<OrderDto> from, int pos, List<OrderDto> to) {
         if (pos < 0 || pos >= from.size())
             return;
-        Map<String, Object> item = from.remove(pos);
+        OrderDto item = from.remove(pos);
         to.add(item);
     }
 
     private void removeAt(@NonNull String bucket, int pos) {
         switch (bucket) {
             case "new":
-                removeAndNotify(listNew, pos, adpNew);
+                removeAndSubmit(listNew, pos, adpNew);
                 break;
             case "in_progress":
-                removeAndNotify(listInProgress, pos, adpInProgress);
+                removeAndSubmit(listInProgress, pos, adpInProgress);
                 break;
             case "ready":
-                removeAndNotify(listReady, pos, adpReady);
+                removeAndSubmit(listReady, pos, adpReady);
                 break;
             case "completed":
-                removeAndNotify(listCompleted, pos, adpCompleted);
+                removeAndSubmit(listCompleted, pos, adpCompleted);
                 break;
         }
     }
 
-    private static void removeAndNotify(List<Map<String, Object>> list, int pos, MerchantOrdersAdapter adp) {
+    private static void removeAndSubmit(List<OrderDto> list, int pos, MerchantOrdersAdapter adp) {
         if (pos < 0 || pos >= list.size())
             return;
         list.remove(pos);
-        adp.notifyItemRemoved(pos);
-        adp.notifyItemRangeChanged(pos, Math.max(0, list.size() - pos));
+        adp.submitOrders(list);
     }
 
     @Nullable
-    private static String extractId(@NonNull Map<String, Object> order) {
-        Object id = order.get("order_id");
-        if (id == null)
-            id = order.get("code");
-        return id != null ? id.toString() : null;
+    private static String extractId(@NonNull OrderDto order) {
+        return order.getId();
     }
 
     private void showErrorSnack(@NonNull String msg, @Nullable Runnable action) {
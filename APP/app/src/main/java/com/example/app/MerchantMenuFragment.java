@@ -23,6 +23,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.example.app.adapters.MerchantMenuAdapter;
+import com.example.app.data.RestaurantRepository;
 import com.example.app.databinding.FragmentMerchantMenuBinding;
 import com.example.app.network.AuthClient;
 import com.example.app.network.MerchantApi;
@@ -113,7 +114,7 @@ public class MerchantMenuFragment extends Fragment {
                 if (response.isSuccessful() && response.body() != null) {
                     menuItems.clear();
                     menuItems.addAll(response.body());
-                    adapter.notifyDataSetChanged();
+                    adapter.submitList(menuItems);
                     updateEmptyState();
                 } else {
                     showError("Không tải được danh sách món ăn");
@@ -331,6 +332,12 @@ public class MerchantMenuFragment extends Fragment {
                 .show();
     }
 
+    /** Menu vừa đổi trên server → bỏ cache menu phía khách rồi tải lại */
+    private void onMenuChanged() {
+        RestaurantRepository.getInstance().invalidateMenus();
+        loadMenu();
+    }
+
     private void addMenuItem(Map<String, Object> body) {
         merchantApi.addMenuItem(body).enqueue(new Callback<Map<String, Object>>() {
             @Override
@@ -339,7 +346,7 @@ public class MerchantMenuFragment extends Fragment {
                 if (!isAdded()) return;
                 if (response.isSuccessful()) {
                     Toast.makeText(requireContext(), "Thêm món thành công", Toast.LENGTH_SHORT).show();
-                    loadMenu();
+                    onMenuChanged();
                 } else {
                     // ✅ FIX: Hiển thị lỗi chi tiết từ backend
                     String errorMsg = "Thêm món thất bại";
@@ -376,7 +383,7 @@ public class MerchantMenuFragment extends Fragment {
                 if (!isAdded()) return;
                 if (response.isSuccessful()) {
                     Toast.makeText(requireContext(), "Cập nhật thành công", Toast.LENGTH_SHORT).show();
-                    loadMenu();
+                    onMenuChanged();
                 } else {
                     showError("Cập nhật thất bại");
                 }
@@ -398,7 +405,7 @@ public class MerchantMenuFragment extends Fragment {
                 if (!isAdded()) return;
                 if (response.isSuccessful()) {
                     Toast.makeText(requireContext(), "Xóa thành công", Toast.LENGTH_SHORT).show();
-                    loadMenu();
+                    onMenuChanged();
                 } else {
                     showError("Xóa thất bại");
                 }
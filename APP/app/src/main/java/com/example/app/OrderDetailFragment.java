@@ -4,6 +4,7 @@ import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.provider.MediaStore;
 import android.util.Log;
 import android.view.LayoutInflater;
@@ -18,16 +19,21 @@ import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 import androidx.core.content.FileProvider;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.LifecycleOwner;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
 import java.io.File;
 
 import com.example.app.adapters.OrderHistoryAdapter;
 import com.example.app.adapters.OrderItemAdapter;
+import com.example.app.auth.SessionStore;
 import com.example.app.databinding.FragmentOrderDetailBinding;
-import com.example.app.network.BackendConfig;
-import com.example.app.network.OrderTracker;
+import com.example.app.location.LocationFix;
+import com.example.app.location.PositionInterpolator;
 import com.example.app.network.OrdersClient;
+import com.example.app.network.RealtimeHub;
+
+import org.json.JSONObject;
 
 import java.text.NumberFormat;
 import java.util.ArrayList;
@@ -41,16 +47,14 @@ import retrofit2.Response;
 
 public class OrderDetailFragment extends Fragment {
     private FragmentOrderDetailBinding binding;
-    private OrderTracker tracker;
-    private String backendBase;
     private Double lastShipperLat = null;
     private Double lastShipperLng = null;
     private String deliveryAddress = null; // Địa chỉ giao hàng cho shipper
 
-    // Throttle UI update cho vị trí shipper
+    // Vị trí shipper hiển thị = nội suy/ngoại suy giữa các fix, vẽ lại 1s/lần khi còn thay đổi
     private static final long MIN_LOC_UPDATE_INTERVAL_MS = 1000L; // 1s/lần
-    private long lastLocUiUpdateMs = 0L;
-    private String lastShipperUiText = null;
+    private final PositionInterpolator shipperPosition = new PositionInterpolator();
+    private final Runnable shipperTicker = this::renderShipperPosition;
     
     // ✅ FIX: Chuyển thành instance variables để có thể truy cập từ updateOrderInfo
     private List<Map<String, Object>> itemsList;
@@ -76,9 +80,6 @@ public class OrderDetailFragment extends Fragment {
 
         ordersClient = new OrdersClient(requireContext());
 
-        // Lấy base ROOT (không có /api) cho OrderTracker (socket)
-        backendBase = BackendConfig.getRetrofitRoot(requireContext()).baseUrl().toString();
-
         currentOrderId = null;
         if (getArguments() != null) {
             currentOrderId = getArguments().getString("orderId");
@@ -92,14 +93,13 @@ public class OrderDetailFragment extends Fragment {
         
         final String orderId = currentOrderId; // Final reference for lambda
 
-        // ===== Kết nối realtime =====
-        tracker = new OrderTracker(requireContext(), backendBase);
-        tracker.setAuthToken(BackendConfig.getAccessToken(requireContext()));
-        tracker.connect();
-        tracker.joinOrder(orderId);
+        // ===== Kết nối realtime (socket dùng chung, tự leave room khi view bị destroy) =====
+        RealtimeHub hub = RealtimeHub.get(requireContext());
+        LifecycleOwner viewOwner = getViewLifecycleOwner();
+        hub.joinOrder(viewOwner, orderId);
 
         // ✅ FIX: Nhận cập nhật trạng thái đơn từ merchant (statusUpdate event)
-        tracker.on("statusUpdate", args -> {
+        hub.subscribe(viewOwner, RealtimeHub.EVENT_STATUS_UPDATE, args -> {
             if (args != null && args.length > 0) {
                 Object o = args[0];
                 try {
@@ -115,7 +115,7 @@ public class OrderDetailFragment extends Fragment {
                                 if (status != null) {
                                     applyStatus(requireContext(), status.toString());
                                     // Refresh lại order để lấy thông tin mới nhất (bao gồm shipper)
-                                    final String currentUserRole = new com.example.app.network.AuthClient(requireContext()).getRole();
+                                    final String currentUserRole = SessionStore.get(requireContext()).role();
                                     ordersClient.getOrder(orderId, new Callback<Map<String, Object>>() {
                                         @Override
                                         public void onResponse(Call<Map<String, Object>> call, Response<Map<String, Object>> response) {
@@ -141,7 +141,7 @@ public class OrderDetailFragment extends Fragment {
         });
         
         // Nhận cập nhật trạng thái đơn (orderUpdate event - tương thích)
-        tracker.onOrderUpdate(args -> {
+        hub.subscribe(viewOwner, RealtimeHub.EVENT_ORDER_UPDATE_LEGACY, args -> {
             if (args != null && args.length > 0) {
                 Object o = args[0];
                 try {
@@ -170,43 +170,25 @@ public class OrderDetailFragment extends Fragment {
             }
         });
 
-        // Nhận vị trí shipper (có throttle UI)
-        tracker.onShipperLocation(args -> {
-            if (args != null && args.length > 0) {
-                Object payload = args[0];
-                try {
-                    String txt = payload.toString();
-                    try {
-                        if (payload instanceof Map) {
-                            Object lat = ((Map<?, ?>) payload).get("lat");
-                            Object lng = ((Map<?, ?>) payload).get("lng");
-                            if (lat != null && lng != null) {
-                                lastShipperLat = Double.parseDouble(lat.toString());
-                                lastShipperLng = Double.parseDouble(lng.toString());
-                            }
-                        }
-                    } catch (Exception ignored) {
-                    }
-
-                    long now = System.currentTimeMillis();
-                    boolean contentChanged = (lastShipperUiText == null) || !txt.equals(lastShipperUiText);
-                    if (contentChanged || (now - lastLocUiUpdateMs) >= MIN_LOC_UPDATE_INTERVAL_MS) {
-                        lastShipperUiText = txt;
-                        lastLocUiUpdateMs = now;
+        // Replay không lấp được khoảng mất kết nối (server restart / log đã bị đè) → tải lại đơn
+        hub.subscribe(viewOwner, RealtimeHub.EVENT_RESYNC, args -> {
+            if (!isAdded())
+                return;
+            requireActivity().runOnUiThread(() -> {
+                if (binding != null)
+                    loadOrderDetail(orderId, SessionStore.get(requireContext()).role());
+            });
+        });
 
-                        if (!isAdded())
-                            return;
-                        final String finalTxt = txt;
-                        requireActivity().runOnUiThread(() -> {
-                            if (binding != null) {
-                                binding.tvShipper.setText(getString(R.string.shipper_label) + " " + finalTxt);
-                            }
-                        });
-                    }
-                } catch (Exception e) {
-                    Log.e("OrderDetail", "shipper loc parse", e);
-                }
-            }
+        // Nhận vị trí shipper: parse trên thread socket, UI nội suy giữa các fix
+        hub.subscribe(viewOwner, RealtimeHub.EVENT_SHIPPER_LOCATION, args -> {
+            if (args == null || args.length == 0)
+                return;
+            long arrival = SystemClock.elapsedRealtime();
+            double[] fix = parseFix(args[0]);
+            if (fix == null || !isAdded())
+                return;
+            requireActivity().runOnUiThread(() -> onShipperFix(fix[0], fix[1], (long) fix[2], arrival));
         });
 
         // Chuẩn bị adapters
@@ -225,7 +207,7 @@ public class OrderDetailFragment extends Fragment {
         
         // ✅ FIX: Set click listener cho nút "Nhận đơn"
         binding.btnAcceptOrder.setOnClickListener(v -> {
-            final String userRole = new com.example.app.network.AuthClient(requireContext()).getRole();
+            final String userRole = SessionStore.get(requireContext()).role();
             if ("SHIPPER".equalsIgnoreCase(userRole)) {
                 acceptOrder();
             }
@@ -233,7 +215,7 @@ public class OrderDetailFragment extends Fragment {
         
         // ✅ FIX: Set click listener cho nút "Xác nhận đã giao" (chụp ảnh)
         binding.btnConfirmDelivered.setOnClickListener(v -> {
-            final String userRole = new com.example.app.network.AuthClient(requireContext()).getRole();
+            final String userRole = SessionStore.get(requireContext()).role();
             if ("SHIPPER".equalsIgnoreCase(userRole)) {
                 takePhotoForDelivery();
             }
@@ -252,68 +234,8 @@ public class OrderDetailFragment extends Fragment {
         );
 
         // ✅ FIX: Gọi API lấy chi tiết đơn - phân biệt role
-        final String userRole = new com.example.app.network.AuthClient(requireContext()).getRole();
-        if ("SHIPPER".equalsIgnoreCase(userRole)) {
-            // Shipper: dùng ShipperApi
-            com.example.app.network.ShipperApi shipperApi = new com.example.app.network.AuthClient(requireContext())
-                    .getRetrofit()
-                    .create(com.example.app.network.ShipperApi.class);
-            shipperApi.getShipperOrder(orderId).enqueue(new Callback<Map<String, Object>>() {
-                @Override
-                public void onResponse(Call<Map<String, Object>> call, Response<Map<String, Object>> response) {
-                    if (!isAdded())
-                        return;
-
-                    Log.d("OrderDetail", "Shipper API response code: " + response.code());
-                    if (response.isSuccessful() && response.body() != null) {
-                        Log.d("OrderDetail", "Shipper API success, body: " + response.body());
-                        updateOrderInfo(response.body(), userRole);
-                    } else {
-                        String errorMsg = "Không tải được đơn hàng";
-                        if (response.errorBody() != null) {
-                            try {
-                                String errorStr = response.errorBody().string();
-                                Log.e("OrderDetail", "Shipper API error: " + errorStr);
-                                errorMsg += " (HTTP " + response.code() + ")";
-                            } catch (Exception e) {
-                                Log.e("OrderDetail", "Error reading error body", e);
-                            }
-                        }
-                        binding.tvStatus.setText(errorMsg);
-                    }
-                }
-
-                @Override
-                public void onFailure(Call<Map<String, Object>> call, Throwable t) {
-                    if (!isAdded())
-                        return;
-                    Log.e("OrderDetail", "Shipper API failure", t);
-                    binding.tvStatus.setText("Lỗi mạng: " + (t.getMessage() != null ? t.getMessage() : "Unknown"));
-                }
-            });
-        } else {
-            // Customer/Merchant: dùng OrdersClient
-            ordersClient.getOrder(orderId, new Callback<Map<String, Object>>() {
-            @Override
-            public void onResponse(Call<Map<String, Object>> call, Response<Map<String, Object>> response) {
-                if (!isAdded())
-                    return;
-
-                if (response.isSuccessful() && response.body() != null) {
-                    updateOrderInfo(response.body(), userRole);
-                } else {
-                    binding.tvStatus.setText(getString(R.string.err_cannot_fetch_order));
-                }
-            }
-
-            @Override
-            public void onFailure(Call<Map<String, Object>> call, Throwable t) {
-                if (!isAdded())
-                    return;
-                binding.tvStatus.setText(getString(R.string.network_error));
-            }
-            });
-        }
+        final String userRole = SessionStore.get(requireContext()).role();
+        loadOrderDetail(orderId, userRole);
 
         // ✅ FIX: Mở Maps - phân biệt role
         binding.btnOpenMaps.setOnClickListener(v -> {
@@ -370,12 +292,131 @@ public class OrderDetailFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
-        if (tracker != null)
-            tracker.disconnect();
+        if (binding != null)
+            binding.getRoot().removeCallbacks(shipperTicker);
+        if (shipperPosition.stats().fixes > 1)
+            Log.i("OrderDetail", "shipper position: " + shipperPosition.stats());
         binding = null;
     }
 
     // ================= Helpers =================
+
+    /** Tải chi tiết đơn (lần đầu và khi socket báo phải tải lại) - phân biệt role. */
+    private void loadOrderDetail(String orderId, String userRole) {
+        if ("SHIPPER".equalsIgnoreCase(userRole)) {
+            // Shipper: dùng ShipperApi
+            com.example.app.network.ShipperApi shipperApi = new com.example.app.network.AuthClient(requireContext())
+                    .getRetrofit()
+                    .create(com.example.app.network.ShipperApi.class);
+            shipperApi.getShipperOrder(orderId).enqueue(new Callback<Map<String, Object>>() {
+                @Override
+                public void onResponse(Call<Map<String, Object>> call, Response<Map<String, Object>> response) {
+                    if (!isAdded() || binding == null)
+                        return;
+
+                    Log.d("OrderDetail", "Shipper API response code: " + response.code());
+                    if (response.isSuccessful() && response.body() != null) {
+                        Log.d("OrderDetail", "Shipper API success, body: " + response.body());
+                        updateOrderInfo(response.body(), userRole);
+                    } else {
+                        String errorMsg = "Không tải được đơn hàng";
+                        if (response.errorBody() != null) {
+                            try {
+                                String errorStr = response.errorBody().string();
+                                Log.e("OrderDetail", "Shipper API error: " + errorStr);
+                                errorMsg += " (HTTP " + response.code() + ")";
+                            } catch (Exception e) {
+                                Log.e("OrderDetail", "Error reading error body", e);
+                            }
+                        }
+                        binding.tvStatus.setText(errorMsg);
+                    }
+                }
+
+                @Override
+                public void onFailure(Call<Map<String, Object>> call, Throwable t) {
+                    if (!isAdded() || binding == null)
+                        return;
+                    Log.e("OrderDetail", "Shipper API failure", t);
+                    binding.tvStatus.setText("Lỗi mạng: " + (t.getMessage() != null ? t.getMessage() : "Unknown"));
+                }
+            });
+        } else {
+            // Customer/Merchant: dùng OrdersClient
+            ordersClient.getOrder(orderId, new Callback<Map<String, Object>>() {
+                @Override
+                public void onResponse(Call<Map<String, Object>> call, Response<Map<String, Object>> response) {
+                    if (!isAdded() || binding == null)
+                        return;
+
+                    if (response.isSuccessful() && response.body() != null) {
+                        updateOrderInfo(response.body(), userRole);
+                    } else {
+                        binding.tvStatus.setText(getString(R.string.err_cannot_fetch_order));
+                    }
+                }
+
+                @Override
+                public void onFailure(Call<Map<String, Object>> call, Throwable t) {
+                    if (!isAdded() || binding == null)
+                        return;
+                    binding.tvStatus.setText(getString(R.string.network_error));
+                }
+            });
+        }
+    }
+
+    // UI thread; fixTime = 0: server không gửi thời điểm đo → coi như đo lúc nhận
+    private void onShipperFix(double lat, double lng, long fixTime, long arrival) {
+        lastShipperLat = lat;
+        lastShipperLng = lng;
+        if (fixTime > 0)
+            shipperPosition.onFix(lat, lng, fixTime, arrival);
+        else
+            shipperPosition.onFix(lat, lng, arrival);
+        if (binding == null)
+            return;
+        binding.getRoot().removeCallbacks(shipperTicker);
+        renderShipperPosition();
+    }
+
+    private void renderShipperPosition() {
+        if (binding == null)
+            return;
+        long now = SystemClock.elapsedRealtime();
+        LocationFix p = shipperPosition.positionAt(now);
+        if (p == null)
+            return;
+        binding.tvShipper.setText(String.format(Locale.US, "%s %.5f, %.5f",
+                getString(R.string.shipper_label), p.lat, p.lng));
+        if (shipperPosition.isMoving(now))
+            binding.getRoot().postDelayed(shipperTicker, MIN_LOC_UPDATE_INTERVAL_MS);
+    }
+
+    /** { lat, lng, t } — t: thời điểm đo (epoch ms theo máy shipper), 0 nếu không có. */
+    @Nullable
+    private static double[] parseFix(Object payload) {
+        Object lat = null;
+        Object lng = null;
+        Object t = null;
+        if (payload instanceof JSONObject) {
+            lat = ((JSONObject) payload).opt("lat");
+            lng = ((JSONObject) payload).opt("lng");
+            t = ((JSONObject) payload).opt("t");
+        } else if (payload instanceof Map) {
+            lat = ((Map<?, ?>) payload).get("lat");
+            lng = ((Map<?, ?>) payload).get("lng");
+            t = ((Map<?, ?>) payload).get("t");
+        }
+        if (lat == null || lng == null)
+            return null;
+        try {
+            return new double[] { Double.parseDouble(lat.toString()), Double.parseDouble(lng.toString()),
+                    t instanceof Number ? ((Number) t).longValue() : 0 };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
     
     private void updateOrderInfo(Map<?, ?> body, String userRole) {
         Object ord = body.get("order");
@@ -521,7 +562,7 @@ public class OrderDetailFragment extends Fragment {
                         itemsList.add((Map<String, Object>) it);
                 }
             }
-            itemAdapter.notifyDataSetChanged();
+            itemAdapter.submitList(itemsList);
 
             // History
             historyList.clear();
@@ -531,7 +572,7 @@ public class OrderDetailFragment extends Fragment {
                         historyList.add((Map<String, Object>) h);
                 }
             }
-            historyAdapter.notifyDataSetChanged();
+            historyAdapter.submitList(historyList);
 
         } catch (Exception e) {
             Log.e("OrderDetail", "parsing order body", e);
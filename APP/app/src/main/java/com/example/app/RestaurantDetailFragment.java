@@ -19,6 +19,7 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.app.adapters.MenuAdapter;
+import com.example.app.data.CartRepository;
 import com.example.app.model.MenuItem;
 import com.example.app.viewmodels.RestaurantDetailViewModel;
 import com.google.android.material.appbar.CollapsingToolbarLayout;
@@ -110,10 +111,13 @@ public class RestaurantDetailFragment extends Fragment {
                 item -> {
                     // 👇 BẤM NÚT "THÊM" -> CỘNG VÀO GIỎ HÀNG
                     Log.d(TAG, "AddToCart clicked: " + item.getTitle());
-                    viewModel.addMenuItemToCart(item);
+                    CartRepository.AddResult result = viewModel.addMenuItemToCart(item);
+                    String msg = result == CartRepository.AddResult.REPLACED_OTHER_RESTAURANT
+                            ? "Giỏ hàng chỉ chứa món của 1 quán. Đã tạo giỏ mới với: " + item.getTitle()
+                            : "Đã thêm: " + item.getTitle();
                     Toast.makeText(
                             requireContext(),
-                            "Đã thêm: " + item.getTitle(),
+                            msg,
                             Toast.LENGTH_SHORT
                     ).show();
                 }
@@ -19,7 +19,9 @@ import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
 import com.example.app.adapters.ShipperOrdersAdapter;
+import com.example.app.model.OrderDto;
 import com.example.app.databinding.FragmentShipperDashboardBinding;
+import com.example.app.location.SamplingPolicy;
 import com.example.app.network.AuthClient;
 import com.example.app.network.ShipperApi;
 import com.google.android.material.snackbar.Snackbar;
@@ -47,21 +49,21 @@ import android.widget.Toast;
  * Bổ sung:
  * - Xin quyền vị trí (+ POST_NOTIFICATIONS trên API 33+) và khởi chạy
  * LocationUpdateService (foreground)
- * với ACTION_START/STOP + EXTRA_INTERVAL_MS.
+ * với ACTION_START/STOP.
+ * - Báo trạng thái giao hàng (rảnh / tới quán / đang giao) cho service qua
+ * ACTION_SET_MODE để service tự chỉnh tần suất GPS.
  * - Snackbar khi API lỗi kèm Retry.
  */
 public class ShipperDashboardFragment extends Fragment {
 
-    private static final long LOCATION_PUSH_INTERVAL_MS = 15_000L; // 15s
-
     private FragmentShipperDashboardBinding binding;
 
     private ShipperApi shipperApi;
 
     // Buckets
-    private final List<Map<String, Object>> listAvailable = new ArrayList<>();
-    private final List<Map<String, Object>> listDelivering = new ArrayList<>();
-    private final List<Map<String, Object>> listCompleted = new ArrayList<>();
+    private final List<OrderDto> listAvailable = new ArrayList<>();
+    private final List<OrderDto> listDelivering = new ArrayList<>();
+    private final List<OrderDto> listCompleted = new ArrayList<>();
 
     // Adapters
     private ShipperOrdersAdapter adpAvailable;
@@ -74,6 +76,10 @@ public class ShipperDashboardFragment extends Fragment {
     // Avoid duplicate service starts
     private boolean locationServiceStarted = false;
 
+    // Trạng thái đã báo cho LocationUpdateService (suy ra từ bucket delivering)
+    @NonNull
+    private SamplingPolicy.Mode trackingMode = SamplingPolicy.Mode.IDLE;
+
     @Nullable
     @Override
     public View onCreateView(
@@ -251,22 +257,24 @@ public class ShipperDashboardFragment extends Fragment {
 
     private void fetchBucket(
             @NonNull String status,
-            @NonNull List<Map<String, Object>> target,
+            @NonNull List<OrderDto> target,
             @NonNull ShipperOrdersAdapter adapter) {
 
         android.util.Log.d("ShipperDashboard", "Fetching bucket: " + status);
-        shipperApi.getShipperOrders(status).enqueue(new Callback<List<Map<String, Object>>>() {
+        shipperApi.getShipperOrders(status).enqueue(new Callback<List<OrderDto>>() {
             @Override
             public void onResponse(
-                    @NonNull Call<List<Map<String, Object>>> call,
-                    @NonNull Response<List<Map<String, Object>>> response) {
+                    @NonNull Call<List<OrderDto>> call,
+                    @NonNull Response<List<OrderDto>> response) {
                 if (!isAdded())
                     return;
 
                 if (response.isSuccessful() && response.body() != null) {
                     target.clear();
                     target.addAll(response.body());
-                    adapter.notifyDataSetChanged();
+                    adapter.submitOrders(target);
+                    if (target == listDelivering)
+                        updateTrackingMode();
                     android.util.Log.d("ShipperDashboard", "Bucket " + status + " loaded: " + response.body().size() + " items");
                 } else {
                     android.util.Log.e("ShipperDashboard", "Failed to load bucket " + status + ": " + response.code());
@@ -279,7 +287,7 @@ public class ShipperDashboardFragment extends Fragment {
 
             @Override
             public void onFailure(
-                    @NonNull Call<List<Map<String, Object>>> call,
+                    @NonNull Call<List<OrderDto>> call,
                     @NonNull Throwable t) {
                 if (!isAdded())
                     return;
@@ -301,7 +309,7 @@ public class ShipperDashboardFragment extends Fragment {
     private ShipperOrdersAdapter.Listener callbacks(@NonNull String bucket) {
         return new ShipperOrdersAdapter.Listener() {
             @Override
-            public void onAccept(@NonNull Map<String, Object> order, int position) {
+            public void onAccept(@NonNull OrderDto order, int position) {
                 String id = extractId(order);
                 if (TextUtils.isEmpty(id))
                     return;
@@ -316,8 +324,7 @@ public class ShipperDashboardFragment extends Fragment {
                         if (response.isSuccessful()) {
                             if ("available".equals(bucket)) {
                                 // ✅ FIX: Refresh lại bucket "delivering" để lấy đơn mới từ server
-                                listAvailable.remove(position);
-                                adpAvailable.notifyItemRemoved(position);
+                                removeAndSubmit(listAvailable, position, adpAvailable);
                                 // Fetch lại bucket "delivering" từ server
                                 fetchBucket("delivering", listDelivering, adpDelivering);
                                 showOnly("delivering");
@@ -362,27 +369,27 @@ public class ShipperDashboardFragment extends Fragment {
             }
 
             @Override
-            public void onArrived(@NonNull Map<String, Object> order, int position) {
+            public void onArrived(@NonNull OrderDto order, int position) {
                 updateStatus(order, position, bucket, "arrived_store");
             }
 
             @Override
-            public void onPicked(@NonNull Map<String, Object> order, int position) {
+            public void onPicked(@NonNull OrderDto order, int position) {
                 updateStatus(order, position, bucket, "picked_up");
             }
 
             @Override
-            public void onOnTheWay(@NonNull Map<String, Object> order, int position) {
+            public void onOnTheWay(@NonNull OrderDto order, int position) {
                 updateStatus(order, position, bucket, "on_the_way");
             }
 
             @Override
-            public void onDelivered(@NonNull Map<String, Object> order, int position) {
+            public void onDelivered(@NonNull OrderDto order, int position) {
                 updateStatus(order, position, bucket, "delivered");
             }
 
             @Override
-            public void onFailed(@NonNull Map<String, Object> order, int position, String reason) {
+            public void onFailed(@NonNull OrderDto order, int position, String reason) {
                 // ✅ FIX: Nút "Thất bại" = hủy đơn, set status = CANCELED (không phải "failed")
                 Map<String, Object> body = new HashMap<>();
                 body.put("status", "canceled"); // Backend chỉ hỗ trợ CANCELED, không có "failed"
@@ -404,6 +411,7 @@ public class ShipperDashboardFragment extends Fragment {
                             // failed → remove khỏi bucket hiện tại
                             removeAt(bucket, position);
                             showOnly(bucket);
+                            updateTrackingMode();
                         } else {
                             showErrorSnack("Hủy đơn thất bại.",
                                     () -> onFailed(order, position, reason));
@@ -422,10 +430,9 @@ public class ShipperDashboardFragment extends Fragment {
             }
 
             @Override
-            public void onItemClick(@NonNull Map<String, Object> order, int position) {
+            public void onItemClick(@NonNull OrderDto order, int position) {
                 // ✅ FIX: Mở OrderDetailFragment để xem chi tiết đơn hàng
-                Object orderIdObj = order.get("order_id");
-                String orderId = orderIdObj != null ? orderIdObj.toString() : null;
+                String orderId = order.id;
                 if (orderId != null) {
                     Bundle args = new Bundle();
                     args.putString("orderId", orderId);
@@ -436,7 +443,7 @@ public class ShipperDashboardFragment extends Fragment {
         };
     }
 
-    private void updateStatus(@NonNull Map<String, Object> order, int position,
+    private void updateStatus(@NonNull OrderDto order, int position,
             @NonNull String bucket, @NonNull String next) {
         String id = extractId(order);
         if (TextUtils.isEmpty(id))
@@ -459,22 +466,23 @@ public class ShipperDashboardFragment extends Fragment {
                     return;
                 }
 
-                order.put("status", next);
+                order.status = next;
+                updateTrackingMode();
 
                 switch (next) {
                     case "delivered":
                         if ("delivering".equals(bucket)) {
                             moveItem(listDelivering, position, listCompleted);
-                            adpDelivering.notifyItemRemoved(position);
-                            adpCompleted.notifyItemInserted(listCompleted.size() - 1);
+                            adpDelivering.submitOrders(listDelivering);
+                            adpCompleted.submitOrders(listCompleted);
                             showOnly("completed");
                         } else if ("completed".equals(bucket)) {
-                            adpCompleted.notifyItemChanged(position);
+                            adpCompleted.submitOrders(listCompleted);
                         }
                         break;
                     default:
                         if ("delivering".equals(bucket)) {
-                            adpDelivering.notifyItemChanged(position);
+                            adpDelivering.submitOrders(listDelivering);
                         }
                         break;
                 }
@@ -495,38 +503,34 @@ public class ShipperDashboardFragment extends Fragment {
     private void removeAt(@NonNull String bucket, int pos) {
         switch (bucket) {
             case "available":
-                removeAndNotify(listAvailable, pos, adpAvailable);
+                removeAndSubmit(listAvailable, pos, adpAvailable);
                 break;
             case "delivering":
-                removeAndNotify(listDelivering, pos, adpDelivering);
+                removeAndSubmit(listDelivering, pos, adpDelivering);
                 break;
             case "completed":
-                removeAndNotify(listCompleted, pos, adpCompleted);
+                removeAndSubmit(listCompleted, pos, adpCompleted);
                 break;
         }
     }
 
-    private static void removeAndNotify(List<Map<String, Object>> list, int pos, ShipperOrdersAdapter adp) {
+    private static void removeAndSubmit(List<OrderDto> list, int pos, ShipperOrdersAdapter adp) {
         if (pos < 0 || pos >= list.size())
             return;
         list.remove(pos);
-        adp.notifyItemRemoved(pos);
-        adp.notifyItemRangeChanged(pos, Math.max(0, list.size() - pos));
+        adp.submitOrders(list);
     }
 
-    private static void moveItem(List<Map<String, Object>> from, int pos, List<Map<String, Object>> to) {
+    private static void moveItem(List<OrderDto> from, int pos, List<OrderDto> to) {
         if (pos < 0 || pos >= from.size())
             return;
-        Map<String, Object> item = from.remove(pos);
+        OrderDto item = from.remove(pos);
         to.add(item);
     }
 
     @Nullable
-    private static String extractId(@NonNull Map<String, Object> order) {
-        Object id = order.get("order_id");
-        if (id == null)
-            id = order.get("code");
-        return id != null ? id.toString() : null;
+    private static String extractId(@NonNull OrderDto order) {
+        return order.getId();
     }
 
     // ================= Location permission + service =================
@@ -590,7 +594,7 @@ public class ShipperDashboardFragment extends Fragment {
         try {
             Intent it = new Intent(requireContext(), LocationUpdateService.class);
             it.setAction(LocationUpdateService.ACTION_START);
-            it.putExtra(LocationUpdateService.EXTRA_INTERVAL_MS, LOCATION_PUSH_INTERVAL_MS);
+            it.putExtra(LocationUpdateService.EXTRA_MODE, trackingMode.name());
             ContextCompat.startForegroundService(requireContext(), it);
             locationServiceStarted = true;
         } catch (Throwable t) {
@@ -613,6 +617,35 @@ public class ShipperDashboardFragment extends Fragment {
         }
     }
 
+    /**
+     * Suy trạng thái giao hàng từ bucket delivering: có đơn đã lấy hàng → DELIVERING,
+     * có đơn chưa lấy → TO_RESTAURANT, không có → IDLE. Chỉ gửi intent khi đổi.
+     */
+    private void updateTrackingMode() {
+        SamplingPolicy.Mode mode = listDelivering.isEmpty()
+                ? SamplingPolicy.Mode.IDLE
+                : SamplingPolicy.Mode.TO_RESTAURANT;
+        for (OrderDto o : listDelivering) {
+            if (o.isInDelivery()) {
+                mode = SamplingPolicy.Mode.DELIVERING;
+                break;
+            }
+        }
+        if (mode == trackingMode)
+            return;
+        trackingMode = mode;
+        if (!isAdded() || !locationServiceStarted)
+            return;
+        try {
+            Intent it = new Intent(requireContext(), LocationUpdateService.class);
+            it.setAction(LocationUpdateService.ACTION_SET_MODE);
+            it.putExtra(LocationUpdateService.EXTRA_MODE, mode.name());
+            requireContext().startService(it);
+        } catch (Throwable ignore) {
+            // service chưa chạy / app ở nền: lần start sau sẽ mang trạng thái mới
+        }
+    }
+
     // ================= UX helpers =================
 
     private void showErrorSnack(@NonNull String msg, @Nullable Runnable action) {
@@ -7,23 +7,19 @@ import android.widget.Button;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.app.R;
+import com.example.app.util.Formats;
 
-import java.text.NumberFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
-public class AdminCancelRequestsAdapter extends RecyclerView.Adapter<AdminCancelRequestsAdapter.ViewHolder> {
+public class AdminCancelRequestsAdapter extends DiffingAdapter<Map<String, Object>, AdminCancelRequestsAdapter.ViewHolder> {
 
-    private List<Map<String, Object>> orders;
     private Callbacks callbacks;
-    private NumberFormat numberFormat = NumberFormat.getNumberInstance(Locale.getDefault());
-    private SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm", Locale.getDefault());
+    private static final Formats.Timestamps CREATED_AT = new Formats.Timestamps("dd/MM/yyyy HH:mm");
 
     public interface Callbacks {
         void onApprove(int orderId);
@@ -31,10 +27,21 @@ public class AdminCancelRequestsAdapter extends RecyclerView.Adapter<AdminCancel
     }
 
     public AdminCancelRequestsAdapter(List<Map<String, Object>> orders, Callbacks callbacks) {
-        this.orders = orders;
+        super(orders);
         this.callbacks = callbacks;
     }
 
+    @Nullable
+    @Override
+    protected Object keyOf(@NonNull Map<String, Object> item) {
+        return item.get("id");
+    }
+
+    @Override
+    protected int contentHashOf(@NonNull Map<String, Object> item) {
+        return item.hashCode();
+    }
+
     @NonNull
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -45,7 +52,7 @@ public class AdminCancelRequestsAdapter extends RecyclerView.Adapter<AdminCancel
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Map<String, Object> order = orders.get(position);
+        Map<String, Object> order = getItem(position);
         
         // Order code
         Object code = order.get("code");
@@ -71,7 +78,7 @@ public class AdminCancelRequestsAdapter extends RecyclerView.Adapter<AdminCancel
         if (total != null) {
             try {
                 double totalValue = ((Number) total).doubleValue();
-                holder.tvTotal.setText(numberFormat.format(totalValue) + "₫");
+                holder.tvTotal.setText(Formats.groupDigits(Math.round(totalValue)) + "₫");
             } catch (Exception e) {
                 holder.tvTotal.setText(total.toString() + "₫");
             }
@@ -101,9 +108,7 @@ public class AdminCancelRequestsAdapter extends RecyclerView.Adapter<AdminCancel
         Object createdAt = order.get("created_at");
         if (createdAt != null) {
             try {
-                // Try to parse date string
-                String dateStr = createdAt.toString();
-                holder.tvDate.setText("Ngày đặt: " + dateStr);
+                holder.tvDate.setText("Ngày đặt: " + CREATED_AT.format(createdAt));
             } catch (Exception e) {
                 holder.tvDate.setText("Ngày đặt: N/A");
             }
@@ -130,11 +135,6 @@ public class AdminCancelRequestsAdapter extends RecyclerView.Adapter<AdminCancel
         }
     }
 
-    @Override
-    public int getItemCount() {
-        return orders != null ? orders.size() : 0;
-    }
-
     static class ViewHolder extends RecyclerView.ViewHolder {
         TextView tvOrderCode, tvCustomer, tvRestaurant, tvTotal, tvReason, tvAddress, tvDate;
         Button btnApprove, btnReject;
@@ -6,23 +6,32 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.app.R;
+import com.example.app.model.OrderDto;
+import com.example.app.util.Formats;
 
-import java.text.NumberFormat;
 import java.util.List;
-import java.util.Locale;
-import java.util.Map;
 
-public class AdminOrdersAdapter extends RecyclerView.Adapter<AdminOrdersAdapter.ViewHolder> {
+public class AdminOrdersAdapter extends DiffingAdapter<OrderDto, AdminOrdersAdapter.ViewHolder> {
 
-    private List<Map<String, Object>> orders;
-    private NumberFormat numberFormat = NumberFormat.getNumberInstance(Locale.getDefault());
 
-    public AdminOrdersAdapter(List<Map<String, Object>> orders) {
-        this.orders = orders;
+    public AdminOrdersAdapter(List<OrderDto> orders) {
+        super(orders);
+    }
+
+    @Nullable
+    @Override
+    protected Object keyOf(@NonNull OrderDto item) {
+        return item.getId();
+    }
+
+    @Override
+    protected int contentHashOf(@NonNull OrderDto item) {
+        return item.listHash();
     }
 
     @NonNull
@@ -35,73 +44,39 @@ public class AdminOrdersAdapter extends RecyclerView.Adapter<AdminOrdersAdapter.
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Map<String, Object> order = orders.get(position);
+        OrderDto order = getItem(position);
         
         // Order code
-        Object code = order.get("code");
-        holder.tvOrderCode.setText(code != null ? "Đơn #" + code.toString() : "N/A");
+        String code = order.displayCode();
+        holder.tvOrderCode.setText(code != null ? "Đơn #" + code : "N/A");
         
         // Status
-        Object statusObj = order.get("status");
-        String status = statusObj != null ? statusObj.toString() : "UNKNOWN";
+        String status = order.status != null ? order.status : "UNKNOWN";
         holder.tvStatus.setText(getStatusText(status));
         int statusColor = getStatusColor(holder.itemView.getContext(), status);
         holder.tvStatus.setBackgroundColor(statusColor);
         
         // Customer info
-        Object customerName = order.get("customer_name");
-        Object customerEmail = order.get("customer_email");
-        if (customerName != null && !customerName.toString().isEmpty() && !customerName.toString().equals("N/A")) {
-            holder.tvCustomer.setText("Khách hàng: " + customerName.toString());
-        } else if (customerEmail != null) {
-            holder.tvCustomer.setText("Khách hàng: " + customerEmail.toString());
+        String customerName = order.customerName;
+        if (customerName != null && !customerName.isEmpty() && !customerName.equals("N/A")) {
+            holder.tvCustomer.setText("Khách hàng: " + customerName);
+        } else if (order.customerEmail != null) {
+            holder.tvCustomer.setText("Khách hàng: " + order.customerEmail);
         } else {
             holder.tvCustomer.setText("Khách hàng: N/A");
         }
         
         // Restaurant
-        Object restaurantName = order.get("restaurant_name");
-        holder.tvRestaurant.setText("Nhà hàng: " + (restaurantName != null ? restaurantName.toString() : "N/A"));
+        holder.tvRestaurant.setText("Nhà hàng: " + (order.restaurantName != null ? order.restaurantName : "N/A"));
         
         // Total
-        Object total = order.get("total");
-        if (total != null) {
-            try {
-                double totalValue = ((Number) total).doubleValue();
-                holder.tvTotal.setText(numberFormat.format(totalValue) + "₫");
-            } catch (Exception e) {
-                holder.tvTotal.setText(total.toString() + "₫");
-            }
-        } else {
-            holder.tvTotal.setText("0₫");
-        }
+        holder.tvTotal.setText(Formats.groupDigits(order.total) + "₫");
         
         // Address
-        Object address = order.get("address");
-        if (address != null) {
-            holder.tvAddress.setText("Địa chỉ: " + address.toString());
-        } else {
-            holder.tvAddress.setText("Địa chỉ: N/A");
-        }
+        holder.tvAddress.setText("Địa chỉ: " + (order.address != null ? order.address : "N/A"));
         
         // Date
-        Object createdAt = order.get("created_at");
-        if (createdAt != null) {
-            try {
-                String dateStr = createdAt.toString();
-                // Format date if needed
-                holder.tvDate.setText("Ngày đặt: " + dateStr);
-            } catch (Exception e) {
-                holder.tvDate.setText("Ngày đặt: N/A");
-            }
-        } else {
-            holder.tvDate.setText("");
-        }
-    }
-
-    @Override
-    public int getItemCount() {
-        return orders != null ? orders.size() : 0;
+        holder.tvDate.setText(order.createdAt != null ? "Ngày đặt: " + order.createdAt : "");
     }
 
     private String getStatusText(String status) {
@@ -8,33 +8,42 @@ import android.widget.Switch;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.app.R;
+import com.example.app.util.Formats;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
-public class AdminUsersAdapter extends RecyclerView.Adapter<AdminUsersAdapter.ViewHolder> {
+public class AdminUsersAdapter extends DiffingAdapter<Map<String, Object>, AdminUsersAdapter.ViewHolder> {
 
     private Context context;
-    private List<Map<String, Object>> users;
     private Callbacks callbacks;
-    private SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
+    private static final Formats.Timestamps CREATED_AT = new Formats.Timestamps("dd/MM/yyyy");
 
     public interface Callbacks {
         void onToggleStatus(int userId, boolean isActive);
     }
 
     public AdminUsersAdapter(Context context, List<Map<String, Object>> users, Callbacks callbacks) {
+        super(users);
         this.context = context;
-        this.users = users;
         this.callbacks = callbacks;
     }
 
+    @Nullable
+    @Override
+    protected Object keyOf(@NonNull Map<String, Object> item) {
+        return item.get("id");
+    }
+
+    @Override
+    protected int contentHashOf(@NonNull Map<String, Object> item) {
+        return item.hashCode();
+    }
+
     @NonNull
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -45,7 +54,7 @@ public class AdminUsersAdapter extends RecyclerView.Adapter<AdminUsersAdapter.Vi
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Map<String, Object> user = users.get(position);
+        Map<String, Object> user = getItem(position);
         
         // User ID
         Object idObj = user.get("id");
@@ -126,8 +135,7 @@ public class AdminUsersAdapter extends RecyclerView.Adapter<AdminUsersAdapter.Vi
         Object createdAt = user.get("created_at");
         if (createdAt != null) {
             try {
-                String dateStr = createdAt.toString();
-                holder.tvCreatedDate.setText("Ngày tạo: " + dateStr);
+                holder.tvCreatedDate.setText("Ngày tạo: " + CREATED_AT.format(createdAt));
                 holder.tvCreatedDate.setVisibility(View.VISIBLE);
             } catch (Exception e) {
                 holder.tvCreatedDate.setVisibility(View.GONE);
@@ -137,11 +145,6 @@ public class AdminUsersAdapter extends RecyclerView.Adapter<AdminUsersAdapter.Vi
         }
     }
 
-    @Override
-    public int getItemCount() {
-        return users != null ? users.size() : 0;
-    }
-
     static class ViewHolder extends RecyclerView.ViewHolder {
         TextView tvEmail, tvFullName, tvPhone, tvRole, tvCreatedDate, tvStatusLabel;
         Switch switchStatus;
@@ -11,13 +11,12 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.app.R;
 import com.example.app.model.CartItem;
+import com.example.app.util.Formats;
 import com.google.android.material.button.MaterialButton;
 
 import java.math.BigDecimal;
-import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.HashMap;
 
@@ -33,7 +32,6 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
     private List<CartItem> cartItems;
     private final Context context;
     private final int itemLayoutId;
-    private final NumberFormat currencyFormatter;
 
     // Listeners fields
     private OnTotalsListener totalsListener;
@@ -56,7 +54,6 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
         this.context = context;
         this.cartItems = cartItems;
         this.itemLayoutId = itemLayoutId;
-        this.currencyFormatter = NumberFormat.getNumberInstance(new Locale("vi", "VN"));
     }
 
     public void setTotalsListener(OnTotalsListener listener) {
@@ -101,7 +98,7 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
         int quantity = item.getQuantity();
         BigDecimal subTotal = price.multiply(new BigDecimal(quantity));
 
-        holder.tvSubtotal.setText(String.format("%s đ", formatCurrency(subTotal)));
+        holder.tvSubtotal.setText(formatCurrency(subTotal));
 
         // Xử lý sự kiện tăng/giảm số lượng
         holder.btnIncrease.setOnClickListener(v -> {
@@ -176,7 +173,7 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
     }
 
     private String formatCurrency(BigDecimal amount) {
-        return currencyFormatter.format(amount.longValue());
+        return Formats.vnd(amount.longValue());
     }
 
     public static class CartViewHolder extends RecyclerView.ViewHolder {
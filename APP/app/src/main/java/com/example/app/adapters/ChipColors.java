@@ -0,0 +1,94 @@
+package com.example.app.adapters;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.GradientDrawable;
+import android.view.View;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+
+import com.example.app.R;
+
+/**
+ * ChipColors: màu chữ / nền nhạt / icon cho từng {@link OrderRow.Chip}, resolve 1 lần lúc tạo adapter
+ * (trước đây gọi ContextCompat.getColor + tính alpha mỗi lần bind).
+ */
+final class ChipColors {
+
+    private final int[] text;
+    private final int[] background;
+    private final int[] icon;
+
+    ChipColors(@NonNull Context ctx) {
+        OrderRow.Chip[] chips = OrderRow.Chip.values();
+        text = new int[chips.length];
+        background = new int[chips.length];
+        icon = new int[chips.length];
+        for (OrderRow.Chip chip : chips) {
+            int colorRes;
+            float alpha;
+            int iconRes;
+            switch (chip) {
+                case SUCCESS:
+                    colorRes = R.color.ff_success;
+                    alpha = 0.10f;
+                    iconRes = R.drawable.ic_status_delivered;
+                    break;
+                case WARNING:
+                    colorRes = R.color.ff_warning;
+                    alpha = 0.12f;
+                    iconRes = R.drawable.ic_status_inprogress;
+                    break;
+                case INFO:
+                    colorRes = R.color.ff_info;
+                    alpha = 0.12f;
+                    iconRes = R.drawable.ic_status_inprogress;
+                    break;
+                case ERROR:
+                    colorRes = R.color.ff_error;
+                    alpha = 0.10f;
+                    iconRes = R.drawable.ic_status_cancelled;
+                    break;
+                case NEUTRAL:
+                default:
+                    colorRes = R.color.ff_text_secondary;
+                    alpha = 0.08f;
+                    iconRes = R.drawable.ic_status_inprogress;
+                    break;
+            }
+            int c = ContextCompat.getColor(ctx, colorRes);
+            text[chip.ordinal()] = c;
+            background[chip.ordinal()] = withAlpha(c, alpha);
+            icon[chip.ordinal()] = iconRes;
+        }
+    }
+
+    /**
+     * Gán nhãn + màu + icon của {@code row} vào chip.
+     * {@code solidFallback}: nền không phải shape bo góc thì tô thẳng màu nền.
+     */
+    void apply(@NonNull OrderRow row, @NonNull ImageView iv, @NonNull TextView tv,
+            @NonNull View chipLayout, boolean solidFallback) {
+        int i = row.chip.ordinal();
+        tv.setText(row.statusLabel);
+        tv.setTextColor(text[i]);
+        iv.setImageResource(icon[i]);
+        iv.setColorFilter(text[i]);
+
+        Drawable bg = chipLayout.getBackground();
+        if (bg instanceof GradientDrawable) {
+            ((GradientDrawable) bg.mutate()).setColor(background[i]);
+        } else if (solidFallback) {
+            chipLayout.setBackgroundColor(background[i]);
+        }
+    }
+
+    private static int withAlpha(int color, float alpha) {
+        int a = Math.round(255 * alpha);
+        return Color.argb(a, Color.red(color), Color.green(color), Color.blue(color));
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.app.adapters;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * DiffingAdapter: base cho các danh sách đơn hàng / món ăn làm mới theo API.
+ *
+ * - Adapter giữ bản sao danh sách đang hiển thị; màn hình sửa list của nó rồi gọi
+ *   {@link #submitList(List)} thay cho notifyDataSetChanged()
+ * - Lúc submit chụp key ({@link #keyOf}) + hash nội dung ({@link #contentHashOf}) từng dòng,
+ *   DiffUtil chạy trên 1 thread nền dùng chung → chỉ dòng thêm mới / đổi nội dung bị bind lại,
+ *   dòng khác giữ nguyên kèm animation thêm/xoá/di chuyển
+ * - Submit mới tới khi diff cũ chưa xong → kết quả cũ bị bỏ
+ * - Stable id cấp sẵn theo key lúc submit ({@link StableIds}); getItemId() chỉ đọc mảng
+ * - {@link #submitMapped}: dựng row hiển thị bất biến từ DTO/Map trên cùng thread nền
+ *   → onBindViewHolder() chỉ gán field vào view
+ * - {@link #stats()}: số dòng bind lại mỗi lần làm mới so với bind lại toàn bộ
+ */
+public abstract class DiffingAdapter<T, VH extends RecyclerView.ViewHolder> extends RecyclerView.Adapter<VH> {
+
+    /** Số liệu làm mới danh sách (bất biến). */
+    public static final class Stats {
+        public final long refreshes;
+        /** Tổng số dòng qua các lần làm mới = số lần bind nếu dùng notifyDataSetChanged() */
+        public final long rows;
+        public final long rebinds;
+        public final long inserted;
+        public final long removed;
+        public final long moved;
+        public final long changed;
+
+        Stats(long refreshes, long rows, long rebinds, long inserted, long removed, long moved, long changed) {
+            this.refreshes = refreshes;
+            this.rows = rows;
+            this.rebinds = rebinds;
+            this.inserted = inserted;
+            this.removed = removed;
+            this.moved = moved;
+            this.changed = changed;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            double per = refreshes == 0 ? 0 : (double) rebinds / refreshes;
+            double full = refreshes == 0 ? 0 : (double) rows / refreshes;
+            return String.format(Locale.US,
+                    "refreshes=%d rebinds/refresh=%.1f (full=%.1f) ins=%d rm=%d mv=%d chg=%d",
+                    refreshes, per, full, inserted, removed, moved, changed);
+        }
+    }
+
+    /** Dựng 1 row hiển thị từ dữ liệu nguồn; chạy trên thread nền. */
+    public interface RowMapper<S, T> {
+        @NonNull
+        T map(@NonNull S source, int position);
+    }
+
+    // Dùng chung cho mọi danh sách: diff tuần tự, không giành CPU với nhau
+    private static final ExecutorService DIFF = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "list-diff");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    // Chỉ đọc/ghi trên UI thread
+    private List<T> items;
+    private RowSnapshot snapshot;
+    private int generation;
+    private final RebindCounter counter = new RebindCounter(new AdapterListUpdateCallback(this));
+    private long refreshes;
+    private long rows;
+
+    protected DiffingAdapter(@Nullable List<T> initial) {
+        setHasStableIds(true);
+        if (initial == null || initial.isEmpty()) {
+            items = Collections.emptyList();
+            snapshot = RowSnapshot.EMPTY;
+        } else {
+            items = new ArrayList<>(initial);
+            snapshot = snapshotOf(items);
+        }
+    }
+
+    // ============================
+    // Subclass
+    // ============================
+
+    /** Key ổn định của dòng (thường là id); null = không ghép được với dòng cũ. */
+    @Nullable
+    protected abstract Object keyOf(@NonNull T item);
+
+    /** Hash các field đang hiển thị; đổi → dòng được bind lại. */
+    protected abstract int contentHashOf(@NonNull T item);
+
+    // ============================
+    // API
+    // ============================
+
+    /** Hiển thị {@code list} (được sao chép, màn hình vẫn sửa list của mình bình thường). */
+    @MainThread
+    public void submitList(@Nullable List<T> list) {
+        final List<T> next = list == null || list.isEmpty() ? Collections.emptyList() : new ArrayList<>(list);
+        final RowSnapshot nextSnapshot = snapshotOf(next);
+        final RowSnapshot prevSnapshot = snapshot;
+        final int gen = ++generation;
+
+        // Rỗng ↔ có dữ liệu: không cần diff
+        if (prevSnapshot.size() == 0 || nextSnapshot.size() == 0) {
+            apply(prevSnapshot, next, nextSnapshot, null);
+            return;
+        }
+
+        DIFF.execute(() -> {
+            DiffUtil.DiffResult result = DiffUtil.calculateDiff(prevSnapshot.diffTo(nextSnapshot), true);
+            MAIN.post(() -> {
+                if (gen != generation)
+                    return; // đã có submit mới hơn
+                apply(prevSnapshot, next, nextSnapshot, result);
+            });
+        });
+    }
+
+    /**
+     * Như {@link #submitList} nhưng row được dựng từ {@code source} bằng {@code mapper}:
+     * map + chụp snapshot + diff đều chạy trên thread nền, UI thread chỉ sao chép list và commit.
+     * Phần tử null → row null. Màn hình sửa DTO thì submit lại (lần map đang chạy có thể đọc bản cũ).
+     */
+    @MainThread
+    protected final <S> void submitMapped(@Nullable List<S> source,
+            @NonNull RowMapper<? super S, ? extends T> mapper) {
+        final List<S> src = source == null || source.isEmpty() ? Collections.emptyList() : new ArrayList<>(source);
+        final RowSnapshot prevSnapshot = snapshot;
+        final int gen = ++generation;
+
+        DIFF.execute(() -> {
+            List<T> next = new ArrayList<>(src.size());
+            for (int i = 0; i < src.size(); i++) {
+                S s = src.get(i);
+                next.add(s == null ? null : mapper.map(s, i));
+            }
+            RowSnapshot nextSnapshot = snapshotOf(next);
+            DiffUtil.DiffResult result = prevSnapshot.size() == 0 || nextSnapshot.size() == 0
+                    ? null
+                    : DiffUtil.calculateDiff(prevSnapshot.diffTo(nextSnapshot), true);
+            MAIN.post(() -> {
+                if (gen != generation)
+                    return;
+                apply(prevSnapshot, next, nextSnapshot, result);
+            });
+        });
+    }
+
+    @NonNull
+    public List<T> getCurrentList() {
+        return Collections.unmodifiableList(items);
+    }
+
+    @NonNull
+    public Stats stats() {
+        return new Stats(refreshes, rows, counter.rebinds(),
+                counter.inserted, counter.removed, counter.moved, counter.changed);
+    }
+
+    protected T getItem(int position) {
+        return items.get(position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return items.size();
+    }
+
+    @Override
+    public final long getItemId(int position) {
+        return snapshot.idAt(position);
+    }
+
+    // ============================
+    // Nội bộ
+    // ============================
+
+    /** {@code result} null = thay toàn bộ (1 phía rỗng) */
+    private void apply(@NonNull RowSnapshot prevSnapshot, @NonNull List<T> next,
+            @NonNull RowSnapshot nextSnapshot, @Nullable DiffUtil.DiffResult result) {
+        items = next;
+        snapshot = nextSnapshot;
+        refreshes++;
+        rows += next.size();
+        if (result != null) {
+            result.dispatchUpdatesTo(counter);
+            return;
+        }
+        if (prevSnapshot.size() > 0)
+            counter.onRemoved(0, prevSnapshot.size());
+        if (nextSnapshot.size() > 0)
+            counter.onInserted(0, nextSnapshot.size());
+    }
+
+    @NonNull
+    private RowSnapshot snapshotOf(@NonNull List<T> list) {
+        return RowSnapshot.of(list, this::keyOf, this::contentHashOf);
+    }
+}
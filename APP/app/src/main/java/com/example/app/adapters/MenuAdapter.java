@@ -8,18 +8,18 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.load.engine.DiskCacheStrategy;
 import com.example.app.R;
 import com.example.app.model.MenuItem;
+import com.example.app.util.Formats;
 import com.google.android.material.button.MaterialButton;
 
-import java.text.NumberFormat;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
+import java.util.Objects;
 
 /**
  * MenuAdapter: hiển thị danh sách món trong HomeFragment.
@@ -30,7 +30,7 @@ import java.util.Locale;
  * - @id/item_price (TextView)
  * - (optional) @id/btn_add_to_cart (MaterialButton)
  */
-public class MenuAdapter extends RecyclerView.Adapter<MenuAdapter.VH> {
+public class MenuAdapter extends DiffingAdapter<MenuItem, MenuAdapter.VH> {
 
     public interface OnItemClickListener {
         void onItemClick(MenuItem item);
@@ -40,26 +40,23 @@ public class MenuAdapter extends RecyclerView.Adapter<MenuAdapter.VH> {
         void onAddToCart(MenuItem item);
     }
 
-    private final List<MenuItem> items = new ArrayList<>();
     private final OnItemClickListener itemClickListener;
     private final OnAddToCartClickListener addToCartListener; // có thể null
 
     // Constructor cũ: chỉ click item
     public MenuAdapter(OnItemClickListener listener) {
+        super(null);
         this.itemClickListener = listener;
         this.addToCartListener = null;
-        setHasStableIds(true);
     }
 
     // Constructor mới: có list khởi tạo + cả 2 listener
     public MenuAdapter(List<MenuItem> initialItems,
                        OnItemClickListener itemListener,
                        OnAddToCartClickListener addToCartListener) {
+        super(initialItems);
         this.itemClickListener = itemListener;
         this.addToCartListener = addToCartListener;
-        if (initialItems != null)
-            items.addAll(initialItems);
-        setHasStableIds(true);
     }
 
     // Convenience constructor: (List, OnItemClickListener) - keeps backward
@@ -70,10 +67,7 @@ public class MenuAdapter extends RecyclerView.Adapter<MenuAdapter.VH> {
 
     // PHƯƠNG THỨC NÀY ĐÃ CÓ SẴN TRONG CODE CỦA BẠN
     public void setItems(List<MenuItem> newItems) {
-        items.clear();
-        if (newItems != null)
-            items.addAll(newItems);
-        notifyDataSetChanged();
+        submitList(newItems);
     }
 
     /**
@@ -86,24 +80,15 @@ public class MenuAdapter extends RecyclerView.Adapter<MenuAdapter.VH> {
     }
 
 
+    @Nullable
     @Override
-    public long getItemId(int position) {
-        try {
-            MenuItem item = items.get(position);
-            if (item != null && item.id != null) {
-                try {
-                    // Cố gắng chuyển đổi ID sang Long để có ID ổn định tốt hơn
-                    return Long.parseLong(item.id.toString().replaceAll("\\D+", ""));
-                } catch (Exception ignore) {
-                    // Fallback nếu parse thất bại
-                    return item.id.hashCode();
-                }
-            }
-            // Fallback cuối cùng
-            return (item != null && item.title != null) ? item.title.hashCode() : position;
-        } catch (Exception e) {
-            return position;
-        }
+    protected Object keyOf(@NonNull MenuItem item) {
+        return item.id != null ? item.id : item.title;
+    }
+
+    @Override
+    protected int contentHashOf(@NonNull MenuItem item) {
+        return Objects.hash(item.title, item.description, item.price, item.imageUrl);
     }
 
     @NonNull
@@ -116,21 +101,12 @@ public class MenuAdapter extends RecyclerView.Adapter<MenuAdapter.VH> {
 
     @Override
     public void onBindViewHolder(@NonNull VH holder, int position) {
-        MenuItem item = items.get(position);
+        MenuItem item = getItem(position);
 
         holder.title.setText(item != null && item.title != null ? item.title : "(Không tên)");
         holder.subtitle.setText(item != null && item.description != null ? item.description : "");
 
-        String priceText = "0 đ";
-        if (item != null) {
-            try {
-                double p = item.price;
-                NumberFormat nf = NumberFormat.getNumberInstance(new Locale("vi", "VN"));
-                priceText = nf.format(p) + " đ";
-            } catch (Exception ignore) {
-            }
-        }
-        holder.price.setText(priceText);
+        holder.price.setText(Formats.vnd(item != null ? item.price : 0));
 
         // ✅ Load ảnh từ imageUrl - Hiển thị ảnh mới khi merchant cập nhật
         if (item != null && item.imageUrl != null && !item.imageUrl.trim().isEmpty()) {
@@ -166,11 +142,6 @@ public class MenuAdapter extends RecyclerView.Adapter<MenuAdapter.VH> {
         }
     }
 
-    @Override
-    public int getItemCount() {
-        return items.size();
-    }
-
     static class VH extends RecyclerView.ViewHolder {
         ImageView image;
         TextView title;
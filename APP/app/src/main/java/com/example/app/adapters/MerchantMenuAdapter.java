@@ -8,20 +8,20 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.app.R;
+import com.example.app.util.Formats;
 
-import java.text.NumberFormat;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
 /**
  * MerchantMenuAdapter
  * Hiển thị danh sách món ăn với nút Sửa và Xóa
  */
-public class MerchantMenuAdapter extends RecyclerView.Adapter<MerchantMenuAdapter.VH> {
+public class MerchantMenuAdapter extends DiffingAdapter<Map<String, Object>, MerchantMenuAdapter.VH> {
 
     public interface Listener {
         void onEdit(@NonNull Map<String, Object> item, int position);
@@ -29,17 +29,27 @@ public class MerchantMenuAdapter extends RecyclerView.Adapter<MerchantMenuAdapte
     }
 
     private final Context context;
-    private final List<Map<String, Object>> data;
     private final Listener listener;
 
     public MerchantMenuAdapter(@NonNull Context context,
                                @NonNull List<Map<String, Object>> data,
                                @NonNull Listener listener) {
+        super(data);
         this.context = context;
-        this.data = data;
         this.listener = listener;
     }
 
+    @Nullable
+    @Override
+    protected Object keyOf(@NonNull Map<String, Object> item) {
+        return item.get("id");
+    }
+
+    @Override
+    protected int contentHashOf(@NonNull Map<String, Object> item) {
+        return item.hashCode();
+    }
+
     @NonNull
     @Override
     public VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -49,7 +59,7 @@ public class MerchantMenuAdapter extends RecyclerView.Adapter<MerchantMenuAdapte
 
     @Override
     public void onBindViewHolder(@NonNull VH holder, int position) {
-        Map<String, Object> item = data.get(position);
+        Map<String, Object> item = getItem(position);
 
         // Name
         String name = getString(item.get("name"));
@@ -88,11 +98,6 @@ public class MerchantMenuAdapter extends RecyclerView.Adapter<MerchantMenuAdapte
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return data.size();
-    }
-
     static class VH extends RecyclerView.ViewHolder {
         TextView tvName;
         TextView tvDescription;
@@ -115,7 +120,7 @@ public class MerchantMenuAdapter extends RecyclerView.Adapter<MerchantMenuAdapte
     }
 
     private static String formatCurrency(double amount) {
-        return String.format(Locale.getDefault(), "%,.0f đ", amount);
+        return Formats.vnd(amount);
     }
 }
 
@@ -1,8 +1,6 @@
 package com.example.app.adapters;
 
 import android.content.Context;
-import android.graphics.Color;
-import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -10,65 +8,65 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
-import androidx.core.content.ContextCompat;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.app.R;
+import com.example.app.model.OrderDto;
 
-import java.text.NumberFormat;
 import java.util.List;
-import java.util.Locale;
-import java.util.Map;
 
 /**
  * MerchantOrdersAdapter
  * - Hiển thị danh sách đơn ở Merchant Dashboard.
- * - Nguồn dữ liệu: List<Map<String,Object>> (key gợi ý: order_id/code, status,
- * total, created_at, items)
+ * - Nguồn dữ liệu: List<OrderDto> (decode sẵn từ /merchant/orders), làm mới bằng submitOrders()
+ * - Dòng được dựng sẵn thành {@link OrderRow} trên thread nền ({@link OrderRows#merchant})
  * - YÊU CẦU item_merchant_order.xml có:
  * tv_order_code, tv_items_brief, tv_total, tv_time, tv_status,
  * iv_status, layout_status_chip, btn_accept, btn_reject, btn_ready
  */
-public class MerchantOrdersAdapter extends RecyclerView.Adapter<MerchantOrdersAdapter.VH> {
+public class MerchantOrdersAdapter extends DiffingAdapter<OrderRow, MerchantOrdersAdapter.VH> {
 
     public interface Listener {
-        void onAccept(@NonNull Map<String, Object> order, int position);
+        void onAccept(@NonNull OrderDto order, int position);
 
-        void onReject(@NonNull Map<String, Object> order, int position);
+        void onReject(@NonNull OrderDto order, int position);
 
-        void onReady(@NonNull Map<String, Object> order, int position);
+        void onReady(@NonNull OrderDto order, int position);
 
-        default void onComplete(@NonNull Map<String, Object> order, int position) {
+        default void onComplete(@NonNull OrderDto order, int position) {
         }
 
-        default void onItemClick(@NonNull Map<String, Object> order, int position) {
+        default void onItemClick(@NonNull OrderDto order, int position) {
         }
     }
 
-    private final Context ctx;
-    private final List<Map<String, Object>> data;
+    private final ChipColors chips;
     private final Listener listener;
 
     public MerchantOrdersAdapter(@NonNull Context ctx,
-            @NonNull List<Map<String, Object>> data,
+            @NonNull List<OrderDto> data,
             @NonNull Listener listener) {
-        this.ctx = ctx;
-        this.data = data;
+        super(null);
+        this.chips = new ChipColors(ctx);
         this.listener = listener;
-        setHasStableIds(true);
+        submitOrders(data);
     }
 
+    /** Hiển thị {@code orders}; dòng được dựng lại + diff trên thread nền. */
+    public void submitOrders(@Nullable List<OrderDto> orders) {
+        submitMapped(orders, OrderRows::merchant);
+    }
+
+    @Nullable
     @Override
-    public long getItemId(int position) {
-        Object code = firstNonNull(
-                data.get(position).get("order_id"),
-                data.get(position).get("code"),
-                String.valueOf(position));
-        try {
-            return Long.parseLong(code.toString().replaceAll("\\D+", ""));
-        } catch (Exception ignore) {
-            return code.toString().hashCode();
-        }
+    protected Object keyOf(@NonNull OrderRow item) {
+        return item.key;
+    }
+
+    @Override
+    protected int contentHashOf(@NonNull OrderRow item) {
+        return item.hash;
     }
 
     @NonNull
@@ -76,243 +74,51 @@ public class MerchantOrdersAdapter extends RecyclerView.Adapter<MerchantOrdersAd
     public VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View v = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_merchant_order, parent, false);
-        return new VH(v);
-    }
-
-    @Override
-    public void onBindViewHolder(@NonNull VH h, int position) {
-        Map<String, Object> m = data.get(position);
-
-        // Code
-        Object code = firstNonNull(m.get("order_id"), m.get("code"), "—");
-        h.tvCode.setText("#" + code);
-
-        // Items brief
-        h.tvItemsBrief.setText(buildItemsBrief(m.get("items")));
+        VH h = new VH(v);
 
-        // Total
-        h.tvTotal.setText(formatVnd(firstNonNull(m.get("total"), "0")));
-
-        // Time
-        h.tvTime.setText(asString(firstNonNull(m.get("created_at"), m.get("time"), "")));
-
-        // Status chip
-        String rawStatus = asString(firstNonNull(m.get("status"), "pending")).trim().toLowerCase(Locale.ROOT);
-        applyStatusChip(h, rawStatus);
-
-        // Actions
-        h.btnAccept.setVisibility(View.GONE);
-        h.btnReject.setVisibility(View.GONE);
-        h.btnReady.setVisibility(View.GONE);
-        h.btnComplete.setVisibility(View.GONE);
-
-        switch (rawStatus) {
-            case "pending":
-            case "new":
-            case "awaiting_confirm":
-            case "confirmed": // ✅ FIX: Backend trả về CONFIRMED (chờ xác nhận)
-                h.btnAccept.setVisibility(View.VISIBLE);
-                h.btnReject.setVisibility(View.VISIBLE);
-                break;
-            case "preparing":
-            case "in_progress":
-            case "processing":
-            case "confirm":
-            case "cooking": // ✅ FIX: Backend trả về COOKING (đang chuẩn bị, cần nút "Làm xong")
-                h.btnReady.setVisibility(View.VISIBLE);
-                h.btnReject.setVisibility(View.VISIBLE);
-                break;
-            case "ready":
-                // ✅ FIX: Đơn READY hiển thị nút "Hoàn tất" để merchant có thể tự đánh dấu đơn là đã hoàn tất
-                // (tự giao hàng hoặc không có shipper)
-                h.btnComplete.setVisibility(View.VISIBLE);
-                break;
-            default:
-                // delivered/cancelled/... -> ẩn hết
-                break;
-        }
-
-        // Clicks (guard NO_POSITION)
-        h.itemView.setOnClickListener(v -> {
-            if (listener == null)
-                return;
+        // Clicks gắn 1 lần cho mỗi ViewHolder (guard NO_POSITION)
+        h.itemView.setOnClickListener(x -> {
             int p = h.getBindingAdapterPosition();
-            if (p == RecyclerView.NO_POSITION)
-                return;
-            listener.onItemClick(m, p);
+            if (p != RecyclerView.NO_POSITION)
+                listener.onItemClick(getItem(p).order, p);
         });
-
-        h.btnAccept.setOnClickListener(v -> {
-            if (listener == null)
-                return;
+        h.btnAccept.setOnClickListener(x -> {
             int p = h.getBindingAdapterPosition();
-            if (p == RecyclerView.NO_POSITION)
-                return;
-            listener.onAccept(m, p);
+            if (p != RecyclerView.NO_POSITION)
+                listener.onAccept(getItem(p).order, p);
         });
-
-        h.btnReject.setOnClickListener(v -> {
-            if (listener == null)
-                return;
+        h.btnReject.setOnClickListener(x -> {
             int p = h.getBindingAdapterPosition();
-            if (p == RecyclerView.NO_POSITION)
-                return;
-            listener.onReject(m, p);
+            if (p != RecyclerView.NO_POSITION)
+                listener.onReject(getItem(p).order, p);
         });
-
-        h.btnReady.setOnClickListener(v -> {
-            if (listener == null)
-                return;
+        h.btnReady.setOnClickListener(x -> {
             int p = h.getBindingAdapterPosition();
-            if (p == RecyclerView.NO_POSITION)
-                return;
-            listener.onReady(m, p);
+            if (p != RecyclerView.NO_POSITION)
+                listener.onReady(getItem(p).order, p);
         });
-
-        h.btnComplete.setOnClickListener(v -> {
-            if (listener == null)
-                return;
+        h.btnComplete.setOnClickListener(x -> {
             int p = h.getBindingAdapterPosition();
-            if (p == RecyclerView.NO_POSITION)
-                return;
-            listener.onComplete(m, p);
+            if (p != RecyclerView.NO_POSITION)
+                listener.onComplete(getItem(p).order, p);
         });
+        return h;
     }
 
     @Override
-    public int getItemCount() {
-        return data.size();
-    }
-
-    // ===== Helpers =====
-
-    private void applyStatusChip(@NonNull VH h, @NonNull String status) {
-        int colorText;
-        int iconRes;
-        int bgColor; // nhạt (alpha)
-
-        switch (status) {
-            case "delivered":
-            case "completed":
-            case "done":
-            case "success":
-                iconRes = R.drawable.ic_status_delivered;
-                colorText = ContextCompat.getColor(ctx, R.color.ff_success);
-                bgColor = withAlpha(colorText, 0.10f);
-                h.tvStatus.setText("đã giao");
-                break;
-
-            case "preparing":
-            case "in_progress":
-            case "processing":
-            case "shipping":
-            case "awaiting_ship":
-            case "cooking": // ✅ FIX: Backend trả về COOKING (đang chuẩn bị)
-                iconRes = R.drawable.ic_status_inprogress;
-                colorText = ContextCompat.getColor(ctx, R.color.ff_warning);
-                bgColor = withAlpha(colorText, 0.12f);
-                h.tvStatus.setText("đang chuẩn bị");
-                break;
-
-            case "ready":
-                iconRes = R.drawable.ic_status_inprogress;
-                colorText = ContextCompat.getColor(ctx, R.color.ff_info);
-                bgColor = withAlpha(colorText, 0.12f);
-                h.tvStatus.setText("sẵn sàng");
-                break;
-
-            case "cancelled":
-            case "canceled":
-            case "rejected":
-            case "failed":
-                iconRes = R.drawable.ic_status_cancelled;
-                colorText = ContextCompat.getColor(ctx, R.color.ff_error);
-                bgColor = withAlpha(colorText, 0.10f);
-                h.tvStatus.setText("đã hủy");
-                break;
-
-            case "pending":
-            case "new":
-            case "awaiting_confirm":
-            case "confirmed": // ✅ FIX: Backend trả về CONFIRMED (chờ xác nhận)
-            default:
-                iconRes = R.drawable.ic_status_inprogress;
-                colorText = ContextCompat.getColor(ctx, R.color.ff_text_secondary);
-                bgColor = withAlpha(colorText, 0.08f);
-                h.tvStatus.setText("chờ xác nhận");
-                break;
-        }
-
-        h.ivStatus.setImageResource(iconRes);
-        h.ivStatus.setColorFilter(colorText);
-        h.tvStatus.setTextColor(colorText);
-
-        // đổi màu nền chip (bg của layout_status_chip phải là shape bo góc)
-        if (h.layoutStatusChip.getBackground() instanceof android.graphics.drawable.GradientDrawable) {
-            android.graphics.drawable.GradientDrawable gd = (android.graphics.drawable.GradientDrawable) h.layoutStatusChip
-                    .getBackground().mutate();
-            gd.setColor(bgColor);
-        }
-    }
-
-    private static Object firstNonNull(Object... arr) {
-        if (arr == null)
-            return null;
-        for (Object o : arr)
-            if (o != null)
-                return o;
-        return null;
-    }
-
-    private static String asString(Object o) {
-        return o == null ? "" : o.toString();
-    }
-
-    private static String formatVnd(Object v) {
-        if (v == null)
-            return "0 đ";
-        try {
-            String s = v.toString();
-            // Nếu backend đã trả kèm đơn vị
-            if (s.endsWith("đ") || s.endsWith("₫") || s.toLowerCase(Locale.ROOT).contains("vnd")) {
-                return s;
-            }
-            double d = Double.parseDouble(s.replaceAll("[^0-9.]", ""));
-            NumberFormat nf = NumberFormat.getNumberInstance(new Locale("vi", "VN"));
-            return nf.format(d) + " đ";
-        } catch (Exception ignore) {
-            return String.valueOf(v);
-        }
-    }
-
-    @SuppressWarnings("unchecked")
-    private static String buildItemsBrief(Object itemsObj) {
-        if (!(itemsObj instanceof List))
-            return "";
-        List<?> items = (List<?>) itemsObj;
-        StringBuilder sb = new StringBuilder();
-        int shown = 0;
-        for (Object it : items) {
-            if (!(it instanceof Map))
-                continue;
-            Map<String, Object> row = (Map<String, Object>) it;
-            Object name = firstNonNull(row.get("name"), row.get("title"), "Món");
-            Object q = firstNonNull(row.get("qty"), 1);
-            if (shown > 0)
-                sb.append(", ");
-            sb.append(q).append("x ").append(name);
-            shown++;
-            if (shown >= 3)
-                break; // rút gọn 3 món
-        }
-        if (items.size() > shown)
-            sb.append("…");
-        return sb.toString();
-    }
-
-    private static int withAlpha(int color, float alpha) {
-        int a = Math.round(255 * alpha);
-        return Color.argb(a, Color.red(color), Color.green(color), Color.blue(color));
+    public void onBindViewHolder(@NonNull VH h, int position) {
+        OrderRow r = getItem(position);
+
+        h.tvCode.setText(r.code);
+        h.tvItemsBrief.setText(r.itemsBrief);
+        h.tvTotal.setText(r.total);
+        h.tvTime.setText(r.time);
+        chips.apply(r, h.ivStatus, h.tvStatus, h.layoutStatusChip, false);
+
+        h.btnAccept.setVisibility(r.can(OrderRow.ACCEPT) ? View.VISIBLE : View.GONE);
+        h.btnReject.setVisibility(r.can(OrderRow.REJECT) ? View.VISIBLE : View.GONE);
+        h.btnReady.setVisibility(r.can(OrderRow.READY) ? View.VISIBLE : View.GONE);
+        h.btnComplete.setVisibility(r.can(OrderRow.COMPLETE) ? View.VISIBLE : View.GONE);
     }
 
     static class VH extends RecyclerView.ViewHolder {
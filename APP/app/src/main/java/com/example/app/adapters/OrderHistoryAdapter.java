@@ -10,17 +10,16 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.app.R;
+import com.example.app.util.Formats;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.TimeZone;
 
 /**
  * OrderHistoryAdapter
@@ -35,27 +34,29 @@ import java.util.TimeZone;
  */
 public class OrderHistoryAdapter extends RecyclerView.Adapter<OrderHistoryAdapter.VH> {
 
-    private final List<Map<String, Object>> data;
+    // 24h, ngày/tháng; nhận epoch ms/s, ISO8601, "yyyy-MM-dd HH:mm:ss" (UTC)
+    private static final Formats.Timestamps TIME = new Formats.Timestamps("HH:mm • dd/MM");
+
+    private List<Map<String, Object>> data;
+    // Id ổn định theo vị trí, cấp 1 lần mỗi khi dữ liệu tới
+    private long[] ids;
 
     public OrderHistoryAdapter(@NonNull List<Map<String, Object>> data) {
         this.data = data;
+        this.ids = StableIds.shared().idsFor(data, OrderHistoryAdapter::keyOf);
         setHasStableIds(true);
     }
 
+    /** Dữ liệu mới (hoặc list cũ vừa được sửa) → cấp lại id rồi vẽ lại */
+    public void submitList(@NonNull List<Map<String, Object>> newData) {
+        this.data = newData;
+        this.ids = StableIds.shared().idsFor(newData, OrderHistoryAdapter::keyOf);
+        notifyDataSetChanged();
+    }
+
     @Override
     public long getItemId(int position) {
-        if (position < 0 || position >= data.size())
-            return RecyclerView.NO_ID;
-        Map<String, Object> m = data.get(position);
-        Object id = firstNonNull(m.get("id"), m.get("_id"), m.get("ts"), m.get("time"), m.get("created_at"));
-        if (id == null)
-            return m.hashCode();
-        try {
-            // Nếu là số/epoch
-            return Long.parseLong(id.toString().replaceAll("\\D+", ""));
-        } catch (Exception ignore) {
-            return id.toString().hashCode();
-        }
+        return position >= 0 && position < ids.length ? ids[position] : RecyclerView.NO_ID;
     }
 
     @NonNull
@@ -73,7 +74,7 @@ public class OrderHistoryAdapter extends RecyclerView.Adapter<OrderHistoryAdapte
         String rawStatus = asString(firstNonNull(m.get("status"), m.get("state"), m.get("event"), "update"))
                 .trim().toLowerCase(Locale.ROOT);
         String note = asString(firstNonNull(m.get("note"), m.get("message"), m.get("detail"), ""));
-        String timeDisp = formatTime(firstNonNull(m.get("time"), m.get("created_at"), m.get("ts")));
+        String timeDisp = TIME.format(firstNonNull(m.get("time"), m.get("created_at"), m.get("ts")));
 
         applyStatusChip(h, rawStatus);
         h.tvTime.setText(timeDisp);
@@ -87,6 +88,11 @@ public class OrderHistoryAdapter extends RecyclerView.Adapter<OrderHistoryAdapte
 
     // ===== Helpers =====
 
+    @Nullable
+    private static Object keyOf(@NonNull Map<String, Object> m) {
+        return firstNonNull(m.get("id"), m.get("_id"), m.get("ts"), m.get("time"), m.get("created_at"));
+    }
+
     private static Object firstNonNull(Object... arr) {
         if (arr == null)
             return null;
@@ -100,51 +106,6 @@ public class OrderHistoryAdapter extends RecyclerView.Adapter<OrderHistoryAdapte
         return o == null ? null : o.toString();
     }
 
-    private static String formatTime(Object t) {
-        if (t == null)
-            return "";
-        try {
-            String s = t.toString().trim();
-            if (TextUtils.isEmpty(s))
-                return "";
-            // epoch ms
-            if (s.matches("^\\d{13}$")) {
-                long ms = Long.parseLong(s);
-                return fmt(ms);
-            }
-            // epoch s
-            if (s.matches("^\\d{10}$")) {
-                long ms = Long.parseLong(s) * 1000L;
-                return fmt(ms);
-            }
-            // ISO8601 hoặc yyyy-MM-dd HH:mm:ss
-            // Thử ISO trước
-            try {
-                java.time.OffsetDateTime odt = java.time.OffsetDateTime.parse(s);
-                long ms = odt.toInstant().toEpochMilli();
-                return fmt(ms);
-            } catch (Exception ignored) {
-            }
-            // Thử "yyyy-MM-dd HH:mm:ss"
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
-            sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
-            long ms = sdf.parse(s).getTime();
-            return fmt(ms);
-        } catch (ParseException e) {
-            return t.toString();
-        } catch (Exception e) {
-            return t.toString();
-        }
-    }
-
-    private static String fmt(long ms) {
-        java.time.Instant ins = java.time.Instant.ofEpochMilli(ms);
-        java.time.ZonedDateTime z = java.time.ZonedDateTime.ofInstant(ins, java.time.ZoneId.systemDefault());
-        // 24h, ngày/tháng
-        return String.format(Locale.getDefault(), "%02d:%02d • %02d/%02d",
-                z.getHour(), z.getMinute(), z.getDayOfMonth(), z.getMonthValue());
-    }
-
     private void applyStatusChip(@NonNull VH h, @NonNull String status) {
         int colorText;
         int iconRes;
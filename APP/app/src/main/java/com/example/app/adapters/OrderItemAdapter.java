@@ -7,45 +7,39 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.app.R;
+import com.example.app.util.Formats;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.text.NumberFormat;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
 public class OrderItemAdapter extends RecyclerView.Adapter<OrderItemAdapter.VH> {
     private List<Map<String, Object>> items;
+    // Id ổn định theo vị trí, cấp 1 lần mỗi khi dữ liệu tới
+    private long[] ids;
 
     public OrderItemAdapter(@NonNull List<Map<String, Object>> items) {
         this.items = items;
+        this.ids = StableIds.shared().idsFor(items, OrderItemAdapter::keyOf);
         setHasStableIds(true);
     }
 
     /** Cho phép cập nhật danh sách nếu cần */
     public void submitList(@NonNull List<Map<String, Object>> newItems) {
         this.items = newItems;
+        this.ids = StableIds.shared().idsFor(newItems, OrderItemAdapter::keyOf);
         notifyDataSetChanged();
     }
 
     @Override
     public long getItemId(int position) {
-        if (items == null || position < 0 || position >= items.size())
-            return RecyclerView.NO_ID;
-
-        Object id = firstNonNull(items.get(position).get("id"), items.get(position).get("_id"));
-        if (id == null)
-            return items.get(position).hashCode();
-
-        try {
-            return Long.parseLong(id.toString().replaceAll("\\D+", ""));
-        } catch (Exception ignore) {
-            return id.toString().hashCode();
-        }
+        return position >= 0 && position < ids.length ? ids[position] : RecyclerView.NO_ID;
     }
 
     @NonNull
@@ -94,6 +88,11 @@ public class OrderItemAdapter extends RecyclerView.Adapter<OrderItemAdapter.VH>
 
     // ===== Helpers =====
 
+    @Nullable
+    private static Object keyOf(@NonNull Map<String, Object> m) {
+        return firstNonNull(m.get("id"), m.get("_id"));
+    }
+
     private static Object firstNonNull(Object... arr) {
         if (arr == null)
             return null;
@@ -148,16 +147,14 @@ public class OrderItemAdapter extends RecyclerView.Adapter<OrderItemAdapter.VH>
     private static String formatCurrency(Object v) {
         try {
             if (v instanceof BigDecimal) {
-                NumberFormat nf = NumberFormat.getNumberInstance(new Locale("vi", "VN"));
-                return nf.format(((BigDecimal) v).setScale(0, RoundingMode.HALF_UP)) + " đ";
+                return Formats.vnd(((BigDecimal) v).setScale(0, RoundingMode.HALF_UP).longValue());
             }
             String s = v.toString();
             if (s.endsWith("đ") || s.endsWith("₫") || s.toLowerCase(Locale.ROOT).contains("vnd")) {
                 return s; // đã có đơn vị ⇒ giữ nguyên
             }
             double d = Double.parseDouble(s.replaceAll("[^0-9.]", ""));
-            NumberFormat nf = NumberFormat.getNumberInstance(new Locale("vi", "VN"));
-            return nf.format(Math.round(d)) + " đ";
+            return Formats.vnd(Math.round(d));
         } catch (Exception ignore) {
             return String.valueOf(v);
         }
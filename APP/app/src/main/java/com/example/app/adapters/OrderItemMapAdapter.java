@@ -7,52 +7,65 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.app.R; // Thay thế bằng package/module của bạn
+import com.example.app.util.Formats;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.text.NumberFormat;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Adapter hiển thị danh sách các mặt hàng (sử dụng List<Map<String, Object>>)
  * trong chi tiết đơn hàng.
- * Adapter này được tối ưu hóa để xử lý linh hoạt nhiều định dạng dữ liệu đầu vào.
+ * Adapter này được tối ưu hóa để xử lý linh hoạt nhiều định dạng dữ liệu đầu vào:
+ * alias / parse số / định dạng tiền chạy 1 lần trên thread nền (→ {@link Line}), bind chỉ gán text.
  */
-public class OrderItemMapAdapter extends RecyclerView.Adapter<OrderItemMapAdapter.VH> {
-    private List<Map<String, Object>> items;
+public class OrderItemMapAdapter extends DiffingAdapter<OrderItemMapAdapter.Line, OrderItemMapAdapter.VH> {
+
+    /** 1 dòng món đã định dạng xong (dựng trên thread nền). */
+    public static final class Line {
+        @Nullable
+        final Object key;
+        @NonNull
+        final String title;
+        @NonNull
+        final String qty;
+        @NonNull
+        final String price;
+
+        Line(@Nullable Object key, @NonNull String title, @NonNull String qty, @NonNull String price) {
+            this.key = key;
+            this.title = title;
+            this.qty = qty;
+            this.price = price;
+        }
+    }
 
     public OrderItemMapAdapter(@NonNull List<Map<String, Object>> items) {
-        this.items = items;
-        setHasStableIds(true);
+        super(null);
+        submitItems(items);
     }
 
     /** Cho phép cập nhật danh sách nếu cần */
-    public void submitList(@NonNull List<Map<String, Object>> newItems) {
-        this.items = newItems;
-        notifyDataSetChanged();
+    public void submitItems(@Nullable List<Map<String, Object>> newItems) {
+        submitMapped(newItems, (it, position) -> toLine(it));
     }
 
+    @Nullable
     @Override
-    public long getItemId(int position) {
-        if (items == null || position < 0 || position >= items.size())
-            return RecyclerView.NO_ID;
-
-        // Logic của bạn: Tìm id hoặc _id, sau đó chuyển đổi
-        Object id = firstNonNull(items.get(position).get("id"), items.get(position).get("_id"));
-        if (id == null)
-            return items.get(position).hashCode();
+    protected Object keyOf(@NonNull Line item) {
+        return item.key;
+    }
 
-        try {
-            // Lọc chỉ giữ lại số để parse thành Long
-            return Long.parseLong(id.toString().replaceAll("\\D+", ""));
-        } catch (Exception ignore) {
-            return id.toString().hashCode();
-        }
+    @Override
+    protected int contentHashOf(@NonNull Line item) {
+        return Objects.hash(item.title, item.qty, item.price);
     }
 
     @NonNull
@@ -66,19 +79,23 @@ public class OrderItemMapAdapter extends RecyclerView.Adapter<OrderItemMapAdapte
 
     @Override
     public void onBindViewHolder(@NonNull VH holder, int position) {
-        Map<String, Object> it = items.get(position);
+        Line line = getItem(position);
+        holder.title.setText(line.title);
+        holder.qty.setText(line.qty);
+        holder.price.setText(line.price);
+    }
 
+    @NonNull
+    private static Line toLine(@NonNull Map<String, Object> it) {
         // --- Tên món linh hoạt ---
         String title = firstNonEmpty(
                 asString(it.get("name")),
                 asString(it.get("title")),
                 asString(it.get("item_name")),
                 "-");
-        holder.title.setText(title);
 
         // --- Số lượng ---
         int qty = parseQty(firstNonNull(it.get("qty"), it.get("quantity")));
-        holder.qty.setText("x" + qty);
 
         // --- Giá: ưu tiên line_total nếu backend trả; nếu không tính unit * qty ---
         Object lineTotalRaw = firstNonNull(it.get("line_total"), it.get("total"));
@@ -90,16 +107,16 @@ public class OrderItemMapAdapter extends RecyclerView.Adapter<OrderItemMapAdapte
             BigDecimal total = unit.multiply(BigDecimal.valueOf(qty)).setScale(0, RoundingMode.HALF_UP);
             priceText = formatCurrency(total);
         }
-        holder.price.setText(priceText);
-    }
-
-    @Override
-    public int getItemCount() {
-        return items != null ? items.size() : 0;
+        return new Line(idOf(it), title, "x" + qty, priceText);
     }
 
     // ===== Helpers (Giữ nguyên logic của bạn) =====
 
+    @Nullable
+    private static Object idOf(@NonNull Map<String, Object> m) {
+        return firstNonNull(m.get("id"), m.get("_id"));
+    }
+
     private static Object firstNonNull(Object... arr) {
         if (arr == null)
             return null;
@@ -154,16 +171,14 @@ public class OrderItemMapAdapter extends RecyclerView.Adapter<OrderItemMapAdapte
     private static String formatCurrency(Object v) {
         try {
             if (v instanceof BigDecimal) {
-                NumberFormat nf = NumberFormat.getNumberInstance(new Locale("vi", "VN"));
-                return nf.format(((BigDecimal) v).setScale(0, RoundingMode.HALF_UP)) + " đ";
+                return Formats.vnd(((BigDecimal) v).setScale(0, RoundingMode.HALF_UP).longValue());
             }
             String s = v.toString();
             if (s.endsWith("đ") || s.endsWith("₫") || s.toLowerCase(Locale.ROOT).contains("vnd")) {
                 return s; // đã có đơn vị ⇒ giữ nguyên
             }
             double d = Double.parseDouble(s.replaceAll("[^0-9.]", ""));
-            NumberFormat nf = NumberFormat.getNumberInstance(new Locale("vi", "VN"));
-            return nf.format(Math.round(d)) + " đ";
+            return Formats.vnd(Math.round(d));
         } catch (Exception ignore) {
             return String.valueOf(v);
         }
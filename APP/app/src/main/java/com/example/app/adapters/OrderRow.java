@@ -0,0 +1,85 @@
+package com.example.app.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.app.model.OrderDto;
+
+import java.util.Objects;
+
+/**
+ * OrderRow: 1 dòng đơn hàng đã sẵn sàng để vẽ (bất biến).
+ *
+ * - Dựng 1 lần trên thread nền bởi {@link OrderRows} (mỗi vai trò 1 luật trạng thái)
+ * - Chuỗi hiển thị, kiểu chip trạng thái và các nút được phép đã tính xong
+ *   → onBindViewHolder() chỉ gán field vào view
+ * - {@link #order}: DTO gốc để trả về cho Listener (màn hình vẫn thao tác trên DTO)
+ */
+public final class OrderRow {
+
+    /** Kiểu chip trạng thái; màu / icon tương ứng được adapter resolve sẵn 1 lần. */
+    public enum Chip {
+        SUCCESS, WARNING, INFO, ERROR, NEUTRAL
+    }
+
+    // Nút hành động (bitmask)
+    static final int ACCEPT = 1;
+    static final int REJECT = 1 << 1;
+    static final int READY = 1 << 2;
+    static final int COMPLETE = 1 << 3;
+    static final int ARRIVED = 1 << 4;
+    static final int PICKED = 1 << 5;
+    static final int ON_THE_WAY = 1 << 6;
+    static final int DELIVERED = 1 << 7;
+    static final int FAILED = 1 << 8;
+    static final int CANCEL = 1 << 9;
+
+    @NonNull
+    public final OrderDto order;
+    @Nullable
+    final String key;
+    @NonNull
+    final String code;
+    @NonNull
+    final String itemsBrief;
+    @NonNull
+    final String total;
+    @NonNull
+    final String time;
+    /** Trạng thái sau chuẩn hoá (lower-case, theo luật của vai trò) */
+    @NonNull
+    final String status;
+    @NonNull
+    final String statusLabel;
+    @NonNull
+    final Chip chip;
+    final int actions;
+    /** Hash các field hiển thị ở trên → DiffUtil chỉ bind lại khi dòng thực sự đổi */
+    final int hash;
+
+    OrderRow(@NonNull OrderDto order, @NonNull String code, @NonNull String itemsBrief,
+            @NonNull String total, @NonNull String time, @NonNull String status,
+            @NonNull String statusLabel, @NonNull Chip chip, int actions) {
+        this.order = order;
+        this.key = order.getId();
+        this.code = code;
+        this.itemsBrief = itemsBrief;
+        this.total = total;
+        this.time = time;
+        this.status = status;
+        this.statusLabel = statusLabel;
+        this.chip = chip;
+        this.actions = actions;
+        this.hash = Objects.hash(key, code, itemsBrief, total, time, statusLabel, chip, actions);
+    }
+
+    boolean can(int action) {
+        return (actions & action) != 0;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return code + " " + status + " [" + statusLabel + "/" + chip + "] actions=" + Integer.toBinaryString(actions);
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.app.adapters;
+
+import androidx.annotation.NonNull;
+
+import com.example.app.model.OrderDto;
+import com.example.app.util.Formats;
+
+/**
+ * OrderRows: luật hiển thị đơn theo vai trò (shipper / merchant / customer) → {@link OrderRow}.
+ *
+ * Java thuần, chỉ đọc DTO; chạy trên thread diff của {@link DiffingAdapter}.
+ * Nhãn / nút theo trạng thái giữ nguyên như lúc còn tính trong onBindViewHolder().
+ */
+final class OrderRows {
+
+    private static final int BRIEF_ITEMS = 3;
+
+    private OrderRows() {
+    }
+
+    // ============================
+    // Shipper
+    // ============================
+
+    @NonNull
+    static OrderRow shipper(@NonNull OrderDto m, int position) {
+        String status = m.normalizedStatus();
+        if (status.isEmpty())
+            status = "available";
+
+        // Đơn đã có shipper nhưng status vẫn READY/CONFIRMED/COOKING → coi như đang giao
+        boolean hasShipper = m.hasShipper();
+        if (hasShipper && (status.equals("ready") || status.equals("confirmed") || status.equals("cooking")))
+            status = "shipping";
+
+        boolean inDelivery = OrderDto.isInDelivery(status);
+        int actions = 0;
+        if (inDelivery) {
+            if (hasShipper)
+                actions = OrderRow.ON_THE_WAY | OrderRow.DELIVERED | OrderRow.FAILED;
+        } else {
+            switch (status) {
+                case "available":
+                case "pending":
+                case "ready":
+                case "confirmed":
+                case "cooking":
+                    if (!hasShipper)
+                        actions = OrderRow.ACCEPT;
+                    break;
+                case "assigned":
+                case "arrived_store":
+                    actions = OrderRow.ARRIVED | OrderRow.PICKED | OrderRow.FAILED;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        OrderRow.Chip chip;
+        String label;
+        switch (inDelivery ? "shipping" : status) {
+            case "delivered":
+            case "completed":
+                chip = OrderRow.Chip.SUCCESS;
+                label = "đã giao";
+                break;
+            case "shipping":
+                chip = OrderRow.Chip.WARNING;
+                label = "đang giao";
+                break;
+            case "assigned":
+            case "arrived_store":
+                chip = OrderRow.Chip.INFO;
+                label = "chờ lấy";
+                break;
+            case "failed":
+            case "cancelled":
+            case "canceled":
+                chip = OrderRow.Chip.ERROR;
+                label = "thất bại";
+                break;
+            default:
+                chip = OrderRow.Chip.NEUTRAL;
+                label = "chưa nhận";
+                break;
+        }
+        return row(m, code(m, String.valueOf(position + 1)), status, label, chip, actions);
+    }
+
+    // ============================
+    // Merchant
+    // ============================
+
+    @NonNull
+    static OrderRow merchant(@NonNull OrderDto m, int position) {
+        String status = m.status != null ? m.normalizedStatus() : "pending";
+
+        int actions = 0;
+        switch (status) {
+            case "pending":
+            case "new":
+            case "awaiting_confirm":
+            case "confirmed":
+                actions = OrderRow.ACCEPT | OrderRow.REJECT;
+                break;
+            case "preparing":
+            case "in_progress":
+            case "processing":
+            case "confirm":
+            case "cooking":
+                actions = OrderRow.READY | OrderRow.REJECT;
+                break;
+            case "ready":
+                // Merchant tự đánh dấu hoàn tất (tự giao / không có shipper)
+                actions = OrderRow.COMPLETE;
+                break;
+            default:
+                break;
+        }
+
+        OrderRow.Chip chip;
+        String label;
+        switch (status) {
+            case "delivered":
+            case "completed":
+            case "done":
+            case "success":
+                chip = OrderRow.Chip.SUCCESS;
+                label = "đã giao";
+                break;
+            case "preparing":
+            case "in_progress":
+            case "processing":
+            case "shipping":
+            case "awaiting_ship":
+            case "cooking":
+                chip = OrderRow.Chip.WARNING;
+                label = "đang chuẩn bị";
+                break;
+            case "ready":
+                chip = OrderRow.Chip.INFO;
+                label = "sẵn sàng";
+                break;
+            case "cancelled":
+            case "canceled":
+            case "rejected":
+            case "failed":
+                chip = OrderRow.Chip.ERROR;
+                label = "đã hủy";
+                break;
+            default:
+                chip = OrderRow.Chip.NEUTRAL;
+                label = "chờ xác nhận";
+                break;
+        }
+        return row(m, code(m, "—"), status, label, chip, actions);
+    }
+
+    // ============================
+    // Customer
+    // ============================
+
+    @NonNull
+    static OrderRow customer(@NonNull OrderDto m, int position) {
+        String status = m.normalizedStatus();
+        if (status.isEmpty())
+            status = "pending";
+
+        OrderRow.Chip chip;
+        String label;
+        switch (status) {
+            case "completed":
+            case "delivered":
+            case "success":
+                chip = OrderRow.Chip.SUCCESS;
+                label = "hoàn tất";
+                break;
+            case "ready":
+            case "handover":
+                chip = OrderRow.Chip.SUCCESS;
+                label = "sẵn sàng";
+                break;
+            case "in_progress":
+            case "processing":
+            case "shipping":
+            case "cooking":
+            case "confirmed":
+            case "delivering":
+                chip = OrderRow.Chip.WARNING;
+                label = "đang xử lý";
+                break;
+            case "cancelled":
+            case "canceled":
+            case "failed":
+                chip = OrderRow.Chip.ERROR;
+                label = "đã hủy";
+                break;
+            default:
+                chip = OrderRow.Chip.NEUTRAL;
+                label = "chờ xử lý";
+                break;
+        }
+
+        // Chỉ cho hủy khi chưa bắt đầu chuẩn bị (PENDING / CONFIRMED)
+        int actions = 0;
+        switch (status) {
+            case "pending":
+            case "new":
+            case "awaiting_confirm":
+            case "confirmed":
+                actions = OrderRow.CANCEL;
+                break;
+            default:
+                break;
+        }
+        return row(m, code(m, String.valueOf(position + 1)), status, label, chip, actions);
+    }
+
+    // ============================
+    // Helpers
+    // ============================
+
+    @NonNull
+    private static OrderRow row(@NonNull OrderDto m, @NonNull String code, @NonNull String status,
+            @NonNull String label, @NonNull OrderRow.Chip chip, int actions) {
+        return new OrderRow(m, code, m.itemsBrief(BRIEF_ITEMS), Formats.vnd(m.total),
+                m.createdAt != null ? m.createdAt : "", status, label, chip, actions);
+    }
+
+    @NonNull
+    private static String code(@NonNull OrderDto m, @NonNull String fallback) {
+        String id = m.getId();
+        return "#" + (id != null ? id : fallback);
+    }
+}
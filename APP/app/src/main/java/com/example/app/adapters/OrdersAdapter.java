@@ -8,42 +8,39 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 import androidx.core.graphics.drawable.DrawableCompat; // Thư viện quan trọng để fix lỗi tinting
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.app.R;
 import com.example.app.model.OrderSummary;
-import java.text.NumberFormat;
+import com.example.app.util.Formats;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
-public class OrdersAdapter extends RecyclerView.Adapter<OrdersAdapter.VH> {
+public class OrdersAdapter extends DiffingAdapter<OrderSummary, OrdersAdapter.VH> {
 
     public interface OnOrderClickListener {
         void onOrderClick(OrderSummary order);
     }
 
-    private final List<OrderSummary> orders;
     private final OnOrderClickListener listener;
 
     public OrdersAdapter(List<OrderSummary> orders, OnOrderClickListener listener) {
-        this.orders = orders;
+        super(orders);
         this.listener = listener;
-        setHasStableIds(true);
     }
 
+    @Nullable
     @Override
-    public long getItemId(int position) {
-        if (orders == null || position < 0 || position >= orders.size())
-            return RecyclerView.NO_ID;
-        OrderSummary o = orders.get(position);
-        if (o == null || TextUtils.isEmpty(o.orderId))
-            return position;
-        try {
-            return Long.parseLong(o.orderId.replaceAll("\\D+", ""));
-        } catch (Exception ignore) {
-            return o.orderId.hashCode();
-        }
+    protected Object keyOf(@NonNull OrderSummary item) {
+        return item.orderId;
+    }
+
+    @Override
+    protected int contentHashOf(@NonNull OrderSummary item) {
+        return Objects.hash(item.orderId, item.status, item.total, item.createdAt);
     }
 
     @NonNull
@@ -57,7 +54,7 @@ public class OrdersAdapter extends RecyclerView.Adapter<OrdersAdapter.VH> {
 
     @Override
     public void onBindViewHolder(@NonNull VH holder, int position) {
-        OrderSummary o = orders.get(position);
+        OrderSummary o = getItem(position);
         Context ctx = holder.itemView.getContext();
 
         // Mã đơn (#code)
@@ -69,8 +66,7 @@ public class OrdersAdapter extends RecyclerView.Adapter<OrdersAdapter.VH> {
         applyStatus(ctx, holder, rawStatus);
 
         // Tổng tiền VNĐ
-        NumberFormat nf = NumberFormat.getNumberInstance(new Locale("vi", "VN"));
-        holder.tvTotal.setText(nf.format(o.total) + " đ");
+        holder.tvTotal.setText(Formats.vnd(o.total));
 
         // Thời gian
         holder.tvTime.setText(o.createdAt != null ? o.createdAt : "");
@@ -82,11 +78,6 @@ public class OrdersAdapter extends RecyclerView.Adapter<OrdersAdapter.VH> {
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return orders != null ? orders.size() : 0;
-    }
-
     // ===== Helpers: map trạng thái sang icon/màu/text và áp dụng tinting ổn định =====
     private void applyStatus(Context ctx, VH holder, String raw) {
         String status = raw == null ? "" : raw.trim().toLowerCase(Locale.ROOT);
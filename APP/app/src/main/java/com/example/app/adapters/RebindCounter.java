@@ -0,0 +1,55 @@
+package com.example.app.adapters;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+/**
+ * RebindCounter: đếm thao tác DiffUtil giao cho adapter trước khi chuyển tiếp.
+ * Dòng phải bind lại = thêm mới + đổi nội dung (dòng chỉ di chuyển/xoá không bind).
+ */
+final class RebindCounter implements ListUpdateCallback {
+
+    @Nullable
+    private final ListUpdateCallback target;
+
+    long inserted;
+    long removed;
+    long moved;
+    long changed;
+
+    RebindCounter(@Nullable ListUpdateCallback target) {
+        this.target = target;
+    }
+
+    long rebinds() {
+        return inserted + changed;
+    }
+
+    @Override
+    public void onInserted(int position, int count) {
+        inserted += count;
+        if (target != null)
+            target.onInserted(position, count);
+    }
+
+    @Override
+    public void onRemoved(int position, int count) {
+        removed += count;
+        if (target != null)
+            target.onRemoved(position, count);
+    }
+
+    @Override
+    public void onMoved(int fromPosition, int toPosition) {
+        moved++;
+        if (target != null)
+            target.onMoved(fromPosition, toPosition);
+    }
+
+    @Override
+    public void onChanged(int position, int count, @Nullable Object payload) {
+        changed += count;
+        if (target != null)
+            target.onChanged(position, count, payload);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.app.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * RowSnapshot: key + hash nội dung của từng dòng tại thời điểm submit.
+ *
+ * - Model (OrderDto, MenuItem…) bị sửa trực tiếp sau khi gọi API (vd. đổi status)
+ *   nên không thể so object cũ ↔ mới; so hash đã chụp lúc submit trước với hash hiện tại
+ * - Diff chạy trên thread nền chỉ đọc mảng key/hash, không chạm vào model
+ * - Key null → không ghép với dòng nào (xoá + thêm)
+ * - Phần tử null = placeholder (PageWindow): key + id theo vị trí → placeholder còn nguyên
+ *   chỗ cũ không bị xoá / thêm lại mỗi lần submit
+ * - Id ổn định cho getItemId() cấp từ {@link StableIds} ngay lúc chụp
+ */
+final class RowSnapshot {
+
+    static final RowSnapshot EMPTY = new RowSnapshot(new Object[0], new int[0], new long[0]);
+
+    // Id placeholder nằm ngoài dải của StableIds (cấp từ 1 trở lên) và khác RecyclerView.NO_ID
+    private static final long PLACEHOLDER_ID_BASE = Long.MIN_VALUE;
+
+    /** Key của placeholder tại 1 vị trí; không trùng với key thực thể nào. */
+    private static final class Placeholder {
+        final int position;
+
+        Placeholder(int position) {
+            this.position = position;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Placeholder && ((Placeholder) o).position == position;
+        }
+
+        @Override
+        public int hashCode() {
+            return position;
+        }
+    }
+
+    private final Object[] keys;
+    private final int[] hashes;
+    private final long[] ids;
+
+    private RowSnapshot(@NonNull Object[] keys, @NonNull int[] hashes, @NonNull long[] ids) {
+        this.keys = keys;
+        this.hashes = hashes;
+        this.ids = ids;
+    }
+
+    @NonNull
+    static <T> RowSnapshot of(@NonNull List<T> items,
+                              @NonNull Function<? super T, ?> key,
+                              @NonNull ToIntFunction<? super T> hash) {
+        int n = items.size();
+        Object[] keys = new Object[n];
+        int[] hashes = new int[n];
+        long[] ids = new long[n];
+        StableIds registry = StableIds.shared();
+        for (int i = 0; i < n; i++) {
+            T item = items.get(i);
+            if (item == null) {
+                keys[i] = new Placeholder(i);
+                ids[i] = PLACEHOLDER_ID_BASE + i;
+                continue;
+            }
+            keys[i] = key.apply(item);
+            hashes[i] = hash.applyAsInt(item);
+            ids[i] = registry.idOf(keys[i]);
+        }
+        return new RowSnapshot(keys, hashes, ids);
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    @Nullable
+    Object keyAt(int position) {
+        return keys[position];
+    }
+
+    long idAt(int position) {
+        return ids[position];
+    }
+
+    /** Callback cho DiffUtil: {@code this} là danh sách đang hiển thị, {@code next} là danh sách mới. */
+    @NonNull
+    DiffUtil.Callback diffTo(@NonNull RowSnapshot next) {
+        RowSnapshot prev = this;
+        return new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return prev.keys.length;
+            }
+
+            @Override
+            public int getNewListSize() {
+                return next.keys.length;
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldPos, int newPos) {
+                Object k = prev.keys[oldPos];
+                return k != null && k.equals(next.keys[newPos]);
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPos, int newPos) {
+                return prev.hashes[oldPos] == next.hashes[newPos];
+            }
+        };
+    }
+}
@@ -1,10 +1,6 @@
 package com.example.app.adapters;
 
 import android.content.Context;
-import android.graphics.Color;
-import android.graphics.drawable.Drawable;
-import android.graphics.drawable.GradientDrawable;
-import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -13,15 +9,12 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.app.R;
+import com.example.app.model.OrderDto;
 
-import java.text.NumberFormat;
 import java.util.List;
-import java.util.Locale;
-import java.util.Map;
 
 /**
  * ShipperOrdersAdapter
@@ -34,54 +27,55 @@ import java.util.Map;
  * - layout_status_chip, iv_status, tv_status
  * - btn_accept, btn_arrived, btn_picked, btn_on_the_way, btn_delivered,
  * btn_failed
+ *
+ * Dòng được dựng sẵn thành {@link OrderRow} trên thread nền ({@link OrderRows#shipper}).
  */
-public class ShipperOrdersAdapter extends RecyclerView.Adapter<ShipperOrdersAdapter.VH> {
+public class ShipperOrdersAdapter extends DiffingAdapter<OrderRow, ShipperOrdersAdapter.VH> {
 
     public interface Listener {
-        void onAccept(@NonNull Map<String, Object> order, int position);
+        void onAccept(@NonNull OrderDto order, int position);
 
-        void onArrived(@NonNull Map<String, Object> order, int position);
+        void onArrived(@NonNull OrderDto order, int position);
 
-        void onPicked(@NonNull Map<String, Object> order, int position);
+        void onPicked(@NonNull OrderDto order, int position);
 
-        void onOnTheWay(@NonNull Map<String, Object> order, int position);
+        void onOnTheWay(@NonNull OrderDto order, int position);
 
-        void onDelivered(@NonNull Map<String, Object> order, int position);
+        void onDelivered(@NonNull OrderDto order, int position);
 
-        void onFailed(@NonNull Map<String, Object> order, int position, @Nullable String reason);
+        void onFailed(@NonNull OrderDto order, int position, @Nullable String reason);
 
-        default void onItemClick(@NonNull Map<String, Object> order, int position) {
+        default void onItemClick(@NonNull OrderDto order, int position) {
         }
     }
 
-    private final Context ctx;
-    private final List<Map<String, Object>> data;
+    private final ChipColors chips;
     private final Listener listener;
-    private final NumberFormat vndFmt = NumberFormat.getNumberInstance(new Locale("vi", "VN"));
 
     public ShipperOrdersAdapter(
             @NonNull Context ctx,
-            @NonNull List<Map<String, Object>> data,
+            @NonNull List<OrderDto> data,
             @NonNull Listener listener) {
-        this.ctx = ctx;
-        this.data = data;
+        super(null);
+        this.chips = new ChipColors(ctx);
         this.listener = listener;
-        setHasStableIds(true);
+        submitOrders(data);
+    }
+
+    /** Hiển thị {@code orders}; dòng được dựng lại + diff trên thread nền. */
+    public void submitOrders(@Nullable List<OrderDto> orders) {
+        submitMapped(orders, OrderRows::shipper);
     }
 
+    @Nullable
     @Override
-    public long getItemId(int position) {
-        Object code = firstNonNull(
-                data.get(position).get("order_id"),
-                data.get(position).get("code"),
-                String.valueOf(position));
-        try {
-            String digits = code.toString().replaceAll("\\D+", "");
-            if (!TextUtils.isEmpty(digits))
-                return Long.parseLong(digits);
-        } catch (Exception ignore) {
-        }
-        return code.toString().hashCode();
+    protected Object keyOf(@NonNull OrderRow item) {
+        return item.key;
+    }
+
+    @Override
+    protected int contentHashOf(@NonNull OrderRow item) {
+        return item.hash;
     }
 
     @NonNull
@@ -89,279 +83,64 @@ public class ShipperOrdersAdapter extends RecyclerView.Adapter<ShipperOrdersAdap
     public VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View v = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_shipper_order, parent, false);
-        return new VH(v);
-    }
-
-    @Override
-    public void onBindViewHolder(@NonNull VH h, int pos) {
-        Map<String, Object> m = data.get(pos);
+        VH h = new VH(v);
 
-        // Code
-        String code = "#" + asString(firstNonNull(m.get("order_id"), m.get("code"), pos + 1));
-        h.tvCode.setText(code);
-
-        // Items brief / total / time
-        h.tvItemsBrief.setText(buildItemsBrief(m.get("items")));
-        h.tvTotal.setText(formatVnd(firstNonNull(m.get("total"), "0")));
-        h.tvTime.setText(asString(firstNonNull(m.get("created_at"), m.get("time"), "")));
-
-        // Status normalize
-        String status = asString(m.get("status")).trim().toLowerCase(Locale.ROOT);
-        if (TextUtils.isEmpty(status))
-            status = "available";
-        
-        // ✅ FIX: Nếu order đã có shipper_id (đã được assign) nhưng status vẫn là READY/CONFIRMED/COOKING,
-        // thì coi như đang giao
-        Object shipperId = m.get("shipper_id");
-        boolean hasShipper = shipperId != null;
-        if (hasShipper && (status.equals("ready") || status.equals("confirmed") || status.equals("cooking"))) {
-            status = "shipping"; // Coi như đang giao
-        }
-
-        applyStatusChip(h, status);
-
-        // Reset all buttons
-        h.btnAccept.setVisibility(View.GONE);
-        h.btnArrived.setVisibility(View.GONE);
-        h.btnPicked.setVisibility(View.GONE);
-        h.btnOnTheWay.setVisibility(View.GONE);
-        h.btnDelivered.setVisibility(View.GONE);
-        h.btnFailed.setVisibility(View.GONE);
-
-        // Show buttons by status
-        // ✅ FIX: Nếu order đã có shipper_id, không hiển thị nút "Nhận đơn"
-        
-        switch (status) {
-            case "available":
-            case "pending": // ✅ FIX: Orders trong tab "Mới" có thể có status PENDING
-            case "ready": // ✅ FIX: Orders trong tab "Mới" có thể có status READY (chưa có shipper_id)
-            case "confirmed": // ✅ FIX: Orders trong tab "Mới" có thể có status CONFIRMED (chưa có shipper_id)
-            case "cooking": // ✅ FIX: Orders trong tab "Mới" có thể có status COOKING (chưa có shipper_id)
-                if (!hasShipper) {
-                    h.btnAccept.setVisibility(View.VISIBLE);
-                }
-                break;
-
-            case "assigned":
-            case "arrived_store":
-                h.btnArrived.setVisibility(View.VISIBLE); // xác nhận đã tới quán
-                h.btnPicked.setVisibility(View.VISIBLE); // đã lấy hàng
-                // nếu muốn cho phép lên "on_the_way" trực tiếp:
-                // h.btnOnTheWay.setVisibility(View.VISIBLE);
-                h.btnFailed.setVisibility(View.VISIBLE);
-                break;
-
-            case "picked_up":
-            case "on_the_way":
-            case "delivering":
-            case "shipping": // ✅ FIX: Backend trả về SHIPPING khi shipper accept order (hoặc đã được normalize từ ready/confirmed/cooking nếu có shipper_id)
-                if (hasShipper) {
-                    h.btnOnTheWay.setVisibility(View.VISIBLE);
-                    h.btnDelivered.setVisibility(View.VISIBLE);
-                    h.btnFailed.setVisibility(View.VISIBLE);
-                }
-                break;
-
-            case "delivered":
-            case "completed":
-            case "failed":
-            case "cancelled":
-            case "canceled":
-                // ẩn hết
-                break;
-
-            default:
-                // ẩn an toàn
-                break;
-        }
-
-        // Clicks (bảo vệ NO_POSITION)
-        h.itemView.setOnClickListener(v -> {
-            if (listener == null)
-                return;
+        // Clicks gắn 1 lần cho mỗi ViewHolder (bảo vệ NO_POSITION)
+        h.itemView.setOnClickListener(x -> {
             int p = h.getBindingAdapterPosition();
-            if (p == RecyclerView.NO_POSITION)
-                return;
-            listener.onItemClick(m, p);
+            if (p != RecyclerView.NO_POSITION)
+                listener.onItemClick(getItem(p).order, p);
         });
-
-        h.btnAccept.setOnClickListener(v -> {
-            if (listener == null)
-                return;
+        h.btnAccept.setOnClickListener(x -> {
             int p = h.getBindingAdapterPosition();
-            if (p == RecyclerView.NO_POSITION)
-                return;
-            listener.onAccept(m, p);
+            if (p != RecyclerView.NO_POSITION)
+                listener.onAccept(getItem(p).order, p);
         });
-
-        h.btnArrived.setOnClickListener(v -> {
-            if (listener == null)
-                return;
+        h.btnArrived.setOnClickListener(x -> {
             int p = h.getBindingAdapterPosition();
-            if (p == RecyclerView.NO_POSITION)
-                return;
-            listener.onArrived(m, p);
+            if (p != RecyclerView.NO_POSITION)
+                listener.onArrived(getItem(p).order, p);
         });
-
-        h.btnPicked.setOnClickListener(v -> {
-            if (listener == null)
-                return;
+        h.btnPicked.setOnClickListener(x -> {
             int p = h.getBindingAdapterPosition();
-            if (p == RecyclerView.NO_POSITION)
-                return;
-            listener.onPicked(m, p);
+            if (p != RecyclerView.NO_POSITION)
+                listener.onPicked(getItem(p).order, p);
         });
-
-        h.btnOnTheWay.setOnClickListener(v -> {
-            if (listener == null)
-                return;
+        h.btnOnTheWay.setOnClickListener(x -> {
             int p = h.getBindingAdapterPosition();
-            if (p == RecyclerView.NO_POSITION)
-                return;
-            listener.onOnTheWay(m, p);
+            if (p != RecyclerView.NO_POSITION)
+                listener.onOnTheWay(getItem(p).order, p);
         });
-
-        h.btnDelivered.setOnClickListener(v -> {
-            if (listener == null)
-                return;
+        h.btnDelivered.setOnClickListener(x -> {
             int p = h.getBindingAdapterPosition();
-            if (p == RecyclerView.NO_POSITION)
-                return;
-            listener.onDelivered(m, p);
+            if (p != RecyclerView.NO_POSITION)
+                listener.onDelivered(getItem(p).order, p);
         });
-
-        h.btnFailed.setOnClickListener(v -> {
-            if (listener == null)
-                return;
+        h.btnFailed.setOnClickListener(x -> {
             int p = h.getBindingAdapterPosition();
-            if (p == RecyclerView.NO_POSITION)
-                return;
             // reason có thể null nếu bạn mở dialog lấy lý do sau
-            listener.onFailed(m, p, null);
+            if (p != RecyclerView.NO_POSITION)
+                listener.onFailed(getItem(p).order, p, null);
         });
+        return h;
     }
 
     @Override
-    public int getItemCount() {
-        return data.size();
-    }
-
-    // =============== Helpers ===============
-
-    private void applyStatusChip(@NonNull VH h, @NonNull String status) {
-        int colorText;
-        int iconRes;
-        int bgColor;
-
-        switch (status) {
-            case "delivered":
-            case "completed":
-                iconRes = R.drawable.ic_status_delivered;
-                colorText = ContextCompat.getColor(ctx, R.color.ff_success);
-                bgColor = withAlpha(colorText, 0.10f);
-                h.tvStatus.setText("đã giao");
-                break;
-
-            case "picked_up":
-            case "on_the_way":
-            case "delivering":
-            case "shipping": // ✅ FIX: Backend trả về SHIPPING khi shipper accept order
-                iconRes = R.drawable.ic_status_inprogress;
-                colorText = ContextCompat.getColor(ctx, R.color.ff_warning);
-                bgColor = withAlpha(colorText, 0.12f);
-                h.tvStatus.setText("đang giao");
-                break;
-
-            case "assigned":
-            case "arrived_store":
-                iconRes = R.drawable.ic_status_inprogress;
-                colorText = ContextCompat.getColor(ctx, R.color.ff_info);
-                bgColor = withAlpha(colorText, 0.12f);
-                h.tvStatus.setText("chờ lấy");
-                break;
-
-            case "failed":
-            case "cancelled":
-            case "canceled":
-                iconRes = R.drawable.ic_status_cancelled;
-                colorText = ContextCompat.getColor(ctx, R.color.ff_error);
-                bgColor = withAlpha(colorText, 0.10f);
-                h.tvStatus.setText("thất bại");
-                break;
-
-            case "available":
-            default:
-                iconRes = R.drawable.ic_status_inprogress;
-                colorText = ContextCompat.getColor(ctx, R.color.ff_text_secondary);
-                bgColor = withAlpha(colorText, 0.08f);
-                h.tvStatus.setText("chưa nhận");
-                break;
-        }
-
-        h.ivStatus.setImageResource(iconRes);
-        h.ivStatus.setColorFilter(colorText);
-        h.tvStatus.setTextColor(colorText);
-
-        Drawable bg = h.layoutStatusChip.getBackground();
-        if (bg instanceof GradientDrawable) {
-            GradientDrawable gd = (GradientDrawable) bg.mutate();
-            gd.setColor(bgColor);
-        } else {
-            // fallback: set trực tiếp màu nền nếu không phải shape
-            h.layoutStatusChip.setBackgroundColor(bgColor);
-        }
-    }
-
-    private static Object firstNonNull(Object... arr) {
-        if (arr == null)
-            return null;
-        for (Object o : arr)
-            if (o != null)
-                return o;
-        return null;
-    }
-
-    private static String asString(Object o) {
-        return o == null ? "" : o.toString();
-    }
-
-    private String formatVnd(Object v) {
-        try {
-            double d = Double.parseDouble(v.toString().replaceAll("[^0-9.]", ""));
-            return vndFmt.format(d) + " đ";
-        } catch (Exception ignore) {
-            return String.valueOf(v);
-        }
-    }
-
-    @SuppressWarnings("unchecked")
-    private static String buildItemsBrief(Object itemsObj) {
-        if (!(itemsObj instanceof List))
-            return "";
-        List<?> items = (List<?>) itemsObj;
-        StringBuilder sb = new StringBuilder();
-        int shown = 0;
-        for (Object it : items) {
-            if (!(it instanceof Map))
-                continue;
-            Map<String, Object> row = (Map<String, Object>) it;
-            Object name = firstNonNull(row.get("name"), row.get("title"), "Món");
-            Object q = firstNonNull(row.get("qty"), 1);
-            if (shown > 0)
-                sb.append(", ");
-            sb.append(q).append("x ").append(name);
-            shown++;
-            if (shown >= 3)
-                break;
-        }
-        if (items.size() > shown)
-            sb.append("…");
-        return sb.toString();
-    }
-
-    private static int withAlpha(int color, float alpha) {
-        int a = Math.round(255 * alpha);
-        return Color.argb(a, Color.red(color), Color.green(color), Color.blue(color));
+    public void onBindViewHolder(@NonNull VH h, int pos) {
+        OrderRow r = getItem(pos);
+
+        h.tvCode.setText(r.code);
+        h.tvItemsBrief.setText(r.itemsBrief);
+        h.tvTotal.setText(r.total);
+        h.tvTime.setText(r.time);
+        chips.apply(r, h.ivStatus, h.tvStatus, h.layoutStatusChip, true);
+
+        h.btnAccept.setVisibility(r.can(OrderRow.ACCEPT) ? View.VISIBLE : View.GONE);
+        h.btnArrived.setVisibility(r.can(OrderRow.ARRIVED) ? View.VISIBLE : View.GONE);
+        h.btnPicked.setVisibility(r.can(OrderRow.PICKED) ? View.VISIBLE : View.GONE);
+        h.btnOnTheWay.setVisibility(r.can(OrderRow.ON_THE_WAY) ? View.VISIBLE : View.GONE);
+        h.btnDelivered.setVisibility(r.can(OrderRow.DELIVERED) ? View.VISIBLE : View.GONE);
+        h.btnFailed.setVisibility(r.can(OrderRow.FAILED) ? View.VISIBLE : View.GONE);
     }
 
     // =============== ViewHolder ===============
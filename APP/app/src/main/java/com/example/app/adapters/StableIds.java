@@ -0,0 +1,77 @@
+package com.example.app.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * StableIds: cấp id {@code long} ổn định cho mỗi key thực thể (id đơn, id món…).
+ *
+ * - Cấp 1 lần lúc dữ liệu tới (submit), adapter giữ mảng {@code long[]} theo vị trí
+ *   → getItemId() chỉ đọc mảng, không regex / parse / cấp phát
+ * - Id cấp tuần tự nên không trùng: "FF12", "F12" và "12" là 3 id khác nhau
+ *   (trước đây lọc chữ số rồi parse → trùng nhau)
+ * - Số nguyên dạng Double của Gson (5.0), Integer/Long và chuỗi "5" là cùng 1 key
+ * - Key null → id mới mỗi lần (dòng không có định danh, không ghép với dòng cũ)
+ *
+ * Dùng chung toàn app; số key = số thực thể đã hiển thị trong phiên nên không cần dọn.
+ */
+final class StableIds {
+
+    private static final StableIds SHARED = new StableIds();
+
+    @NonNull
+    static StableIds shared() {
+        return SHARED;
+    }
+
+    // guarded by this
+    private final Map<Object, Long> ids = new HashMap<>();
+    private long next = 1;
+
+    StableIds() {
+    }
+
+    synchronized long idOf(@Nullable Object key) {
+        if (key == null)
+            return next++;
+        Object k = normalize(key);
+        Long id = ids.get(k);
+        if (id == null) {
+            id = next++;
+            ids.put(k, id);
+        }
+        return id;
+    }
+
+    /** Id cho cả danh sách theo vị trí; phần tử null nhận id mới. */
+    @NonNull
+    synchronized <T> long[] idsFor(@NonNull List<T> items, @NonNull Function<? super T, ?> key) {
+        long[] out = new long[items.size()];
+        for (int i = 0; i < out.length; i++) {
+            T item = items.get(i);
+            out[i] = idOf(item == null ? null : key.apply(item));
+        }
+        return out;
+    }
+
+    synchronized int size() {
+        return ids.size();
+    }
+
+    @NonNull
+    private static Object normalize(@NonNull Object key) {
+        if (key instanceof Number) {
+            Number n = (Number) key;
+            double d = n.doubleValue();
+            if (d == Math.rint(d) && !Double.isInfinite(d))
+                return String.valueOf(n.longValue());
+            return String.valueOf(d);
+        }
+        return key.toString().trim();
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.app.api;
 
 import com.example.app.BuildConfig;
+import com.example.app.network.HttpEngine;
+import com.example.app.network.RequestCoalescer;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
@@ -19,7 +21,9 @@ public class RetrofitClient {
             HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
             logging.setLevel(HttpLoggingInterceptor.Level.BODY);
 
-            OkHttpClient client = new OkHttpClient.Builder()
+            // Facade trên HttpEngine: dùng chung connection pool với BackendConfig
+            OkHttpClient client = HttpEngine.newBuilder()
+                    .addInterceptor(RequestCoalescer.shared())
                     .addInterceptor(logging)
                     .build();
 
@@ -0,0 +1,295 @@
+package com.example.app.auth;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * SessionStore
+ *
+ * - Giữ access/refresh token, role, email và claims JWT đã decode trong RAM
+ * - Đọc SharedPreferences đúng 1 lần khi khởi tạo; mọi lần đọc sau chỉ là
+ *   1 volatile read (dùng cho header interceptor trên mọi request)
+ * - Ghi write-through xuống đúng các file prefs cũ ("fastfood_auth" và
+ *   "auth_session") nên dữ liệu cũ vẫn đọc được sau khi update app
+ * - Mỗi lần thay đổi tạo 1 {@link Session} bất biến mới rồi swap → thread khác
+ *   không bao giờ thấy access mới đi với refresh cũ
+ * - {@link Listener} được gọi sau mỗi lần swap (ví dụ để hẹn giờ refresh token)
+ */
+public final class SessionStore {
+
+    // Giữ nguyên tên file/key của BackendConfig + AuthClient
+    private static final String PREF_ACCESS = "fastfood_auth";
+    private static final String KEY_ACCESS = "accessToken";
+    private static final String PREF_SESSION = "auth_session";
+    private static final String KEY_REFRESH = "refresh_token";
+    private static final String KEY_ROLE = "role";
+    private static final String KEY_EMAIL = "email";
+
+    private static volatile SessionStore instance;
+
+    /** Gọi trên thread vừa ghi phiên — listener không được block. */
+    public interface Listener {
+        void onSessionChanged(@NonNull Session session);
+    }
+
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final SharedPreferences accessPrefs;
+    private final SharedPreferences sessionPrefs;
+    private volatile Session current;
+
+    private SessionStore(Context app) {
+        this.accessPrefs = app.getSharedPreferences(PREF_ACCESS, Context.MODE_PRIVATE);
+        this.sessionPrefs = app.getSharedPreferences(PREF_SESSION, Context.MODE_PRIVATE);
+        this.current = new Session(
+                accessPrefs.getString(KEY_ACCESS, null),
+                sessionPrefs.getString(KEY_REFRESH, null),
+                sessionPrefs.getString(KEY_ROLE, null),
+                sessionPrefs.getString(KEY_EMAIL, null));
+    }
+
+    public static SessionStore get(Context context) {
+        if (instance == null) {
+            synchronized (SessionStore.class) {
+                if (instance == null) {
+                    instance = new SessionStore(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    // ============================
+    // Đọc (lock-free)
+    // ============================
+
+    @NonNull
+    public Session session() {
+        return current;
+    }
+
+    @Nullable
+    public String accessToken() {
+        return current.accessToken;
+    }
+
+    @Nullable
+    public String refreshToken() {
+        return current.refreshToken;
+    }
+
+    /** Role đã lưu, "" nếu chưa có (giữ hành vi cũ của AuthClient.getRole) */
+    @NonNull
+    public String role() {
+        return current.role;
+    }
+
+    @Nullable
+    public String email() {
+        return current.email;
+    }
+
+    @NonNull
+    public Claims claims() {
+        return current.claims;
+    }
+
+    public void addListener(@NonNull Listener l) {
+        listeners.addIfAbsent(l);
+    }
+
+    public void removeListener(@NonNull Listener l) {
+        listeners.remove(l);
+    }
+
+    // ============================
+    // Ghi (write-through)
+    // ============================
+
+    /** Ghi đè toàn bộ phiên (login/verify-otp). */
+    public synchronized void save(@Nullable String access, @Nullable String refresh,
+                                  @Nullable String role, @Nullable String email) {
+        Session next = new Session(access, refresh, role, email);
+        current = next;
+        persist(next);
+    }
+
+    /** Chỉ đổi access token, giữ refresh/role/email. */
+    public synchronized void setAccessToken(@Nullable String access) {
+        Session s = current;
+        Session next = new Session(access, s.refreshToken, s.role, s.email);
+        current = next;
+        persist(next);
+    }
+
+    /** Chỉ đổi refresh token, giữ access/role/email. */
+    public synchronized void setRefreshToken(@Nullable String refresh) {
+        Session s = current;
+        Session next = new Session(s.accessToken, refresh, s.role, s.email);
+        current = next;
+        persist(next);
+    }
+
+    /**
+     * Đổi cặp token sau khi /auth/refresh thành công. Refresh rỗng → giữ refresh cũ.
+     * Access + refresh được swap cùng lúc trong 1 snapshot.
+     */
+    public synchronized void rotateTokens(@NonNull String access, @Nullable String refresh) {
+        Session s = current;
+        String nextRefresh = TextUtils.isEmpty(refresh) ? s.refreshToken : refresh;
+        Session next = new Session(access, nextRefresh, s.role, s.email);
+        current = next;
+        persist(next);
+    }
+
+    public synchronized void clearAccessToken() {
+        setAccessToken(null);
+    }
+
+    /** Xoá toàn bộ phiên (RAM + disk). Không broadcast — caller tự quyết định. */
+    public synchronized void clear() {
+        Session next = new Session(null, null, null, null);
+        current = next;
+        persist(next);
+    }
+
+    private void persist(Session s) {
+        write(s);
+        for (Listener l : listeners) {
+            try {
+                l.onSessionChanged(s);
+            } catch (Throwable ignored) {
+            }
+        }
+    }
+
+    private void write(Session s) {
+        SharedPreferences.Editor a = accessPrefs.edit();
+        if (s.accessToken == null)
+            a.remove(KEY_ACCESS);
+        else
+            a.putString(KEY_ACCESS, s.accessToken);
+        a.apply();
+
+        SharedPreferences.Editor e = sessionPrefs.edit();
+        if (s.refreshToken == null)
+            e.remove(KEY_REFRESH);
+        else
+            e.putString(KEY_REFRESH, s.refreshToken);
+        if (s.role.isEmpty())
+            e.remove(KEY_ROLE);
+        else
+            e.putString(KEY_ROLE, s.role);
+        if (s.email == null)
+            e.remove(KEY_EMAIL);
+        else
+            e.putString(KEY_EMAIL, s.email);
+        e.apply();
+    }
+
+    // ============================
+    // Snapshot bất biến
+    // ============================
+
+    public static final class Session {
+        @Nullable
+        public final String accessToken;
+        @Nullable
+        public final String refreshToken;
+        @NonNull
+        public final String role;
+        @Nullable
+        public final String email;
+        /** Claims decode sẵn từ accessToken (1 lần cho mỗi token) */
+        @NonNull
+        public final Claims claims;
+
+        Session(@Nullable String accessToken, @Nullable String refreshToken,
+                @Nullable String role, @Nullable String email) {
+            this.accessToken = emptyToNull(accessToken);
+            this.refreshToken = emptyToNull(refreshToken);
+            this.role = role == null ? "" : role.trim();
+            this.email = emptyToNull(email);
+            this.claims = Claims.decode(this.accessToken);
+        }
+
+        public boolean isSignedIn() {
+            return accessToken != null && refreshToken != null;
+        }
+    }
+
+    /** Các claim JWT app cần dùng. Không verify chữ ký — chỉ đọc payload. */
+    public static final class Claims {
+        static final Claims EMPTY = new Claims(null, null, 0L);
+
+        @Nullable
+        public final String userId;
+        @Nullable
+        public final String role;
+        /** exp (epoch giây), 0 nếu token không có exp */
+        public final long expiresAtSec;
+
+        Claims(@Nullable String userId, @Nullable String role, long expiresAtSec) {
+            this.userId = userId;
+            this.role = role;
+            this.expiresAtSec = expiresAtSec;
+        }
+
+        @NonNull
+        static Claims decode(@Nullable String jwt) {
+            if (jwt == null)
+                return EMPTY;
+            try {
+                // JWT format: header.payload.signature
+                String[] parts = jwt.split("\\.");
+                if (parts.length < 2)
+                    return EMPTY;
+                byte[] decoded = Base64.getUrlDecoder().decode(stripPadding(parts[1]));
+                JSONObject obj = new JSONObject(new String(decoded, StandardCharsets.UTF_8));
+                String id = firstNonEmpty(obj, "id", "user_id", "userId", "sub");
+                String role = firstNonEmpty(obj, "role");
+                long exp = obj.optLong("exp", 0L);
+                return new Claims(id, role, exp);
+            } catch (Exception e) {
+                return EMPTY;
+            }
+        }
+
+        @Nullable
+        private static String firstNonEmpty(JSONObject obj, String... keys) {
+            for (String k : keys) {
+                if (obj.has(k) && !obj.isNull(k)) {
+                    String v = obj.optString(k, "").trim();
+                    if (!v.isEmpty())
+                        return v;
+                }
+            }
+            return null;
+        }
+
+        private static String stripPadding(String s) {
+            int end = s.length();
+            while (end > 0 && s.charAt(end - 1) == '=')
+                end--;
+            return s.substring(0, end);
+        }
+    }
+
+    @Nullable
+    private static String emptyToNull(@Nullable String s) {
+        if (s == null)
+            return null;
+        String t = s.trim();
+        return t.isEmpty() ? null : t;
+    }
+}
@@ -5,6 +5,8 @@ import retrofit2.converter.gson.GsonConverterFactory;
 import android.util.Log;
 
 import com.example.app.BuildConfig;
+import com.example.app.network.HttpEngine;
+import com.example.app.network.RequestCoalescer;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
 import java.util.concurrent.TimeUnit;
@@ -23,7 +25,9 @@ public class ApiClient {
             HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
             logging.setLevel(HttpLoggingInterceptor.Level.BODY);
 
-            OkHttpClient client = new OkHttpClient.Builder()
+            // Facade trên HttpEngine: dùng chung connection pool với BackendConfig
+            OkHttpClient client = HttpEngine.newBuilder()
+                    .addInterceptor(RequestCoalescer.shared())
                     .addInterceptor(logging)
                     .connectTimeout(30, TimeUnit.SECONDS)
                     .readTimeout(30, TimeUnit.SECONDS)
@@ -0,0 +1,210 @@
+package com.example.app.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.app.model.CartItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * CartIndex
+ * Mô hình giỏ hàng bên trong CartRepository (chỉ dùng trên main thread).
+ *
+ * - Món được đánh index theo productId + options (LinkedHashMap giữ thứ tự thêm)
+ *   và theo cartItemId → thêm / sửa / xoá đều O(1), không quét list
+ * - Tổng tiền, tổng số phần và tổng theo nhà hàng được cộng trừ dần theo từng
+ *   thay đổi, lưu bằng long (đồng)
+ * - {@link #snapshot()} trả {@link CartSnapshot} bất biến; chỉ dựng lại khi giỏ đổi
+ */
+final class CartIndex {
+
+    private final LinkedHashMap<String, CartItem> byKey = new LinkedHashMap<>();
+    private final HashMap<String, String> keyByCartItemId = new HashMap<>();
+    private final HashMap<Integer, Long> restaurantTotals = new HashMap<>();
+    // restaurantId → số dòng món, để biết khi nào bỏ hẳn nhà hàng khỏi restaurantTotals
+    private final HashMap<Integer, Integer> restaurantLines = new HashMap<>();
+
+    private long subtotal;
+    private int itemCount;
+
+    @Nullable
+    private CartSnapshot snapshot = CartSnapshot.EMPTY;
+
+    // ============================
+    // Key / tiền
+    // ============================
+
+    /** Key = productId (trim) + options; null coi như "". */
+    static String keyOf(@Nullable String productId, @Nullable String options) {
+        String p = productId != null ? productId.trim() : "";
+        return p + '\u0000' + (options != null ? options : "");
+    }
+
+    static String keyOf(@NonNull CartItem item) {
+        return keyOf(item.productId, item.options);
+    }
+
+    /** Đơn giá (đồng). Giá trong CartItem là double nguyên đồng → làm tròn 1 lần. */
+    static long unitPrice(@NonNull CartItem item) {
+        return Math.round(item.price);
+    }
+
+    // ============================
+    // Truy vấn
+    // ============================
+
+    boolean isEmpty() {
+        return byKey.isEmpty();
+    }
+
+    /** Nhà hàng của giỏ (món đầu tiên), 0 nếu rỗng. */
+    int restaurantId() {
+        for (CartItem it : byKey.values())
+            return it.restaurantId;
+        return 0;
+    }
+
+    @Nullable
+    CartItem find(@Nullable String productId, @Nullable String options) {
+        return byKey.get(keyOf(productId, options));
+    }
+
+    @Nullable
+    CartItem findById(@Nullable String cartItemId) {
+        String key = cartItemId != null ? keyByCartItemId.get(cartItemId) : null;
+        return key != null ? byKey.get(key) : null;
+    }
+
+    long subtotal() {
+        return subtotal;
+    }
+
+    int itemCount() {
+        return itemCount;
+    }
+
+    // ============================
+    // Thay đổi
+    // ============================
+
+    /**
+     * Thêm {@code qty} phần của món. Món đã có (cùng productId + options) → cộng
+     * dồn số lượng vào dòng cũ; chưa có → {@code item} được giữ làm dòng mới.
+     *
+     * @return true nếu đã có sẵn và chỉ tăng số lượng
+     */
+    boolean add(@NonNull CartItem item, int qty) {
+        if (qty <= 0)
+            return false;
+        String key = keyOf(item);
+        CartItem existing = byKey.get(key);
+        if (existing != null) {
+            applyDelta(existing, qty);
+            existing.quantity += qty;
+            if (existing.restaurantDistance == null && item.restaurantDistance != null)
+                existing.restaurantDistance = item.restaurantDistance;
+            changed();
+            return true;
+        }
+        item.quantity = qty;
+        byKey.put(key, item);
+        keyByCartItemId.put(item.cartItemId, key);
+        restaurantLines.merge(item.restaurantId, 1, Integer::sum);
+        applyDelta(item, qty);
+        changed();
+        return false;
+    }
+
+    /** Đặt số lượng theo cartItemId; {@code qty <= 0} → xoá món. */
+    boolean setQuantity(@Nullable String cartItemId, int qty) {
+        if (qty <= 0)
+            return remove(cartItemId);
+        CartItem item = findById(cartItemId);
+        if (item == null || item.quantity == qty)
+            return false;
+        applyDelta(item, qty - item.quantity);
+        item.quantity = qty;
+        changed();
+        return true;
+    }
+
+    boolean remove(@Nullable String cartItemId) {
+        String key = cartItemId != null ? keyByCartItemId.remove(cartItemId) : null;
+        if (key == null)
+            return false;
+        CartItem item = byKey.remove(key);
+        if (item != null) {
+            applyDelta(item, -item.quantity);
+            Integer lines = restaurantLines.get(item.restaurantId);
+            if (lines == null || lines <= 1) {
+                restaurantLines.remove(item.restaurantId);
+                restaurantTotals.remove(item.restaurantId);
+            } else {
+                restaurantLines.put(item.restaurantId, lines - 1);
+            }
+        }
+        changed();
+        return true;
+    }
+
+    void clear() {
+        if (byKey.isEmpty())
+            return;
+        byKey.clear();
+        keyByCartItemId.clear();
+        restaurantTotals.clear();
+        restaurantLines.clear();
+        subtotal = 0L;
+        itemCount = 0;
+        changed();
+    }
+
+    /** Bản sao các món hiện có, theo thứ tự (dùng khi cần dựng lại giỏ). */
+    @NonNull
+    List<CartItem> copyItems() {
+        List<CartItem> out = new ArrayList<>(byKey.size());
+        for (CartItem it : byKey.values())
+            out.add(copyOf(it));
+        return out;
+    }
+
+    private void applyDelta(CartItem item, int deltaQty) {
+        long delta = unitPrice(item) * deltaQty;
+        subtotal += delta;
+        itemCount += deltaQty;
+        restaurantTotals.merge(item.restaurantId, delta, Long::sum);
+    }
+
+    private void changed() {
+        snapshot = null;
+    }
+
+    // ============================
+    // Snapshot
+    // ============================
+
+    @NonNull
+    CartSnapshot snapshot() {
+        CartSnapshot s = snapshot;
+        if (s == null) {
+            s = isEmpty()
+                    ? CartSnapshot.EMPTY
+                    : new CartSnapshot(Collections.unmodifiableList(copyItems()), subtotal, itemCount,
+                            Collections.unmodifiableMap(new HashMap<>(restaurantTotals)));
+            snapshot = s;
+        }
+        return s;
+    }
+
+    private static CartItem copyOf(CartItem it) {
+        CartItem c = new CartItem(it.cartItemId, it.productId, it.title, it.price, it.quantity,
+                it.imageUrl, it.options, it.restaurantId, it.restaurantDistance);
+        c.brandName = it.brandName;
+        return c;
+    }
+}
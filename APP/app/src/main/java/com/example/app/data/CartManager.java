@@ -4,9 +4,7 @@ import com.example.app.model.CartItem;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.Collections;
 import java.util.List;
-import java.util.ArrayList;
 
 /**
  * Singleton Quản lý Giỏ hàng (Cart Manager).
@@ -58,12 +56,8 @@ public class CartManager {
      * @return Danh sách CartItem, được lấy từ PostgreSQL.
      */
     public List<CartItem> getItems() {
-        // TODO: PGAdmin/PostgreSQL -
-        // Triển khai logic gọi CSDL (Bất đồng bộ)
-        // để FETCH dữ liệu từ bảng giỏ hàng (Ví dụ: SELECT * FROM cart_items WHERE user_id = ?).
-
-        // Tạm thời trả về danh sách rỗng để tránh lỗi biên dịch/crash.
-        return Collections.emptyList();
+        // Giỏ hàng thật nằm ở CartRepository → trả snapshot bất biến hiện tại
+        return CartRepository.getInstance().currentSnapshot().items;
     }
 
     /**
@@ -131,18 +125,8 @@ public class CartManager {
      * Tính tổng phụ (Subtotal) của tất cả mặt hàng.
      */
     public BigDecimal calculateSubtotal() {
-        // Lấy dữ liệu mới nhất từ DB
-        List<CartItem> currentItems = getItems();
-        BigDecimal subtotal = BigDecimal.ZERO;
-
-        for (CartItem item : currentItems) {
-            // ✅ ĐÃ SỬA: Chuyển đổi giá trị double từ getLineTotal() sang BigDecimal
-            // để giải quyết lỗi biên dịch.
-            subtotal = subtotal.add(BigDecimal.valueOf(item.getLineTotal()));
-        }
-
-        // Làm tròn về 0 chữ số thập phân
-        return subtotal.setScale(0, RoundingMode.HALF_UP);
+        // CartRepository đã cộng dần subtotal (long đồng) → không duyệt lại list
+        return BigDecimal.valueOf(CartRepository.getInstance().currentSnapshot().subtotal);
     }
 
     /**
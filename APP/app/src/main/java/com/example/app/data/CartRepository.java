@@ -1,33 +1,127 @@
 package com.example.app.data;
 
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.example.app.model.CartItem;
 import com.example.app.model.MenuItem;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * CartRepository: Quản lý dữ liệu giỏ hàng (Singleton Pattern).
+ *
+ * - Giỏ trên RAM là {@link CartIndex}: index theo productId + options, tổng tiền /
+ *   số phần / tổng theo nhà hàng được cộng dần bằng long (đồng)
+ * - Mỗi thay đổi phát ra 1 {@link CartSnapshot} bất biến (list không sửa được,
+ *   item là bản sao) → observer không bao giờ thấy list bị sửa tại chỗ
+ * - Snapshot được đẩy sang {@link CartStore} (SQLite, write-behind) nên giỏ hàng
+ *   còn nguyên sau khi process bị kill; {@link #init(Context)} khôi phục nền
+ * - Một giỏ chỉ chứa món của 1 nhà hàng (đơn hàng gửi lên chỉ có 1 restaurant_id)
+ *
+ * Mọi hàm thay đổi giỏ phải gọi trên main thread (LiveData.setValue).
  */
 public class CartRepository {
 
     private static volatile CartRepository instance;
 
-    // LiveData danh sách item trong giỏ
+    private final CartIndex cart = new CartIndex();
+
+    // Snapshot đầy đủ (list + tổng tiền long)
+    private final MutableLiveData<CartSnapshot> _cartSnapshot =
+            new MutableLiveData<>(CartSnapshot.EMPTY);
+
+    // LiveData danh sách item trong giỏ (= snapshot.items)
     private final MutableLiveData<List<CartItem>> _cartItems =
-            new MutableLiveData<>(new ArrayList<>());
+            new MutableLiveData<>(CartSnapshot.EMPTY.items);
 
-    // LiveData tổng tiền giỏ hàng
+    // LiveData tổng tiền giỏ hàng (giữ cho màn hình cũ; = snapshot.subtotal)
     private final MutableLiveData<Double> _cartSubtotal =
             new MutableLiveData<>(0.0);
 
+    /** Kết quả addToCart để UI báo cho người dùng */
+    public enum AddResult {
+        ADDED,
+        INCREMENTED,
+        /** Món thuộc nhà hàng khác → giỏ cũ đã được thay bằng giỏ mới */
+        REPLACED_OTHER_RESTAURANT,
+        IGNORED
+    }
+
+    @Nullable
+    private CartStore store;
+    private boolean restored;
+
     private CartRepository() {
     }
 
+    /**
+     * Gắn bộ lưu trữ và khôi phục giỏ hàng (gọi 1 lần từ MainActivity, main thread).
+     * Đọc DB chạy nền; món được thêm trong lúc chờ sẽ được gộp với giỏ đã lưu.
+     */
+    public void init(@NonNull Context context) {
+        if (store != null)
+            return;
+        store = new CartStore(context);
+        store.restore(this::onRestored);
+    }
+
+    private void onRestored(@NonNull List<CartItem> saved) {
+        restored = true;
+        if (saved.isEmpty())
+            return;
+
+        if (!cart.isEmpty()) {
+            // Người dùng đã thêm món trước khi restore xong
+            int savedRestaurant = saved.get(0).getRestaurantId();
+            int currentRestaurant = cart.restaurantId();
+            if (savedRestaurant > 0 && currentRestaurant > 0 && savedRestaurant != currentRestaurant) {
+                // Thao tác mới nhất thắng → bỏ giỏ cũ
+                persist();
+                return;
+            }
+        }
+
+        // Giỏ đã lưu đứng trước, món mới thêm cộng dồn vào sau
+        List<CartItem> current = cart.copyItems();
+        cart.clear();
+        for (CartItem ci : saved)
+            cart.add(ci, ci.getQuantity());
+        for (CartItem ci : current)
+            cart.add(ci, ci.getQuantity());
+        publish();
+    }
+
+    /** true khi đã đọc xong giỏ hàng từ disk */
+    public boolean isRestored() {
+        return restored;
+    }
+
+    /** Ghi ngay các thay đổi đang chờ (ví dụ khi app xuống nền). */
+    public void flush() {
+        if (store != null)
+            store.flush();
+    }
+
+    private void persist() {
+        if (store != null)
+            store.save(cart.snapshot().items);
+    }
+
+    /** Phát snapshot mới cho mọi LiveData rồi lưu xuống disk. */
+    private void publish() {
+        CartSnapshot s = cart.snapshot();
+        _cartSnapshot.setValue(s);
+        _cartItems.setValue(s.items);
+        _cartSubtotal.setValue((double) s.subtotal);
+        persist();
+    }
+
     public static CartRepository getInstance() {
         if (instance == null) {
             synchronized (CartRepository.class) {
@@ -39,6 +133,16 @@ public class CartRepository {
         return instance;
     }
 
+    public LiveData<CartSnapshot> getCartSnapshot() {
+        return _cartSnapshot;
+    }
+
+    /** Snapshot hiện tại (không null). */
+    @NonNull
+    public CartSnapshot currentSnapshot() {
+        return cart.snapshot();
+    }
+
     public LiveData<List<CartItem>> getCartItems() {
         return _cartItems;
     }
@@ -50,15 +154,15 @@ public class CartRepository {
     /**
      * ➤ Thêm món vào giỏ hàng (MenuItem → CartItem)
      */
-    public void addToCart(MenuItem menuItem) {
-        addToCart(menuItem, null);
+    public AddResult addToCart(MenuItem menuItem) {
+        return addToCart(menuItem, null);
     }
 
     /**
      * ➤ Thêm món vào giỏ hàng với khoảng cách
      */
-    public void addToCart(MenuItem menuItem, Double restaurantDistance) {
-        if (menuItem == null) return;
+    public AddResult addToCart(MenuItem menuItem, Double restaurantDistance) {
+        if (menuItem == null) return AddResult.IGNORED;
         
         String productId = menuItem.getId();
         if (productId == null || productId.trim().isEmpty()) {
@@ -68,111 +172,74 @@ public class CartRepository {
             productId = productId.trim();
         }
 
-        List<CartItem> currentItems = _cartItems.getValue();
-        if (currentItems == null) currentItems = new ArrayList<>();
-
-        // kiểm tra xem đã có món này trong giỏ hay chưa (so sánh productId)
-        CartItem existing = null;
-        for (CartItem ci : currentItems) {
-            String ciProductId = ci.productId != null ? ci.productId.trim() : "";
-            if (productId.equals(ciProductId)) {
-                existing = ci;
-                break;
-            }
+        // Giỏ đang chứa món của nhà hàng khác → bắt đầu giỏ mới
+        boolean replaced = false;
+        int cartRestaurant = cart.restaurantId();
+        if (cartRestaurant > 0 && menuItem.getRestaurantId() > 0
+                && cartRestaurant != menuItem.getRestaurantId()) {
+            cart.clear();
+            replaced = true;
         }
 
-        if (existing == null) {
-            // Tạo id duy nhất cho cartItem
-            String cartItemId = java.util.UUID.randomUUID().toString();
-
-            // Constructor với 9 tham số (có thêm restaurantDistance):
-            CartItem newItem = new CartItem(
-                    cartItemId,               // cartItemId
-                    productId,                // productId
-                    menuItem.getTitle(),      // title
-                    menuItem.getPrice(),      // price
-                    1,                        // quantity
-                    menuItem.getImageUrl(),   // imageUrl
-                    null,                     // options
-                    menuItem.getRestaurantId(), // restaurantId
-                    restaurantDistance        // restaurantDistance
-            );
-
-            currentItems.add(newItem);
-
-        } else {
-            // nếu đã có → tăng số lượng
-            existing.setQuantity(existing.getQuantity() + 1);
-            // Cập nhật distance nếu chưa có
-            if (existing.restaurantDistance == null && restaurantDistance != null) {
-                existing.restaurantDistance = restaurantDistance;
-            }
+        // Màn hình không truyền khoảng cách → tính offline từ toạ độ quán đã biết
+        if (restaurantDistance == null && menuItem.getRestaurantId() > 0) {
+            restaurantDistance = RestaurantLocations.getInstance()
+                    .distanceFromUser(String.valueOf(menuItem.getRestaurantId()));
         }
 
-        // cập nhật LiveData
-        _cartItems.setValue(currentItems);
-        recalculateSubtotal(currentItems);
+        // Món đã có (cùng productId + options) → tăng số lượng, chưa có → dòng mới
+        CartItem newItem = new CartItem(
+                UUID.randomUUID().toString(), // cartItemId
+                productId,                // productId
+                menuItem.getTitle(),      // title
+                menuItem.getPrice(),      // price
+                1,                        // quantity
+                menuItem.getImageUrl(),   // imageUrl
+                null,                     // options
+                menuItem.getRestaurantId(), // restaurantId
+                restaurantDistance        // restaurantDistance
+        );
+        boolean incremented = cart.add(newItem, 1);
+        publish();
+
+        if (replaced)
+            return AddResult.REPLACED_OTHER_RESTAURANT;
+        return incremented ? AddResult.INCREMENTED : AddResult.ADDED;
     }
 
+    /**
+     * ➤ Thêm 1 CartItem dựng sẵn (ví dụ món có options); trùng productId + options
+     * thì cộng dồn số lượng.
+     */
+    public void addItem(@NonNull CartItem item) {
+        CartItem copy = new CartItem(item.cartItemId, item.productId, item.title, item.price,
+                item.quantity, item.imageUrl, item.options, item.restaurantId, item.restaurantDistance);
+        copy.brandName = item.brandName;
+        cart.add(copy, Math.max(1, item.quantity));
+        publish();
+    }
 
     /**
      * ➤ Cập nhật số lượng item trong giỏ
      */
     public void updateItemQuantity(String cartItemId, int newQuantity) {
-        if (newQuantity <= 0) {
-            removeItem(cartItemId);
-            return;
-        }
-
-        List<CartItem> items = _cartItems.getValue();
-        if (items == null) return;
-
-        for (CartItem item : items) {
-            if (item.cartItemId.equals(cartItemId)) {
-                item.setQuantity(newQuantity);
-                break;
-            }
-        }
-
-        _cartItems.setValue(items);
-        recalculateSubtotal(items);
+        if (cart.setQuantity(cartItemId, newQuantity))
+            publish();
     }
 
     /**
      * ➤ Xóa 1 item trong giỏ
      */
     public void removeItem(String cartItemId) {
-        List<CartItem> items = _cartItems.getValue();
-        if (items == null) return;
-
-        boolean removed = items.removeIf(item -> item.cartItemId.equals(cartItemId));
-
-        if (removed) {
-            _cartItems.setValue(items);
-            recalculateSubtotal(items);
-        }
-    }
-
-    /**
-     * ➤ Tính lại tổng tiền
-     */
-    private void recalculateSubtotal(List<CartItem> items) {
-        BigDecimal total = BigDecimal.ZERO;
-
-        for (CartItem item : items) {
-            BigDecimal price = BigDecimal.valueOf(item.getPrice());
-            BigDecimal qty = BigDecimal.valueOf(item.getQuantity());
-            total = total.add(price.multiply(qty));
-        }
-
-        _cartSubtotal.setValue(total.doubleValue());
+        if (cart.remove(cartItemId))
+            publish();
     }
 
     /**
      * ➤ Xóa toàn bộ giỏ hàng
      */
     public void clearCart() {
-        _cartItems.setValue(new ArrayList<>());
-        _cartSubtotal.setValue(0.0);
+        cart.clear();
+        publish();
     }
 }
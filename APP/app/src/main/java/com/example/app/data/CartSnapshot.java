@@ -0,0 +1,57 @@
+package com.example.app.data;
+
+import androidx.annotation.NonNull;
+
+import com.example.app.model.CartItem;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CartSnapshot
+ * Ảnh chụp bất biến của giỏ hàng tại 1 thời điểm, do {@link CartRepository} phát ra.
+ *
+ * - {@link #items} là list không sửa được, chứa bản sao CartItem → observer
+ *   giữ lại list cũ cũng không thấy giỏ bị sửa sau lưng
+ * - Tổng tiền tính sẵn bằng long (đồng), UI không phải cộng lại bằng BigDecimal
+ */
+public final class CartSnapshot {
+
+    public static final CartSnapshot EMPTY = new CartSnapshot(
+            Collections.emptyList(), 0L, 0, Collections.emptyMap());
+
+    /** Các món theo thứ tự thêm vào giỏ (unmodifiable) */
+    @NonNull
+    public final List<CartItem> items;
+    /** Tổng tiền hàng (đồng) */
+    public final long subtotal;
+    /** Tổng số phần (cộng quantity) */
+    public final int itemCount;
+    /** restaurantId → tổng tiền món của nhà hàng đó (unmodifiable) */
+    @NonNull
+    public final Map<Integer, Long> restaurantTotals;
+
+    CartSnapshot(@NonNull List<CartItem> items, long subtotal, int itemCount,
+            @NonNull Map<Integer, Long> restaurantTotals) {
+        this.items = items;
+        this.subtotal = subtotal;
+        this.itemCount = itemCount;
+        this.restaurantTotals = restaurantTotals;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    /** Nhà hàng của giỏ (món đầu tiên), 0 nếu giỏ rỗng / không rõ. */
+    public int restaurantId() {
+        return items.isEmpty() ? 0 : items.get(0).getRestaurantId();
+    }
+
+    /** Tổng tiền món của 1 nhà hàng (đồng). */
+    public long totalFor(int restaurantId) {
+        Long v = restaurantTotals.get(restaurantId);
+        return v != null ? v : 0L;
+    }
+}
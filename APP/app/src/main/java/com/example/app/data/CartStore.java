@@ -0,0 +1,229 @@
+package com.example.app.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.app.model.CartItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * CartStore
+ *
+ * - Lưu giỏ hàng xuống SQLite (cart.db) để không mất khi process bị kill
+ * - Write-behind: CartRepository chỉ đưa snapshot mới nhất vào {@link #save(List)};
+ *   nhiều thao tác liên tiếp (bấm "+" 5 lần) được gộp thành 1 transaction sau
+ *   {@link #FLUSH_DELAY_MS}
+ * - Mọi I/O chạy trên 1 thread riêng "cart-store", không bao giờ chạm main thread
+ * - {@link #restore(RestoreCallback)} đọc DB nền rồi trả kết quả về main thread
+ */
+final class CartStore {
+
+    private static final String TAG = "CartStore";
+
+    // Gộp các thay đổi trong 300ms thành 1 lần ghi
+    private static final long FLUSH_DELAY_MS = 300L;
+
+    interface RestoreCallback {
+        /** Gọi trên main thread */
+        void onRestored(@NonNull List<CartItem> items);
+    }
+
+    private final DbHelper db;
+    private final Handler main = new Handler(Looper.getMainLooper());
+    private final ScheduledExecutorService io = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "cart-store");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Snapshot chờ ghi (null = không có gì mới)
+    private final AtomicReference<List<CartItem>> pending = new AtomicReference<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    CartStore(@NonNull Context context) {
+        this.db = new DbHelper(context.getApplicationContext());
+    }
+
+    // ============================
+    // Restore
+    // ============================
+
+    void restore(@NonNull RestoreCallback callback) {
+        io.execute(() -> {
+            List<CartItem> items;
+            try {
+                items = readAll();
+            } catch (Exception e) {
+                Log.w(TAG, "restore failed", e);
+                items = new ArrayList<>();
+            }
+            final List<CartItem> result = items;
+            main.post(() -> callback.onRestored(result));
+        });
+    }
+
+    private List<CartItem> readAll() {
+        List<CartItem> out = new ArrayList<>();
+        SQLiteDatabase r = db.getReadableDatabase();
+        try (Cursor c = r.query(DbHelper.TABLE, null, null, null, null, null, DbHelper.C_POSITION + " ASC")) {
+            int iId = c.getColumnIndexOrThrow(DbHelper.C_CART_ITEM_ID);
+            int iProduct = c.getColumnIndexOrThrow(DbHelper.C_PRODUCT_ID);
+            int iTitle = c.getColumnIndexOrThrow(DbHelper.C_TITLE);
+            int iBrand = c.getColumnIndexOrThrow(DbHelper.C_BRAND);
+            int iPrice = c.getColumnIndexOrThrow(DbHelper.C_PRICE);
+            int iQty = c.getColumnIndexOrThrow(DbHelper.C_QUANTITY);
+            int iImage = c.getColumnIndexOrThrow(DbHelper.C_IMAGE_URL);
+            int iOptions = c.getColumnIndexOrThrow(DbHelper.C_OPTIONS);
+            int iRestaurant = c.getColumnIndexOrThrow(DbHelper.C_RESTAURANT_ID);
+            int iDistance = c.getColumnIndexOrThrow(DbHelper.C_DISTANCE);
+            while (c.moveToNext()) {
+                CartItem item = new CartItem(
+                        c.getString(iId),
+                        c.getString(iProduct),
+                        c.getString(iTitle),
+                        c.getDouble(iPrice),
+                        c.getInt(iQty),
+                        c.getString(iImage),
+                        c.getString(iOptions),
+                        c.getInt(iRestaurant),
+                        c.isNull(iDistance) ? null : c.getDouble(iDistance));
+                item.brandName = c.getString(iBrand);
+                if (item.quantity > 0)
+                    out.add(item);
+            }
+        }
+        return out;
+    }
+
+    // ============================
+    // Write-behind
+    // ============================
+
+    /** Ghi snapshot (copy ngay tại đây nên caller sửa list/item sau đó cũng không sao). */
+    void save(@NonNull List<CartItem> items) {
+        pending.set(copyOf(items));
+        if (flushScheduled.compareAndSet(false, true)) {
+            io.schedule(this::flushPending, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Ghi ngay phần đang chờ (ví dụ khi app xuống nền). Không chặn caller. */
+    void flush() {
+        io.execute(this::flushPending);
+    }
+
+    private void flushPending() {
+        flushScheduled.set(false);
+        List<CartItem> snapshot = pending.getAndSet(null);
+        if (snapshot == null)
+            return;
+        SQLiteDatabase w = db.getWritableDatabase();
+        w.beginTransaction();
+        try {
+            // Giỏ hàng chỉ vài chục dòng → thay cả bảng trong 1 transaction
+            w.delete(DbHelper.TABLE, null, null);
+            ContentValues cv = new ContentValues();
+            for (int i = 0; i < snapshot.size(); i++) {
+                CartItem it = snapshot.get(i);
+                cv.clear();
+                cv.put(DbHelper.C_CART_ITEM_ID, it.cartItemId);
+                cv.put(DbHelper.C_PRODUCT_ID, it.productId);
+                cv.put(DbHelper.C_TITLE, it.title);
+                cv.put(DbHelper.C_BRAND, it.brandName);
+                cv.put(DbHelper.C_PRICE, it.price);
+                cv.put(DbHelper.C_QUANTITY, it.quantity);
+                cv.put(DbHelper.C_IMAGE_URL, it.imageUrl);
+                cv.put(DbHelper.C_OPTIONS, it.options);
+                cv.put(DbHelper.C_RESTAURANT_ID, it.restaurantId);
+                if (it.restaurantDistance != null)
+                    cv.put(DbHelper.C_DISTANCE, it.restaurantDistance);
+                else
+                    cv.putNull(DbHelper.C_DISTANCE);
+                cv.put(DbHelper.C_POSITION, i);
+                w.insertWithOnConflict(DbHelper.TABLE, null, cv, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            w.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.w(TAG, "flush failed", e);
+            // Giữ lại snapshot để lần sau ghi tiếp (nếu chưa có snapshot mới hơn)
+            pending.compareAndSet(null, snapshot);
+        } finally {
+            w.endTransaction();
+        }
+    }
+
+    private static List<CartItem> copyOf(List<CartItem> items) {
+        List<CartItem> out = new ArrayList<>(items.size());
+        for (CartItem it : items) {
+            CartItem c = new CartItem(it.cartItemId, it.productId, it.title, it.price, it.quantity,
+                    it.imageUrl, it.options, it.restaurantId, it.restaurantDistance);
+            c.brandName = it.brandName;
+            out.add(c);
+        }
+        return out;
+    }
+
+    // ============================
+    // SQLite
+    // ============================
+
+    private static final class DbHelper extends SQLiteOpenHelper {
+        private static final String NAME = "cart.db";
+        private static final int VERSION = 1;
+
+        static final String TABLE = "cart_items";
+        static final String C_CART_ITEM_ID = "cart_item_id";
+        static final String C_PRODUCT_ID = "product_id";
+        static final String C_TITLE = "title";
+        static final String C_BRAND = "brand_name";
+        static final String C_PRICE = "price";
+        static final String C_QUANTITY = "quantity";
+        static final String C_IMAGE_URL = "image_url";
+        static final String C_OPTIONS = "options";
+        static final String C_RESTAURANT_ID = "restaurant_id";
+        static final String C_DISTANCE = "restaurant_distance";
+        static final String C_POSITION = "position";
+
+        DbHelper(Context context) {
+            super(context, NAME, null, VERSION);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE " + TABLE + " ("
+                    + C_CART_ITEM_ID + " TEXT PRIMARY KEY, "
+                    + C_PRODUCT_ID + " TEXT, "
+                    + C_TITLE + " TEXT, "
+                    + C_BRAND + " TEXT, "
+                    + C_PRICE + " REAL NOT NULL DEFAULT 0, "
+                    + C_QUANTITY + " INTEGER NOT NULL DEFAULT 1, "
+                    + C_IMAGE_URL + " TEXT, "
+                    + C_OPTIONS + " TEXT, "
+                    + C_RESTAURANT_ID + " INTEGER NOT NULL DEFAULT 0, "
+                    + C_DISTANCE + " REAL, "
+                    + C_POSITION + " INTEGER NOT NULL DEFAULT 0)");
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            // Chỉ là cache giỏ hàng → đổi schema thì tạo lại
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE);
+            onCreate(db);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.example.app.data;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CatalogCache
+ * Cache 2 tầng cho dữ liệu catalog (chi tiết quán, menu quán) của RestaurantRepository.
+ *
+ * - Tầng 1: LruCache trên RAM (giới hạn theo số ký tự JSON)
+ * - Tầng 2: file JSON trong cacheDir/catalog, thời điểm lưu = lastModified
+ * - Lưu JSON thô thay cho object → mỗi lần trả ra là object mới (UI sửa không
+ *   làm bẩn cache) và so sánh "dữ liệu mới có khác không" chỉ là equals chuỗi
+ * - TTL theo loại dữ liệu ({@link Kind}); quá TTL vẫn dùng được (stale) nhưng
+ *   repository phải revalidate; quá {@link #MAX_STALE_MS} thì bỏ hẳn
+ * - I/O file chạy trên 1 thread riêng "catalog-cache", kết quả trả về main thread
+ */
+public final class CatalogCache {
+
+    private static final String TAG = "CatalogCache";
+
+    /** Loại dữ liệu + TTL (đồng bộ với max-age trong CachePolicyInterceptor) */
+    enum Kind {
+        RESTAURANT("restaurant", TimeUnit.MINUTES.toMillis(5)),
+        MENU("menu", TimeUnit.MINUTES.toMillis(2));
+
+        final String prefix;
+        final long ttlMs;
+
+        Kind(String prefix, long ttlMs) {
+            this.prefix = prefix;
+            this.ttlMs = ttlMs;
+        }
+    }
+
+    // Dữ liệu cũ hơn mức này không hiển thị nữa (quán đổi giá, đổi món...)
+    private static final long MAX_STALE_MS = TimeUnit.DAYS.toMillis(1);
+    // ~512K ký tự JSON trên RAM (vài chục quán + menu)
+    private static final int MEMORY_MAX_CHARS = 512 * 1024;
+
+    static final class Entry {
+        @NonNull
+        final String json;
+        final long savedAt;
+
+        Entry(@NonNull String json, long savedAt) {
+            this.json = json;
+            this.savedAt = savedAt;
+        }
+
+        boolean isFresh(@NonNull Kind kind) {
+            long age = System.currentTimeMillis() - savedAt;
+            return age >= 0 && age < kind.ttlMs;
+        }
+    }
+
+    interface Lookup {
+        /** Gọi trên main thread; null nếu không có dữ liệu dùng được */
+        void onResult(@Nullable Entry entry);
+    }
+
+    private final LruCache<String, Entry> memory = new LruCache<String, Entry>(MEMORY_MAX_CHARS) {
+        @Override
+        protected int sizeOf(String key, Entry value) {
+            return value.json.length();
+        }
+    };
+
+    private final Handler main = new Handler(Looper.getMainLooper());
+    private final ExecutorService io = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "catalog-cache");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Nullable
+    private volatile File dir;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong changed = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+
+    CatalogCache() {
+    }
+
+    /** Bật tầng disk (chưa gọi thì chỉ cache trên RAM). */
+    void attach(@NonNull Context context) {
+        if (dir != null)
+            return;
+        File d = new File(context.getApplicationContext().getCacheDir(), "catalog");
+        io.execute(() -> {
+            if (!d.isDirectory() && !d.mkdirs())
+                Log.w(TAG, "cannot create " + d);
+        });
+        dir = d;
+    }
+
+    // ============================
+    // Đọc
+    // ============================
+
+    /**
+     * Tìm trong RAM (trả ngay, đồng bộ) rồi tới disk (đọc nền, trả qua main thread).
+     * Đếm hit / stale / miss tại đây.
+     */
+    void get(@NonNull Kind kind, @NonNull String id, @NonNull Lookup lookup) {
+        String key = keyOf(kind, id);
+        Entry mem = memory.get(key);
+        if (mem != null && usable(mem)) {
+            lookup.onResult(count(kind, mem));
+            return;
+        }
+        File d = dir;
+        if (d == null) {
+            lookup.onResult(count(kind, null));
+            return;
+        }
+        io.execute(() -> {
+            Entry disk = readFile(fileOf(d, kind, id));
+            if (disk != null && !usable(disk))
+                disk = null;
+            final Entry found = disk;
+            main.post(() -> {
+                if (found != null && memory.get(key) == null)
+                    memory.put(key, found);
+                lookup.onResult(count(kind, found));
+            });
+        });
+    }
+
+    private static boolean usable(Entry e) {
+        return System.currentTimeMillis() - e.savedAt < MAX_STALE_MS;
+    }
+
+    @Nullable
+    private Entry count(Kind kind, @Nullable Entry e) {
+        if (e == null)
+            misses.incrementAndGet();
+        else if (e.isFresh(kind))
+            hits.incrementAndGet();
+        else
+            staleHits.incrementAndGet();
+        return e;
+    }
+
+    // ============================
+    // Ghi
+    // ============================
+
+    /** Lưu dữ liệu mới từ server (revalidate thấy khác, hoặc lần đầu tải). */
+    void put(@NonNull Kind kind, @NonNull String id, @NonNull String json, boolean hadEntry) {
+        if (hadEntry)
+            changed.incrementAndGet();
+        Entry e = new Entry(json, System.currentTimeMillis());
+        memory.put(keyOf(kind, id), e);
+        File d = dir;
+        if (d != null)
+            io.execute(() -> writeFile(fileOf(d, kind, id), json));
+    }
+
+    /** Server trả về đúng dữ liệu đang có → chỉ làm mới thời điểm lưu. */
+    void touch(@NonNull Kind kind, @NonNull String id, @NonNull Entry old) {
+        unchanged.incrementAndGet();
+        long now = System.currentTimeMillis();
+        memory.put(keyOf(kind, id), new Entry(old.json, now));
+        File d = dir;
+        if (d != null) {
+            io.execute(() -> {
+                File f = fileOf(d, kind, id);
+                if (f.exists() && !f.setLastModified(now))
+                    writeFile(f, old.json);
+            });
+        }
+    }
+
+    // ============================
+    // Invalidate
+    // ============================
+
+    void invalidate(@NonNull Kind kind, @NonNull String id) {
+        memory.remove(keyOf(kind, id));
+        File d = dir;
+        if (d != null)
+            io.execute(() -> deleteQuietly(fileOf(d, kind, id)));
+    }
+
+    /** Xoá toàn bộ entry của 1 loại (ví dụ merchant sửa menu nhưng không biết id quán). */
+    void invalidateAll(@NonNull Kind kind) {
+        String prefix = kind.prefix + ':';
+        for (String key : memory.snapshot().keySet()) {
+            if (key.startsWith(prefix))
+                memory.remove(key);
+        }
+        File d = dir;
+        if (d == null)
+            return;
+        io.execute(() -> {
+            File[] files = d.listFiles((parent, name) -> name.startsWith(kind.prefix + '_'));
+            if (files == null)
+                return;
+            for (File f : files)
+                deleteQuietly(f);
+        });
+    }
+
+    // ============================
+    // File
+    // ============================
+
+    private static String keyOf(Kind kind, String id) {
+        return kind.prefix + ':' + id;
+    }
+
+    private static File fileOf(File dir, Kind kind, String id) {
+        // Id từ server có thể chứa ký tự lạ → chỉ giữ chữ/số cho tên file
+        return new File(dir, kind.prefix + '_' + id.replaceAll("[^A-Za-z0-9_-]", "_") + ".json");
+    }
+
+    @Nullable
+    private static Entry readFile(File f) {
+        if (!f.isFile())
+            return null;
+        try (InputStream in = new FileInputStream(f)) {
+            byte[] buf = new byte[(int) f.length()];
+            int off = 0;
+            while (off < buf.length) {
+                int n = in.read(buf, off, buf.length - off);
+                if (n < 0)
+                    break;
+                off += n;
+            }
+            return new Entry(new String(buf, 0, off, StandardCharsets.UTF_8), f.lastModified());
+        } catch (IOException e) {
+            Log.w(TAG, "read failed " + f.getName(), e);
+            return null;
+        }
+    }
+
+    private static void writeFile(File f, String json) {
+        // Ghi ra file tạm rồi rename → không bao giờ đọc phải file ghi dở
+        File tmp = new File(f.getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            Log.w(TAG, "write failed " + f.getName(), e);
+            deleteQuietly(tmp);
+            return;
+        }
+        if (!tmp.renameTo(f)) {
+            deleteQuietly(tmp);
+            Log.w(TAG, "rename failed " + f.getName());
+        }
+    }
+
+    private static void deleteQuietly(File f) {
+        if (f.exists() && !f.delete())
+            Log.w(TAG, "delete failed " + f.getName());
+    }
+
+    // ============================
+    // Thống kê
+    // ============================
+
+    @NonNull
+    Stats stats() {
+        return new Stats(hits.get(), staleHits.get(), misses.get(), changed.get(), unchanged.get());
+    }
+
+    public static final class Stats {
+        /** Có dữ liệu còn hạn TTL → không ra mạng */
+        public final long hits;
+        /** Có dữ liệu nhưng quá TTL → trả ngay + revalidate nền */
+        public final long staleHits;
+        /** Không có gì trong RAM lẫn disk → chờ mạng */
+        public final long misses;
+        /** Revalidate trả về dữ liệu khác → callback lần 2 */
+        public final long revalidatedChanged;
+        /** Revalidate trả về y hệt → không callback lại */
+        public final long revalidatedUnchanged;
+
+        Stats(long hits, long staleHits, long misses, long revalidatedChanged, long revalidatedUnchanged) {
+            this.hits = hits;
+            this.staleHits = staleHits;
+            this.misses = misses;
+            this.revalidatedChanged = revalidatedChanged;
+            this.revalidatedUnchanged = revalidatedUnchanged;
+        }
+
+        /** Tỉ lệ lần load có dữ liệu hiển thị ngay, 0..1 */
+        public double hitRate() {
+            long total = hits + staleHits + misses;
+            return total <= 0 ? 0.0 : (double) (hits + staleHits) / (double) total;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "hits=%d stale=%d misses=%d changed=%d unchanged=%d hitRate=%.1f%%",
+                    hits, staleHits, misses, revalidatedChanged, revalidatedUnchanged, hitRate() * 100.0);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.app.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.app.util.GeoMath;
+import com.example.app.util.Geohash;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * NearbyCache
+ * Cache kết quả "gần tôi" theo ô geohash + bán kính.
+ *
+ * - Vị trí người dùng được quy về ô geohash; server chỉ được hỏi 1 lần cho mỗi ô,
+ *   luôn tại TÂM ô → GPS rung vài mét không sinh request mới, các request cùng ô
+ *   giống hệt nhau (hưởng cả ETag / coalescer)
+ * - Kết quả trả ra = gộp ô hiện tại + các ô lân cận đã có trong cache (bỏ trùng
+ *   theo id), khoảng cách được tính lại bằng haversine từ vị trí thật của người
+ *   dùng, lọc theo bán kính, sắp xếp gần → xa
+ * - Ô quá TTL vẫn dùng được khi mạng lỗi
+ * - Chỉ dùng trên main thread (callback Retrofit cũng về main thread)
+ *
+ * @param <T> kiểu phần tử (Restaurant, Map JSON...)
+ */
+public final class NearbyCache<T> {
+
+    /** Cách đọc toạ độ / id và gắn khoảng cách cho 1 phần tử. */
+    public interface Locator<T> {
+        @Nullable
+        String idOf(@NonNull T item);
+
+        /** NaN nếu không có toạ độ */
+        double latOf(@NonNull T item);
+
+        /** NaN nếu không có toạ độ */
+        double lngOf(@NonNull T item);
+
+        /** Trả bản sao (không sửa phần tử trong cache) mang khoảng cách mới (km). */
+        @NonNull
+        T withDistance(@NonNull T item, double km);
+    }
+
+    /** Gọi server cho 1 ô (tại tâm ô). */
+    public interface Fetcher<T> {
+        void fetch(double lat, double lng, @NonNull FetchCallback<T> callback);
+    }
+
+    public interface FetchCallback<T> {
+        void onSuccess(@NonNull List<T> items);
+
+        void onError(@NonNull String message);
+    }
+
+    public interface Callback<T> {
+        /** @param fromCache true nếu không phải ra mạng */
+        void onResult(@NonNull List<T> items, boolean fromCache);
+
+        void onError(@NonNull String message);
+    }
+
+    private static final class Cell<T> {
+        final List<T> items;
+        final long fetchedAt;
+
+        Cell(List<T> items, long fetchedAt) {
+            this.items = items;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private static final class Query<T> {
+        final double lat;
+        final double lng;
+        final Callback<T> callback;
+
+        Query(double lat, double lng, Callback<T> callback) {
+            this.lat = lat;
+            this.lng = lng;
+            this.callback = callback;
+        }
+    }
+
+    private final Locator<T> locator;
+    private final int precision;
+    private final double radiusKm;
+    private final long ttlMs;
+    private final int maxResults;
+
+    // LRU theo thứ tự truy cập
+    private final LinkedHashMap<String, Cell<T>> cells;
+    // Ô đang được tải → các query chờ cùng kết quả
+    private final HashMap<String, List<Query<T>>> inFlight = new HashMap<>();
+
+    private long hits;
+    private long staleHits;
+    private long fetches;
+
+    /**
+     * @param precision  độ dài geohash (6 ≈ 1.2km x 0.6km)
+     * @param radiusKm   bán kính server áp dụng (cũng là bán kính lọc phía client)
+     * @param ttlMs      thời gian ô được coi là mới
+     * @param maxCells   số ô tối đa giữ trên RAM
+     * @param maxResults số phần tử tối đa trả ra (như LIMIT của server)
+     */
+    public NearbyCache(@NonNull Locator<T> locator, int precision, double radiusKm, long ttlMs,
+            int maxCells, int maxResults) {
+        this.locator = locator;
+        this.precision = precision;
+        this.radiusKm = radiusKm;
+        this.ttlMs = ttlMs;
+        this.maxResults = maxResults;
+        this.cells = new LinkedHashMap<String, Cell<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cell<T>> eldest) {
+                return size() > maxCells;
+            }
+        };
+    }
+
+    // ============================
+    // Query
+    // ============================
+
+    public void query(double lat, double lng, @NonNull Fetcher<T> fetcher, @NonNull Callback<T> callback) {
+        String cell = Geohash.encode(lat, lng, precision);
+        String key = keyOf(cell);
+        Cell<T> cached = cells.get(key);
+        if (cached != null && isFresh(cached)) {
+            hits++;
+            callback.onResult(merge(cell, lat, lng), true);
+            return;
+        }
+
+        Query<T> q = new Query<>(lat, lng, callback);
+        List<Query<T>> waiting = inFlight.get(key);
+        if (waiting != null) {
+            // Cùng ô đang tải → chờ chung, không gọi thêm
+            waiting.add(q);
+            return;
+        }
+        waiting = new ArrayList<>();
+        waiting.add(q);
+        inFlight.put(key, waiting);
+        fetches++;
+
+        double[] center = Geohash.center(cell);
+        fetcher.fetch(center[0], center[1], new FetchCallback<T>() {
+            @Override
+            public void onSuccess(@NonNull List<T> items) {
+                cells.put(key, new Cell<>(new ArrayList<>(items), System.currentTimeMillis()));
+                for (Query<T> w : drain(key))
+                    w.callback.onResult(merge(cell, w.lat, w.lng), false);
+            }
+
+            @Override
+            public void onError(@NonNull String message) {
+                boolean stale = cells.containsKey(key);
+                for (Query<T> w : drain(key)) {
+                    if (stale) {
+                        // Mạng lỗi nhưng còn dữ liệu cũ của ô → vẫn hiển thị
+                        staleHits++;
+                        w.callback.onResult(merge(cell, w.lat, w.lng), true);
+                    } else {
+                        w.callback.onError(message);
+                    }
+                }
+            }
+        });
+    }
+
+    /** Có dữ liệu còn hạn cho vị trí này không (không ra mạng). */
+    public boolean isCached(double lat, double lng) {
+        Cell<T> c = cells.get(keyOf(Geohash.encode(lat, lng, precision)));
+        return c != null && isFresh(c);
+    }
+
+    public void invalidateAll() {
+        cells.clear();
+    }
+
+    private List<Query<T>> drain(String key) {
+        List<Query<T>> w = inFlight.remove(key);
+        return w != null ? w : Collections.emptyList();
+    }
+
+    private boolean isFresh(Cell<T> c) {
+        return System.currentTimeMillis() - c.fetchedAt < ttlMs;
+    }
+
+    private String keyOf(String cell) {
+        return cell + '@' + radiusKm;
+    }
+
+    // ============================
+    // Gộp ô + tính lại khoảng cách
+    // ============================
+
+    private static final class Hit<T> {
+        final T item;
+        final double km;
+
+        Hit(T item, double km) {
+            this.item = item;
+            this.km = km;
+        }
+    }
+
+    private List<T> merge(String cell, double lat, double lng) {
+        HashSet<String> seen = new HashSet<>();
+        List<Hit<T>> located = new ArrayList<>();
+        List<T> unlocated = new ArrayList<>();
+
+        collect(cells.get(keyOf(cell)), true, lat, lng, seen, located, unlocated);
+        for (String n : Geohash.neighbors(cell))
+            collect(cells.get(keyOf(n)), false, lat, lng, seen, located, unlocated);
+
+        located.sort(Comparator.comparingDouble(h -> h.km));
+        List<T> out = new ArrayList<>(Math.min(maxResults, located.size() + unlocated.size()));
+        for (Hit<T> h : located) {
+            if (out.size() >= maxResults)
+                break;
+            out.add(locator.withDistance(h.item, h.km));
+        }
+        // Phần tử không có toạ độ (chỉ lấy từ ô hiện tại, server đã lọc) → cuối danh sách
+        for (T it : unlocated) {
+            if (out.size() >= maxResults)
+                break;
+            out.add(it);
+        }
+        return out;
+    }
+
+    private void collect(@Nullable Cell<T> c, boolean own, double lat, double lng,
+            Set<String> seen, List<Hit<T>> located, List<T> unlocated) {
+        if (c == null)
+            return;
+        for (T it : c.items) {
+            String id = locator.idOf(it);
+            if (id != null && !seen.add(id))
+                continue;
+            double iLat = locator.latOf(it);
+            double iLng = locator.lngOf(it);
+            if (!GeoMath.isValid(iLat, iLng)) {
+                if (own)
+                    unlocated.add(it);
+                continue;
+            }
+            double km = GeoMath.haversineKm(lat, lng, iLat, iLng);
+            if (km <= radiusKm)
+                located.add(new Hit<>(it, km));
+        }
+    }
+
+    // ============================
+    // Thống kê
+    // ============================
+
+    @NonNull
+    public String stats() {
+        return String.format(Locale.US, "cells=%d hits=%d staleHits=%d fetches=%d",
+                cells.size(), hits, staleHits, fetches);
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.app.data;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.app.api.RestaurantApiService;
+import com.example.app.api.RetrofitClient;
+import com.example.app.model.Restaurant;
+import com.example.app.network.MenuApi;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * NearbyRepository: các truy vấn "gần tôi" đi qua {@link NearbyCache} (Singleton).
+ *
+ * - restaurants/nearby: server lọc 15km, LIMIT 50 → cache theo ô geohash 6 ký tự
+ * - menus/nearby (HomeFragment): cùng cách, phần tử là Map JSON thô
+ * - Mở lại màn hình khám phá ở cùng chỗ trong {@link #TTL_MS} không ra mạng
+ */
+public class NearbyRepository {
+
+    private static final String TAG = "NearbyRepository";
+
+    // Ô ≈ 1.2km x 0.6km: GPS rung không đổi ô, bán kính 15km hụt tối đa ~0.7km ở mép
+    private static final int PRECISION = 6;
+    private static final double RADIUS_KM = 15.0;
+    private static final int MAX_RESULTS = 50;
+    private static final int MAX_CELLS = 32;
+    private static final long TTL_MS = TimeUnit.MINUTES.toMillis(10);
+
+    private static volatile NearbyRepository instance;
+
+    private final RestaurantApiService apiService;
+
+    private final NearbyCache<Restaurant> restaurants = new NearbyCache<>(
+            new RestaurantLocator(), PRECISION, RADIUS_KM, TTL_MS, MAX_CELLS, MAX_RESULTS);
+    private final NearbyCache<Map<String, Object>> menuStores = new NearbyCache<>(
+            new MapLocator(), PRECISION, RADIUS_KM, TTL_MS, MAX_CELLS, MAX_RESULTS);
+
+    public static NearbyRepository getInstance() {
+        if (instance == null) {
+            synchronized (NearbyRepository.class) {
+                if (instance == null) {
+                    instance = new NearbyRepository();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private NearbyRepository() {
+        this.apiService = RetrofitClient.getRestaurantService();
+    }
+
+    // ============================
+    // restaurants/nearby
+    // ============================
+
+    public void loadNearbyRestaurants(double lat, double lng, @NonNull NearbyCache.Callback<Restaurant> callback) {
+        RestaurantLocations.getInstance().setUserLocation(lat, lng);
+        restaurants.query(lat, lng,
+                (cLat, cLng, cb) -> enqueue(apiService.getNearbyRestaurants(cLat, cLng),
+                        new NearbyCache.FetchCallback<Restaurant>() {
+                            @Override
+                            public void onSuccess(@NonNull List<Restaurant> items) {
+                                RestaurantLocations.getInstance().putAll(items);
+                                cb.onSuccess(items);
+                            }
+
+                            @Override
+                            public void onError(@NonNull String message) {
+                                cb.onError(message);
+                            }
+                        }),
+                callback);
+    }
+
+    // ============================
+    // menus/nearby
+    // ============================
+
+    public void loadNearbyMenuStores(@NonNull MenuApi menuApi, double lat, double lng,
+            @NonNull NearbyCache.Callback<Map<String, Object>> callback) {
+        RestaurantLocations.getInstance().setUserLocation(lat, lng);
+        menuStores.query(lat, lng,
+                (cLat, cLng, cb) -> enqueue(menuApi.getNearbyStores(cLat, cLng), cb),
+                callback);
+    }
+
+    @NonNull
+    public String stats() {
+        return "restaurants[" + restaurants.stats() + "] menus[" + menuStores.stats() + "]";
+    }
+
+    private static <T> void enqueue(Call<List<T>> call, NearbyCache.FetchCallback<T> cb) {
+        call.enqueue(new Callback<List<T>>() {
+            @Override
+            public void onResponse(@NonNull Call<List<T>> call, @NonNull Response<List<T>> response) {
+                if (response.isSuccessful()) {
+                    List<T> body = response.body();
+                    cb.onSuccess(body != null ? body : new ArrayList<>());
+                } else {
+                    Log.w(TAG, "nearby HTTP " + response.code());
+                    cb.onError("HTTP " + response.code());
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<List<T>> call, @NonNull Throwable t) {
+                Log.w(TAG, "nearby failure: " + t.getMessage());
+                cb.onError(t.getMessage() != null ? t.getMessage() : "network error");
+            }
+        });
+    }
+
+    // ============================
+    // Locator
+    // ============================
+
+    private static final class RestaurantLocator implements NearbyCache.Locator<Restaurant> {
+        @Nullable
+        @Override
+        public String idOf(@NonNull Restaurant r) {
+            return r.id;
+        }
+
+        @Override
+        public double latOf(@NonNull Restaurant r) {
+            return r.latitude != null ? r.latitude : Double.NaN;
+        }
+
+        @Override
+        public double lngOf(@NonNull Restaurant r) {
+            return r.longitude != null ? r.longitude : Double.NaN;
+        }
+
+        @NonNull
+        @Override
+        public Restaurant withDistance(@NonNull Restaurant r, double km) {
+            Restaurant copy = new Restaurant(r.id, r.name, r.address, r.rating, r.imageUrl);
+            copy.latitude = r.latitude;
+            copy.longitude = r.longitude;
+            copy.distance = km;
+            return copy;
+        }
+    }
+
+    private static final class MapLocator implements NearbyCache.Locator<Map<String, Object>> {
+        @Nullable
+        @Override
+        public String idOf(@NonNull Map<String, Object> m) {
+            Object id = m.get("id");
+            if (id instanceof Double && (Double) id == Math.rint((Double) id))
+                return String.valueOf(((Double) id).longValue());
+            return id != null ? String.valueOf(id) : null;
+        }
+
+        @Override
+        public double latOf(@NonNull Map<String, Object> m) {
+            return number(m, "lat", "latitude");
+        }
+
+        @Override
+        public double lngOf(@NonNull Map<String, Object> m) {
+            return number(m, "lng", "lon", "longitude");
+        }
+
+        @NonNull
+        @Override
+        public Map<String, Object> withDistance(@NonNull Map<String, Object> m, double km) {
+            Map<String, Object> copy = new LinkedHashMap<>(m);
+            copy.put("distance", km);
+            return copy;
+        }
+
+        private static double number(Map<String, Object> m, String... keys) {
+            for (String k : keys) {
+                Object v = m.get(k);
+                if (v instanceof Number)
+                    return ((Number) v).doubleValue();
+                if (v instanceof String) {
+                    try {
+                        return Double.parseDouble((String) v);
+                    } catch (NumberFormatException ignored) {
+                        // thử key tiếp theo
+                    }
+                }
+            }
+            return Double.NaN;
+        }
+    }
+}
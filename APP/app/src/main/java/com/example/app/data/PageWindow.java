@@ -0,0 +1,386 @@
+package com.example.app.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * PageWindow: tải danh sách dài theo trang (page = 1, 2, …) và chỉ giữ 1 cửa sổ trang trong bộ nhớ.
+ *
+ * - Cuộn tới gần cuối phần đã tải ({@code prefetchDistance} dòng) → tải trang kế;
+ *   cuộn ngược vào vùng đã bỏ → tải lại trang trước
+ * - Giữ tối đa {@code maxPages} trang liên tiếp; tải thêm ở 1 đầu thì bỏ trang ở đầu kia.
+ *   Trang bỏ ở phía trên được thay bằng placeholder (phần tử null) đúng số dòng nó đang chiếm
+ *   (trang có thể dài / ngắn hơn {@code pageSize} do giữ dòng bị đẩy hoặc bỏ trùng), key của nó
+ *   vẫn được nhớ để bỏ trùng → vị trí các dòng đang hiển thị không bị xô
+ * - Đang tải trang kế → cuối danh sách có {@code pageSize} placeholder
+ * - Trang ngắn hơn {@code pageSize} = hết dữ liệu
+ * - Phân trang theo offset: đơn mới chèn đầu làm trang sau lặp lại vài dòng → bỏ trùng theo key
+ * - {@link #find} / {@link #notifyChanged}: sửa tại chỗ phần tử đang nằm trong cửa sổ (socket)
+ *
+ * Chỉ gọi trên UI thread (kể cả {@link Result}); kết quả của lần tải trước {@link #refresh()} bị bỏ.
+ */
+public final class PageWindow<T> {
+
+    /** Tải 1 trang; trả kết quả qua {@code result} (trên UI thread). */
+    public interface Source<T> {
+        void load(int page, int pageSize, @NonNull Result<T> result);
+    }
+
+    public interface Result<T> {
+        void onPage(@NonNull List<T> items);
+
+        void onError(@NonNull Throwable error);
+    }
+
+    /** {@code rows}: danh sách để hiển thị, null = placeholder. */
+    public interface Listener<T> {
+        void onChanged(@NonNull List<T> rows);
+    }
+
+    /** Số liệu tải trang (bất biến). */
+    public static final class Stats {
+        public final long requests;
+        public final long pagesLoaded;
+        public final long pagesDropped;
+        /** Dòng trùng key đang bị ẩn trong cửa sổ hiện tại */
+        public final int duplicates;
+        public final long errors;
+        /** Số phần tử nhiều nhất từng giữ cùng lúc */
+        public final int peakItems;
+
+        Stats(long requests, long pagesLoaded, long pagesDropped, int duplicates, long errors, int peakItems) {
+            this.requests = requests;
+            this.pagesLoaded = pagesLoaded;
+            this.pagesDropped = pagesDropped;
+            this.duplicates = duplicates;
+            this.errors = errors;
+            this.peakItems = peakItems;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "requests=%d loaded=%d dropped=%d dup=%d errors=%d peakItems=%d",
+                    requests, pagesLoaded, pagesDropped, duplicates, errors, peakItems);
+        }
+    }
+
+    private final Source<T> source;
+    private final Function<? super T, ?> keyOf;
+    private final int pageSize;
+    private final int prefetchDistance;
+    private final int maxPages;
+    private final Listener<T> listener;
+
+    // Trang liên tiếp firstPage .. firstPage + pages.size() - 1
+    private final List<List<T>> pages = new ArrayList<>();
+    // Trang đã bỏ phía trên (page 1 .. firstPage - 1): số dòng đã chiếm + key
+    private final List<Dropped> dropped = new ArrayList<>();
+    private final Set<Object> droppedKeys = new HashSet<>();
+    private int firstPage = 1;
+    private boolean end;
+    // Trang đang tải (0 = không), mỗi lúc 1 request
+    private int loadingPage;
+    private int generation;
+    @Nullable
+    private Throwable lastError;
+
+    // Dựng lại mỗi lần publish
+    private List<T> rows = Collections.emptyList();
+    private final Map<Object, T> byKey = new HashMap<>();
+    private int leading;
+    private int lastFirstVisible = -1;
+    private int lastLastVisible = -1;
+
+    private long requests;
+    private long pagesLoaded;
+    private long pagesDropped;
+    private int duplicates;
+    private long errors;
+    private int peakItems;
+
+    private static final class Dropped {
+        final int rows;
+        final List<Object> keys;
+
+        Dropped(int rows, @NonNull List<Object> keys) {
+            this.rows = rows;
+            this.keys = keys;
+        }
+    }
+
+    public PageWindow(@NonNull Source<T> source,
+            @NonNull Function<? super T, ?> keyOf,
+            int pageSize,
+            int prefetchDistance,
+            int maxPages,
+            @NonNull Listener<T> listener) {
+        if (pageSize < 1 || maxPages < 2 || prefetchDistance < 0)
+            throw new IllegalArgumentException("pageSize=" + pageSize + " prefetch=" + prefetchDistance
+                    + " maxPages=" + maxPages);
+        this.source = source;
+        this.keyOf = keyOf;
+        this.pageSize = pageSize;
+        this.prefetchDistance = prefetchDistance;
+        this.maxPages = maxPages;
+        this.listener = listener;
+    }
+
+    // ============================
+    // API
+    // ============================
+
+    /** Bỏ hết, tải lại từ trang 1 (kéo làm mới, mất đồng bộ socket). */
+    public void refresh() {
+        generation++;
+        pages.clear();
+        dropped.clear();
+        droppedKeys.clear();
+        firstPage = 1;
+        end = false;
+        loadingPage = 0;
+        lastError = null;
+        lastFirstVisible = -1;
+        lastLastVisible = -1;
+        load(1);
+    }
+
+    /**
+     * Tải lại trang 1 tại chỗ nếu nó còn trong cửa sổ (vd. có đơn mới); không xô các trang sau.
+     * Trang 1 đã bị bỏ → không làm gì, sẽ tải lại khi cuộn lên.
+     */
+    public void refreshTop() {
+        if (firstPage == 1 && !pages.isEmpty() && loadingPage == 0)
+            load(1);
+    }
+
+    /** Báo vùng đang hiển thị (vị trí trong {@link #rows()}); tự tải trang trước / sau nếu cần. */
+    public void onVisible(int firstVisible, int lastVisible) {
+        lastFirstVisible = firstVisible;
+        lastLastVisible = lastVisible;
+        maybeLoad();
+    }
+
+    /** Phần tử đang trong cửa sổ có key {@code key}, null nếu chưa tải / đã bỏ. */
+    @Nullable
+    public T find(@NonNull Object key) {
+        return byKey.get(key);
+    }
+
+    /** Đã sửa tại chỗ phần tử lấy từ {@link #find} → phát lại danh sách. */
+    public void notifyChanged() {
+        publish();
+    }
+
+    @NonNull
+    public List<T> rows() {
+        return rows;
+    }
+
+    public boolean isLoading() {
+        return loadingPage != 0;
+    }
+
+    /** Đã tới trang cuối và không còn gì trong cửa sổ (danh sách rỗng thật). */
+    public boolean isEmpty() {
+        return end && rows.isEmpty();
+    }
+
+    @Nullable
+    public Throwable lastError() {
+        return lastError;
+    }
+
+    @NonNull
+    public Stats stats() {
+        return new Stats(requests, pagesLoaded, pagesDropped, duplicates, errors, peakItems);
+    }
+
+    int firstPage() {
+        return firstPage;
+    }
+
+    int loadedPages() {
+        return pages.size();
+    }
+
+    // ============================
+    // Nội bộ
+    // ============================
+
+    private int lastPage() {
+        return firstPage + pages.size() - 1;
+    }
+
+    private void maybeLoad() {
+        if (loadingPage != 0)
+            return;
+        if (pages.isEmpty()) {
+            load(firstPage);
+            return;
+        }
+        // Cuộn ngược vào vùng placeholder phía trên
+        if (firstPage > 1 && lastFirstVisible >= 0 && lastFirstVisible < leading + prefetchDistance) {
+            load(firstPage - 1);
+            return;
+        }
+        int loadedEnd = rows.size() - 1;
+        if (!end && lastLastVisible >= 0 && lastLastVisible >= loadedEnd - prefetchDistance)
+            load(lastPage() + 1);
+    }
+
+    private void load(int page) {
+        final int gen = generation;
+        loadingPage = page;
+        requests++;
+        source.load(page, pageSize, new Result<T>() {
+            @Override
+            public void onPage(@NonNull List<T> items) {
+                if (gen != generation || loadingPage != page)
+                    return;
+                loadingPage = 0;
+                lastError = null;
+                onLoaded(page, items);
+                publish();
+                maybeLoad();
+            }
+
+            @Override
+            public void onError(@NonNull Throwable error) {
+                if (gen != generation || loadingPage != page)
+                    return;
+                loadingPage = 0;
+                lastError = error;
+                errors++;
+                publish();
+            }
+        });
+        if (loadingPage == page && page > lastPage())
+            publish(); // placeholder cuối danh sách
+    }
+
+    private void onLoaded(int page, @NonNull List<T> items) {
+        List<T> copy = new ArrayList<>(items);
+        pagesLoaded++;
+        boolean lastOfData = items.size() < pageSize;
+
+        if (pages.isEmpty()) {
+            firstPage = page;
+            pages.add(copy);
+            end = lastOfData;
+        } else if (page >= firstPage && page <= lastPage()) {
+            // Tải lại trang đang giữ (refreshTop)
+            pages.set(page - firstPage, keepShifted(copy, pages.get(page - firstPage)));
+            if (page == lastPage())
+                end = lastOfData;
+        } else if (page == lastPage() + 1) {
+            pages.add(copy);
+            end = lastOfData;
+            if (pages.size() > maxPages)
+                dropFirstPage();
+        } else if (page == firstPage - 1) {
+            Dropped d = dropped.remove(dropped.size() - 1);
+            droppedKeys.removeAll(d.keys);
+            pages.add(0, copy);
+            firstPage--;
+            if (pages.size() > maxPages) {
+                pages.remove(pages.size() - 1);
+                end = false;
+                pagesDropped++;
+            }
+        }
+        // Trang không liền kề (cửa sổ đã trượt) → bỏ
+    }
+
+    /** Bỏ trang đầu cửa sổ, nhớ số dòng nó đang hiển thị (như {@link #publish()} đếm) + key. */
+    private void dropFirstPage() {
+        List<T> page = pages.remove(0);
+        List<Object> keys = new ArrayList<>();
+        Set<Object> seen = new HashSet<>();
+        int shown = 0;
+        for (T item : page) {
+            if (item == null)
+                continue;
+            Object key = keyOf.apply(item);
+            if (key != null) {
+                if (droppedKeys.contains(key) || !seen.add(key))
+                    continue;
+                keys.add(key);
+            }
+            shown++;
+        }
+        dropped.add(new Dropped(shown, keys));
+        droppedKeys.addAll(keys);
+        firstPage++;
+        pagesDropped++;
+    }
+
+    /**
+     * Đơn mới chèn đầu đẩy vài dòng cũ sang trang sau; trang sau chưa tải lại thì giữ tạm
+     * các dòng đó ở cuối trang vừa tải (khi trang sau tải lại sẽ bị bỏ trùng).
+     */
+    @NonNull
+    private List<T> keepShifted(@NonNull List<T> fresh, @NonNull List<T> old) {
+        Map<Object, Boolean> seen = new HashMap<>();
+        for (T item : fresh) {
+            Object key = item == null ? null : keyOf.apply(item);
+            if (key != null)
+                seen.put(key, Boolean.TRUE);
+        }
+        for (T item : old) {
+            Object key = item == null ? null : keyOf.apply(item);
+            if (key != null && !seen.containsKey(key))
+                fresh.add(item);
+        }
+        return fresh;
+    }
+
+    private void publish() {
+        leading = 0;
+        for (Dropped d : dropped)
+            leading += d.rows;
+        boolean tail = loadingPage != 0 && loadingPage > lastPage();
+        List<T> out = new ArrayList<>(leading + pages.size() * pageSize + (tail ? pageSize : 0));
+        for (int i = 0; i < leading; i++)
+            out.add(null);
+
+        byKey.clear();
+        duplicates = 0;
+        int items = 0;
+        for (List<T> page : pages) {
+            for (T item : page) {
+                if (item == null)
+                    continue;
+                Object key = keyOf.apply(item);
+                if (key != null) {
+                    // Trùng dòng trong cửa sổ hoặc dòng đang là placeholder của trang đã bỏ
+                    if (byKey.containsKey(key) || droppedKeys.contains(key)) {
+                        duplicates++;
+                        continue;
+                    }
+                    byKey.put(key, item);
+                }
+                out.add(item);
+                items++;
+            }
+        }
+        if (tail) {
+            for (int i = 0; i < pageSize; i++)
+                out.add(null);
+        }
+        peakItems = Math.max(peakItems, items);
+        rows = Collections.unmodifiableList(out);
+        listener.onChanged(rows);
+    }
+}
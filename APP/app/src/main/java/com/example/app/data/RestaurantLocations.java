@@ -0,0 +1,164 @@
+package com.example.app.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.app.model.Restaurant;
+import com.example.app.util.GeoMath;
+import com.example.app.util.SpatialIndex;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RestaurantLocations: toạ độ các quán đã tải về máy + vị trí gần nhất của người dùng (Singleton).
+ *
+ * - Được nạp tự động từ các lần tải danh sách / chi tiết quán (không gọi API riêng)
+ * - Khoảng cách tới 1 quán: tra map O(1) + haversine
+ * - Quán trong bán kính: {@link SpatialIndex} (k-d tree), dựng lại lười khi có quán mới
+ * - An toàn đa luồng: map concurrent, index là object bất biến thay nguyên khối
+ */
+public class RestaurantLocations {
+
+    private static volatile RestaurantLocations instance;
+
+    /** Toạ độ 1 quán (bất biến) */
+    public static final class Point {
+        @NonNull
+        public final String id;
+        public final double lat;
+        public final double lng;
+
+        Point(@NonNull String id, double lat, double lng) {
+            this.id = id;
+            this.lat = lat;
+            this.lng = lng;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Point> points = new ConcurrentHashMap<>();
+    @Nullable
+    private volatile SpatialIndex<Point> index;
+
+    // Vị trí người dùng gần nhất mà app biết (NaN = chưa có)
+    private volatile double userLat = Double.NaN;
+    private volatile double userLng = Double.NaN;
+
+    public static RestaurantLocations getInstance() {
+        if (instance == null) {
+            synchronized (RestaurantLocations.class) {
+                if (instance == null) {
+                    instance = new RestaurantLocations();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private RestaurantLocations() {
+    }
+
+    // ============================
+    // Nạp dữ liệu
+    // ============================
+
+    public void put(@Nullable Restaurant r) {
+        if (r == null || r.id == null || r.latitude == null || r.longitude == null)
+            return;
+        put(r.id, r.latitude, r.longitude);
+    }
+
+    public void putAll(@Nullable Collection<Restaurant> restaurants) {
+        if (restaurants == null)
+            return;
+        for (Restaurant r : restaurants)
+            put(r);
+    }
+
+    public void put(@NonNull String id, double lat, double lng) {
+        if (!GeoMath.isValid(lat, lng))
+            return;
+        Point old = points.get(id);
+        if (old != null && old.lat == lat && old.lng == lng)
+            return;
+        synchronized (this) {
+            points.put(id, new Point(id, lat, lng));
+            index = null;
+        }
+    }
+
+    /** Ghi nhớ vị trí người dùng (màn hình nào lấy được GPS thì báo vào đây). */
+    public void setUserLocation(double lat, double lng) {
+        if (!GeoMath.isValid(lat, lng))
+            return;
+        userLat = lat;
+        userLng = lng;
+    }
+
+    public boolean hasUserLocation() {
+        return !Double.isNaN(userLat);
+    }
+
+    // ============================
+    // Truy vấn
+    // ============================
+
+    @Nullable
+    public Point get(@Nullable String restaurantId) {
+        return restaurantId != null ? points.get(restaurantId) : null;
+    }
+
+    /** Khoảng cách (km) từ lat/lng tới quán; null nếu chưa biết toạ độ quán. */
+    @Nullable
+    public Double distanceKm(@Nullable String restaurantId, double lat, double lng) {
+        Point p = get(restaurantId);
+        if (p == null || !GeoMath.isValid(lat, lng))
+            return null;
+        return GeoMath.haversineKm(lat, lng, p.lat, p.lng);
+    }
+
+    /** Khoảng cách từ vị trí người dùng gần nhất tới quán; null nếu thiếu 1 trong 2. */
+    @Nullable
+    public Double distanceFromUser(@Nullable String restaurantId) {
+        return hasUserLocation() ? distanceKm(restaurantId, userLat, userLng) : null;
+    }
+
+    /**
+     * Các quán trong {@code restaurants} nằm trong bán kính {@code km} (tra k-d tree), gắn
+     * distance, sắp xếp gần → xa; quán không rõ toạ độ bị bỏ như API nearby. Trả list mới.
+     */
+    @NonNull
+    public List<Restaurant> within(@NonNull List<Restaurant> restaurants, double lat, double lng, double km) {
+        putAll(restaurants);
+        Map<String, Restaurant> byId = new HashMap<>();
+        for (Restaurant r : restaurants) {
+            if (r != null && r.id != null)
+                byId.put(r.id, r);
+        }
+        List<Restaurant> out = new ArrayList<>();
+        // Index chứa cả quán từ các lần tải khác → chỉ lấy quán thuộc danh sách truyền vào
+        for (SpatialIndex.Neighbor<Point> n : index().within(lat, lng, km)) {
+            Restaurant r = byId.remove(n.item.id);
+            if (r != null) {
+                r.distance = n.km;
+                out.add(r);
+            }
+        }
+        return out;
+    }
+
+    private SpatialIndex<Point> index() {
+        SpatialIndex<Point> idx = index;
+        if (idx != null)
+            return idx;
+        synchronized (this) {
+            if (index == null)
+                index = SpatialIndex.build(new ArrayList<>(points.values()), p -> p.lat, p -> p.lng);
+            return index;
+        }
+    }
+}
@@ -1,13 +1,23 @@
 package com.example.app.data;
 
+import android.content.Context;
 import android.util.Log;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
 import com.example.app.api.RestaurantApiService;
 import com.example.app.api.RetrofitClient;
 import com.example.app.model.MenuItem;
 import com.example.app.model.Restaurant;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
 
+import java.lang.reflect.Type;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -17,19 +27,31 @@ import retrofit2.Response;
  * RestaurantRepository
  * - Chịu trách nhiệm giao tiếp với API Backend (qua RestaurantApiService) để tải dữ liệu.
  * - Dùng chung RetrofitClient với StoreDiscoveryFragment.
+ * - Chi tiết quán + menu đi qua {@link CatalogCache} theo kiểu stale-while-revalidate:
+ *   có cache → callback ngay; cache quá TTL → gọi API nền và chỉ callback lần 2
+ *   nếu dữ liệu server khác với cái đã hiển thị.
  */
 public class RestaurantRepository {
 
     private static final String TAG = "RestaurantRepository";
-    private static RestaurantRepository instance;
+    private static volatile RestaurantRepository instance;
+
+    private static final Type MENU_TYPE = new TypeToken<List<MenuItem>>() {
+    }.getType();
 
     // ✅ Dùng RestaurantApiService (chung với StoreDiscoveryFragment)
     private final RestaurantApiService apiService;
+    private final CatalogCache cache = new CatalogCache();
+    private final Gson gson = new Gson();
 
     // Singleton Pattern
     public static RestaurantRepository getInstance() {
         if (instance == null) {
-            instance = new RestaurantRepository();
+            synchronized (RestaurantRepository.class) {
+                if (instance == null) {
+                    instance = new RestaurantRepository();
+                }
+            }
         }
         return instance;
     }
@@ -39,6 +61,11 @@ public class RestaurantRepository {
         this.apiService = RetrofitClient.getRestaurantService();
     }
 
+    /** Bật cache disk (gọi 1 lần từ MainActivity); không gọi thì chỉ cache trên RAM. */
+    public void init(@NonNull Context context) {
+        cache.attach(context);
+    }
+
     // MARK: - Callbacks Interface (Được sử dụng trong ViewModel)
     public interface RestaurantDetailCallback {
         void onRestaurantLoaded(Restaurant restaurant);
@@ -53,58 +80,123 @@ public class RestaurantRepository {
     // MARK: - Logic tải dữ liệu (Sử dụng API)
 
     /**
-     * Tải chi tiết nhà hàng dựa trên ID từ API.
+     * Tải chi tiết nhà hàng dựa trên ID: cache trước, API sau (nếu cần).
      */
     public void loadRestaurantDetail(String restaurantId, RestaurantDetailCallback callback) {
-        Log.d(TAG, "Gọi API loadRestaurantDetail, id = " + restaurantId);
+        Log.d(TAG, "loadRestaurantDetail, id = " + restaurantId);
+        load(CatalogCache.Kind.RESTAURANT, restaurantId, Restaurant.class,
+                () -> apiService.getRestaurantDetail(restaurantId),
+                restaurant -> {
+                    // Ghi nhớ toạ độ quán cho tính khoảng cách / phí ship offline
+                    RestaurantLocations.getInstance().put(restaurant);
+                    callback.onRestaurantLoaded(restaurant);
+                },
+                callback::onError,
+                "chi tiết nhà hàng");
+    }
 
-        apiService.getRestaurantDetail(restaurantId).enqueue(new Callback<Restaurant>() {
-            @Override
-            public void onResponse(Call<Restaurant> call, Response<Restaurant> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    Log.d(TAG, "Load chi tiết nhà hàng OK");
-                    callback.onRestaurantLoaded(response.body());
+    /**
+     * Tải danh sách menu của nhà hàng: cache trước, API sau (nếu cần).
+     */
+    public void loadMenu(String restaurantId, MenuCallback callback) {
+        Log.d(TAG, "loadMenu, id = " + restaurantId);
+        load(CatalogCache.Kind.MENU, restaurantId, MENU_TYPE,
+                () -> apiService.getRestaurantMenu(restaurantId),
+                callback::onMenuLoaded,
+                callback::onError,
+                "menu");
+    }
+
+    // MARK: - Invalidate (merchant sửa menu / quán)
+
+    /** Bỏ cache chi tiết + menu của 1 quán. */
+    public void invalidateRestaurant(@NonNull String restaurantId) {
+        cache.invalidate(CatalogCache.Kind.RESTAURANT, restaurantId);
+        cache.invalidate(CatalogCache.Kind.MENU, restaurantId);
+    }
+
+    /** Bỏ cache menu của mọi quán (merchant không có sẵn id quán của mình). */
+    public void invalidateMenus() {
+        cache.invalidateAll(CatalogCache.Kind.MENU);
+    }
+
+    @NonNull
+    public CatalogCache.Stats cacheStats() {
+        return cache.stats();
+    }
+
+    // ============================
+    // Stale-while-revalidate
+    // ============================
+
+    private <T> void load(CatalogCache.Kind kind, String id, Type type,
+            Supplier<Call<T>> request, Consumer<T> onData, Consumer<String> onError, String what) {
+        if (id == null) {
+            fetch(kind, null, null, request, onData, onError, what);
+            return;
+        }
+        cache.get(kind, id, cached -> {
+            if (cached != null) {
+                T value = decode(cached.json, type);
+                if (value != null) {
+                    onData.accept(value);
+                    if (cached.isFresh(kind))
+                        return;
                 } else {
-                    String error = "Không tải được chi tiết nhà hàng. Code: " + response.code();
-                    Log.e(TAG, error);
-                    callback.onError(error);
+                    cached = null;
                 }
             }
-
-            @Override
-            public void onFailure(Call<Restaurant> call, Throwable t) {
-                String msg = "Lỗi kết nối API tải chi tiết nhà hàng: " + t.getMessage();
-                Log.e(TAG, msg, t);
-                callback.onError("Lỗi kết nối hoặc network: " + t.getMessage());
-            }
+            fetch(kind, id, cached, request, onData, onError, what);
         });
     }
 
     /**
-     * Tải danh sách menu của nhà hàng từ API.
+     * Gọi API. {@code cached != null} nghĩa là UI đang hiển thị bản cache:
+     * dữ liệu giống hệt → im lặng; lỗi mạng → chỉ log, giữ nguyên bản cache.
      */
-    public void loadMenu(String restaurantId, MenuCallback callback) {
-        Log.d(TAG, "Gọi API loadMenu, id = " + restaurantId);
-
-        apiService.getRestaurantMenu(restaurantId).enqueue(new Callback<List<MenuItem>>() {
+    private <T> void fetch(CatalogCache.Kind kind, @Nullable String id, @Nullable CatalogCache.Entry cached,
+            Supplier<Call<T>> request, Consumer<T> onData, Consumer<String> onError, String what) {
+        request.get().enqueue(new Callback<T>() {
             @Override
-            public void onResponse(Call<List<MenuItem>> call, Response<List<MenuItem>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    Log.d(TAG, "Load menu OK, size = " + response.body().size());
-                    callback.onMenuLoaded(response.body());
+            public void onResponse(Call<T> call, Response<T> response) {
+                T body = response.body();
+                if (response.isSuccessful() && body != null) {
+                    if (id != null) {
+                        String json = gson.toJson(body);
+                        if (cached != null && json.equals(cached.json)) {
+                            Log.d(TAG, "Revalidate " + what + " " + id + ": không đổi");
+                            cache.touch(kind, id, cached);
+                            return;
+                        }
+                        cache.put(kind, id, json, cached != null);
+                    }
+                    Log.d(TAG, "Load " + what + " OK");
+                    onData.accept(body);
                 } else {
-                    String error = "Không tải được menu. Code: " + response.code();
+                    String error = "Không tải được " + what + ". Code: " + response.code();
                     Log.e(TAG, error);
-                    callback.onError(error);
+                    if (cached == null)
+                        onError.accept(error);
                 }
             }
 
             @Override
-            public void onFailure(Call<List<MenuItem>> call, Throwable t) {
-                String msg = "Lỗi kết nối API tải menu: " + t.getMessage();
-                Log.e(TAG, msg, t);
-                callback.onError("Lỗi kết nối hoặc network: " + t.getMessage());
+            public void onFailure(Call<T> call, Throwable t) {
+                Log.e(TAG, "Lỗi kết nối API tải " + what + ": " + t.getMessage(), t);
+                if (cached == null)
+                    onError.accept("Lỗi kết nối hoặc network: " + t.getMessage());
             }
         });
     }
+
+    @Nullable
+    private <T> T decode(String json, Type type) {
+        try {
+            return gson.fromJson(json, type);
+        } catch (JsonParseException e) {
+            // File cache hỏng / model đổi → coi như miss
+            Log.w(TAG, "Cache decode failed", e);
+            return null;
+        }
+    }
 }
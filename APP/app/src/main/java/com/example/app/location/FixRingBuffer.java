@@ -0,0 +1,153 @@
+package com.example.app.location;
+
+import androidx.annotation.NonNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * FixRingBuffer: hàng đợi vị trí chờ gửi, lưu trên disk, dung lượng cố định.
+ *
+ * - File = header 24 byte + {@code capacity} ô 20 byte (time, lat/lng E7, sai số dm)
+ * - Đầy → ghi đè điểm cũ nhất (đếm vào {@link #dropped()}); file không bao giờ lớn hơn
+ * - Đọc theo thứ tự ghi; chỉ xoá sau khi server nhận ({@link #drop(int)}) → mất mạng,
+ *   bị kill giữa chừng vẫn gửi lại đúng thứ tự
+ * - Ghi record trước, header sau: chết giữa chừng chỉ mất điểm đang ghi
+ * - Không an toàn đa luồng: chỉ dùng từ 1 thread (executor của LocationUplink)
+ */
+public final class FixRingBuffer implements Closeable {
+
+    private static final int MAGIC = 0x4C4F4331; // "LOC1"
+    private static final int HEADER_BYTES = 24;
+    private static final int RECORD_BYTES = 20;
+    private static final double E7 = 1e7;
+
+    private final RandomAccessFile file;
+    private final int capacity;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+
+    // Số thứ tự tuyệt đối: [head, tail) là các điểm đang chờ, ô = seq % capacity
+    private long head;
+    private long tail;
+    private long dropped;
+
+    public FixRingBuffer(@NonNull File path, int capacity) throws IOException {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity <= 0");
+        File dir = path.getParentFile();
+        if (dir != null && !dir.exists())
+            dir.mkdirs();
+        this.capacity = capacity;
+        this.file = new RandomAccessFile(path, "rw");
+        if (!readHeader()) {
+            // File mới / hỏng / đổi dung lượng → làm lại từ đầu
+            head = 0;
+            tail = 0;
+            file.setLength(HEADER_BYTES + (long) capacity * RECORD_BYTES);
+            writeHeader();
+        }
+    }
+
+    // ============================
+    // Ghi / đọc
+    // ============================
+
+    public void append(@NonNull LocationFix fix) throws IOException {
+        if (tail - head >= capacity) {
+            head++;
+            dropped++;
+        }
+        record.clear();
+        record.putLong(fix.timeMs);
+        record.putInt((int) Math.round(fix.lat * E7));
+        record.putInt((int) Math.round(fix.lng * E7));
+        record.putInt(fix.hasAccuracy() ? Math.round(fix.accuracyM * 10f) : -1);
+        file.seek(offsetOf(tail));
+        file.write(record.array());
+        tail++;
+        writeHeader();
+    }
+
+    /** Tối đa {@code max} điểm cũ nhất, không xoá khỏi buffer. */
+    @NonNull
+    public List<LocationFix> peek(int max) throws IOException {
+        int n = (int) Math.min(max, tail - head);
+        List<LocationFix> out = new ArrayList<>(n);
+        byte[] buf = record.array();
+        for (long seq = head; seq < head + n; seq++) {
+            file.seek(offsetOf(seq));
+            file.readFully(buf);
+            record.clear();
+            long time = record.getLong();
+            double lat = record.getInt() / E7;
+            double lng = record.getInt() / E7;
+            int accDm = record.getInt();
+            out.add(new LocationFix(time, lat, lng, accDm >= 0 ? accDm / 10f : Float.NaN));
+        }
+        return out;
+    }
+
+    /** Xoá {@code n} điểm cũ nhất (đã gửi thành công). */
+    public void drop(int n) throws IOException {
+        head = Math.min(tail, head + Math.max(0, n));
+        writeHeader();
+    }
+
+    public int size() {
+        return (int) (tail - head);
+    }
+
+    public boolean isEmpty() {
+        return tail == head;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Số điểm bị ghi đè vì buffer đầy (từ lúc mở). */
+    public long dropped() {
+        return dropped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    // ============================
+    // Header
+    // ============================
+
+    private boolean readHeader() throws IOException {
+        if (file.length() != HEADER_BYTES + (long) capacity * RECORD_BYTES)
+            return false;
+        file.seek(0);
+        if (file.readInt() != MAGIC || file.readInt() != capacity)
+            return false;
+        long h = file.readLong();
+        long t = file.readLong();
+        if (h < 0 || t < h || t - h > capacity)
+            return false;
+        head = h;
+        tail = t;
+        return true;
+    }
+
+    private void writeHeader() throws IOException {
+        header.clear();
+        header.putInt(MAGIC).putInt(capacity).putLong(head).putLong(tail);
+        file.seek(0);
+        file.write(header.array());
+    }
+
+    private long offsetOf(long seq) {
+        return HEADER_BYTES + (seq % capacity) * RECORD_BYTES;
+    }
+}
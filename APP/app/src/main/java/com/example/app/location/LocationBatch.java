@@ -0,0 +1,110 @@
+package com.example.app.location;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * LocationBatch: định dạng gói nhiều điểm vị trí cho POST shipper/location/batch.
+ *
+ * <pre>
+ * {"v":1,"t":t0,"la":lat0E6,"ln":lng0E6,"d":[dt,dLat,dLng,acc, dt,dLat,dLng,acc, ...]}
+ * </pre>
+ * - Điểm đầu là gốc (t, la, ln), mỗi điểm (kể cả điểm đầu) chiếm 4 số trong "d":
+ *   chênh lệch thời gian (ms), chênh lệch lat/lng (đơn vị 1e-6 độ ≈ 0.11m) so với
+ *   điểm trước, sai số (m, -1 = không có) → số nhỏ, lặp nhiều, gzip nén tốt
+ * - Chênh lệch tính trên giá trị đã làm tròn → giải mã không bị trôi sai số
+ * - Body gửi đi đã gzip (Content-Encoding: gzip), server express tự giải nén
+ */
+public final class LocationBatch {
+
+    public static final int VERSION = 1;
+    private static final double E6 = 1e6;
+
+    private LocationBatch() {
+    }
+
+    /** JSON chưa nén (đầu vào không rỗng, theo thứ tự thời gian). */
+    @NonNull
+    public static String toJson(@NonNull List<LocationFix> fixes) {
+        if (fixes.isEmpty())
+            throw new IllegalArgumentException("empty batch");
+        LocationFix first = fixes.get(0);
+        long prevT = first.timeMs;
+        long prevLat = Math.round(first.lat * E6);
+        long prevLng = Math.round(first.lng * E6);
+
+        StringBuilder sb = new StringBuilder(48 + fixes.size() * 16);
+        sb.append("{\"v\":").append(VERSION)
+                .append(",\"t\":").append(prevT)
+                .append(",\"la\":").append(prevLat)
+                .append(",\"ln\":").append(prevLng)
+                .append(",\"d\":[");
+        for (int i = 0; i < fixes.size(); i++) {
+            LocationFix f = fixes.get(i);
+            long lat = Math.round(f.lat * E6);
+            long lng = Math.round(f.lng * E6);
+            if (i > 0)
+                sb.append(',');
+            sb.append(f.timeMs - prevT).append(',')
+                    .append(lat - prevLat).append(',')
+                    .append(lng - prevLng).append(',')
+                    .append(f.hasAccuracy() ? Math.round(f.accuracyM) : -1);
+            prevT = f.timeMs;
+            prevLat = lat;
+            prevLng = lng;
+        }
+        return sb.append("]}").toString();
+    }
+
+    /** Body gzip để gửi server. */
+    @NonNull
+    public static byte[] encode(@NonNull List<LocationFix> fixes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + fixes.size() * 6);
+        try (Writer w = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            w.write(toJson(fixes));
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Giải mã body gzip (server giả lập trong test / debug). */
+    @NonNull
+    public static List<LocationFix> decode(@NonNull byte[] gzipped) throws IOException {
+        try (Reader r = new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(gzipped)), StandardCharsets.UTF_8)) {
+            JsonObject o = JsonParser.parseReader(r).getAsJsonObject();
+            if (o.get("v").getAsInt() != VERSION)
+                throw new IOException("unsupported batch version");
+            long t = o.get("t").getAsLong();
+            long lat = o.get("la").getAsLong();
+            long lng = o.get("ln").getAsLong();
+            JsonArray d = o.getAsJsonArray("d");
+            List<LocationFix> out = new ArrayList<>(d.size() / 4);
+            for (int i = 0; i + 3 < d.size(); i += 4) {
+                t += d.get(i).getAsLong();
+                lat += d.get(i + 1).getAsLong();
+                lng += d.get(i + 2).getAsLong();
+                int acc = d.get(i + 3).getAsInt();
+                out.add(new LocationFix(t, lat / E6, lng / E6, acc >= 0 ? acc : Float.NaN));
+            }
+            return out;
+        } catch (RuntimeException e) {
+            throw new IOException("malformed batch", e);
+        }
+    }
+}
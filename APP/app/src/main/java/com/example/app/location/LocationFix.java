@@ -0,0 +1,37 @@
+package com.example.app.location;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+
+/**
+ * LocationFix: 1 điểm vị trí của shipper (bất biến).
+ *
+ * - Dùng chung cho bộ đệm gửi server, bộ lọc quỹ đạo và test (không phụ thuộc
+ *   android.location.Location)
+ */
+public final class LocationFix {
+
+    public final long timeMs;
+    public final double lat;
+    public final double lng;
+    /** Bán kính sai số (m), NaN nếu không có */
+    public final float accuracyM;
+
+    public LocationFix(long timeMs, double lat, double lng, float accuracyM) {
+        this.timeMs = timeMs;
+        this.lat = lat;
+        this.lng = lng;
+        this.accuracyM = accuracyM;
+    }
+
+    public boolean hasAccuracy() {
+        return !Float.isNaN(accuracyM);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%d:%.6f,%.6f±%.0f", timeMs, lat, lng, accuracyM);
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.app.location;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LocationUplink: đường gửi vị trí shipper lên server theo lô.
+ *
+ * - Mỗi fix được ghi vào {@link FixRingBuffer} (disk) rồi mới gửi → mất mạng / bị kill
+ *   không mất điểm (trừ khi buffer đầy, khi đó bỏ điểm cũ nhất)
+ * - Gửi khi đủ {@code maxPending} điểm hoặc điểm cũ nhất đã chờ {@code maxDelayMs};
+ *   mỗi request là 1 {@link LocationBatch} (delta + gzip), tối đa {@link #MAX_BATCH} điểm
+ * - Lỗi → giữ nguyên buffer, thử lại với backoff luỹ thừa; có mạng lại thì gửi bù
+ *   theo đúng thứ tự
+ * - Mọi thao tác disk + mạng chạy trên 1 thread riêng; {@link Transport} được phép chặn
+ */
+public final class LocationUplink {
+
+    /** Gửi 1 lô lên server (gọi trên thread uplink, được phép chặn). */
+    public interface Transport {
+        /** @return true nếu server đã nhận lô */
+        boolean send(@NonNull byte[] gzipBody, int fixCount) throws IOException;
+    }
+
+    /** Số liệu gửi (bất biến); hiệu 2 snapshot = số liệu của 1 chuyến giao. */
+    public static final class Stats {
+        public final long requests;
+        public final long failures;
+        public final long fixesSent;
+        public final long bytesSent;
+        public final long dropped;
+
+        Stats(long requests, long failures, long fixesSent, long bytesSent, long dropped) {
+            this.requests = requests;
+            this.failures = failures;
+            this.fixesSent = fixesSent;
+            this.bytesSent = bytesSent;
+            this.dropped = dropped;
+        }
+
+        @NonNull
+        public Stats minus(@NonNull Stats base) {
+            return new Stats(requests - base.requests, failures - base.failures,
+                    fixesSent - base.fixesSent, bytesSent - base.bytesSent, dropped - base.dropped);
+        }
+
+        public double bytesPerFix() {
+            return fixesSent == 0 ? 0 : (double) bytesSent / fixesSent;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "requests=%d failures=%d fixes=%d bytes=%d (%.1f B/fix) dropped=%d",
+                    requests, failures, fixesSent, bytesSent, bytesPerFix(), dropped);
+        }
+    }
+
+    public static final int MAX_BATCH = 200;
+    private static final long BASE_BACKOFF_MS = TimeUnit.SECONDS.toMillis(10);
+    private static final long MAX_BACKOFF_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private final FixRingBuffer buffer;
+    private final Transport transport;
+    private final ScheduledExecutorService executor;
+
+    // Chính sách gửi (đổi theo trạng thái shipper)
+    private volatile long maxDelayMs = TimeUnit.SECONDS.toMillis(30);
+    private volatile int maxPending = 20;
+
+    // Chỉ truy cập trên thread uplink
+    @Nullable
+    private ScheduledFuture<?> scheduled;
+    private long retryAt;
+    private int consecutiveFailures;
+    // close() đã gọi: executor sắp shutdown → không hẹn flush mới
+    private volatile boolean closing;
+
+    private volatile Stats stats = new Stats(0, 0, 0, 0, 0);
+
+    public LocationUplink(@NonNull FixRingBuffer buffer, @NonNull Transport transport,
+            @NonNull ScheduledExecutorService executor) {
+        this.buffer = buffer;
+        this.transport = transport;
+        this.executor = executor;
+    }
+
+    /** Mở buffer tại {@code file} với 1 thread riêng "location-uplink". */
+    @NonNull
+    public static LocationUplink open(@NonNull File file, int capacity, @NonNull Transport transport)
+            throws IOException {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "location-uplink");
+            t.setDaemon(true);
+            return t;
+        });
+        LocationUplink uplink = new LocationUplink(new FixRingBuffer(file, capacity), transport, executor);
+        // Còn điểm từ lần chạy trước → gửi bù ngay
+        uplink.flushNow();
+        return uplink;
+    }
+
+    // ============================
+    // API
+    // ============================
+
+    public void setFlushPolicy(long maxDelayMs, int maxPending) {
+        this.maxDelayMs = maxDelayMs;
+        this.maxPending = Math.max(1, Math.min(maxPending, MAX_BATCH));
+    }
+
+    public void offer(@NonNull LocationFix fix) {
+        executor.execute(() -> {
+            try {
+                buffer.append(fix);
+            } catch (IOException e) {
+                // Disk lỗi: bỏ điểm này, điểm sau vẫn có thể ghi được
+                return;
+            }
+            if (buffer.size() >= maxPending && now() >= retryAt)
+                flush();
+            else
+                scheduleFlush(maxDelayMs);
+        });
+    }
+
+    /** Gửi ngay mọi điểm đang chờ (bỏ qua backoff), vd khi đổi trạng thái giao hàng. */
+    @NonNull
+    public Future<?> flushNow() {
+        return executor.submit(this::flush);
+    }
+
+    @NonNull
+    public Stats stats() {
+        return stats;
+    }
+
+    /** Gửi nốt những gì gửi được rồi đóng file; điểm còn lại chờ lần mở sau. */
+    public void close() {
+        closing = true;
+        executor.execute(() -> {
+            try {
+                flush();
+            } finally {
+                try {
+                    buffer.close();
+                } catch (IOException ignore) {
+                    // ignore
+                }
+            }
+        });
+        executor.shutdown();
+    }
+
+    // ============================
+    // Gửi
+    // ============================
+
+    private void flush() {
+        cancelScheduled();
+        while (!buffer.isEmpty()) {
+            List<LocationFix> batch;
+            byte[] body;
+            try {
+                batch = buffer.peek(MAX_BATCH);
+                body = LocationBatch.encode(batch);
+            } catch (IOException e) {
+                scheduleFlush(maxDelayMs);
+                return;
+            }
+
+            boolean ok;
+            try {
+                ok = transport.send(body, batch.size());
+            } catch (IOException | RuntimeException e) {
+                ok = false;
+            }
+            record(ok, ok ? batch.size() : 0, body.length);
+            if (!ok) {
+                long backoff = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(consecutiveFailures, 10));
+                consecutiveFailures++;
+                retryAt = now() + backoff;
+                scheduleFlush(backoff);
+                return;
+            }
+            consecutiveFailures = 0;
+            retryAt = 0L;
+            try {
+                buffer.drop(batch.size());
+            } catch (IOException e) {
+                // Header chưa ghi được → lô này có thể bị gửi lại lần sau (server chấp nhận trùng)
+                return;
+            }
+        }
+    }
+
+    private void scheduleFlush(long delayMs) {
+        if (closing)
+            return; // lần gửi cuối lỗi → điểm còn lại nằm trong file, lần mở sau gửi bù
+        if (scheduled != null && !scheduled.isDone())
+            return;
+        scheduled = executor.schedule(this::flush, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelScheduled() {
+        if (scheduled != null) {
+            scheduled.cancel(false);
+            scheduled = null;
+        }
+    }
+
+    private void record(boolean ok, int fixes, int bytes) {
+        Stats s = stats;
+        stats = new Stats(s.requests + 1, s.failures + (ok ? 0 : 1),
+                s.fixesSent + fixes, s.bytesSent + bytes, buffer.dropped());
+    }
+
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.app.location;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.app.util.GeoMath;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PositionInterpolator: vị trí shipper hiển thị cho khách giữa 2 lần nhận fix.
+ *
+ * - Dead-reckoning: ước lượng vận tốc (hướng + tốc độ) từ các fix gần nhất rồi
+ *   ngoại suy vị trí theo thời gian → marker/chữ chạy liên tục thay vì nhảy mỗi 10–20s
+ * - Fix mới tới mà vị trí đang hiển thị lệch → không nhảy, phần lệch giảm dần về 0
+ *   trong {@link #BLEND_MS}
+ * - Chỉ ngoại suy tối đa ~1.5 chu kỳ nhận fix (mất tín hiệu thì đứng lại, không
+ *   "chạy" mãi theo hướng cũ)
+ * - Mỗi fix mới đo sai số dự đoán (vị trí đang hiển thị ↔ fix thật) → {@link Stats}
+ * - Fix kèm thời điểm đo của máy gửi ({@link #onFix(double, double, long, long)}): vận tốc tính
+ *   theo thời điểm đo, fix tới trễ được ngoại suy bù phần trễ thay vì coi như vừa đo
+ *
+ * Java thuần, không thread-safe (dùng trên UI thread). Thời gian do bên gọi cấp (ms).
+ */
+public final class PositionInterpolator {
+
+    /** Sai số dự đoán tại các thời điểm nhận fix (m). */
+    public static final class Stats {
+        public final long fixes;
+        public final double meanErrorM;
+        public final double maxErrorM;
+        /** Sai số nếu chỉ giữ nguyên fix cũ (cách hiển thị trước đây), để so sánh */
+        public final double meanHoldErrorM;
+
+        Stats(long fixes, double meanErrorM, double maxErrorM, double meanHoldErrorM) {
+            this.fixes = fixes;
+            this.meanErrorM = meanErrorM;
+            this.maxErrorM = maxErrorM;
+            this.meanHoldErrorM = meanHoldErrorM;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "fixes=%d error mean=%.1fm max=%.1fm (hold=%.1fm)",
+                    fixes, meanErrorM, maxErrorM, meanHoldErrorM);
+        }
+    }
+
+    // Phần lệch khi có fix mới được xoá dần trong khoảng này
+    static final long BLEND_MS = 1_500L;
+    // Ngoại suy tối đa = 1.5 chu kỳ fix, trong khoảng [5s, 30s]
+    private static final double EXTRAPOLATE_FACTOR = 1.5;
+    private static final long MIN_EXTRAPOLATE_MS = TimeUnit.SECONDS.toMillis(5);
+    private static final long MAX_EXTRAPOLATE_MS = TimeUnit.SECONDS.toMillis(30);
+    // Fix cách nhau quá lâu → vận tốc cũ không còn ý nghĩa
+    private static final long RESET_GAP_MS = TimeUnit.MINUTES.toMillis(2);
+    // Vận tốc đo từ 2 fix được tin 70%, còn lại giữ từ trước (lọc nhiễu GPS)
+    private static final double VELOCITY_GAIN = 0.7;
+    private static final double MIN_SPEED_MPS = 0.5;
+    private static final double MAX_SPEED_MPS = 45.0;
+    private static final double INTERVAL_ALPHA = 0.3;
+
+    private static final double M_PER_DEG = Math.toRadians(1) * GeoMath.EARTH_RADIUS_KM * 1000.0;
+
+    // Mặt phẳng cục bộ quanh fix đầu tiên (m)
+    private boolean tracking;
+    private double originLat;
+    private double originLng;
+    private double mPerDegLng;
+
+    // Fix gần nhất + vận tốc ước lượng
+    private double fixX;
+    private double fixY;
+    private long fixTime;
+    private double vx;
+    private double vy;
+    private double intervalMs = Double.NaN;
+    // Đồng hồ máy gửi → đồng hồ của positionAt: độ trễ nhỏ nhất đã thấy
+    private long clockOffset = Long.MAX_VALUE;
+
+    // Lệch giữa vị trí đang hiển thị và fix mới lúc nhận, xoá dần
+    private double offsetX;
+    private double offsetY;
+
+    private long fixes;
+    private long measured;
+    private double errorSum;
+    private double errorMax;
+    private double holdErrorSum;
+
+    // ============================
+    // API
+    // ============================
+
+    /** Nhận 1 fix; {@code timeMs} cùng đồng hồ với {@link #positionAt(long)}. */
+    public void onFix(double lat, double lng, long timeMs) {
+        if (!GeoMath.isValid(lat, lng))
+            return;
+        fixes++;
+        if (!tracking || timeMs - fixTime > RESET_GAP_MS || timeMs < fixTime) {
+            reset(lat, lng, timeMs);
+            return;
+        }
+
+        double x = toX(lng);
+        double y = toY(lat);
+        long dt = timeMs - fixTime;
+
+        // Sai số: vị trí đang hiển thị ↔ fix thật; so với cách cũ (đứng yên ở fix trước)
+        double[] shown = localAt(timeMs);
+        double err = Math.hypot(shown[0] - x, shown[1] - y);
+        measured++;
+        errorSum += err;
+        errorMax = Math.max(errorMax, err);
+        holdErrorSum += Math.hypot(fixX - x, fixY - y);
+
+        if (dt > 0) {
+            double mvx = (x - fixX) * 1000.0 / dt;
+            double mvy = (y - fixY) * 1000.0 / dt;
+            vx = VELOCITY_GAIN * mvx + (1 - VELOCITY_GAIN) * vx;
+            vy = VELOCITY_GAIN * mvy + (1 - VELOCITY_GAIN) * vy;
+            double speed = Math.hypot(vx, vy);
+            if (speed < MIN_SPEED_MPS) {
+                vx = 0;
+                vy = 0;
+            } else if (speed > MAX_SPEED_MPS) {
+                vx *= MAX_SPEED_MPS / speed;
+                vy *= MAX_SPEED_MPS / speed;
+            }
+            intervalMs = Double.isNaN(intervalMs) ? dt : INTERVAL_ALPHA * dt + (1 - INTERVAL_ALPHA) * intervalMs;
+        }
+
+        offsetX = shown[0] - x;
+        offsetY = shown[1] - y;
+        fixX = x;
+        fixY = y;
+        fixTime = timeMs;
+    }
+
+    /**
+     * Nhận 1 fix đo lúc {@code fixTimeMs} theo đồng hồ máy gửi (vd. epoch ms của shipper),
+     * tới lúc {@code arrivalMs} (cùng đồng hồ với {@link #positionAt(long)}).
+     * Lệch đồng hồ + trễ đường truyền ước lượng bằng hiệu nhỏ nhất đã thấy; fix cũ hơn fix
+     * đang giữ (tới sai thứ tự) bị bỏ.
+     */
+    public void onFix(double lat, double lng, long fixTimeMs, long arrivalMs) {
+        clockOffset = Math.min(clockOffset, arrivalMs - fixTimeMs);
+        long timeMs = fixTimeMs + clockOffset;
+        if (tracking && timeMs < fixTime)
+            return;
+        onFix(lat, lng, timeMs);
+    }
+
+    /** Vị trí nên hiển thị lúc {@code nowMs}; null nếu chưa có fix nào. */
+    @Nullable
+    public LocationFix positionAt(long nowMs) {
+        if (!tracking)
+            return null;
+        double[] p = localAt(nowMs);
+        return new LocationFix(nowMs, originLat + p[1] / M_PER_DEG, originLng + p[0] / mPerDegLng, Float.NaN);
+    }
+
+    /** Còn đang ngoại suy (vị trí còn thay đổi) → UI cần vẽ lại tiếp. */
+    public boolean isMoving(long nowMs) {
+        if (!tracking)
+            return false;
+        long dt = nowMs - fixTime;
+        if (dt < BLEND_MS && (offsetX != 0 || offsetY != 0))
+            return true;
+        return (vx != 0 || vy != 0) && dt < horizonMs();
+    }
+
+    /** Tốc độ ước lượng (m/s) */
+    public double speedMps() {
+        return Math.hypot(vx, vy);
+    }
+
+    @NonNull
+    public Stats stats() {
+        return new Stats(fixes, measured == 0 ? 0 : errorSum / measured, errorMax,
+                measured == 0 ? 0 : holdErrorSum / measured);
+    }
+
+    // ============================
+    // Nội bộ
+    // ============================
+
+    private double[] localAt(long nowMs) {
+        long dt = Math.max(0, Math.min(nowMs - fixTime, horizonMs()));
+        double x = fixX + vx * dt / 1000.0;
+        double y = fixY + vy * dt / 1000.0;
+        long since = Math.max(0, nowMs - fixTime);
+        if (since < BLEND_MS) {
+            double k = 1.0 - (double) since / BLEND_MS;
+            x += offsetX * k;
+            y += offsetY * k;
+        }
+        return new double[] { x, y };
+    }
+
+    private long horizonMs() {
+        if (Double.isNaN(intervalMs))
+            return MIN_EXTRAPOLATE_MS;
+        long h = (long) (intervalMs * EXTRAPOLATE_FACTOR);
+        return Math.max(MIN_EXTRAPOLATE_MS, Math.min(MAX_EXTRAPOLATE_MS, h));
+    }
+
+    private void reset(double lat, double lng, long timeMs) {
+        tracking = true;
+        originLat = lat;
+        originLng = lng;
+        mPerDegLng = M_PER_DEG * Math.cos(Math.toRadians(lat));
+        fixX = 0;
+        fixY = 0;
+        fixTime = timeMs;
+        vx = 0;
+        vy = 0;
+        offsetX = 0;
+        offsetY = 0;
+        intervalMs = Double.NaN;
+    }
+
+    private double toX(double lng) {
+        return (lng - originLng) * mPerDegLng;
+    }
+
+    private double toY(double lat) {
+        return (lat - originLat) * M_PER_DEG;
+    }
+}
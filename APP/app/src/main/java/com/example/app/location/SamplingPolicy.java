@@ -0,0 +1,231 @@
+package com.example.app.location;
+
+import androidx.annotation.NonNull;
+
+import com.example.app.util.GeoMath;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SamplingPolicy: chọn cấu hình lấy mẫu GPS + gửi vị trí cho shipper.
+ *
+ * - Đầu vào: trạng thái công việc ({@link Mode}) + vận tốc / quãng đường di chuyển
+ * - Đầu ra: {@link Profile} (độ chính xác, chu kỳ, khoảng cách tối thiểu giữa 2 fix,
+ *   độ rút gọn quỹ đạo, nhịp gửi server). Service chỉ đăng ký lại FusedLocation khi Profile đổi
+ * - Chuyển mức chuyển động có trễ (hysteresis) → không nhảy qua lại khi vận tốc
+ *   dao động quanh ngưỡng
+ * - Java thuần, không phụ thuộc Android → test được bằng JUnit
+ */
+public final class SamplingPolicy {
+
+    /** Shipper đang làm gì */
+    public enum Mode {
+        /** Không có đơn: chỉ cần vị trí thô cho việc gán đơn */
+        IDLE,
+        /** Đã nhận đơn, đang tới quán lấy hàng */
+        TO_RESTAURANT,
+        /** Đang giao cho khách: khách xem bản đồ realtime */
+        DELIVERING
+    }
+
+    /** Mức chuyển động suy ra từ vận tốc */
+    public enum Motion {
+        STILL, MOVING, FAST
+    }
+
+    /** Độ chính xác yêu cầu (service đổi sang Priority của FusedLocation) */
+    public enum Accuracy {
+        HIGH, BALANCED, LOW_POWER
+    }
+
+    /** Cấu hình lấy mẫu (bất biến, so sánh bằng equals) */
+    public static final class Profile {
+        @NonNull
+        public final Accuracy accuracy;
+        public final long intervalMs;
+        public final long fastestMs;
+        public final float minDistanceM;
+        /** Sai lệch tối đa (m) khi rút gọn quỹ đạo trước khi gửi ({@link TrajectoryFilter}) */
+        public final float toleranceM;
+        /** Không có điểm mới quá lâu (đi thẳng / đứng yên) vẫn gửi 1 điểm */
+        public final long heartbeatMs;
+        /** Điểm chờ trong buffer tối đa bao lâu trước khi gửi cả lô */
+        public final long flushDelayMs;
+
+        Profile(@NonNull Accuracy accuracy, long intervalMs, long fastestMs, float minDistanceM,
+                float toleranceM, long heartbeatMs, long flushDelayMs) {
+            this.accuracy = accuracy;
+            this.intervalMs = intervalMs;
+            this.fastestMs = fastestMs;
+            this.minDistanceM = minDistanceM;
+            this.toleranceM = toleranceM;
+            this.heartbeatMs = heartbeatMs;
+            this.flushDelayMs = flushDelayMs;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Profile))
+                return false;
+            Profile p = (Profile) o;
+            return accuracy == p.accuracy && intervalMs == p.intervalMs && fastestMs == p.fastestMs
+                    && minDistanceM == p.minDistanceM && toleranceM == p.toleranceM
+                    && heartbeatMs == p.heartbeatMs && flushDelayMs == p.flushDelayMs;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = accuracy.hashCode();
+            h = 31 * h + Long.hashCode(intervalMs);
+            h = 31 * h + Long.hashCode(fastestMs);
+            h = 31 * h + Float.hashCode(minDistanceM);
+            return h;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%s every %ds (fastest %ds, ≥%.0fm), tolerance %.0fm, heartbeat %ds, flush %ds",
+                    accuracy, intervalMs / 1000, fastestMs / 1000, minDistanceM,
+                    toleranceM, heartbeatMs / 1000, flushDelayMs / 1000);
+        }
+    }
+
+    // Ngưỡng vận tốc (m/s) có trễ: vào STILL < 0.6, ra khi > 1.5; vào FAST > 9 (~32km/h), ra khi < 7
+    static final double STILL_ENTER_MPS = 0.6;
+    static final double STILL_EXIT_MPS = 1.5;
+    static final double FAST_ENTER_MPS = 9.0;
+    static final double FAST_EXIT_MPS = 7.0;
+    // Làm mượt vận tốc (EMA) để 1 fix nhiễu không đổi mức
+    private static final double SPEED_ALPHA = 0.4;
+    // Fix cách nhau quá lâu → không suy vận tốc từ quãng đường (mất GPS, service ngủ)
+    private static final long MAX_DERIVE_GAP_MS = TimeUnit.MINUTES.toMillis(5);
+
+    @NonNull
+    private Mode mode = Mode.IDLE;
+    @NonNull
+    private Motion motion = Motion.MOVING;
+    private double speedEma = Double.NaN;
+
+    private double lastLat = Double.NaN;
+    private double lastLng = Double.NaN;
+    private long lastFixAt;
+
+    // ============================
+    // Đầu vào
+    // ============================
+
+    /** @return true nếu Profile đổi (cần đăng ký lại location updates) */
+    public boolean setMode(@NonNull Mode newMode) {
+        if (newMode == mode)
+            return false;
+        Profile before = current();
+        mode = newMode;
+        return !before.equals(current());
+    }
+
+    /**
+     * Ghi nhận 1 fix.
+     *
+     * @param speedMps vận tốc do GPS báo, NaN nếu không có → tự suy từ quãng đường
+     * @return true nếu Profile đổi
+     */
+    public boolean onFix(double lat, double lng, double speedMps, long timeMs) {
+        if (!GeoMath.isValid(lat, lng))
+            return false;
+        double speed = speedMps;
+        if (Double.isNaN(speed) && !Double.isNaN(lastLat)) {
+            long dt = timeMs - lastFixAt;
+            if (dt > 0 && dt <= MAX_DERIVE_GAP_MS)
+                speed = GeoMath.haversineKm(lastLat, lastLng, lat, lng) * 1000.0 / (dt / 1000.0);
+        }
+        lastLat = lat;
+        lastLng = lng;
+        lastFixAt = timeMs;
+        if (Double.isNaN(speed) || speed < 0)
+            return false;
+
+        speedEma = Double.isNaN(speedEma) ? speed : SPEED_ALPHA * speed + (1 - SPEED_ALPHA) * speedEma;
+        Motion next = classify(motion, speedEma);
+        if (next == motion)
+            return false;
+        Profile before = current();
+        motion = next;
+        return !before.equals(current());
+    }
+
+    @NonNull
+    public Mode mode() {
+        return mode;
+    }
+
+    @NonNull
+    public Motion motion() {
+        return motion;
+    }
+
+    // ============================
+    // Bảng cấu hình
+    // ============================
+
+    @NonNull
+    public Profile current() {
+        return profileFor(mode, motion);
+    }
+
+    @NonNull
+    static Profile profileFor(@NonNull Mode mode, @NonNull Motion motion) {
+        switch (mode) {
+            case DELIVERING:
+                // Khách đang nhìn bản đồ: chính xác cao, dày hơn khi chạy nhanh
+                switch (motion) {
+                    case FAST:
+                        return new Profile(Accuracy.HIGH, sec(5), sec(3), 20f, 15f, sec(15), sec(15));
+                    case MOVING:
+                        return new Profile(Accuracy.HIGH, sec(8), sec(5), 10f, 10f, sec(15), sec(15));
+                    default:
+                        // Dừng đèn đỏ / chờ khách: không cần GPS chính xác cao
+                        return new Profile(Accuracy.BALANCED, sec(20), sec(10), 15f, 15f, sec(60), sec(20));
+                }
+            case TO_RESTAURANT:
+                switch (motion) {
+                    case FAST:
+                        return new Profile(Accuracy.BALANCED, sec(15), sec(10), 50f, 30f, sec(60), sec(30));
+                    case MOVING:
+                        return new Profile(Accuracy.BALANCED, sec(20), sec(10), 30f, 25f, sec(60), sec(30));
+                    default:
+                        return new Profile(Accuracy.BALANCED, sec(60), sec(30), 50f, 40f, sec(180), sec(60));
+                }
+            default:
+                // Rảnh: server chỉ cần vị trí gần đúng để gợi ý đơn
+                if (motion == Motion.STILL)
+                    return new Profile(Accuracy.LOW_POWER, sec(180), sec(60), 200f, 150f, sec(600), sec(300));
+                return new Profile(Accuracy.BALANCED, sec(60), sec(30), 100f, 100f, sec(300), sec(120));
+        }
+    }
+
+    static Motion classify(@NonNull Motion current, double speed) {
+        switch (current) {
+            case STILL:
+                if (speed > FAST_ENTER_MPS)
+                    return Motion.FAST;
+                return speed > STILL_EXIT_MPS ? Motion.MOVING : Motion.STILL;
+            case FAST:
+                if (speed < STILL_ENTER_MPS)
+                    return Motion.STILL;
+                return speed < FAST_EXIT_MPS ? Motion.MOVING : Motion.FAST;
+            default:
+                if (speed < STILL_ENTER_MPS)
+                    return Motion.STILL;
+                return speed > FAST_ENTER_MPS ? Motion.FAST : Motion.MOVING;
+        }
+    }
+
+    private static long sec(long s) {
+        return TimeUnit.SECONDS.toMillis(s);
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.app.location;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.app.util.GeoMath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TrajectoryFilter: lọc + rút gọn quỹ đạo shipper trước khi gửi server.
+ *
+ * 3 tầng, chạy online (mỗi fix vào → 0..1 điểm ra):
+ * 1. Cổng chất lượng: bỏ fix sai số lớn, fix "nhảy" với vận tốc phi lý, fix lùi thời gian
+ * 2. Làm mượt alpha-beta (vị trí + vận tốc) trên mặt phẳng cục bộ (m); fix càng
+ *    kém chính xác càng ít được tin (alpha nhỏ)
+ * 3. Douglas-Peucker online (cửa sổ mở): giữ điểm neo đã gửi, gom các điểm sau; khi
+ *    có điểm lệch khỏi đoạn neo → điểm mới nhất quá {@code toleranceM} thì gửi điểm
+ *    ngay trước đó làm neo mới. Đi thẳng / đứng yên rung GPS → không gửi gì cho tới
+ *    khi quá {@code maxHoldMs}
+ *
+ * Java thuần, không thread-safe (dùng trên thread xử lý vị trí).
+ */
+public final class TrajectoryFilter {
+
+    /** Số liệu lọc; {@link #reductionRatio()} = tỉ lệ fix không phải gửi. */
+    public static final class Stats {
+        public final long input;
+        public final long rejected;
+        public final long emitted;
+
+        Stats(long input, long rejected, long emitted) {
+            this.input = input;
+            this.rejected = rejected;
+            this.emitted = emitted;
+        }
+
+        public double reductionRatio() {
+            return input == 0 ? 0 : 1.0 - (double) emitted / input;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "in=%d rejected=%d out=%d reduction=%.0f%%",
+                    input, rejected, emitted, reductionRatio() * 100);
+        }
+    }
+
+    // Ngưỡng tin cậy mặc định
+    static final float MAX_ACCURACY_M = 50f;
+    static final double MAX_SPEED_MPS = 45.0; // ~160 km/h
+    // Bị loại liên tiếp nhiều lần → coi như vị trí thật đã đổi (vd: mất GPS trong hầm)
+    private static final int MAX_CONSECUTIVE_REJECTS = 3;
+    // Fix cách quá xa về thời gian → khởi động lại bộ lọc
+    private static final long RESET_GAP_MS = TimeUnit.MINUTES.toMillis(1);
+    // Sai số tham chiếu cho alpha: fix ±10m → alpha 0.5
+    private static final double REF_ACCURACY_M = 10.0;
+    private static final double DEFAULT_ALPHA = 0.6;
+    private static final int MAX_WINDOW = 512;
+
+    private static final double M_PER_DEG = Math.toRadians(1) * GeoMath.EARTH_RADIUS_KM * 1000.0;
+
+    private double toleranceM = 10.0;
+    private long maxHoldMs = TimeUnit.SECONDS.toMillis(15);
+
+    // Cổng chất lượng
+    @Nullable
+    private LocationFix lastAccepted;
+    private int consecutiveRejects;
+
+    // Alpha-beta: trạng thái trên mặt phẳng cục bộ quanh (originLat, originLng)
+    private boolean tracking;
+    private double originLat;
+    private double originLng;
+    private double mPerDegLng;
+    private double x;
+    private double y;
+    private double vx;
+    private double vy;
+    private long stateTime;
+
+    // Douglas-Peucker online: neo = điểm đã gửi gần nhất, window = điểm sau neo
+    @Nullable
+    private LocationFix anchor;
+    private final List<LocationFix> window = new ArrayList<>();
+
+    private long input;
+    private long rejected;
+    private long emitted;
+
+    public void configure(double toleranceM, long maxHoldMs) {
+        this.toleranceM = toleranceM;
+        this.maxHoldMs = maxHoldMs;
+    }
+
+    // ============================
+    // API
+    // ============================
+
+    /** Đưa 1 fix thô vào; trả về điểm cần gửi (thường rỗng). */
+    @NonNull
+    public List<LocationFix> offer(@NonNull LocationFix raw) {
+        input++;
+        if (!accept(raw)) {
+            rejected++;
+            return Collections.emptyList();
+        }
+        return simplify(smooth(raw));
+    }
+
+    /** Gửi ngay điểm mới nhất chưa gửi (đổi trạng thái giao hàng, tắt service). */
+    @NonNull
+    public List<LocationFix> flush() {
+        if (window.isEmpty())
+            return Collections.emptyList();
+        LocationFix last = window.get(window.size() - 1);
+        return Collections.singletonList(emit(last));
+    }
+
+    @NonNull
+    public Stats stats() {
+        return new Stats(input, rejected, emitted);
+    }
+
+    // ============================
+    // 1. Cổng chất lượng
+    // ============================
+
+    private boolean accept(@NonNull LocationFix f) {
+        if (!GeoMath.isValid(f.lat, f.lng))
+            return false;
+        if (f.hasAccuracy() && f.accuracyM > MAX_ACCURACY_M)
+            return false;
+        LocationFix prev = lastAccepted;
+        if (prev != null) {
+            long dt = f.timeMs - prev.timeMs;
+            if (dt <= 0)
+                return false;
+            double speed = GeoMath.haversineKm(prev.lat, prev.lng, f.lat, f.lng) * 1000.0 / (dt / 1000.0);
+            if (speed > MAX_SPEED_MPS && ++consecutiveRejects < MAX_CONSECUTIVE_REJECTS)
+                return false;
+            if (speed > MAX_SPEED_MPS)
+                tracking = false; // nhảy thật → bắt đầu lại từ fix này
+        }
+        consecutiveRejects = 0;
+        lastAccepted = f;
+        return true;
+    }
+
+    // ============================
+    // 2. Alpha-beta
+    // ============================
+
+    @NonNull
+    private LocationFix smooth(@NonNull LocationFix f) {
+        if (!tracking || f.timeMs - stateTime > RESET_GAP_MS) {
+            tracking = true;
+            originLat = f.lat;
+            originLng = f.lng;
+            mPerDegLng = M_PER_DEG * Math.cos(Math.toRadians(f.lat));
+            x = 0;
+            y = 0;
+            vx = 0;
+            vy = 0;
+            stateTime = f.timeMs;
+            return f;
+        }
+        double dt = (f.timeMs - stateTime) / 1000.0;
+        stateTime = f.timeMs;
+
+        double px = x + vx * dt;
+        double py = y + vy * dt;
+        double rx = (f.lng - originLng) * mPerDegLng - px;
+        double ry = (f.lat - originLat) * M_PER_DEG - py;
+
+        double alpha = f.hasAccuracy()
+                ? clamp(REF_ACCURACY_M / (REF_ACCURACY_M + f.accuracyM), 0.2, 0.9)
+                : DEFAULT_ALPHA;
+        double beta = alpha * alpha / (2 - alpha);
+
+        x = px + alpha * rx;
+        y = py + alpha * ry;
+        vx += beta * rx / dt;
+        vy += beta * ry / dt;
+
+        return new LocationFix(f.timeMs, originLat + y / M_PER_DEG, originLng + x / mPerDegLng, f.accuracyM);
+    }
+
+    // ============================
+    // 3. Douglas-Peucker online
+    // ============================
+
+    @NonNull
+    private List<LocationFix> simplify(@NonNull LocationFix p) {
+        LocationFix a = anchor;
+        if (a == null)
+            return Collections.singletonList(emit(p));
+
+        window.add(p);
+        if (window.size() >= 2 && maxDeviation(a, p) > toleranceM) {
+            // Điểm trước p là góc cua cuối cùng còn nằm trong dung sai → neo mới
+            LocationFix corner = window.get(window.size() - 2);
+            emit(corner);
+            window.add(p);
+            return Collections.singletonList(corner);
+        }
+        if (p.timeMs - a.timeMs >= maxHoldMs || window.size() >= MAX_WINDOW)
+            return Collections.singletonList(emit(p));
+        return Collections.emptyList();
+    }
+
+    /** Đặt {@code p} làm neo mới; các điểm trong window sau p (nếu có) bị bỏ. */
+    @NonNull
+    private LocationFix emit(@NonNull LocationFix p) {
+        anchor = p;
+        window.clear();
+        emitted++;
+        return p;
+    }
+
+    /** Khoảng cách lớn nhất (m) từ các điểm giữa window tới đoạn a → p. */
+    private double maxDeviation(@NonNull LocationFix a, @NonNull LocationFix p) {
+        double k = Math.cos(Math.toRadians(a.lat)) * M_PER_DEG;
+        double bx = (p.lng - a.lng) * k;
+        double by = (p.lat - a.lat) * M_PER_DEG;
+        double len2 = bx * bx + by * by;
+        double max = 0;
+        for (int i = 0; i < window.size() - 1; i++) {
+            LocationFix q = window.get(i);
+            double qx = (q.lng - a.lng) * k;
+            double qy = (q.lat - a.lat) * M_PER_DEG;
+            double t = len2 > 0 ? clamp((qx * bx + qy * by) / len2, 0, 1) : 0;
+            double dx = qx - t * bx;
+            double dy = qy - t * by;
+            max = Math.max(max, Math.sqrt(dx * dx + dy * dy));
+        }
+        return max;
+    }
+
+    private static double clamp(double v, double lo, double hi) {
+        return Math.max(lo, Math.min(hi, v));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.app.model;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * AdminOrdersPage
+ * Response của GET /admin/orders: { "orders": [ ... ] }.
+ * Từng phần tử decode bằng OrderDto.Adapter.
+ */
+public class AdminOrdersPage {
+
+    @SerializedName("orders")
+    private List<OrderDto> orders;
+
+    public List<OrderDto> getOrders() {
+        return orders != null ? orders : Collections.emptyList();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.app.model;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * JsonReads
+ *
+ * Helper đọc 1 giá trị từ {@link JsonReader} cho các TypeAdapter viết tay
+ * (OrderDto, OrderLineDto, ShipperDto).
+ *
+ * - Backend Postgres trả NUMERIC dạng chuỗi ("125000.00") hoặc số tuỳ endpoint
+ *   → mọi hàm đều chấp nhận cả 2 dạng
+ * - Tiền đọc thẳng thành long (đồng) từ chuỗi literal, không qua Double
+ * - Giá trị sai kiểu (object/array ở chỗ cần số...) bị bỏ qua thay vì ném lỗi
+ */
+final class JsonReads {
+
+    private JsonReads() {
+    }
+
+    /** String / số / bool → chuỗi; null, object, array → null. */
+    static String string(JsonReader in) throws IOException {
+        JsonToken t = in.peek();
+        switch (t) {
+            case STRING:
+            case NUMBER:
+                // nextString() trả nguyên literal của số (không tạo Double)
+                return in.nextString();
+            case BOOLEAN:
+                return in.nextBoolean() ? "true" : "false";
+            case NULL:
+                in.nextNull();
+                return null;
+            default:
+                in.skipValue();
+                return null;
+        }
+    }
+
+    /** Số nguyên (số hoặc chuỗi số); phần thập phân bị cắt; lỗi → fallback. */
+    static int integer(JsonReader in, int fallback) throws IOException {
+        String s = string(in);
+        if (s == null)
+            return fallback;
+        long v = parseLong(s, false, Long.MIN_VALUE);
+        if (v == Long.MIN_VALUE || v > Integer.MAX_VALUE || v < Integer.MIN_VALUE)
+            return fallback;
+        return (int) v;
+    }
+
+    /**
+     * Tiền (đồng) làm tròn tới đơn vị. Chấp nhận "125000", "125000.00", 125000.5,
+     * "125.000 đ" / "1,250,000" (dấu phân cách hàng nghìn; ký tự lạ bị bỏ qua như formatVnd cũ).
+     */
+    static long money(JsonReader in, long fallback) throws IOException {
+        String s = string(in);
+        if (s == null)
+            return fallback;
+        return parseLong(s, true, fallback);
+    }
+
+    static double decimal(JsonReader in, double fallback) throws IOException {
+        String s = string(in);
+        if (s == null)
+            return fallback;
+        try {
+            return Double.parseDouble(s.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Parse long không qua Double/regex.
+     *
+     * @param lenient true → bỏ qua ký tự lạ (đ, dấu cách...) như formatVnd cũ; '.' / ','
+     *                đứng sau nhóm 1–3 chữ số và trước đúng 3 chữ số là phân cách hàng nghìn
+     *                ("1.250.000"), còn lại là dấu thập phân;
+     *                false → gặp ký tự lạ thì trả fallback
+     */
+    static long parseLong(String s, boolean lenient, long fallback) {
+        long v = 0;
+        boolean any = false;
+        boolean neg = false;
+        boolean grouped = false;
+        int groupLen = 0;
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                v = v * 10 + (c - '0');
+                any = true;
+                groupLen++;
+            } else if (c == '-' && !any) {
+                neg = true;
+            } else if (lenient && (c == '.' || c == ',')
+                    && (grouped ? groupLen == 3 : groupLen >= 1 && groupLen <= 3)
+                    && isGroupOf3(s, i + 1)) {
+                grouped = true;
+                groupLen = 0;
+            } else if (c == '.' || (lenient && c == ',')) {
+                // Làm tròn theo chữ số thập phân đầu tiên rồi dừng
+                if (lenient && i + 1 < n && s.charAt(i + 1) >= '5' && s.charAt(i + 1) <= '9')
+                    v++;
+                break;
+            } else if (c == 'e' || c == 'E') {
+                // Số mũ (1.5E5) hiếm gặp → đi đường chậm
+                try {
+                    return Math.round(Double.parseDouble(s.trim()));
+                } catch (NumberFormatException e) {
+                    return fallback;
+                }
+            } else if (!lenient && c != ' ') {
+                return fallback;
+            }
+        }
+        if (!any)
+            return fallback;
+        return neg ? -v : v;
+    }
+
+    /** Đúng 3 chữ số bắt đầu từ {@code from}, sau đó hết chuỗi hoặc không phải chữ số. */
+    private static boolean isGroupOf3(String s, int from) {
+        if (from + 3 > s.length())
+            return false;
+        for (int i = from; i < from + 3; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9')
+                return false;
+        }
+        return from + 3 == s.length() || s.charAt(from + 3) < '0' || s.charAt(from + 3) > '9';
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.app.model;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * OrderDto
+ * Đơn hàng trong các API danh sách: /customer/orders, /merchant/orders,
+ * /shipper/orders, /admin/orders.
+ *
+ * - Decode 1 lượt bằng {@link Adapter} (JsonReader) thay cho cây
+ *   LinkedTreeMap + Double của Gson mặc định → adapter không phải regex lại
+ *   id/tiền mỗi lần bind
+ * - Chấp nhận alias: id: order_id | id | _id; total: total | total_amount;
+ *   created_at | createdAt | time; shipper_id hoặc object "shipper"
+ * - Field lạ bị skipValue() nên backend thêm cột không làm hỏng app
+ */
+@JsonAdapter(OrderDto.Adapter.class)
+public class OrderDto {
+
+    public String id;
+    public String code;
+    /** Trạng thái thô từ server; client sửa trực tiếp sau khi cập nhật thành công */
+    public String status;
+    /** Tổng tiền (đồng) */
+    public long total;
+    public String createdAt;
+    public String updatedAt;
+    public String address;
+    public String paymentMethod;
+    public String restaurantId;
+    public String restaurantName;
+    public String customerName;
+    public String customerEmail;
+    public String shipperId;
+    public ShipperDto shipper;
+    public List<OrderLineDto> items = Collections.emptyList();
+
+    /** Id để gọi API (order_id/id, fallback code); null nếu server không trả. */
+    public String getId() {
+        return id != null ? id : code;
+    }
+
+    /** Mã hiển thị: code nếu có, ngược lại id. */
+    public String displayCode() {
+        return code != null ? code : id;
+    }
+
+    /** Trạng thái đã trim + lower-case, "" nếu null. */
+    public String normalizedStatus() {
+        return status == null ? "" : status.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Shipper đã lấy hàng, đang trên đường giao (PICKED_UP / ON_THE_WAY / DELIVERING / SHIPPING). */
+    public boolean isInDelivery() {
+        return isInDelivery(normalizedStatus());
+    }
+
+    /** @param normalized trạng thái đã qua {@link #normalizedStatus()} */
+    public static boolean isInDelivery(String normalized) {
+        switch (normalized) {
+            case "picked_up":
+            case "on_the_way":
+            case "delivering":
+            case "shipping":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public boolean hasShipper() {
+        return shipperId != null || (shipper != null && shipper.id != null);
+    }
+
+    /** "2x Phở, 1x Trà đá, 1x Nem…" — tối đa {@code max} món. */
+    public String itemsBrief(int max) {
+        if (items.isEmpty())
+            return "";
+        StringBuilder sb = new StringBuilder();
+        int shown = 0;
+        for (OrderLineDto it : items) {
+            if (shown > 0)
+                sb.append(", ");
+            sb.append(it.qty).append("x ").append(it.getName());
+            if (++shown >= max)
+                break;
+        }
+        if (items.size() > shown)
+            sb.append("…");
+        return sb.toString();
+    }
+
+    /** Hash các field hiển thị trên 1 dòng danh sách đơn; đổi → dòng cần bind lại. */
+    public int listHash() {
+        int h = Objects.hash(id, code, status, total, createdAt, address, paymentMethod,
+                restaurantName, customerName, hasShipper());
+        for (OrderLineDto it : items)
+            h = 31 * h + Objects.hash(it.name, it.qty, it.getLineTotal());
+        return h;
+    }
+
+    // ============================
+    // TypeAdapter (streaming)
+    // ============================
+
+    public static final class Adapter extends TypeAdapter<OrderDto> {
+
+        private final OrderLineDto.Adapter lineAdapter = new OrderLineDto.Adapter();
+        private final ShipperDto.Adapter shipperAdapter = new ShipperDto.Adapter();
+
+        @Override
+        public OrderDto read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            OrderDto d = new OrderDto();
+            boolean hasTotal = false;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "order_id":
+                        // order_id là khoá chính ở customer/merchant/shipper → ưu tiên
+                        d.id = orElse(JsonReads.string(in), d.id);
+                        break;
+                    case "id":
+                    case "_id":
+                        if (d.id == null)
+                            d.id = JsonReads.string(in);
+                        else
+                            in.skipValue();
+                        break;
+                    case "code":
+                        d.code = JsonReads.string(in);
+                        break;
+                    case "status":
+                        d.status = JsonReads.string(in);
+                        break;
+                    case "total":
+                        // "total" luôn thắng total_amount dù đứng trước hay sau
+                        d.total = JsonReads.money(in, d.total);
+                        hasTotal = true;
+                        break;
+                    case "total_amount":
+                        if (!hasTotal)
+                            d.total = JsonReads.money(in, d.total);
+                        else
+                            in.skipValue();
+                        break;
+                    case "created_at":
+                    case "createdAt":
+                    case "time":
+                        d.createdAt = orElse(d.createdAt, JsonReads.string(in));
+                        break;
+                    case "updated_at":
+                        d.updatedAt = JsonReads.string(in);
+                        break;
+                    case "address":
+                        d.address = JsonReads.string(in);
+                        break;
+                    case "payment_method":
+                        d.paymentMethod = JsonReads.string(in);
+                        break;
+                    case "restaurant_id":
+                        d.restaurantId = JsonReads.string(in);
+                        break;
+                    case "restaurant_name":
+                        d.restaurantName = JsonReads.string(in);
+                        break;
+                    case "customer_name":
+                        d.customerName = JsonReads.string(in);
+                        break;
+                    case "customer_email":
+                        d.customerEmail = JsonReads.string(in);
+                        break;
+                    case "shipper_id":
+                        d.shipperId = JsonReads.string(in);
+                        break;
+                    case "shipper":
+                        d.shipper = shipperAdapter.read(in);
+                        break;
+                    case "items":
+                        d.items = readItems(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            if (d.shipperId == null && d.shipper != null)
+                d.shipperId = d.shipper.id;
+            return d;
+        }
+
+        private List<OrderLineDto> readItems(JsonReader in) throws IOException {
+            if (in.peek() != JsonToken.BEGIN_ARRAY) {
+                in.skipValue();
+                return Collections.emptyList();
+            }
+            List<OrderLineDto> out = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                if (in.peek() != JsonToken.BEGIN_OBJECT) {
+                    in.skipValue();
+                    continue;
+                }
+                out.add(lineAdapter.read(in));
+            }
+            in.endArray();
+            return out;
+        }
+
+        private static String orElse(String a, String b) {
+            return a != null ? a : b;
+        }
+
+        @Override
+        public void write(JsonWriter out, OrderDto d) throws IOException {
+            if (d == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("order_id").value(d.id);
+            out.name("code").value(d.code);
+            out.name("status").value(d.status);
+            out.name("total").value(d.total);
+            out.name("created_at").value(d.createdAt);
+            out.name("updated_at").value(d.updatedAt);
+            out.name("address").value(d.address);
+            out.name("payment_method").value(d.paymentMethod);
+            out.name("restaurant_id").value(d.restaurantId);
+            out.name("restaurant_name").value(d.restaurantName);
+            out.name("customer_name").value(d.customerName);
+            out.name("customer_email").value(d.customerEmail);
+            out.name("shipper_id").value(d.shipperId);
+            if (d.shipper != null) {
+                out.name("shipper");
+                shipperAdapter.write(out, d.shipper);
+            }
+            out.name("items").beginArray();
+            for (OrderLineDto it : d.items)
+                lineAdapter.write(out, it);
+            out.endArray();
+            out.endObject();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.app.model;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * OrderLineDto
+ * Một dòng món trong danh sách đơn (customer / merchant / shipper / admin).
+ *
+ * Decode bằng {@link Adapter} (streaming) và chấp nhận các alias backend đang trả:
+ * - id: id | _id | product_id | item_id
+ * - name: name | title | product_name | item_name
+ * - qty: qty | quantity
+ * - price: price | unit_price | amount
+ * - lineTotal: line_total | subtotal
+ */
+@JsonAdapter(OrderLineDto.Adapter.class)
+public class OrderLineDto {
+
+    public String id;
+    public String name;
+    public int qty = 1;
+    /** Đơn giá (đồng) */
+    public long price;
+    /** Thành tiền (đồng); -1 nếu backend không trả */
+    public long lineTotal = -1;
+
+    public String getName() {
+        return name == null || name.isEmpty() ? "Món" : name;
+    }
+
+    /** Thành tiền, tự tính qty * price nếu backend không trả line_total. */
+    public long getLineTotal() {
+        return lineTotal >= 0 ? lineTotal : price * qty;
+    }
+
+    // ============================
+    // TypeAdapter (streaming)
+    // ============================
+
+    public static final class Adapter extends TypeAdapter<OrderLineDto> {
+
+        @Override
+        public OrderLineDto read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            OrderLineDto d = new OrderLineDto();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                    case "_id":
+                    case "product_id":
+                    case "item_id": {
+                        String v = JsonReads.string(in);
+                        if (d.id == null)
+                            d.id = v;
+                        break;
+                    }
+                    case "name":
+                    case "title":
+                    case "product_name":
+                    case "item_name": {
+                        String v = JsonReads.string(in);
+                        if (d.name == null || d.name.isEmpty())
+                            d.name = v;
+                        break;
+                    }
+                    case "qty":
+                    case "quantity":
+                        d.qty = JsonReads.integer(in, d.qty);
+                        break;
+                    case "price":
+                    case "unit_price":
+                    case "amount":
+                        d.price = JsonReads.money(in, d.price);
+                        break;
+                    case "line_total":
+                    case "subtotal":
+                        d.lineTotal = JsonReads.money(in, d.lineTotal);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return d;
+        }
+
+        @Override
+        public void write(JsonWriter out, OrderLineDto d) throws IOException {
+            if (d == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(d.id);
+            out.name("name").value(d.name);
+            out.name("quantity").value(d.qty);
+            out.name("price").value(d.price);
+            if (d.lineTotal >= 0)
+                out.name("line_total").value(d.lineTotal);
+            out.endObject();
+        }
+    }
+}
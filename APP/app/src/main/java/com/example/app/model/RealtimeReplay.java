@@ -0,0 +1,38 @@
+package com.example.app.model;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RealtimeReplay
+ * Response của GET /realtime/replay:
+ * { "epoch": "...", "seq": 123, "reset": false, "events": [ { "seq", "event", "payload" } ] }.
+ * reset = true → server không còn đủ event để replay, client phải tải lại.
+ */
+public class RealtimeReplay {
+
+    public static class Event {
+        @SerializedName("seq")
+        public long seq;
+        @SerializedName("event")
+        public String event;
+        @SerializedName("payload")
+        public Map<String, Object> payload;
+    }
+
+    @SerializedName("epoch")
+    public String epoch;
+    @SerializedName("seq")
+    public long seq;
+    @SerializedName("reset")
+    public boolean reset;
+    @SerializedName("events")
+    private List<Event> events;
+
+    public List<Event> getEvents() {
+        return events != null ? events : Collections.emptyList();
+    }
+}
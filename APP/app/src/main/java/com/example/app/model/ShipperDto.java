@@ -0,0 +1,112 @@
+package com.example.app.model;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * ShipperDto
+ * Thông tin shipper gắn kèm đơn (object "shipper" lồng trong đơn nếu backend trả).
+ *
+ * Alias: id | _id | shipper_id, name | full_name, phone, vehicle_plate,
+ * lat | latitude, lng | lon | longitude.
+ */
+@JsonAdapter(ShipperDto.Adapter.class)
+public class ShipperDto {
+
+    public String id;
+    public String name;
+    public String phone;
+    public String vehiclePlate;
+    /** NaN nếu chưa có vị trí */
+    public double lat = Double.NaN;
+    public double lng = Double.NaN;
+
+    public boolean hasLocation() {
+        return !Double.isNaN(lat) && !Double.isNaN(lng);
+    }
+
+    // ============================
+    // TypeAdapter (streaming)
+    // ============================
+
+    public static final class Adapter extends TypeAdapter<ShipperDto> {
+
+        @Override
+        public ShipperDto read(JsonReader in) throws IOException {
+            JsonToken t = in.peek();
+            if (t == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ShipperDto d = new ShipperDto();
+            if (t != JsonToken.BEGIN_OBJECT) {
+                // Một số endpoint chỉ trả id shipper thay vì object
+                d.id = JsonReads.string(in);
+                return d.id == null ? null : d;
+            }
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                    case "_id":
+                    case "shipper_id": {
+                        String v = JsonReads.string(in);
+                        if (d.id == null)
+                            d.id = v;
+                        break;
+                    }
+                    case "name":
+                    case "full_name": {
+                        String v = JsonReads.string(in);
+                        if (d.name == null)
+                            d.name = v;
+                        break;
+                    }
+                    case "phone":
+                        d.phone = JsonReads.string(in);
+                        break;
+                    case "vehicle_plate":
+                        d.vehiclePlate = JsonReads.string(in);
+                        break;
+                    case "lat":
+                    case "latitude":
+                        d.lat = JsonReads.decimal(in, d.lat);
+                        break;
+                    case "lng":
+                    case "lon":
+                    case "longitude":
+                        d.lng = JsonReads.decimal(in, d.lng);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return d;
+        }
+
+        @Override
+        public void write(JsonWriter out, ShipperDto d) throws IOException {
+            if (d == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(d.id);
+            out.name("name").value(d.name);
+            out.name("phone").value(d.phone);
+            out.name("vehicle_plate").value(d.vehiclePlate);
+            if (d.hasLocation()) {
+                out.name("lat").value(d.lat);
+                out.name("lng").value(d.lng);
+            }
+            out.endObject();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.app.network;
 
+import com.example.app.model.AdminOrdersPage;
+
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
@@ -22,7 +24,7 @@ public interface AdminApi {
     
     // Lấy danh sách đơn hàng
     @GET("admin/orders")
-    Call<Map<String, Object>> getOrders(@Query("status") String status);
+    Call<AdminOrdersPage> getOrders(@Query("status") String status);
     
     // Lấy danh sách yêu cầu hủy đơn
     @GET("admin/cancel-requests")
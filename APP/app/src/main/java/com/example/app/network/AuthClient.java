@@ -2,13 +2,13 @@ package com.example.app.network;
 
 import android.content.Context;
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.text.TextUtils;
 import android.util.Log;
 
 import androidx.annotation.Nullable;
 
 import com.example.app.auth.AuthEvents;
+import com.example.app.auth.SessionStore;
 import com.google.gson.annotations.SerializedName;
 
 import retrofit2.Call;
@@ -33,21 +33,17 @@ public class AuthClient {
 
     private static final String TAG = "AuthClient";
 
-    private static final String PREFS = "auth_session";
-    private static final String KEY_REFRESH = "refresh_token";
-    private static final String KEY_ROLE = "role";
-    private static final String KEY_EMAIL = "email";
-
     private final Context appContext;
     private final Retrofit retrofit;
     private final AuthApi api;
-    private final SharedPreferences prefs;
+    // Phiên đăng nhập cache trong RAM (write-through xuống SharedPreferences)
+    private final SessionStore session;
 
     public AuthClient(Context ctx) {
         this.appContext = ctx.getApplicationContext();
         this.retrofit = BackendConfig.getRetrofit(appContext);
         this.api = retrofit.create(AuthApi.class);
-        this.prefs = appContext.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        this.session = SessionStore.get(appContext);
     }
 
     /** Backward-compat: giữ nguyên cách gọi cũ new AuthClient(ctx).getRetrofit() */
@@ -96,28 +92,12 @@ public class AuthClient {
         return s == null ? "" : s.trim();
     }
 
-    /** Lưu phiên (đồng bộ access -> BackendConfig để Interceptor gắn header) */
+    /** Lưu phiên (access + refresh + role + email swap cùng lúc trong SessionStore) */
     public void saveSession(@Nullable String access,
                             @Nullable String refresh,
                             @Nullable String role,
                             @Nullable String email) {
-
-        // 1. Xử lý Access Token (lưu vào BackendConfig)
-        if (!TextUtils.isEmpty(access)) {
-            BackendConfig.saveAccessToken(appContext, access);
-        } else {
-            BackendConfig.clearAccessToken(appContext);
-        }
-
-        // 2. Xử lý các token khác (lưu vào SharedPreferences)
-        SharedPreferences.Editor ed = prefs.edit();
-
-        // [ĐÃ CHỈNH SỬA] Luôn lưu giá trị (kể cả chuỗi rỗng) để tránh mất key
-        ed.putString(KEY_REFRESH, normString(refresh));
-        ed.putString(KEY_ROLE, normString(role));
-        ed.putString(KEY_EMAIL, normString(email));
-
-        ed.apply();
+        session.save(access, normString(refresh), normString(role), normString(email));
 
         if (!TextUtils.isEmpty(role))
             Log.d(TAG, "Saved session, role=" + role);
@@ -143,13 +123,8 @@ public class AuthClient {
 
     /** Xóa toàn bộ dữ liệu phiên (Access, Refresh, Role, Email) */
     public void clearSession() {
-        BackendConfig.clearAccessToken(appContext);
-        // [ĐÃ CHỈNH SỬA] Dùng putString("") thay vì remove để giữ key tránh lỗi khi get
-        prefs.edit()
-                .putString(KEY_REFRESH, "")
-                .putString(KEY_ROLE, "")
-                .putString(KEY_EMAIL, "")
-                .apply();
+        session.clear();
+        HttpEngine.evictAll();
 
         // Giả định BackendConfig.resetRetrofit() có tồn tại
         BackendConfig.resetRetrofit();
@@ -166,24 +141,28 @@ public class AuthClient {
 
     @Nullable
     public String getAccessToken() {
-        // Giả định BackendConfig.getAccessToken(appContext) tồn tại
-        return BackendConfig.getAccessToken(appContext);
+        return session.accessToken();
     }
 
     @Nullable
     public String getRefreshToken() {
-        return prefs.getString(KEY_REFRESH, null);
+        return session.refreshToken();
     }
 
     @Nullable
     public String getRole() {
-        // [ĐÃ CHỈNH SỬA] Trả về chuỗi rỗng "" nếu giá trị là null (hoặc không tìm thấy)
-        return prefs.getString(KEY_ROLE, "");
+        // Trả về chuỗi rỗng "" nếu chưa có role
+        return session.role();
     }
 
     @Nullable
     public String getEmail() {
-        return prefs.getString(KEY_EMAIL, null);
+        return session.email();
+    }
+
+    /** Claims JWT đã decode sẵn (userId, role, exp) của access token hiện tại */
+    public SessionStore.Claims getClaims() {
+        return session.claims();
     }
 
     /** Kiểm tra tính hợp lệ của phiên.
@@ -319,9 +298,7 @@ public class AuthClient {
 
                     // Cập nhật Access Token MỚI, Refresh Token MỚI (nếu có),
                     // Giữ lại Role và Email CŨ (getRole(), getEmail()).
-                    String newRefreshToken = body.refreshToken != null ? body.refreshToken : getRefreshToken();
-
-                    saveSession(body.accessToken, newRefreshToken, getRole(), getEmail());
+                    session.rotateTokens(body.accessToken, body.refreshToken);
 
                 } else {
                     // Nếu Refresh thất bại (token hết hạn, bị thu hồi, v.v.)
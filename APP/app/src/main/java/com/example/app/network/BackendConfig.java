@@ -2,28 +2,23 @@ package com.example.app.network;
 
 import android.content.Context;
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.os.Build;
 import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import org.json.JSONObject;
+import com.example.app.auth.SessionStore;
 
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import okhttp3.Authenticator;
 import okhttp3.Interceptor;
-import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
-import okhttp3.Protocol;
 import okhttp3.Request;
-import okhttp3.RequestBody;
 import okhttp3.Response;
 import okhttp3.Route;
 import okhttp3.logging.HttpLoggingInterceptor;
@@ -34,8 +29,11 @@ import retrofit2.converter.gson.GsonConverterFactory;
  * BackendConfig
  *
  * - Quản lý BASE_URL và cung cấp Retrofit/OkHttp dùng chung
+ * - Mọi OkHttpClient derive từ HttpEngine (1 pool/dispatcher cho cả app)
  * - Tự attach "Authorization: Bearer <token>" nếu đã đăng nhập
- * - Tự động silent refresh khi gặp 401 bằng OkHttp Authenticator (retry 1 lần)
+ * - Tự refresh token trước khi hết hạn (TokenRefresher, đọc claim exp)
+ * - Gộp các GET giống nhau đang chạy đồng thời thành 1 call (RequestCoalescer)
+ * - Fallback: silent refresh khi gặp 401 bằng OkHttp Authenticator (retry 1 lần)
  * - Broadcast cho UI khi session bị clear
  */
 public final class BackendConfig {
@@ -73,56 +71,30 @@ public final class BackendConfig {
     public static final String PATH_VERIFY_OTP = "auth/verify-otp";
 
     // ============================
-    // Access token
+    // Access token (đọc/ghi qua SessionStore — cache RAM, write-through disk)
     // ============================
-    private static final String PREF_ACCESS = "fastfood_auth";
-    private static final String KEY_ACCESS = "accessToken";
 
     public static void saveAccessToken(Context context, String token) {
-        SharedPreferences sp = context.getSharedPreferences(PREF_ACCESS, Context.MODE_PRIVATE);
-        sp.edit().putString(KEY_ACCESS, token).apply();
+        SessionStore.get(context).setAccessToken(token);
     }
 
     @Nullable
     public static String getAccessToken(Context context) {
-        SharedPreferences sp = context.getSharedPreferences(PREF_ACCESS, Context.MODE_PRIVATE);
-        String t = sp.getString(KEY_ACCESS, null);
-        return (t == null || t.trim().isEmpty()) ? null : t;
+        return SessionStore.get(context).accessToken();
     }
 
     public static void clearAccessToken(Context context) {
-        SharedPreferences sp = context.getSharedPreferences(PREF_ACCESS, Context.MODE_PRIVATE);
-        sp.edit().remove(KEY_ACCESS).apply();
+        SessionStore.get(context).clearAccessToken();
     }
 
     // ============================
-    // Refresh/role/email (khớp AuthClient)
+    // Clear session
     // ============================
-    private static final String PREF_SESSION = "auth_session";
-    private static final String KEY_REFRESH = "refresh_token";
-    private static final String KEY_ROLE = "role";
-    private static final String KEY_EMAIL = "email";
-
-    @Nullable
-    private static String getRefreshToken(Context context) {
-        SharedPreferences sp = context.getSharedPreferences(PREF_SESSION, Context.MODE_PRIVATE);
-        return sp.getString(KEY_REFRESH, null);
-    }
-
-    private static void saveRefreshToken(Context context, @Nullable String refresh) {
-        SharedPreferences sp = context.getSharedPreferences(PREF_SESSION, Context.MODE_PRIVATE);
-        if (TextUtils.isEmpty(refresh))
-            sp.edit().remove(KEY_REFRESH).apply();
-        else
-            sp.edit().putString(KEY_REFRESH, refresh).apply();
-    }
 
     /** Xoá toàn bộ session khi refresh fail → phát broadcast để UI điều hướng Login. */
     public static void clearAllSession(Context context) {
-        SharedPreferences a = context.getSharedPreferences(PREF_ACCESS, Context.MODE_PRIVATE);
-        a.edit().remove(KEY_ACCESS).apply();
-        SharedPreferences s = context.getSharedPreferences(PREF_SESSION, Context.MODE_PRIVATE);
-        s.edit().remove(KEY_REFRESH).remove(KEY_ROLE).remove(KEY_EMAIL).apply();
+        SessionStore.get(context).clear();
+        HttpEngine.evictAll();
         sendAuthClearedBroadcast(context, "refresh_failed_or_unauthorized");
     }
 
@@ -193,48 +165,48 @@ public final class BackendConfig {
         return lower.startsWith("http://") || lower.startsWith("https://");
     }
 
-    private static String ensureSlash(String s) {
-        if (TextUtils.isEmpty(s))
-            return "/";
-        return s.endsWith("/") ? s : s + "/";
-    }
-
     // ============================
     // OkHttp/Retrofit builders
     // ============================
+    // Tất cả client bên dưới đều derive từ HttpEngine (chung pool/dispatcher)
+    private static volatile OkHttpClient apiClient; // client có auth, dùng chung cho root/api
     private static volatile Retrofit retrofitRoot;
     private static volatile Retrofit retrofitApi;
     private static volatile OkHttpClient refreshOnlyClient; // client phụ cho /auth/refresh
 
     private static OkHttpClient buildHttpClient(Context context) {
+        HttpEngine.init(context);
+
         HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
         logging.setLevel(DEBUG
                 ? HttpLoggingInterceptor.Level.BODY
                 : HttpLoggingInterceptor.Level.NONE);
 
-        // Gắn Accept + Authorization
+        // Gắn Accept + Authorization (token đọc từ RAM, không chạm SharedPreferences).
+        // Token sắp hết hạn / đang refresh → chờ chung 1 future của TokenRefresher.
+        final TokenRefresher refresher = TokenRefresher.get(context);
         Interceptor headerInterceptor = chain -> {
             Request original = chain.request();
             Request.Builder builder = original.newBuilder()
                     .header("Accept", "application/json")
                     .header("User-Agent", "FastFood-Android/" + VERSION_NAME);
 
-            String token = getAccessToken(context);
+            String token = refresher.currentToken();
             if (!TextUtils.isEmpty(token)) {
                 builder.header("Authorization", "Bearer " + token);
             }
             return chain.proceed(builder.build());
         };
 
-        return new OkHttpClient.Builder()
+        return HttpEngine.newBuilder()
                 .addInterceptor(headerInterceptor)
+                // Sau header → key single-flight có Authorization
+                .addInterceptor(RequestCoalescer.shared())
                 .addInterceptor(logging)
                 .authenticator(new TokenRefreshAuthenticator(context.getApplicationContext()))
-                .retryOnConnectionFailure(true)
                 .connectTimeout(15, TimeUnit.SECONDS)
                 .readTimeout(15, TimeUnit.SECONDS)
                 .writeTimeout(15, TimeUnit.SECONDS)
-                .protocols(Arrays.asList(Protocol.HTTP_1_1))
                 .build();
     }
 
@@ -245,25 +217,40 @@ public final class BackendConfig {
                 ? HttpLoggingInterceptor.Level.BASIC
                 : HttpLoggingInterceptor.Level.NONE);
 
-        return new OkHttpClient.Builder()
+        return HttpEngine.newBuilder()
                 .addInterceptor(logging)
                 .connectTimeout(15, TimeUnit.SECONDS)
                 .readTimeout(15, TimeUnit.SECONDS)
                 .writeTimeout(15, TimeUnit.SECONDS)
-                .protocols(Arrays.asList(Protocol.HTTP_1_1))
                 .build();
     }
 
+    /** Client phụ cho /auth/refresh (dùng bởi TokenRefresher) */
+    static OkHttpClient refreshOnlyClient() {
+        if (refreshOnlyClient == null) {
+            synchronized (BackendConfig.class) {
+                if (refreshOnlyClient == null)
+                    refreshOnlyClient = buildRefreshOnlyClient();
+            }
+        }
+        return refreshOnlyClient;
+    }
+
+    /** Client có auth dùng chung (gọi trong synchronized BackendConfig.class) */
+    private static OkHttpClient apiClientLocked(Context context) {
+        if (apiClient == null)
+            apiClient = buildHttpClient(context.getApplicationContext());
+        return apiClient;
+    }
+
     /** Retrofit base = http://host:port/ */
     public static Retrofit getRetrofitRoot(Context context) {
         if (retrofitRoot == null) {
             synchronized (BackendConfig.class) {
                 if (retrofitRoot == null) {
-                    if (refreshOnlyClient == null)
-                        refreshOnlyClient = buildRefreshOnlyClient();
                     retrofitRoot = new Retrofit.Builder()
                             .baseUrl(baseRoot())
-                            .client(buildHttpClient(context))
+                            .client(apiClientLocked(context))
                             .addConverterFactory(GsonConverterFactory.create())
                             .build();
                 }
@@ -277,11 +264,9 @@ public final class BackendConfig {
         if (retrofitApi == null) {
             synchronized (BackendConfig.class) {
                 if (retrofitApi == null) {
-                    if (refreshOnlyClient == null)
-                        refreshOnlyClient = buildRefreshOnlyClient();
                     retrofitApi = new Retrofit.Builder()
                             .baseUrl(baseRoot())
-                            .client(buildHttpClient(context))
+                            .client(apiClientLocked(context))
                             .addConverterFactory(GsonConverterFactory.create())
                             .build();
                 }
@@ -297,19 +282,35 @@ public final class BackendConfig {
 
     /** Reset cả hai instance (khi logout, đổi môi trường, v.v.) */
     public static void resetRetrofit() {
-        retrofitRoot = null;
-        retrofitApi = null;
+        synchronized (BackendConfig.class) {
+            retrofitRoot = null;
+            retrofitApi = null;
+            apiClient = null;
+        }
+    }
+
+    /** Thống kê tái sử dụng kết nối của HTTP engine dùng chung */
+    public static HttpEngine.Stats httpStats() {
+        return HttpEngine.stats();
+    }
+
+    /** Số GET trùng lặp đã được gộp (không phải đi mạng) */
+    public static RequestCoalescer.Stats coalescingStats() {
+        return RequestCoalescer.shared().stats();
     }
 
     // ============================
-    // Authenticator: silent refresh once
+    // Authenticator: silent refresh once (fallback khi TokenRefresher chưa kịp)
     // ============================
     private static final class TokenRefreshAuthenticator implements Authenticator {
         private final Context app;
-        private static final Object LOCK = new Object();
+        private final SessionStore session;
+        private final TokenRefresher refresher;
 
         TokenRefreshAuthenticator(Context app) {
             this.app = app.getApplicationContext();
+            this.session = SessionStore.get(this.app);
+            this.refresher = TokenRefresher.get(this.app);
         }
 
         @Nullable
@@ -327,67 +328,37 @@ public final class BackendConfig {
 
             final String oldBearer = extractBearer(response.request().header("Authorization"));
 
-            synchronized (LOCK) {
-                // Nếu thread khác vừa refresh xong → dùng token mới
-                final String current = getAccessToken(app);
-                if (!TextUtils.isEmpty(current) && !TextUtils.equals(current, oldBearer)) {
-                    return response.request().newBuilder()
-                            .header("Authorization", "Bearer " + current)
-                            .build();
-                }
-
-                // Lấy refresh token
-                final String refresh = getRefreshToken(app);
-                if (TextUtils.isEmpty(refresh)) {
-                    clearAllSession(app);
-                    return null;
-                }
-
-                // Gọi /auth/refresh (sync) bằng refreshOnlyClient
-                try {
-                    String url = ensureSlash(baseRoot()) + "auth/refresh";
-                    MediaType JSON = MediaType.parse("application/json; charset=utf-8");
-                    JSONObject body = new JSONObject();
-                    body.put("refresh_token", refresh);
-
-                    Request req = new Request.Builder()
-                            .url(url)
-                            .post(RequestBody.create(JSON, body.toString()))
-                            .header("Accept", "application/json")
-                            .build();
+            // Nếu thread khác / scheduler vừa refresh xong → dùng token mới
+            final String current = session.accessToken();
+            if (!TextUtils.isEmpty(current) && !TextUtils.equals(current, oldBearer)) {
+                return response.request().newBuilder()
+                        .header("Authorization", "Bearer " + current)
+                        .build();
+            }
 
-                    Response r = refreshOnlyClient.newCall(req).execute();
-                    if (!r.isSuccessful()) {
-                        clearAllSession(app);
-                        return null;
-                    }
-
-                    String raw = r.body() != null ? r.body().string() : "";
-                    JSONObject obj = new JSONObject(raw);
-                    String newAccess = obj.optString("accessToken", obj.optString("access_token", ""));
-                    String newRefresh = obj.optString("refreshToken", obj.optString("refresh_token", ""));
-
-                    if (TextUtils.isEmpty(newAccess)) {
-                        clearAllSession(app);
-                        return null;
-                    }
-
-                    // Lưu token mới
-                    saveAccessToken(app, newAccess);
-                    if (!TextUtils.isEmpty(newRefresh)) {
-                        saveRefreshToken(app, newRefresh);
-                    }
-
-                    // Retry request ban đầu với access token mới
-                    return response.request().newBuilder()
-                            .header("Authorization", "Bearer " + newAccess)
-                            .build();
+            if (TextUtils.isEmpty(session.refreshToken())) {
+                clearAllSession(app);
+                return null;
+            }
 
-                } catch (Exception e) {
-                    clearAllSession(app);
-                    return null;
-                }
+            // Nhập vào refresh đang chạy (hoặc tự chạy) — không khoá global
+            final String newAccess;
+            try {
+                newAccess = refresher.refreshBlocking();
+            } catch (IOException e) {
+                // Lỗi mạng / 5xx / hết giờ: giữ phiên, request này trả 401 cho bên gọi.
+                // Refresh token bị từ chối thật thì TokenRefresher đã tự clear phiên
+                return null;
+            }
+            if (TextUtils.isEmpty(newAccess)) {
+                // Server từ chối → TokenRefresher đã clear phiên
+                return null;
             }
+
+            // Retry request ban đầu với access token mới
+            return response.request().newBuilder()
+                    .header("Authorization", "Bearer " + newAccess)
+                    .build();
         }
 
         private static int responseCount(Response r) {
@@ -0,0 +1,92 @@
+package com.example.app.network;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * CachePolicyInterceptor (network interceptor)
+ *
+ * - Backend Express đã gửi ETag cho mọi res.json nhưng không gửi Cache-Control
+ *   → OkHttp Cache lưu response và tự gửi If-None-Match, server trả 304 rỗng body
+ * - Riêng các endpoint catalog (danh sách quán, chi tiết quán, menu quán, món nổi
+ *   bật) được gắn thêm max-age phía client nếu server không tự gửi header cache
+ *   → trong khoảng đó mở lại màn hình không cần ra mạng
+ * - Merchant sửa menu thành công → xoá các entry menu/catalog trong cache
+ */
+final class CachePolicyInterceptor implements Interceptor {
+
+    private static final class Rule {
+        final Pattern path;
+        final int maxAgeSec;
+
+        Rule(String regex, int maxAgeSec) {
+            this.path = Pattern.compile(regex);
+            this.maxAgeSec = maxAgeSec;
+        }
+    }
+
+    // Thứ tự quan trọng: /nearby phải bị loại trước khi khớp /restaurants/{id}
+    private static final Pattern EXCLUDED = Pattern.compile(".*/restaurants/nearby/?$");
+    private static final Rule[] RULES = {
+            // GET api/v1/restaurants
+            new Rule(".*/v1/restaurants/?$", 300),
+            // GET api/v1/restaurants/{id}/menu
+            new Rule(".*/v1/restaurants/[^/]+/menu/?$", 120),
+            // GET api/v1/restaurants/{id}
+            new Rule(".*/v1/restaurants/[^/]+/?$", 300),
+            // GET menus/featured
+            new Rule(".*/menus/featured/?$", 300),
+    };
+
+    // Các path ghi làm thay đổi catalog
+    private static final Pattern CATALOG_WRITE = Pattern.compile(".*/merchant/menu(/.*)?$");
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+        String path = request.url().encodedPath();
+
+        if (!"GET".equals(request.method())) {
+            if (response.isSuccessful() && CATALOG_WRITE.matcher(path).matches()) {
+                HttpEngine.evictCached("/menu");
+                HttpEngine.evictCached("/restaurants");
+            }
+            return response;
+        }
+
+        if (response.code() != 200 || hasServerCachePolicy(response))
+            return response;
+
+        int maxAge = maxAgeFor(path);
+        if (maxAge <= 0)
+            return response;
+
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .header("Cache-Control", "private, max-age=" + maxAge)
+                .build();
+    }
+
+    private static boolean hasServerCachePolicy(Response r) {
+        return r.header("Cache-Control") != null || r.header("Expires") != null;
+    }
+
+    /** max-age client-side (giây) cho path; 0 nếu không phải endpoint catalog. */
+    static int maxAgeFor(String path) {
+        if (EXCLUDED.matcher(path).matches())
+            return 0;
+        for (Rule r : RULES) {
+            if (r.path.matcher(path).matches())
+                return r.maxAgeSec;
+        }
+        return 0;
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.app.network;
 
+import com.example.app.model.OrderDto;
+
 import java.util.List;
 import java.util.Map;
 
@@ -93,7 +95,7 @@ public interface CustomerApi {
     /** Lấy danh sách đơn hàng của khách (lọc theo trạng thái) */
     @Headers("Accept: application/json")
     @GET("customer/orders")
-    Call<List<Map<String, Object>>> getOrders(@Query("status") String status);
+    Call<List<OrderDto>> getOrders(@Query("status") String status);
 
     /**
      * Huỷ đơn hàng.
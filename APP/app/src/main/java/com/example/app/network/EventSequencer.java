@@ -0,0 +1,201 @@
+package com.example.app.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * EventSequencer: giữ thứ tự + chống trùng cho event đơn hàng có số thứ tự (seq).
+ *
+ * - Server đánh seq tăng dần cho mọi orderUpdate/statusUpdate kèm {@code epoch}
+ *   (đổi khi server khởi động lại)
+ * - Sau mỗi lần (re)connect: {@link #beginReplay()} trả seq cuối đã thấy để gọi
+ *   GET /realtime/replay; trong lúc chờ, event live bị giữ lại. {@link #endReplay}
+ *   giao các event bị lỡ theo đúng thứ tự rồi mới xả event live, bỏ event trùng
+ * - Chưa có mốc (chưa nhận event nào) → gọi replay với since=-1 để lấy mốc hiện tại của
+ *   server ({@link #seed})
+ * - Server báo không replay được (restart / log đã bị đè) → {@link #resetTo}; bên gọi
+ *   tự tải lại toàn bộ. Replay lỗi ({@link #abortReplay}) cũng vậy vì khoảng hở không lấp được
+ *
+ * Java thuần; {@link Output} được gọi trong lock nên thứ tự giao luôn đúng seq.
+ */
+final class EventSequencer {
+
+    interface Output {
+        void deliver(@NonNull String event, @NonNull Object payload);
+    }
+
+    /** 1 event lấy từ API replay */
+    static final class Entry {
+        final long seq;
+        @NonNull
+        final String event;
+        @NonNull
+        final Object payload;
+
+        Entry(long seq, @NonNull String event, @NonNull Object payload) {
+            this.seq = seq;
+            this.event = event;
+            this.payload = payload;
+        }
+    }
+
+    private final Output out;
+
+    // guarded by this
+    private long lastSeq;
+    @Nullable
+    private String epoch;
+    private boolean replaying;
+    // Đã có lần kết nối trước (từ lúc tạo / forget) → kết nối lần này có thể đã lỡ event
+    private boolean connectedBefore;
+    private boolean gapPossible;
+    private final List<Entry> held = new ArrayList<>();
+    private long duplicates;
+    private long replayed;
+    private long resets;
+
+    EventSequencer(@NonNull Output out) {
+        this.out = out;
+    }
+
+    /** Event live; {@code seq <= 0} = server không đánh số → giao luôn. */
+    synchronized void onLive(@NonNull String event, @NonNull Object payload, long seq, @Nullable String epoch) {
+        if (seq <= 0) {
+            out.deliver(event, payload);
+            return;
+        }
+        if (replaying) {
+            held.add(new Entry(seq, event, payload));
+            return;
+        }
+        if (epoch != null && !epoch.equals(this.epoch)) {
+            // Server khởi động lại: dãy seq mới
+            this.epoch = epoch;
+            lastSeq = 0;
+        }
+        if (seq <= lastSeq) {
+            duplicates++;
+            return;
+        }
+        lastSeq = seq;
+        out.deliver(event, payload);
+    }
+
+    /**
+     * Vừa (re)connect: giữ event live tới khi replay xong.
+     * @return seq để replay từ đó, -1 nếu chưa có mốc → replay since=-1 rồi {@link #seed}
+     */
+    synchronized long beginReplay() {
+        replaying = true;
+        gapPossible = connectedBefore || epoch != null;
+        connectedBefore = true;
+        return epoch == null ? -1 : lastSeq;
+    }
+
+    @Nullable
+    synchronized String epoch() {
+        return epoch;
+    }
+
+    /** Replay thành công: {@code serverSeq} là seq mới nhất của server lúc trả lời. */
+    synchronized void endReplay(@NonNull List<Entry> events, long serverSeq) {
+        List<Entry> sorted = new ArrayList<>(events);
+        sorted.sort((a, b) -> Long.compare(a.seq, b.seq));
+        Set<Long> delivered = new HashSet<>();
+        for (Entry e : sorted) {
+            if (e.seq <= lastSeq || !delivered.add(e.seq))
+                continue;
+            lastSeq = e.seq;
+            replayed++;
+            out.deliver(e.event, e.payload);
+        }
+        // Event live giữ lại mà replay đã có → trùng
+        for (Entry e : takeHeld()) {
+            if (delivered.contains(e.seq)) {
+                duplicates++;
+                continue;
+            }
+            lastSeq = Math.max(lastSeq, e.seq);
+            out.deliver(e.event, e.payload);
+        }
+        lastSeq = Math.max(lastSeq, serverSeq);
+    }
+
+    /** Không replay được: nhận mốc mới của server, xả event live đang giữ. */
+    synchronized void resetTo(@Nullable String serverEpoch, long serverSeq) {
+        resets++;
+        adopt(serverEpoch, serverSeq);
+    }
+
+    /**
+     * Mốc đầu tiên lấy từ server (replay since=-1), xả event live đang giữ.
+     * @return true nếu đây là reconnect (có thể đã lỡ event) → bên gọi tải lại
+     */
+    synchronized boolean seed(@Nullable String serverEpoch, long serverSeq) {
+        adopt(serverEpoch, serverSeq);
+        return gapPossible;
+    }
+
+    /**
+     * Gọi replay lỗi: giữ mốc cũ, xả event live.
+     * @return true nếu đây là reconnect (event bị lỡ không lấy lại được) → bên gọi tải lại
+     */
+    synchronized boolean abortReplay() {
+        for (Entry e : takeHeld()) {
+            if (e.seq <= lastSeq) {
+                duplicates++;
+                continue;
+            }
+            lastSeq = e.seq;
+            out.deliver(e.event, e.payload);
+        }
+        return gapPossible;
+    }
+
+    /** Không còn ai theo dõi: bỏ mốc, lần kết nối sau màn hình tự tải lại. */
+    synchronized void forget() {
+        lastSeq = 0;
+        epoch = null;
+        replaying = false;
+        connectedBefore = false;
+        held.clear();
+    }
+
+    synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    synchronized long duplicates() {
+        return duplicates;
+    }
+
+    synchronized long replayed() {
+        return replayed;
+    }
+
+    synchronized long resets() {
+        return resets;
+    }
+
+    private void adopt(@Nullable String serverEpoch, long serverSeq) {
+        epoch = serverEpoch;
+        lastSeq = serverSeq;
+        for (Entry e : takeHeld()) {
+            lastSeq = Math.max(lastSeq, e.seq);
+            out.deliver(e.event, e.payload);
+        }
+    }
+
+    private List<Entry> takeHeld() {
+        replaying = false;
+        List<Entry> h = new ArrayList<>(held);
+        held.clear();
+        h.sort((a, b) -> Long.compare(a.seq, b.seq));
+        return h;
+    }
+}
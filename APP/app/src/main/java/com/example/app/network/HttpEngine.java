@@ -0,0 +1,274 @@
+package com.example.app.network;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Cache;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Response;
+
+/**
+ * HttpEngine
+ *
+ * - Một OkHttpClient gốc dùng chung cho toàn app (1 ConnectionPool + 1 Dispatcher)
+ * - BackendConfig, api.RetrofitClient, data.ApiClient chỉ tạo "facade" qua
+ *   {@link #newBuilder()} nên dùng lại kết nối keep-alive của nhau
+ * - Đếm số kết nối mới / kết nối tái sử dụng → xem qua {@link #stats()}
+ * - Disk cache HTTP dùng chung (bật qua {@link #init(Context)}): ETag/304 cho
+ *   mọi GET, max-age client-side cho catalog (CachePolicyInterceptor)
+ *
+ * Lưu ý: các thuộc tính thuộc Address (protocols, dns, proxy, ssl...) phải đặt ở
+ * đây chứ không đặt ở facade, nếu không OkHttp sẽ coi là host khác và không share
+ * kết nối.
+ */
+public final class HttpEngine {
+
+    private HttpEngine() {
+    }
+
+    // Giữ tối đa 8 kết nối rảnh trong 5 phút (app chỉ nói chuyện với 1 backend)
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    // Một màn hình thường bắn 3-5 request song song tới cùng host
+    private static final int MAX_REQUESTS_PER_HOST = 8;
+
+    private static final String TAG = "HttpEngine";
+    // Catalog JSON + ảnh nhỏ; OkHttp tự LRU khi vượt ngưỡng
+    private static final long CACHE_MAX_BYTES = 10L * 1024L * 1024L;
+
+    private static volatile OkHttpClient base;
+    private static volatile Cache cache;
+
+    private static final AtomicLong callsStarted = new AtomicLong();
+    private static final AtomicLong callsFailed = new AtomicLong();
+    private static final AtomicLong connectionsAcquired = new AtomicLong();
+    private static final AtomicLong connectionsOpened = new AtomicLong();
+    private static final AtomicLong cacheHits = new AtomicLong();
+    private static final AtomicLong cacheConditionalHits = new AtomicLong();
+    private static final AtomicLong cacheMisses = new AtomicLong();
+
+    /**
+     * Gắn disk cache (thư mục cacheDir/http). Gọi sớm (MainActivity/BackendConfig)
+     * trước khi tạo facade; gọi nhiều lần cũng không sao.
+     */
+    public static void init(@NonNull Context context) {
+        if (cache != null)
+            return;
+        synchronized (HttpEngine.class) {
+            if (cache == null) {
+                File dir = new File(context.getApplicationContext().getCacheDir(), "http");
+                cache = new Cache(dir, CACHE_MAX_BYTES);
+            }
+        }
+    }
+
+    /** Client gốc. Không gắn interceptor nào — facade tự thêm qua newBuilder(). */
+    @NonNull
+    public static OkHttpClient get() {
+        if (base == null) {
+            synchronized (HttpEngine.class) {
+                if (base == null) {
+                    Dispatcher dispatcher = new Dispatcher();
+                    dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+                    base = new OkHttpClient.Builder()
+                            .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                            .dispatcher(dispatcher)
+                            .eventListenerFactory(call -> STATS_LISTENER)
+                            .protocols(Arrays.asList(Protocol.HTTP_1_1))
+                            .retryOnConnectionFailure(true)
+                            .addNetworkInterceptor(new CachePolicyInterceptor())
+                            .build();
+                }
+            }
+        }
+        return base;
+    }
+
+    /** Builder cho facade: chia sẻ pool, dispatcher, cache và bộ đếm với client gốc. */
+    @NonNull
+    public static OkHttpClient.Builder newBuilder() {
+        OkHttpClient.Builder b = get().newBuilder();
+        Cache c = cache;
+        if (c != null)
+            b.cache(c);
+        return b;
+    }
+
+    /** Xoá các entry cache có URL chứa {@code urlPart} (ví dụ sau khi merchant sửa menu). */
+    static void evictCached(@NonNull String urlPart) {
+        Cache c = cache;
+        if (c == null)
+            return;
+        try {
+            Iterator<String> it = c.urls();
+            while (it.hasNext()) {
+                if (it.next().contains(urlPart))
+                    it.remove();
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "evictCached failed", e);
+        }
+    }
+
+    /** Xoá toàn bộ disk cache — response GET có auth của phiên cũ không được phục vụ cho phiên sau. */
+    public static void evictAll() {
+        Cache c = cache;
+        if (c == null)
+            return;
+        try {
+            c.evictAll();
+        } catch (IOException e) {
+            Log.w(TAG, "evictAll failed", e);
+        }
+    }
+
+    /** Huỷ toàn bộ request đang chạy (ví dụ khi logout). Kết nối rảnh vẫn giữ. */
+    public static void cancelAll() {
+        OkHttpClient c = base;
+        if (c != null)
+            c.dispatcher().cancelAll();
+    }
+
+    // ============================
+    // Thống kê tái sử dụng kết nối
+    // ============================
+
+    /** Snapshot các bộ đếm hiện tại. */
+    @NonNull
+    public static Stats stats() {
+        OkHttpClient c = base;
+        int total = c != null ? c.connectionPool().connectionCount() : 0;
+        int idle = c != null ? c.connectionPool().idleConnectionCount() : 0;
+        return new Stats(
+                callsStarted.get(),
+                callsFailed.get(),
+                connectionsAcquired.get(),
+                connectionsOpened.get(),
+                total,
+                idle,
+                cacheHits.get(),
+                cacheConditionalHits.get(),
+                cacheMisses.get());
+    }
+
+    public static void resetStats() {
+        callsStarted.set(0);
+        callsFailed.set(0);
+        connectionsAcquired.set(0);
+        connectionsOpened.set(0);
+        cacheHits.set(0);
+        cacheConditionalHits.set(0);
+        cacheMisses.set(0);
+    }
+
+    public static final class Stats {
+        public final long calls;
+        public final long failedCalls;
+        /** Số lần một call nhận được kết nối (mới hoặc lấy lại từ pool) */
+        public final long connectionsAcquired;
+        /** Số kết nối TCP mới phải handshake */
+        public final long connectionsOpened;
+        public final int pooledConnections;
+        public final int idleConnections;
+        /** Trả thẳng từ disk cache, không ra mạng */
+        public final long cacheHits;
+        /** Revalidate bằng If-None-Match và server trả 304 (body 0 byte) */
+        public final long cacheConditionalHits;
+        public final long cacheMisses;
+
+        Stats(long calls, long failedCalls, long connectionsAcquired, long connectionsOpened,
+              int pooledConnections, int idleConnections,
+              long cacheHits, long cacheConditionalHits, long cacheMisses) {
+            this.calls = calls;
+            this.failedCalls = failedCalls;
+            this.connectionsAcquired = connectionsAcquired;
+            this.connectionsOpened = connectionsOpened;
+            this.pooledConnections = pooledConnections;
+            this.idleConnections = idleConnections;
+            this.cacheHits = cacheHits;
+            this.cacheConditionalHits = cacheConditionalHits;
+            this.cacheMisses = cacheMisses;
+        }
+
+        public long reusedConnections() {
+            return Math.max(0, connectionsAcquired - connectionsOpened);
+        }
+
+        /** Tỉ lệ call dùng lại kết nối có sẵn, 0..1 (0 nếu chưa có call nào) */
+        public double reuseRate() {
+            if (connectionsAcquired <= 0)
+                return 0.0;
+            return (double) reusedConnections() / (double) connectionsAcquired;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "calls=%d failed=%d acquired=%d opened=%d reuse=%.1f%% pool=%d idle=%d"
+                            + " cacheHit=%d cache304=%d cacheMiss=%d",
+                    calls, failedCalls, connectionsAcquired, connectionsOpened,
+                    reuseRate() * 100.0, pooledConnections, idleConnections,
+                    cacheHits, cacheConditionalHits, cacheMisses);
+        }
+    }
+
+    // Listener không giữ state riêng theo call nên dùng chung 1 instance
+    private static final EventListener STATS_LISTENER = new EventListener() {
+        @Override
+        public void callStart(@NonNull Call call) {
+            callsStarted.incrementAndGet();
+        }
+
+        @Override
+        public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                               @NonNull Proxy proxy, @Nullable Protocol protocol) {
+            connectionsOpened.incrementAndGet();
+        }
+
+        @Override
+        public void connectionAcquired(@NonNull Call call, @NonNull Connection connection) {
+            connectionsAcquired.incrementAndGet();
+        }
+
+        @Override
+        public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+            callsFailed.incrementAndGet();
+        }
+
+        @Override
+        public void cacheHit(@NonNull Call call, @NonNull Response response) {
+            cacheHits.incrementAndGet();
+        }
+
+        @Override
+        public void cacheConditionalHit(@NonNull Call call, @NonNull Response cachedResponse) {
+            cacheConditionalHits.incrementAndGet();
+        }
+
+        @Override
+        public void cacheMiss(@NonNull Call call) {
+            cacheMisses.incrementAndGet();
+        }
+    };
+}
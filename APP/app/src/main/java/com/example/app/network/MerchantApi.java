@@ -1,5 +1,7 @@
 package com.example.app.network;
 
+import com.example.app.model.OrderDto;
+
 import java.util.List;
 import java.util.Map;
 
@@ -39,7 +41,7 @@ public interface MerchantApi {
 
     /** Lấy danh sách đơn theo trạng thái bucket của Merchant. */
     @GET("merchant/orders")
-    Call<List<Map<String, Object>>> getMerchantOrders(@Query("status") String status);
+    Call<List<OrderDto>> getMerchantOrders(@Query("status") String status);
 
     /**
      * Merchant chấp nhận đơn: server chuyển trạng thái pending -> preparing (hoặc
@@ -0,0 +1,201 @@
+package com.example.app.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * OrderStatusCoalescer: gom event trạng thái đơn trước khi đưa lên UI.
+ *
+ * - Decode payload ngay trên thread gọi {@link #offer(Object)} (thread event của
+ *   socket), UI thread chỉ nhận {@link Update} đã parse sẵn
+ * - Nhiều event cho cùng 1 đơn trước khi kịp vẽ → chỉ giữ trạng thái mới nhất
+ *   (đếm vào {@code merged}); "orderUpdate" và "statusUpdate" cùng 1 thay đổi cũng gộp ở đây
+ * - Tối đa 1 lần giao cho {@link Sink} mỗi frame ({@link FrameScheduler}, trên Android là
+ *   Choreographer)
+ * - Payload không đọc được orderId/status → bỏ (đếm vào {@code dropped})
+ */
+public final class OrderStatusCoalescer {
+
+    /** 1 thay đổi trạng thái đã decode. */
+    public static final class Update {
+        @NonNull
+        public final String orderId;
+        @NonNull
+        public final String status;
+        final long receivedAtNanos;
+
+        Update(@NonNull String orderId, @NonNull String status, long receivedAtNanos) {
+            this.orderId = orderId;
+            this.status = status;
+            this.receivedAtNanos = receivedAtNanos;
+        }
+    }
+
+    /** Chạy {@code frame} ở frame kế tiếp trên UI thread; được gọi từ thread bất kỳ. */
+    public interface FrameScheduler {
+        void postFrame(@NonNull Runnable frame);
+    }
+
+    /** Gọi trên UI thread, mỗi đơn xuất hiện tối đa 1 lần trong {@code updates}. */
+    public interface Sink {
+        void onUpdates(@NonNull List<Update> updates);
+    }
+
+    /** Số liệu gom event (bất biến). */
+    public static final class Stats {
+        public final long received;
+        public final long delivered;
+        public final long merged;
+        public final long dropped;
+        public final long frames;
+        /** Thời gian từ lúc nhận event tới frame giao lên UI */
+        public final double avgLatencyMs;
+        public final double maxLatencyMs;
+
+        Stats(long received, long delivered, long merged, long dropped, long frames,
+              double avgLatencyMs, double maxLatencyMs) {
+            this.received = received;
+            this.delivered = delivered;
+            this.merged = merged;
+            this.dropped = dropped;
+            this.frames = frames;
+            this.avgLatencyMs = avgLatencyMs;
+            this.maxLatencyMs = maxLatencyMs;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "received=%d delivered=%d merged=%d dropped=%d frames=%d latency avg=%.1fms max=%.1fms",
+                    received, delivered, merged, dropped, frames, avgLatencyMs, maxLatencyMs);
+        }
+    }
+
+    private final FrameScheduler scheduler;
+    private final Sink sink;
+    private final LongSupplier clock;
+
+    // guarded by this
+    private final Map<String, Update> pending = new LinkedHashMap<>();
+    private boolean framePosted;
+    private boolean closed;
+    private long received;
+    private long delivered;
+    private long merged;
+    private long dropped;
+    private long frames;
+    private long latencySumNanos;
+    private long latencyMaxNanos;
+
+    public OrderStatusCoalescer(@NonNull FrameScheduler scheduler, @NonNull Sink sink) {
+        this(scheduler, sink, System::nanoTime);
+    }
+
+    OrderStatusCoalescer(@NonNull FrameScheduler scheduler, @NonNull Sink sink, @NonNull LongSupplier clock) {
+        this.scheduler = scheduler;
+        this.sink = sink;
+        this.clock = clock;
+    }
+
+    // ============================
+    // API
+    // ============================
+
+    /** Nhận payload thô của "orderUpdate"/"statusUpdate" (JSONObject hoặc Map). Thread bất kỳ. */
+    public void offer(@Nullable Object payload) {
+        Update u = decode(payload, clock.getAsLong());
+        boolean post;
+        synchronized (this) {
+            if (closed)
+                return;
+            received++;
+            if (u == null) {
+                dropped++;
+                return;
+            }
+            // Giữ thời điểm nhận của event đầu tiên → latency tính cho cả chuỗi bị gộp
+            Update prev = pending.remove(u.orderId);
+            if (prev != null) {
+                merged++;
+                u = new Update(u.orderId, u.status, prev.receivedAtNanos);
+            }
+            pending.put(u.orderId, u);
+            post = !framePosted;
+            framePosted = true;
+        }
+        if (post)
+            scheduler.postFrame(this::deliver);
+    }
+
+    /** Ngừng giao (view bị destroy); event đang chờ bị bỏ. */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            pending.clear();
+        }
+    }
+
+    @NonNull
+    public synchronized Stats stats() {
+        double avg = delivered == 0 ? 0 : latencySumNanos / 1e6 / delivered;
+        return new Stats(received, delivered, merged, dropped, frames, avg, latencyMaxNanos / 1e6);
+    }
+
+    // ============================
+    // Nội bộ
+    // ============================
+
+    private void deliver() {
+        List<Update> batch;
+        synchronized (this) {
+            framePosted = false;
+            if (closed || pending.isEmpty())
+                return;
+            batch = new ArrayList<>(pending.values());
+            pending.clear();
+            long now = clock.getAsLong();
+            for (Update u : batch) {
+                long latency = now - u.receivedAtNanos;
+                latencySumNanos += latency;
+                latencyMaxNanos = Math.max(latencyMaxNanos, latency);
+            }
+            delivered += batch.size();
+            frames++;
+        }
+        sink.onUpdates(Collections.unmodifiableList(batch));
+    }
+
+    @Nullable
+    static Update decode(@Nullable Object payload, long nowNanos) {
+        Object id = null;
+        Object status = null;
+        if (payload instanceof JSONObject) {
+            JSONObject o = (JSONObject) payload;
+            if (o.isNull("orderId") || o.isNull("status"))
+                return null;
+            id = o.opt("orderId");
+            status = o.opt("status");
+        } else if (payload instanceof Map) {
+            id = ((Map<?, ?>) payload).get("orderId");
+            status = ((Map<?, ?>) payload).get("status");
+        }
+        if (id == null || status == null)
+            return null;
+        String orderId = id instanceof Number ? String.valueOf(((Number) id).longValue()) : id.toString();
+        String s = status.toString();
+        if (orderId.isEmpty() || s.isEmpty())
+            return null;
+        return new Update(orderId, s, nowNanos);
+    }
+}
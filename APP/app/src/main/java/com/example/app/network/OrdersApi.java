@@ -1,5 +1,7 @@
 package com.example.app.network;
 
+import com.example.app.model.OrderDto;
+
 import java.util.List;
 import java.util.Map;
 
@@ -21,6 +23,8 @@ import retrofit2.http.Query;
  * - Authorization/Content-Type đã được gắn bởi OkHttp Interceptor
  * (BackendConfig/AuthClient).
  * - Dùng Map<String,Object> để linh hoạt theo schema backend hiện tại.
+ * - Riêng các API danh sách đơn trả {@link OrderDto} (decode streaming, không
+ * tạo cây Map cho từng đơn).
  */
 public interface OrdersApi {
 
@@ -44,7 +48,7 @@ public interface OrdersApi {
      */
     @Headers("Accept: application/json")
     @GET("customer/orders")
-    Call<List<Map<String, Object>>> listOrders(
+    Call<List<OrderDto>> listOrders(
             @Query("status") String status,
             @Query("page") Integer page,
             @Query("page_size") Integer pageSize);
@@ -52,7 +56,7 @@ public interface OrdersApi {
     /** Đơn gần đây cho màn Home (giữ tương thích) */
     @Headers("Accept: application/json")
     @GET("customer/recent-orders")
-    Call<List<Map<String, Object>>> getRecentOrders(@Query("limit") int limit);
+    Call<List<OrderDto>> getRecentOrders(@Query("limit") int limit);
 
     /* ================== PRICE / PROMO ================== */
 
@@ -0,0 +1,28 @@
+package com.example.app.network;
+
+import com.example.app.model.RealtimeReplay;
+
+import retrofit2.Call;
+import retrofit2.http.GET;
+import retrofit2.http.Headers;
+import retrofit2.http.Query;
+
+/**
+ * RealtimeApi — lấy lại event socket bị lỡ trong lúc mất kết nối.
+ *
+ * Base URL: BackendConfig.getRetrofitRoot(context) → http://host:port/
+ */
+public interface RealtimeApi {
+
+    /**
+     * Event đơn hàng có seq > {@code since} thuộc room user_&lt;id&gt; của người gọi
+     * và room order_&lt;id&gt; trong {@code orders} (danh sách id, ngăn cách bằng dấu phẩy).
+     * {@code since} = -1: chỉ lấy mốc epoch / seq hiện tại của server (reset = true).
+     */
+    @Headers("Accept: application/json")
+    @GET("realtime/replay")
+    Call<RealtimeReplay> replay(
+            @Query("since") long since,
+            @Query("epoch") String epoch,
+            @Query("orders") String orders);
+}
@@ -0,0 +1,545 @@
+package com.example.app.network;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.example.app.auth.SessionStore;
+import com.example.app.model.RealtimeReplay;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.socket.client.IO;
+import io.socket.client.Manager;
+import io.socket.client.Socket;
+import io.socket.emitter.Emitter;
+import io.socket.engineio.client.Transport;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * RealtimeHub: 1 kết nối Socket.IO dùng chung cho cả process.
+ *
+ * - Thay cho việc mỗi Fragment tự tạo OrderTracker (mỗi màn hình 1 socket +
+ *   1 lần handshake, identify/join lặp lại ở từng nơi)
+ * - Room đơn hàng đếm tham chiếu ({@link RoomRefs}): 2 màn hình cùng theo dõi 1 đơn
+ *   chỉ join 1 lần; màn hình cuối rời đi mới leave
+ * - Room user_&lt;id&gt; / admins do server gắn theo token (header lúc handshake, "auth" khi đổi);
+ *   mỗi lần (re)connect chỉ join lại các room đơn hàng
+ * - Token đổi (refresh / đăng nhập tài khoản khác) khi đang kết nối → emit "auth" với token
+ *   mới, server đổi room user ngay trên kết nối đó; không dựng lại socket nên listener
+ *   và room vẫn giữ nguyên. Header Authorization đọc token mới nhất mỗi lần handshake
+ * - Mỗi event chỉ gắn 1 listener lên socket, listener đó fan-out cho các subscriber;
+ *   subscriber gắn với LifecycleOwner tự huỷ khi ON_DESTROY
+ * - Không còn ai dùng → giữ kết nối thêm {@link #LINGER_MS} rồi mới ngắt, để chuyển
+ *   màn hình (list → detail) không phải connect lại
+ * - Event đơn hàng có seq ({@link EventSequencer}): connect xong gọi GET /realtime/replay
+ *   lấy event bị lỡ (lần đầu: lấy mốc), giao theo thứ tự trước event live; không replay được
+ *   hoặc replay lỗi thì phát {@link #EVENT_RESYNC} để màn hình tự tải lại
+ *
+ * Listener được gọi trên thread event của socket.io, tự chuyển sang UI thread nếu cần.
+ */
+public final class RealtimeHub {
+
+    private static final String TAG = "RealtimeHub";
+
+    // Event server phát (xem backend/index.js)
+    public static final String EVENT_ORDER_UPDATE = "orderUpdate"; // room user_<id>
+    public static final String EVENT_STATUS_UPDATE = "statusUpdate"; // room order_<id>
+    public static final String EVENT_ORDER_UPDATE_LEGACY = "order:update";
+    public static final String EVENT_SHIPPER_LOCATION = "shipper:location";
+    /** Do hub phát (không có payload): mất event mà server không replay được → tải lại toàn bộ */
+    public static final String EVENT_RESYNC = "hub:resync";
+
+    // Event server đánh seq (xem emitOrderEvent trong backend)
+    private static final Set<String> SEQUENCED = new HashSet<>(Arrays.asList(
+            EVENT_ORDER_UPDATE, EVENT_STATUS_UPDATE));
+
+    private static final long LINGER_MS = 10_000L;
+
+    private static volatile RealtimeHub instance;
+
+    public static RealtimeHub get(Context context) {
+        if (instance == null) {
+            synchronized (RealtimeHub.class) {
+                if (instance == null) {
+                    instance = new RealtimeHub(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Huỷ đăng ký sớm; gọi nhiều lần không sao. */
+    public interface Subscription {
+        void cancel();
+    }
+
+    /** Số liệu kết nối (bất biến). */
+    public static final class Stats {
+        /** Số socket đã tạo: luôn 1, token đổi không dựng lại socket */
+        public final long socketsBuilt;
+        /** Số lần xác thực lại bằng event "auth" trên kết nối đang mở */
+        public final long reauths;
+        public final long connects;
+        public final long disconnects;
+        public final long eventsDispatched;
+        /** Event bị lỡ lấy lại qua /realtime/replay */
+        public final long eventsReplayed;
+        /** Event trùng seq bị bỏ (vừa replay vừa nhận live) */
+        public final long duplicatesDropped;
+        /** Số lần không replay được, phải tải lại toàn bộ */
+        public final long resyncs;
+        public final int rooms;
+        public final int subscribers;
+
+        Stats(long socketsBuilt, long reauths, long connects, long disconnects, long eventsDispatched,
+              long eventsReplayed, long duplicatesDropped, long resyncs, int rooms, int subscribers) {
+            this.socketsBuilt = socketsBuilt;
+            this.reauths = reauths;
+            this.connects = connects;
+            this.disconnects = disconnects;
+            this.eventsDispatched = eventsDispatched;
+            this.eventsReplayed = eventsReplayed;
+            this.duplicatesDropped = duplicatesDropped;
+            this.resyncs = resyncs;
+            this.rooms = rooms;
+            this.subscribers = subscribers;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "sockets=" + socketsBuilt + " reauths=" + reauths + " connects=" + connects + " disconnects=" + disconnects
+                    + " events=" + eventsDispatched + " replayed=" + eventsReplayed
+                    + " duplicates=" + duplicatesDropped + " resyncs=" + resyncs
+                    + " rooms=" + rooms + " subscribers=" + subscribers;
+        }
+    }
+
+    private static final Subscription NO_OP = () -> {
+    };
+
+    private final Context app;
+    private final SessionStore session;
+    private final EventSequencer sequencer = new EventSequencer(this::deliver);
+    private final String baseRootUrl;
+    private final Handler main = new Handler(Looper.getMainLooper());
+    private final Runnable idleDisconnect = this::disconnectIfIdle;
+
+    private final Object lock = new Object();
+    // guarded by lock
+    @Nullable
+    private Socket socket;
+    // Token server đang biết cho kết nối hiện tại (handshake hoặc lần "auth" gần nhất)
+    @Nullable
+    private String socketToken;
+    @Nullable
+    private String socketUserId;
+    private final RoomRefs rooms = new RoomRefs();
+    private final Map<String, FanOut> events = new HashMap<>();
+
+    private final AtomicLong socketsBuilt = new AtomicLong();
+    private final AtomicLong reauths = new AtomicLong();
+    private final AtomicLong connects = new AtomicLong();
+    private final AtomicLong disconnects = new AtomicLong();
+    private final AtomicLong dispatched = new AtomicLong();
+
+    private RealtimeHub(Context app) {
+        this.app = app;
+        this.session = SessionStore.get(app);
+        // Root không có /api, luôn kết thúc bằng "/"
+        this.baseRootUrl = BackendConfig.baseRoot();
+        session.addListener(this::onSessionChanged);
+    }
+
+    // ============================
+    // Subscriber
+    // ============================
+
+    /** Nhận {@code event} cho tới khi {@code owner} bị destroy. Fragment nên truyền viewLifecycleOwner. */
+    @MainThread
+    @NonNull
+    public Subscription subscribe(@NonNull LifecycleOwner owner, @NonNull String event,
+                                  @NonNull Emitter.Listener listener) {
+        if (owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED)
+            return NO_OP;
+        return bindTo(owner, subscribe(event, listener));
+    }
+
+    /** Đăng ký không gắn lifecycle: bên gọi tự {@link Subscription#cancel()}. */
+    @NonNull
+    public Subscription subscribe(@NonNull String event, @NonNull Emitter.Listener listener) {
+        synchronized (lock) {
+            FanOut fan = events.get(event);
+            if (fan == null) {
+                fan = new FanOut(event);
+                events.put(event, fan);
+                if (socket != null)
+                    socket.on(event, fan);
+            }
+            fan.listeners.add(listener);
+            ensureConnectedLocked();
+        }
+        AtomicBoolean cancelled = new AtomicBoolean();
+        return () -> {
+            if (cancelled.compareAndSet(false, true))
+                unsubscribe(event, listener);
+        };
+    }
+
+    private void unsubscribe(@NonNull String event, @NonNull Emitter.Listener listener) {
+        synchronized (lock) {
+            FanOut fan = events.get(event);
+            if (fan == null)
+                return;
+            fan.listeners.remove(listener);
+            if (fan.listeners.isEmpty()) {
+                events.remove(event);
+                if (socket != null)
+                    socket.off(event, fan);
+            }
+            scheduleIdleCheckLocked();
+        }
+    }
+
+    // ============================
+    // Room đơn hàng
+    // ============================
+
+    /** Theo dõi đơn {@code orderId} cho tới khi {@code owner} bị destroy. */
+    @MainThread
+    @NonNull
+    public Subscription joinOrder(@NonNull LifecycleOwner owner, @NonNull String orderId) {
+        if (owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED)
+            return NO_OP;
+        joinOrder(orderId);
+        AtomicBoolean left = new AtomicBoolean();
+        return bindTo(owner, () -> {
+            if (left.compareAndSet(false, true))
+                leaveOrder(orderId);
+        });
+    }
+
+    /** Mỗi lần join phải đi kèm đúng 1 lần {@link #leaveOrder(String)}. */
+    public void joinOrder(@NonNull String orderId) {
+        synchronized (lock) {
+            boolean first = rooms.acquire(orderId);
+            ensureConnectedLocked();
+            if (first && socket != null && socket.connected()) {
+                socket.emit("joinOrder", orderId);
+                Log.i(TAG, "emit joinOrder: " + orderId);
+            }
+        }
+    }
+
+    public void leaveOrder(@NonNull String orderId) {
+        synchronized (lock) {
+            if (rooms.release(orderId) && socket != null && socket.connected()) {
+                socket.emit("leaveOrder", orderId);
+                Log.i(TAG, "emit leaveOrder: " + orderId);
+            }
+            scheduleIdleCheckLocked();
+        }
+    }
+
+    @NonNull
+    public Stats stats() {
+        int subs = 0;
+        int roomCount;
+        synchronized (lock) {
+            for (FanOut fan : events.values())
+                subs += fan.listeners.size();
+            roomCount = rooms.rooms().size();
+        }
+        // Sequencer lấy lock của nó trước lock hub (deliver → fanFor) → không đọc trong lock hub
+        return new Stats(socketsBuilt.get(), reauths.get(), connects.get(), disconnects.get(), dispatched.get(),
+                sequencer.replayed(), sequencer.duplicates(), sequencer.resets(), roomCount, subs);
+    }
+
+    // ============================
+    // Kết nối
+    // ============================
+
+    private void ensureConnectedLocked() {
+        main.removeCallbacks(idleDisconnect);
+        if (socket == null)
+            buildSocketLocked();
+        if (socket != null && !socket.connected())
+            socket.connect();
+    }
+
+    private void scheduleIdleCheckLocked() {
+        if (events.isEmpty() && rooms.isEmpty()) {
+            main.removeCallbacks(idleDisconnect);
+            main.postDelayed(idleDisconnect, LINGER_MS);
+        }
+    }
+
+    private void disconnectIfIdle() {
+        synchronized (lock) {
+            if (socket == null || !events.isEmpty() || !rooms.isEmpty())
+                return;
+            socket.disconnect();
+        }
+        Log.i(TAG, "idle → disconnect (" + stats() + ")");
+        // Không ai cần event bị lỡ: màn hình mở sau tự tải dữ liệu mới
+        sequencer.forget();
+    }
+
+    private void buildSocketLocked() {
+        try {
+            IO.Options opts = new IO.Options();
+            // Ưu tiên websocket (tránh polling chậm)
+            opts.transports = new String[] { "websocket" };
+            // Reconnect
+            opts.reconnection = true;
+            opts.reconnectionAttempts = 10;
+            opts.reconnectionDelay = 1500; // ms
+            opts.reconnectionDelayMax = 6000; // ms
+            opts.timeout = 10_000; // ms
+
+            Socket s = IO.socket(baseRootUrl, opts);
+            // Authorization gắn theo token hiện tại ở mỗi lần handshake (kể cả reconnect),
+            // thay cho extraHeaders cố định lúc tạo socket
+            s.io().on(Manager.EVENT_TRANSPORT, args -> {
+                Transport transport = (Transport) args[0];
+                transport.on(Transport.EVENT_REQUEST_HEADERS, a -> {
+                    @SuppressWarnings("unchecked")
+                    Map<String, List<String>> headers = (Map<String, List<String>>) a[0];
+                    String token = session.accessToken();
+                    if (!TextUtils.isEmpty(token))
+                        headers.put("Authorization", Collections.singletonList("Bearer " + token));
+                });
+            });
+            // Sự kiện hệ thống gắn trước → room đã join lại trước khi subscriber nhận EVENT_CONNECT
+            s.on(Socket.EVENT_CONNECT, onConnect);
+            s.on(Socket.EVENT_DISCONNECT, args -> {
+                disconnects.incrementAndGet();
+                Log.i(TAG, "socket DISCONNECT");
+            });
+            s.on(Socket.EVENT_CONNECT_ERROR, args ->
+                    Log.e(TAG, "socket CONNECT_ERROR: " + (args != null && args.length > 0 ? args[0] : "unknown")));
+            s.on("reconnect_failed", args -> Log.e(TAG, "socket RECONNECT_FAILED"));
+            for (Map.Entry<String, FanOut> e : events.entrySet())
+                s.on(e.getKey(), e.getValue());
+
+            socket = s;
+            socketsBuilt.incrementAndGet();
+        } catch (URISyntaxException e) {
+            Log.e(TAG, "Invalid socket url: " + baseRootUrl, e);
+        }
+    }
+
+    private final Emitter.Listener onConnect = args -> {
+        connects.incrementAndGet();
+        List<String> toJoin;
+        Socket s;
+        synchronized (lock) {
+            s = socket;
+            toJoin = rooms.rooms();
+            socketToken = session.accessToken();
+            socketUserId = session.claims().userId;
+        }
+        if (s == null)
+            return;
+        for (String orderId : toJoin)
+            s.emit("joinOrder", orderId);
+        Log.i(TAG, "socket CONNECTED, rejoined " + toJoin.size() + " room(s)");
+        replayMissed(toJoin);
+    };
+
+    // ============================
+    // Replay sau reconnect
+    // ============================
+
+    private void replayMissed(@NonNull List<String> orderIds) {
+        // since = -1: chưa có mốc → server trả mốc hiện tại (reset) để lần reconnect sau replay được
+        long since = sequencer.beginReplay();
+        RealtimeApi api = BackendConfig.getRetrofitRoot(app).create(RealtimeApi.class);
+        api.replay(since, sequencer.epoch(), TextUtils.join(",", orderIds)).enqueue(new Callback<RealtimeReplay>() {
+            @Override
+            public void onResponse(@NonNull Call<RealtimeReplay> call, @NonNull Response<RealtimeReplay> response) {
+                RealtimeReplay body = response.body();
+                if (!response.isSuccessful() || body == null) {
+                    Log.w(TAG, "replay failed: " + response.code());
+                    if (sequencer.abortReplay())
+                        resync();
+                    return;
+                }
+                if (since < 0) {
+                    Log.i(TAG, "replay mark seeded: " + body.epoch + "/" + body.seq);
+                    if (sequencer.seed(body.epoch, body.seq))
+                        resync();
+                    return;
+                }
+                if (body.reset) {
+                    Log.i(TAG, "replay unavailable since " + since + " → resync");
+                    sequencer.resetTo(body.epoch, body.seq);
+                    resync();
+                    return;
+                }
+                List<EventSequencer.Entry> missed = new ArrayList<>();
+                for (RealtimeReplay.Event e : body.getEvents()) {
+                    if (e.event != null && e.payload != null)
+                        missed.add(new EventSequencer.Entry(e.seq, e.event, e.payload));
+                }
+                sequencer.endReplay(missed, body.seq);
+                Log.i(TAG, "replayed " + missed.size() + " event(s) since " + since);
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<RealtimeReplay> call, @NonNull Throwable t) {
+                Log.w(TAG, "replay failed", t);
+                if (sequencer.abortReplay())
+                    resync();
+            }
+        });
+    }
+
+    /** Không lấp được khoảng hở event → màn hình đang theo dõi tự tải lại. */
+    private void resync() {
+        FanOut fan = fanFor(EVENT_RESYNC);
+        if (fan != null)
+            fan.dispatch();
+    }
+
+    /** Output của sequencer: giao 1 event (live hoặc replay) cho subscriber. */
+    private void deliver(@NonNull String event, @NonNull Object payload) {
+        FanOut fan = fanFor(event);
+        if (fan != null)
+            fan.dispatch(payload);
+    }
+
+    @Nullable
+    private FanOut fanFor(@NonNull String event) {
+        synchronized (lock) {
+            return events.get(event);
+        }
+    }
+
+    private static long seqOf(@NonNull Object payload) {
+        Object v = null;
+        if (payload instanceof JSONObject)
+            v = ((JSONObject) payload).opt("seq");
+        else if (payload instanceof Map)
+            v = ((Map<?, ?>) payload).get("seq");
+        return v instanceof Number ? ((Number) v).longValue() : 0L;
+    }
+
+    @Nullable
+    private static String epochOf(@NonNull Object payload) {
+        Object v = null;
+        if (payload instanceof JSONObject)
+            v = ((JSONObject) payload).opt("epoch");
+        else if (payload instanceof Map)
+            v = ((Map<?, ?>) payload).get("epoch");
+        return v instanceof String ? (String) v : null;
+    }
+
+    // ============================
+    // Xoay vòng token
+    // ============================
+
+    /** SessionStore vừa đổi phiên (thread bất kỳ) */
+    private void onSessionChanged(@NonNull SessionStore.Session next) {
+        Socket s;
+        boolean userChanged;
+        synchronized (lock) {
+            if (Objects.equals(next.accessToken, socketToken))
+                return;
+            socketToken = next.accessToken;
+            userChanged = !Objects.equals(next.claims.userId, socketUserId);
+            socketUserId = next.claims.userId;
+            s = socket != null && socket.connected() ? socket : null;
+        }
+        if (userChanged) {
+            // Event đã thấy thuộc tài khoản cũ → không replay tiếp từ mốc đó
+            sequencer.forget();
+        }
+        if (s == null)
+            return; // đang ngắt: lần handshake sau tự dùng token mới
+        JSONObject payload = new JSONObject();
+        try {
+            payload.put("token", next.accessToken == null ? JSONObject.NULL : next.accessToken);
+        } catch (JSONException e) {
+            return;
+        }
+        reauths.incrementAndGet();
+        s.emit("auth", new Object[] { payload }, ackArgs -> {
+            Object res = ackArgs != null && ackArgs.length > 0 ? ackArgs[0] : null;
+            Log.i(TAG, "re-auth on live socket: " + res);
+        });
+    }
+
+    @NonNull
+    private static Subscription bindTo(@NonNull LifecycleOwner owner, @NonNull Subscription s) {
+        owner.getLifecycle().addObserver(new LifecycleEventObserver() {
+            @Override
+            public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+                if (event == Lifecycle.Event.ON_DESTROY) {
+                    source.getLifecycle().removeObserver(this);
+                    s.cancel();
+                }
+            }
+        });
+        return s;
+    }
+
+    /** 1 listener trên socket cho mỗi event, phát lại cho mọi subscriber. */
+    private final class FanOut implements Emitter.Listener {
+        final String event;
+        final CopyOnWriteArrayList<Emitter.Listener> listeners = new CopyOnWriteArrayList<>();
+
+        FanOut(@NonNull String event) {
+            this.event = event;
+        }
+
+        /** Từ socket: event đơn hàng đi qua sequencer, event khác giao luôn */
+        @Override
+        public void call(Object... args) {
+            if (SEQUENCED.contains(event) && args != null && args.length > 0 && args[0] != null) {
+                sequencer.onLive(event, args[0], seqOf(args[0]), epochOf(args[0]));
+                return;
+            }
+            dispatch(args);
+        }
+
+        void dispatch(Object... args) {
+            for (Emitter.Listener l : listeners) {
+                dispatched.incrementAndGet();
+                try {
+                    l.call(args);
+                } catch (RuntimeException e) {
+                    // 1 subscriber lỗi không được làm mất event của subscriber khác
+                    Log.e(TAG, "subscriber failed", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.app.network;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * RequestCoalescer
+ *
+ * - Single-flight cho GET: nhiều call GET giống hệt nhau chạy cùng lúc (swipe
+ *   refresh + chọn lại tab, 2 fragment cùng load 1 API...) chỉ đi ra mạng 1 lần
+ * - Call đầu tiên (leader) thực sự gọi server; các call đến sau (follower) chờ
+ *   và nhận bản sao response của leader (body riêng cho từng call)
+ * - Key = URL + Authorization + Accept → 2 user khác nhau không bao giờ dùng
+ *   chung response
+ * - Không phải cache: leader xong là key bị xoá, call sau lại đi mạng bình thường
+ *
+ * Phải add SAU interceptor gắn header (để key có Authorization). Muốn bỏ qua
+ * cho 1 request thì gắn header {@link #HEADER_NO_COALESCE}.
+ */
+public final class RequestCoalescer implements Interceptor {
+
+    /** Gắn header này (giá trị bất kỳ) để request luôn đi mạng riêng */
+    public static final String HEADER_NO_COALESCE = "X-No-Coalesce";
+
+    // Body lớn hơn mức này thì không share (follower tự gọi lại)
+    private static final long MAX_SHARED_BYTES = 1024L * 1024L;
+
+    private static final RequestCoalescer SHARED = new RequestCoalescer();
+
+    /** Instance dùng chung cho mọi facade của HttpEngine → bộ đếm gộp 1 chỗ */
+    @NonNull
+    public static RequestCoalescer shared() {
+        return SHARED;
+    }
+
+    private final ConcurrentHashMap<String, CompletableFuture<Shared>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong eligible = new AtomicLong();
+    private final AtomicLong leaders = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    private RequestCoalescer() {
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (request.header(HEADER_NO_COALESCE) != null) {
+            return chain.proceed(request.newBuilder().removeHeader(HEADER_NO_COALESCE).build());
+        }
+        if (!"GET".equals(request.method())) {
+            return chain.proceed(request);
+        }
+
+        eligible.incrementAndGet();
+        String key = keyOf(request);
+
+        CompletableFuture<Shared> mine = new CompletableFuture<>();
+        CompletableFuture<Shared> running = inFlight.putIfAbsent(key, mine);
+        if (running == null) {
+            leaders.incrementAndGet();
+            return lead(chain, key, mine);
+        }
+        return follow(chain, running);
+    }
+
+    // ============================
+    // Leader: gọi mạng, chụp response cho follower
+    // ============================
+
+    private Response lead(Chain chain, String key, CompletableFuture<Shared> mine) throws IOException {
+        try {
+            Response response = chain.proceed(chain.request());
+            Shared shared;
+            try {
+                shared = Shared.capture(response);
+            } catch (IOException e) {
+                // Đọc trước body lỗi → follower tự gọi, leader vẫn trả response của mình
+                shared = Shared.unshareable(response);
+            }
+            mine.complete(shared);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Xoá key ngay khi leader xong → không giữ response cũ
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // ============================
+    // Follower: chờ leader, nhận bản sao
+    // ============================
+
+    private Response follow(Chain chain, CompletableFuture<Shared> running) throws IOException {
+        Request request = chain.request();
+        long waitMs = (long) chain.connectTimeoutMillis() + chain.readTimeoutMillis();
+        Shared shared = null;
+        try {
+            shared = waitMs > 0
+                    ? running.get(waitMs, TimeUnit.MILLISECONDS)
+                    : running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("coalesced call interrupted", e);
+        } catch (ExecutionException | TimeoutException ignored) {
+            // Leader lỗi / bị huỷ / quá lâu → follower tự gọi, không kéo lỗi của người khác
+        }
+
+        if (shared == null || shared.body == null) {
+            // Không share được (lỗi, body quá lớn) → đi mạng riêng
+            fallbacks.incrementAndGet();
+            return chain.proceed(request);
+        }
+        coalesced.incrementAndGet();
+        return shared.replay(request);
+    }
+
+    private static String keyOf(Request r) {
+        String auth = r.header("Authorization");
+        String accept = r.header("Accept");
+        return r.url().toString()
+                + '\u0000' + (auth != null ? auth : "")
+                + '\u0000' + (accept != null ? accept : "");
+    }
+
+    // ============================
+    // Snapshot response để replay
+    // ============================
+
+    private static final class Shared {
+        private final Response head; // chỉ dùng header/status, body đã bị bỏ
+        private final MediaType contentType;
+        private final byte[] body; // null → không share được
+
+        private Shared(Response head, MediaType contentType, byte[] body) {
+            this.head = head;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        static Shared capture(Response response) throws IOException {
+            ResponseBody rb = response.body();
+            MediaType type = rb != null ? rb.contentType() : null;
+            byte[] bytes = null;
+            if (rb != null) {
+                long declared = rb.contentLength();
+                if (declared <= MAX_SHARED_BYTES) {
+                    // peekBody buffer sẵn dữ liệu, body gốc vẫn đọc lại được cho leader
+                    ResponseBody peek = response.peekBody(MAX_SHARED_BYTES + 1);
+                    byte[] b = peek.bytes();
+                    if (b.length <= MAX_SHARED_BYTES)
+                        bytes = b;
+                }
+            } else {
+                bytes = new byte[0];
+            }
+            return new Shared(response.newBuilder().body(null).build(), type, bytes);
+        }
+
+        static Shared unshareable(Response response) {
+            return new Shared(response.newBuilder().body(null).build(), null, null);
+        }
+
+        Response replay(Request request) {
+            return head.newBuilder()
+                    .request(request)
+                    .body(ResponseBody.create(body, contentType))
+                    .build();
+        }
+    }
+
+    // ============================
+    // Thống kê
+    // ============================
+
+    @NonNull
+    public Stats stats() {
+        return new Stats(eligible.get(), leaders.get(), coalesced.get(), fallbacks.get());
+    }
+
+    public void resetStats() {
+        eligible.set(0);
+        leaders.set(0);
+        coalesced.set(0);
+        fallbacks.set(0);
+    }
+
+    public static final class Stats {
+        /** Số GET đi qua coalescer */
+        public final long requests;
+        /** Số GET thực sự ra mạng với vai trò leader */
+        public final long leaders;
+        /** Số GET được phục vụ bằng response của leader (= request tiết kiệm được) */
+        public final long coalesced;
+        /** Follower phải tự gọi lại (leader lỗi, body quá lớn, timeout) */
+        public final long fallbacks;
+
+        Stats(long requests, long leaders, long coalesced, long fallbacks) {
+            this.requests = requests;
+            this.leaders = leaders;
+            this.coalesced = coalesced;
+            this.fallbacks = fallbacks;
+        }
+
+        /** Tỉ lệ GET không phải đi mạng, 0..1 */
+        public double savedRate() {
+            if (requests <= 0)
+                return 0.0;
+            return (double) coalesced / (double) requests;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "requests=%d leaders=%d coalesced=%d fallbacks=%d saved=%.1f%%",
+                    requests, leaders, coalesced, fallbacks, savedRate() * 100.0);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.app.network;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RoomRefs: đếm tham chiếu cho các room socket (order_&lt;id&gt;).
+ *
+ * - Nhiều màn hình cùng theo dõi 1 đơn → chỉ emit "joinOrder" ở lần đầu và
+ *   "leaveOrder" khi màn hình cuối cùng rời đi
+ * - {@link #rooms()} trả về mọi room đang giữ để join lại sau khi reconnect
+ *
+ * Java thuần, không thread-safe (RealtimeHub giữ lock khi gọi).
+ */
+final class RoomRefs {
+
+    private final Map<String, Integer> counts = new LinkedHashMap<>();
+
+    /** @return true nếu là tham chiếu đầu tiên (cần emit join) */
+    boolean acquire(@NonNull String room) {
+        Integer n = counts.get(room);
+        counts.put(room, n == null ? 1 : n + 1);
+        return n == null;
+    }
+
+    /** @return true nếu vừa nhả tham chiếu cuối cùng (cần emit leave) */
+    boolean release(@NonNull String room) {
+        Integer n = counts.get(room);
+        if (n == null)
+            return false;
+        if (n > 1) {
+            counts.put(room, n - 1);
+            return false;
+        }
+        counts.remove(room);
+        return true;
+    }
+
+    int refs(@NonNull String room) {
+        Integer n = counts.get(room);
+        return n == null ? 0 : n;
+    }
+
+    @NonNull
+    List<String> rooms() {
+        return new ArrayList<>(counts.keySet());
+    }
+
+    boolean isEmpty() {
+        return counts.isEmpty();
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.app.network;
 
+import com.example.app.model.OrderDto;
+
 import java.util.List;
 import java.util.Map;
 
+import okhttp3.RequestBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
+import retrofit2.http.Headers;
 import retrofit2.http.PATCH;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
@@ -25,6 +29,7 @@ import retrofit2.http.Query;
  * "...", "reason"?: "..." }
  * - POST /shipper/location body: { "lat": <double>, "lng": <double>,
  * "accuracy"?: <float> }
+ * - POST /shipper/location/batch body (gzip): LocationBatch
  */
 public interface ShipperApi {
 
@@ -35,7 +40,7 @@ public interface ShipperApi {
      *               backend trả tất cả)
      */
     @GET("shipper/orders")
-    Call<List<Map<String, Object>>> getShipperOrders(@Query("status") String status);
+    Call<List<OrderDto>> getShipperOrders(@Query("status") String status);
 
     /** Lấy chi tiết đơn. */
     @GET("shipper/orders/{id}")
@@ -62,6 +67,14 @@ public interface ShipperApi {
     @POST("shipper/location")
     Call<Map<String, Object>> updateLocation(@Body Map<String, Object> locationBody);
 
+    /**
+     * Gửi nhiều điểm vị trí 1 lần. Body = {@link com.example.app.location.LocationBatch#encode}
+     * (JSON delta đã gzip); server chỉ lấy điểm cuối làm vị trí hiện tại.
+     */
+    @Headers("Content-Encoding: gzip")
+    @POST("shipper/location/batch")
+    Call<Map<String, Object>> uploadLocationBatch(@Body RequestBody gzipBody);
+
     /** Lấy doanh thu và thống kê của shipper. */
     @GET("shipper/revenue")
     Call<Map<String, Object>> getRevenue();
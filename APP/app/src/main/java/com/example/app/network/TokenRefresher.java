@@ -0,0 +1,249 @@
+package com.example.app.network;
+
+import android.content.Context;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.app.auth.SessionStore;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * TokenRefresher
+ *
+ * - Đọc claim "exp" của access token và tự gọi /auth/refresh trước khi hết hạn
+ *   {@link #LEAD_MS} → request bình thường không phải ăn 401 rồi mới refresh
+ * - Single-flight: trong lúc đang refresh, mọi caller (interceptor, authenticator,
+ *   scheduler) đều chờ cùng 1 {@link CompletableFuture} thay vì xếp hàng trên lock
+ * - TokenRefreshAuthenticator trong BackendConfig vẫn giữ làm fallback khi gặp 401
+ *   (token bị thu hồi, đồng hồ máy lệch, token không có exp...)
+ */
+final class TokenRefresher {
+
+    private static final String TAG = "TokenRefresher";
+
+    // Refresh trước khi hết hạn 60s
+    private static final long LEAD_MS = 60_000L;
+    // Token còn dưới 5s coi như đã hết hạn → request phải chờ refresh
+    private static final long EXPIRY_SKEW_MS = 5_000L;
+    // Lỗi mạng khi refresh chủ động → thử lại sau 30s
+    private static final long RETRY_MS = 30_000L;
+    // Thời gian tối đa 1 request chờ refresh đang chạy
+    private static final long AWAIT_TIMEOUT_MS = 15_000L;
+
+    private static volatile TokenRefresher instance;
+
+    static TokenRefresher get(Context context) {
+        if (instance == null) {
+            synchronized (TokenRefresher.class) {
+                if (instance == null) {
+                    instance = new TokenRefresher(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private final Context app;
+    private final SessionStore session;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "token-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicReference<CompletableFuture<String>> inFlight = new AtomicReference<>();
+
+    // guarded by this
+    private ScheduledFuture<?> pending;
+
+    private TokenRefresher(Context app) {
+        this.app = app;
+        this.session = SessionStore.get(app);
+        // Mỗi lần phiên đổi (login, refresh, logout) → hẹn lại giờ refresh
+        session.addListener(this::reschedule);
+        reschedule(session.session());
+    }
+
+    // ============================
+    // Lịch refresh chủ động
+    // ============================
+
+    private synchronized void reschedule(@NonNull SessionStore.Session s) {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+        if (!s.isSignedIn() || s.claims.expiresAtSec <= 0)
+            return;
+
+        long delay = s.claims.expiresAtSec * 1000L - LEAD_MS - System.currentTimeMillis();
+        pending = scheduler.schedule(this::proactiveRefresh, Math.max(0L, delay), TimeUnit.MILLISECONDS);
+    }
+
+    private void proactiveRefresh() {
+        refresh().whenComplete((token, err) -> {
+            if (err == null)
+                return; // thành công → listener tự hẹn lịch mới; bị từ chối → phiên đã clear
+            Log.w(TAG, "proactive refresh failed, retry in " + RETRY_MS + "ms", err);
+            synchronized (TokenRefresher.this) {
+                if (session.session().isSignedIn()) {
+                    pending = scheduler.schedule(this::proactiveRefresh, RETRY_MS, TimeUnit.MILLISECONDS);
+                }
+            }
+        });
+    }
+
+    // ============================
+    // Single-flight refresh
+    // ============================
+
+    /**
+     * Bắt đầu refresh (hoặc nhập vào refresh đang chạy).
+     * Future trả về access token mới; null nếu server từ chối (400/401/403, phiên đã bị clear);
+     * completeExceptionally nếu lỗi mạng / lỗi server.
+     */
+    @NonNull
+    CompletableFuture<String> refresh() {
+        while (true) {
+            CompletableFuture<String> running = inFlight.get();
+            if (running != null)
+                return running;
+            CompletableFuture<String> mine = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, mine)) {
+                // Thread thắng CAS tự chạy refresh, các thread khác chỉ chờ future
+                doRefresh(mine);
+                return mine;
+            }
+        }
+    }
+
+    /**
+     * Access token để gắn vào request. Chỉ chờ khi đang có refresh chạy hoặc token
+     * đã (gần) hết hạn; còn lại là 1 volatile read.
+     */
+    @Nullable
+    String currentToken() {
+        CompletableFuture<String> running = inFlight.get();
+        if (running != null)
+            return await(running);
+
+        SessionStore.Session s = session.session();
+        if (s.isSignedIn() && isExpired(s.claims))
+            return await(refresh());
+        return s.accessToken;
+    }
+
+    /** Chờ future; hết giờ / lỗi → fallback về token đang có. */
+    @Nullable
+    private String await(CompletableFuture<String> f) {
+        try {
+            String t = f.get(AWAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            return t != null ? t : session.accessToken();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ignored) {
+        }
+        return session.accessToken();
+    }
+
+    /** Như {@link #refresh()} nhưng chặn tới khi xong (dùng trong Authenticator). */
+    @Nullable
+    String refreshBlocking() throws IOException {
+        try {
+            return refresh().get(AWAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("refresh interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("refresh failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("refresh timed out", e);
+        }
+    }
+
+    private static boolean isExpired(SessionStore.Claims c) {
+        return c.expiresAtSec > 0
+                && c.expiresAtSec * 1000L - EXPIRY_SKEW_MS <= System.currentTimeMillis();
+    }
+
+    /** Refresh token bị từ chối hẳn (sai / hết hạn / thu hồi) → phải đăng nhập lại. */
+    private static boolean isRejected(int code) {
+        return code == 400 || code == 401 || code == 403;
+    }
+
+    private void doRefresh(CompletableFuture<String> result) {
+        try {
+            final String refresh = session.refreshToken();
+            if (TextUtils.isEmpty(refresh)) {
+                BackendConfig.clearAllSession(app);
+                result.complete(null);
+                return;
+            }
+
+            MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+            JSONObject body = new JSONObject();
+            body.put("refresh_token", refresh);
+
+            Request req = new Request.Builder()
+                    .url(BackendConfig.baseRoot() + "auth/refresh")
+                    .post(RequestBody.create(JSON, body.toString()))
+                    .header("Accept", "application/json")
+                    .build();
+
+            try (Response r = BackendConfig.refreshOnlyClient().newCall(req).execute()) {
+                if (isRejected(r.code())) {
+                    BackendConfig.clearAllSession(app);
+                    result.complete(null);
+                    return;
+                }
+                if (!r.isSuccessful()) {
+                    // 5xx / 429…: server chưa từ chối refresh token → giữ phiên, thử lại sau
+                    result.completeExceptionally(new IOException("refresh HTTP " + r.code()));
+                    return;
+                }
+
+                String raw = r.body() != null ? r.body().string() : "";
+                JSONObject obj = new JSONObject(raw);
+                String newAccess = obj.optString("accessToken", obj.optString("access_token", ""));
+                String newRefresh = obj.optString("refreshToken", obj.optString("refresh_token", ""));
+
+                if (TextUtils.isEmpty(newAccess)) {
+                    BackendConfig.clearAllSession(app);
+                    result.complete(null);
+                    return;
+                }
+
+                // Swap cặp token mới → listener hẹn lịch refresh kế tiếp
+                session.rotateTokens(newAccess, newRefresh);
+                result.complete(newAccess);
+            }
+        } catch (JSONException e) {
+            // Server trả body hỏng → coi như bị từ chối
+            BackendConfig.clearAllSession(app);
+            result.complete(null);
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        } finally {
+            inFlight.compareAndSet(result, null);
+        }
+    }
+}
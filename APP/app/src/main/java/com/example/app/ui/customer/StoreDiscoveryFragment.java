@@ -23,6 +23,9 @@ import com.example.app.R;
 import com.example.app.adapters.RestaurantAdapter;
 import com.example.app.api.RestaurantApiService;
 import com.example.app.api.RetrofitClient;
+import com.example.app.data.NearbyCache;
+import com.example.app.data.NearbyRepository;
+import com.example.app.data.RestaurantLocations;
 import com.example.app.databinding.FragmentStoreDiscoveryBinding;
 import com.example.app.model.Restaurant;
 import com.google.android.gms.location.FusedLocationProviderClient;
@@ -48,6 +51,11 @@ public class StoreDiscoveryFragment extends Fragment {
     private RestaurantApiService apiService;
     private FusedLocationProviderClient fusedLocationClient;
     private static final int LOCATION_PERMISSION_REQUEST_CODE = 1001;
+    // Cùng bán kính với API /restaurants/nearby
+    private static final double NEARBY_RADIUS_KM = 15.0;
+    // Vị trí GPS vừa lấy được (NaN = chưa có) → sắp xếp danh sách theo khoảng cách trên máy
+    private double userLat = Double.NaN;
+    private double userLng = Double.NaN;
 
     @Nullable
     @Override
@@ -160,6 +168,8 @@ public class StoreDiscoveryFragment extends Fragment {
                             double lat = location.getLatitude();
                             double lng = location.getLongitude();
                             Log.d("StoreDiscovery", "Location: " + lat + ", " + lng);
+                            userLat = lat;
+                            userLng = lng;
                             loadNearbyRestaurantsFromApi(lat, lng);
                         } else {
                             // Không có vị trí -> Tải tất cả cửa hàng
@@ -176,42 +186,28 @@ public class StoreDiscoveryFragment extends Fragment {
     }
 
     /**
-     * Tải cửa hàng gần nhất dựa trên vị trí
+     * Tải cửa hàng gần nhất dựa trên vị trí (qua cache theo ô geohash:
+     * mở lại màn hình ở cùng khu vực không cần gọi API)
      */
     private void loadNearbyRestaurantsFromApi(double lat, double lng) {
-        Call<List<Restaurant>> call = apiService.getNearbyRestaurants(lat, lng);
-
-        call.enqueue(new Callback<List<Restaurant>>() {
+        NearbyRepository.getInstance().loadNearbyRestaurants(lat, lng, new NearbyCache.Callback<Restaurant>() {
             @Override
-            public void onResponse(
-                    @NonNull Call<List<Restaurant>> call,
-                    @NonNull Response<List<Restaurant>> response
-            ) {
+            public void onResult(@NonNull List<Restaurant> fetchedData, boolean fromCache) {
                 if (binding == null) return;
+                Log.d("StoreDiscovery", "Nearby " + fetchedData.size() + " quán (cache=" + fromCache + ")");
 
-                if (response.isSuccessful() && response.body() != null) {
-                    List<Restaurant> fetchedData = response.body();
-
-                    if (fetchedData.isEmpty()) {
-                        showEmptyState("Không tìm thấy quán ăn nào gần bạn. Hãy thử lại sau.");
-                    } else {
-                        restaurantAdapter.updateData(fetchedData);
-                        showContentState();
-                    }
+                if (fetchedData.isEmpty()) {
+                    showEmptyState("Không tìm thấy quán ăn nào gần bạn. Hãy thử lại sau.");
                 } else {
-                    // Nếu API nearby thất bại, thử tải tất cả
-                    Log.w("StoreDiscovery", "Nearby API failed, loading all restaurants");
-                    loadRestaurantsFromApi();
+                    restaurantAdapter.updateData(fetchedData);
+                    showContentState();
                 }
             }
 
             @Override
-            public void onFailure(
-                    @NonNull Call<List<Restaurant>> call,
-                    @NonNull Throwable t
-            ) {
+            public void onError(@NonNull String message) {
                 if (binding == null) return;
-                Log.e("StoreDiscovery", "Nearby API failure: " + t.getMessage());
+                Log.e("StoreDiscovery", "Nearby API failure: " + message);
                 // Nếu API nearby thất bại, thử tải tất cả
                 loadRestaurantsFromApi();
             }
@@ -234,6 +230,13 @@ public class StoreDiscoveryFragment extends Fragment {
 
                 if (response.isSuccessful() && response.body() != null) {
                     List<Restaurant> fetchedData = response.body();
+                    RestaurantLocations locations = RestaurantLocations.getInstance();
+                    if (!Double.isNaN(userLat)) {
+                        // Đã có GPS (API nearby lỗi) → lọc bán kính + sắp xếp trên máy
+                        fetchedData = locations.within(fetchedData, userLat, userLng, NEARBY_RADIUS_KM);
+                    } else {
+                        locations.putAll(fetchedData);
+                    }
 
                     if (fetchedData.isEmpty()) {
                         showEmptyState("Không tìm thấy quán ăn nào. Hãy thử lại sau.");
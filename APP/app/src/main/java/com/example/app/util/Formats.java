@@ -0,0 +1,249 @@
+package com.example.app.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Formats: định dạng tiền / thời gian dùng chung cho các adapter (bind path).
+ *
+ * - Tiền VND: nhóm chữ số trực tiếp trên {@code long} ("45.000 đ"), không tạo NumberFormat;
+ *   chuỗi đã định dạng được nhớ trong bảng cố định → giá lặp lại (menu, tổng đơn) không cấp phát
+ * - Thời gian: mỗi trường ({@link Timestamps}) tự nhận dạng định dạng server trả
+ *   (epoch ms/s, ISO có offset, "yyyy-MM-dd HH:mm:ss" UTC) ở lần đầu rồi thử định dạng đó trước;
+ *   DateTimeFormatter bất biến nên dùng chung mọi thread; kết quả cũng được nhớ theo chuỗi gốc
+ *
+ * Java thuần, thread-safe (bảng nhớ chỉ chứa entry bất biến, ghi đè lẫn nhau không sao).
+ */
+public final class Formats {
+
+    private Formats() {
+    }
+
+    // ============================
+    // Tiền (VND)
+    // ============================
+
+    private static final String VND_SUFFIX = " đ";
+    private static final char GROUP_SEPARATOR = '.';
+    // 2^9 ô, ánh xạ trực tiếp theo giá trị
+    private static final int MONEY_BITS = 9;
+    private static final Money[] MONEY = new Money[1 << MONEY_BITS];
+
+    private static final class Money {
+        final long amount;
+        final String grouped;
+        final String vnd;
+
+        Money(long amount, String grouped) {
+            this.amount = amount;
+            this.grouped = grouped;
+            this.vnd = grouped + VND_SUFFIX;
+        }
+    }
+
+    /** "45.000 đ" */
+    @NonNull
+    public static String vnd(long amount) {
+        return money(amount).vnd;
+    }
+
+    /** Làm tròn về đồng rồi định dạng như {@link #vnd(long)}; NaN → "0 đ". */
+    @NonNull
+    public static String vnd(double amount) {
+        return vnd(Math.round(amount));
+    }
+
+    /** "45.000" (không kèm đơn vị) */
+    @NonNull
+    public static String groupDigits(long amount) {
+        return money(amount).grouped;
+    }
+
+    @NonNull
+    private static Money money(long amount) {
+        int slot = (int) ((amount * 0x9E3779B97F4A7C15L) >>> (64 - MONEY_BITS));
+        Money m = MONEY[slot];
+        if (m == null || m.amount != amount) {
+            m = new Money(amount, group(amount));
+            MONEY[slot] = m;
+        }
+        return m;
+    }
+
+    @NonNull
+    static String group(long amount) {
+        if (amount == Long.MIN_VALUE)
+            return "-9.223.372.036.854.775.808";
+        boolean negative = amount < 0;
+        long v = negative ? -amount : amount;
+        char[] buf = new char[26];
+        int pos = buf.length;
+        int digits = 0;
+        do {
+            if (digits > 0 && digits % 3 == 0)
+                buf[--pos] = GROUP_SEPARATOR;
+            buf[--pos] = (char) ('0' + (v % 10));
+            v /= 10;
+            digits++;
+        } while (v != 0);
+        if (negative)
+            buf[--pos] = '-';
+        return new String(buf, pos, buf.length - pos);
+    }
+
+    // ============================
+    // Thời gian
+    // ============================
+
+    /** "yyyy-MM-dd HH:mm:ss" hoặc "yyyy-MM-ddTHH:mm:ss(.SSS)" không offset — server lưu UTC */
+    private static final DateTimeFormatter LOCAL_UTC = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE)
+            .optionalStart().appendLiteral(' ').optionalEnd()
+            .optionalStart().appendLiteral('T').optionalEnd()
+            .append(DateTimeFormatter.ISO_LOCAL_TIME)
+            .toFormatter(Locale.ROOT);
+
+    enum TimeKind {
+        EPOCH_MS, EPOCH_S, ISO_OFFSET, LOCAL_UTC
+    }
+
+    private static final TimeKind[] KINDS = TimeKind.values();
+
+    /**
+     * Hiển thị 1 trường thời gian (created_at, time…) theo {@code pattern}, giờ máy.
+     * Mỗi trường giữ 1 instance (thường là static final trong adapter) để nhớ định dạng đã nhận ra.
+     * Chuỗi không đọc được → trả nguyên văn như trước.
+     */
+    public static final class Timestamps {
+
+        private static final int TEXT_BITS = 8;
+
+        private static final class Text {
+            final String raw;
+            final String shown;
+
+            Text(String raw, String shown) {
+                this.raw = raw;
+                this.shown = shown;
+            }
+        }
+
+        private final DateTimeFormatter out;
+        private final Text[] memo = new Text[1 << TEXT_BITS];
+        @Nullable
+        private volatile TimeKind kind;
+        private volatile int detections;
+
+        public Timestamps(@NonNull String pattern) {
+            this(pattern, ZoneId.systemDefault());
+        }
+
+        Timestamps(@NonNull String pattern, @NonNull ZoneId zone) {
+            this.out = DateTimeFormatter.ofPattern(pattern, Locale.ROOT).withZone(zone);
+        }
+
+        /** "" nếu null/rỗng. Nhận String, hoặc Number (epoch ms/s, vd. Double của Gson). */
+        @NonNull
+        public String format(@Nullable Object raw) {
+            if (raw == null)
+                return "";
+            if (raw instanceof Number) {
+                long v = ((Number) raw).longValue();
+                // < 10^11 giây ≈ năm 5138 → nhỏ hơn thì là giây
+                return out.format(v < 100_000_000_000L ? Instant.ofEpochSecond(v) : Instant.ofEpochMilli(v));
+            }
+            String s = raw.toString();
+            int slot = s.hashCode() & ((1 << TEXT_BITS) - 1);
+            Text t = memo[slot];
+            if (t != null && t.raw.equals(s))
+                return t.shown;
+            String trimmed = s.trim();
+            if (trimmed.isEmpty())
+                return "";
+            Instant at = parse(trimmed);
+            String shown = at == null ? s : out.format(at);
+            memo[slot] = new Text(s, shown);
+            return shown;
+        }
+
+        @Nullable
+        TimeKind kind() {
+            return kind;
+        }
+
+        /** Số lần phải nhận dạng lại (lần đầu + mỗi lần server đổi định dạng) */
+        int detections() {
+            return detections;
+        }
+
+        @Nullable
+        private Instant parse(@NonNull String s) {
+            TimeKind k = kind;
+            if (k != null) {
+                Instant at = parseAs(k, s);
+                if (at != null)
+                    return at;
+            }
+            for (TimeKind candidate : KINDS) {
+                if (candidate == k)
+                    continue;
+                Instant at = parseAs(candidate, s);
+                if (at != null) {
+                    kind = candidate;
+                    detections++;
+                    return at;
+                }
+            }
+            return null;
+        }
+    }
+
+    @Nullable
+    static Instant parseAs(@NonNull TimeKind kind, @NonNull String s) {
+        switch (kind) {
+            case EPOCH_MS:
+                return s.length() == 13 && allDigits(s) ? Instant.ofEpochMilli(Long.parseLong(s)) : null;
+            case EPOCH_S:
+                return s.length() == 10 && allDigits(s) ? Instant.ofEpochSecond(Long.parseLong(s)) : null;
+            case ISO_OFFSET:
+                // Có offset: kết thúc bằng Z hoặc ±hh:mm
+                if (s.length() < 20 || !(s.endsWith("Z") || s.charAt(s.length() - 6) == '+'
+                        || s.charAt(s.length() - 6) == '-'))
+                    return null;
+                try {
+                    return OffsetDateTime.parse(s, DateTimeFormatter.ISO_OFFSET_DATE_TIME).toInstant();
+                } catch (DateTimeParseException e) {
+                    return null;
+                }
+            case LOCAL_UTC:
+                if (s.length() < 19)
+                    return null;
+                try {
+                    return LocalDateTime.parse(s, LOCAL_UTC).toInstant(ZoneOffset.UTC);
+                } catch (DateTimeParseException e) {
+                    return null;
+                }
+            default:
+                return null;
+        }
+    }
+
+    private static boolean allDigits(@NonNull String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9')
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.app.util;
+
+/**
+ * GeoMath: tính khoảng cách trên mặt cầu (không cấp phát, dùng được trong vòng lặp nóng).
+ */
+public final class GeoMath {
+
+    /** Bán kính trung bình Trái Đất (km) */
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private GeoMath() {
+    }
+
+    /** Khoảng cách haversine giữa 2 điểm (km). */
+    public static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double sLat = Math.sin(dLat / 2);
+        double sLng = Math.sin(dLng / 2);
+        double a = sLat * sLat + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sLng * sLng;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /** true nếu lat/lng là toạ độ hợp lệ (không NaN, trong khoảng, không phải 0,0). */
+    public static boolean isValid(double lat, double lng) {
+        return !Double.isNaN(lat) && !Double.isNaN(lng)
+                && lat >= -90 && lat <= 90 && lng >= -180 && lng <= 180
+                && !(lat == 0 && lng == 0);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.app.util;
+
+import java.util.Arrays;
+
+/**
+ * Geohash (base32, chuẩn geohash.org)
+ *
+ * - Chia bản đồ thành các ô chữ nhật theo độ dài chuỗi (precision):
+ *   5 ký tự ≈ 4.9km x 4.9km, 6 ký tự ≈ 1.2km x 0.6km, 7 ký tự ≈ 153m x 153m
+ * - Hai điểm rung GPS vài mét gần như luôn ra cùng 1 chuỗi → dùng làm key cache
+ */
+public final class Geohash {
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final int[] DECODE = new int[128];
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < BASE32.length; i++)
+            DECODE[BASE32[i]] = i;
+    }
+
+    private Geohash() {
+    }
+
+    public static String encode(double lat, double lng, int precision) {
+        if (precision < 1 || precision > 12)
+            throw new IllegalArgumentException("precision must be 1..12");
+        double latMin = -90, latMax = 90;
+        double lngMin = -180, lngMax = 180;
+        StringBuilder sb = new StringBuilder(precision);
+        boolean even = true; // bit chẵn = kinh độ
+        int bit = 0, ch = 0;
+        while (sb.length() < precision) {
+            if (even) {
+                double mid = (lngMin + lngMax) / 2;
+                if (lng >= mid) {
+                    ch = (ch << 1) | 1;
+                    lngMin = mid;
+                } else {
+                    ch <<= 1;
+                    lngMax = mid;
+                }
+            } else {
+                double mid = (latMin + latMax) / 2;
+                if (lat >= mid) {
+                    ch = (ch << 1) | 1;
+                    latMin = mid;
+                } else {
+                    ch <<= 1;
+                    latMax = mid;
+                }
+            }
+            even = !even;
+            if (++bit == 5) {
+                sb.append(BASE32[ch]);
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Khung của ô: {latMin, lngMin, latMax, lngMax}. */
+    public static double[] bounds(String hash) {
+        double latMin = -90, latMax = 90;
+        double lngMin = -180, lngMax = 180;
+        boolean even = true;
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            int v = c < 128 ? DECODE[c] : -1;
+            if (v < 0)
+                throw new IllegalArgumentException("invalid geohash: " + hash);
+            for (int b = 4; b >= 0; b--) {
+                boolean on = ((v >> b) & 1) == 1;
+                if (even) {
+                    double mid = (lngMin + lngMax) / 2;
+                    if (on)
+                        lngMin = mid;
+                    else
+                        lngMax = mid;
+                } else {
+                    double mid = (latMin + latMax) / 2;
+                    if (on)
+                        latMin = mid;
+                    else
+                        latMax = mid;
+                }
+                even = !even;
+            }
+        }
+        return new double[] { latMin, lngMin, latMax, lngMax };
+    }
+
+    /** Tâm ô: {lat, lng}. */
+    public static double[] center(String hash) {
+        double[] b = bounds(hash);
+        return new double[] { (b[0] + b[2]) / 2, (b[1] + b[3]) / 2 };
+    }
+
+    /** 8 ô xung quanh (N, NE, E, SE, S, SW, W, NW); bỏ qua ô vượt cực. */
+    public static String[] neighbors(String hash) {
+        double[] b = bounds(hash);
+        double h = b[2] - b[0];
+        double w = b[3] - b[1];
+        double lat = (b[0] + b[2]) / 2;
+        double lng = (b[1] + b[3]) / 2;
+        int[][] dirs = { { 1, 0 }, { 1, 1 }, { 0, 1 }, { -1, 1 }, { -1, 0 }, { -1, -1 }, { 0, -1 }, { 1, -1 } };
+        String[] out = new String[dirs.length];
+        int n = 0;
+        for (int[] d : dirs) {
+            double nLat = lat + d[0] * h;
+            if (nLat > 90 || nLat < -90)
+                continue;
+            double nLng = lng + d[1] * w;
+            if (nLng > 180)
+                nLng -= 360;
+            else if (nLng < -180)
+                nLng += 360;
+            out[n++] = encode(nLat, nLng, hash.length());
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.app.util;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * SpatialIndex: k-d tree bất biến trên mặt cầu.
+ *
+ * - Mỗi điểm lat/lng được đổi sang vector đơn vị 3D (x, y, z); khoảng cách dây
+ *   cung giữa 2 vector tăng đơn điệu theo khoảng cách mặt cầu → tìm kiếm bằng
+ *   bình phương dây cung (không sin/cos trong vòng lặp), chỉ đổi ra km ở kết quả
+ * - Cây lưu ngầm trong mảng (median ở giữa đoạn) → không có object node, dựng
+ *   O(n log n), truy vấn nearest-N / trong bán kính O(log n + k)
+ * - Bất biến sau khi dựng → đọc từ nhiều thread không cần khoá
+ *
+ * @param <T> phần tử gắn với toạ độ
+ */
+public final class SpatialIndex<T> {
+
+    /** 1 kết quả truy vấn: phần tử + khoảng cách mặt cầu (km) */
+    public static final class Neighbor<T> {
+        @NonNull
+        public final T item;
+        public final double km;
+
+        Neighbor(@NonNull T item, double km) {
+            this.item = item;
+            this.km = km;
+        }
+    }
+
+    private final Object[] items;
+    // Toạ độ 3D theo thứ tự cây: xyz[3*i], xyz[3*i+1], xyz[3*i+2]
+    private final double[] xyz;
+
+    private SpatialIndex(Object[] items, double[] xyz) {
+        this.items = items;
+        this.xyz = xyz;
+    }
+
+    /** Dựng index; phần tử có toạ độ không hợp lệ (NaN, 0/0) bị bỏ qua. */
+    @NonNull
+    public static <T> SpatialIndex<T> build(@NonNull List<T> source,
+            @NonNull ToDoubleFunction<T> lat, @NonNull ToDoubleFunction<T> lng) {
+        List<T> valid = new ArrayList<>(source.size());
+        for (T t : source) {
+            if (t != null && GeoMath.isValid(lat.applyAsDouble(t), lng.applyAsDouble(t)))
+                valid.add(t);
+        }
+        int n = valid.size();
+        Object[] items = new Object[n];
+        double[] xyz = new double[3 * n];
+        for (int i = 0; i < n; i++) {
+            T t = valid.get(i);
+            items[i] = t;
+            toUnit(lat.applyAsDouble(t), lng.applyAsDouble(t), xyz, 3 * i);
+        }
+        buildRange(items, xyz, 0, n, 0);
+        return new SpatialIndex<>(items, xyz);
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    // ============================
+    // Truy vấn
+    // ============================
+
+    /** n phần tử gần nhất, sắp xếp gần → xa. */
+    @NonNull
+    public List<Neighbor<T>> nearest(double lat, double lng, int n) {
+        if (n <= 0 || items.length == 0)
+            return Collections.emptyList();
+        double[] q = new double[3];
+        toUnit(lat, lng, q, 0);
+        // Max-heap theo dây cung: đỉnh là phần tử xa nhất trong n phần tử tốt nhất
+        PriorityQueue<Candidate> heap = new PriorityQueue<>(n + 1, (a, b) -> Double.compare(b.d2, a.d2));
+        searchNearest(q, 0, items.length, 0, n, heap);
+        List<Neighbor<T>> out = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            Candidate c = heap.poll();
+            out.add(neighbor(c.index, c.d2));
+        }
+        Collections.reverse(out);
+        return out;
+    }
+
+    /** Mọi phần tử trong bán kính {@code km}, sắp xếp gần → xa. */
+    @NonNull
+    public List<Neighbor<T>> within(double lat, double lng, double km) {
+        if (km < 0 || items.length == 0)
+            return Collections.emptyList();
+        double[] q = new double[3];
+        toUnit(lat, lng, q, 0);
+        double chord = chordForKm(km);
+        List<Neighbor<T>> out = new ArrayList<>();
+        searchWithin(q, 0, items.length, 0, chord * chord, out);
+        out.sort((a, b) -> Double.compare(a.km, b.km));
+        return out;
+    }
+
+    // ============================
+    // Dựng cây
+    // ============================
+
+    private static void buildRange(Object[] items, double[] xyz, int lo, int hi, int axis) {
+        if (hi - lo <= 1)
+            return;
+        int mid = (lo + hi) >>> 1;
+        select(items, xyz, lo, hi - 1, mid, axis);
+        int next = (axis + 1) % 3;
+        buildRange(items, xyz, lo, mid, next);
+        buildRange(items, xyz, mid + 1, hi, next);
+    }
+
+    /** Quickselect: đưa phần tử thứ k (theo trục) về vị trí k, bên trái ≤, bên phải ≥. */
+    private static void select(Object[] items, double[] xyz, int left, int right, int k, int axis) {
+        while (right > left) {
+            double pivot = xyz[3 * ((left + right) >>> 1) + axis];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (xyz[3 * i + axis] < pivot)
+                    i++;
+                while (xyz[3 * j + axis] > pivot)
+                    j--;
+                if (i <= j) {
+                    swap(items, xyz, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j)
+                right = j;
+            else if (k >= i)
+                left = i;
+            else
+                return;
+        }
+    }
+
+    private static void swap(Object[] items, double[] xyz, int a, int b) {
+        Object t = items[a];
+        items[a] = items[b];
+        items[b] = t;
+        for (int d = 0; d < 3; d++) {
+            double v = xyz[3 * a + d];
+            xyz[3 * a + d] = xyz[3 * b + d];
+            xyz[3 * b + d] = v;
+        }
+    }
+
+    // ============================
+    // Duyệt cây
+    // ============================
+
+    private static final class Candidate {
+        final int index;
+        final double d2;
+
+        Candidate(int index, double d2) {
+            this.index = index;
+            this.d2 = d2;
+        }
+    }
+
+    private void searchNearest(double[] q, int lo, int hi, int axis, int n, PriorityQueue<Candidate> heap) {
+        if (lo >= hi)
+            return;
+        int mid = (lo + hi) >>> 1;
+        double d2 = dist2(q, mid);
+        if (heap.size() < n) {
+            heap.add(new Candidate(mid, d2));
+        } else if (d2 < worst(heap)) {
+            heap.poll();
+            heap.add(new Candidate(mid, d2));
+        }
+        double diff = q[axis] - xyz[3 * mid + axis];
+        int next = (axis + 1) % 3;
+        // Nhánh cùng phía trước, nhánh bên kia chỉ khi mặt phẳng chia còn gần hơn phần tử tệ nhất
+        if (diff < 0) {
+            searchNearest(q, lo, mid, next, n, heap);
+            if (heap.size() < n || diff * diff < worst(heap))
+                searchNearest(q, mid + 1, hi, next, n, heap);
+        } else {
+            searchNearest(q, mid + 1, hi, next, n, heap);
+            if (heap.size() < n || diff * diff < worst(heap))
+                searchNearest(q, lo, mid, next, n, heap);
+        }
+    }
+
+    private void searchWithin(double[] q, int lo, int hi, int axis, double max2, List<Neighbor<T>> out) {
+        if (lo >= hi)
+            return;
+        int mid = (lo + hi) >>> 1;
+        double d2 = dist2(q, mid);
+        if (d2 <= max2)
+            out.add(neighbor(mid, d2));
+        double diff = q[axis] - xyz[3 * mid + axis];
+        int next = (axis + 1) % 3;
+        if (diff < 0 || diff * diff <= max2)
+            searchWithin(q, lo, mid, next, max2, out);
+        if (diff >= 0 || diff * diff <= max2)
+            searchWithin(q, mid + 1, hi, next, max2, out);
+    }
+
+    private static double worst(PriorityQueue<Candidate> heap) {
+        return heap.peek().d2;
+    }
+
+    private double dist2(double[] q, int i) {
+        double dx = q[0] - xyz[3 * i];
+        double dy = q[1] - xyz[3 * i + 1];
+        double dz = q[2] - xyz[3 * i + 2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Neighbor<T> neighbor(int i, double chord2) {
+        return new Neighbor<>((T) items[i], kmForChord(Math.sqrt(chord2)));
+    }
+
+    // ============================
+    // Hình học
+    // ============================
+
+    private static void toUnit(double lat, double lng, double[] out, int off) {
+        double phi = Math.toRadians(lat);
+        double lambda = Math.toRadians(lng);
+        double c = Math.cos(phi);
+        out[off] = c * Math.cos(lambda);
+        out[off + 1] = c * Math.sin(lambda);
+        out[off + 2] = Math.sin(phi);
+    }
+
+    /** Dây cung (trên mặt cầu đơn vị) ↔ cung (km): c = 2 sin(d / 2R) */
+    static double chordForKm(double km) {
+        double half = Math.min(Math.PI / 2, km / (2 * GeoMath.EARTH_RADIUS_KM));
+        return 2 * Math.sin(half);
+    }
+
+    static double kmForChord(double chord) {
+        return 2 * GeoMath.EARTH_RADIUS_KM * Math.asin(Math.min(1.0, chord / 2));
+    }
+}
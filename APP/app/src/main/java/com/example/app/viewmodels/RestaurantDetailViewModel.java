@@ -44,13 +44,12 @@ public class RestaurantDetailViewModel extends ViewModel {
     }
 
     /**
-     * Tổng tiền giỏ hàng (BigDecimal) – convert từ LiveData<Double> trong CartRepository
+     * Tổng tiền giỏ hàng (BigDecimal) – lấy từ subtotal long (đồng) của CartSnapshot
      */
     public LiveData<BigDecimal> getCartTotal() {
-        LiveData<Double> subtotalDouble = cartRepository.getCartSubtotal();
-        return Transformations.map(subtotalDouble, totalDouble -> {
-            if (totalDouble == null) return BigDecimal.ZERO;
-            return BigDecimal.valueOf(totalDouble);
+        return Transformations.map(cartRepository.getCartSnapshot(), snapshot -> {
+            if (snapshot == null) return BigDecimal.ZERO;
+            return BigDecimal.valueOf(snapshot.subtotal);
         });
     }
 
@@ -93,11 +92,11 @@ public class RestaurantDetailViewModel extends ViewModel {
     }
 
     // ✅ HÀM MỚI: dùng cho nút "Thêm" trong RestaurantDetailFragment
-    public void addMenuItemToCart(MenuItem item) {
-        if (item == null) return;
+    public CartRepository.AddResult addMenuItemToCart(MenuItem item) {
+        if (item == null) return CartRepository.AddResult.IGNORED;
         // Lấy khoảng cách từ restaurant detail nếu có
         Restaurant restaurant = _restaurantDetail.getValue();
         Double distance = (restaurant != null) ? restaurant.getDistance() : null;
-        cartRepository.addToCart(item, distance);
+        return cartRepository.addToCart(item, distance);
     }
 }
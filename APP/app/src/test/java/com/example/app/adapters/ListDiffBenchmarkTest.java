@@ -0,0 +1,171 @@
+package com.example.app.adapters;
+
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.example.app.model.OrderDto;
+import com.example.app.model.OrderLineDto;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * So số dòng phải bind lại mỗi lần làm mới danh sách đơn:
+ * diff theo key + hash (DiffingAdapter) ↔ notifyDataSetChanged() (bind lại cả list).
+ */
+public class ListDiffBenchmarkTest {
+
+    private static final String[] FLOW = { "pending", "confirmed", "cooking", "ready", "shipping", "delivered" };
+
+    @Test
+    public void refreshRebindsOnlyChangedRows() {
+        Random rnd = new Random(7);
+        List<OrderDto> shown = new ArrayList<>();
+        int nextId = 1;
+        for (; nextId <= 200; nextId++)
+            shown.add(order(nextId, FLOW[rnd.nextInt(FLOW.length)]));
+        RowSnapshot prev = snapshot(shown);
+
+        int refreshes = 50;
+        long diffRebinds = 0;
+        long fullRebinds = 0;
+        for (int r = 0; r < refreshes; r++) {
+            // Mỗi lần kéo làm mới: server trả object mới, vài đơn đổi trạng thái,
+            // thỉnh thoảng có đơn mới ở đầu và 1 đơn bị huỷ khỏi bucket
+            List<OrderDto> fresh = new ArrayList<>();
+            for (OrderDto o : shown)
+                fresh.add(copy(o));
+            for (int k = 0; k < 3; k++) {
+                OrderDto o = fresh.get(rnd.nextInt(fresh.size()));
+                o.status = FLOW[(Arrays.asList(FLOW).indexOf(o.status) + 1) % FLOW.length];
+            }
+            if (r % 2 == 0)
+                fresh.add(0, order(nextId++, "pending"));
+            if (r % 5 == 0)
+                fresh.remove(rnd.nextInt(fresh.size()));
+
+            RowSnapshot next = snapshot(fresh);
+            RebindCounter counter = new RebindCounter(null);
+            DiffUtil.calculateDiff(prev.diffTo(next), true).dispatchUpdatesTo(counter);
+            diffRebinds += counter.rebinds();
+            fullRebinds += fresh.size();
+
+            shown = fresh;
+            prev = next;
+        }
+
+        double perRefresh = (double) diffRebinds / refreshes;
+        double fullPerRefresh = (double) fullRebinds / refreshes;
+        // ≤ 3 đơn đổi trạng thái + ≤ 1 đơn mới mỗi lần
+        assertTrue("diff rebinds/refresh " + perRefresh, perRefresh <= 4.0);
+        assertTrue(perRefresh < fullPerRefresh * 0.05);
+    }
+
+    @Test
+    public void inPlaceMutationIsSeenAgainstPreviousSnapshot() {
+        List<OrderDto> list = new ArrayList<>();
+        for (int i = 1; i <= 20; i++)
+            list.add(order(i, "cooking"));
+        RowSnapshot before = snapshot(list);
+
+        // Màn hình sửa thẳng object đang hiển thị rồi submit lại cùng list
+        list.get(4).status = "ready";
+        RebindCounter counter = diff(before, snapshot(list));
+
+        assertEquals(1, counter.changed);
+        assertEquals(0, counter.inserted);
+        assertEquals(0, counter.removed);
+    }
+
+    @Test
+    public void unchangedRefreshRebindsNothing() {
+        List<OrderDto> list = new ArrayList<>();
+        for (int i = 1; i <= 50; i++)
+            list.add(order(i, "delivered"));
+        List<OrderDto> again = new ArrayList<>();
+        for (OrderDto o : list)
+            again.add(copy(o));
+
+        assertEquals(0, diff(snapshot(list), snapshot(again)).rebinds());
+    }
+
+    @Test
+    public void rowsWithoutKeyAreReplaced() {
+        OrderDto noId = order(1, "pending");
+        noId.id = null;
+        List<OrderDto> list = Collections.singletonList(noId);
+
+        RebindCounter counter = diff(snapshot(list), snapshot(list));
+
+        assertEquals(1, counter.removed);
+        assertEquals(1, counter.inserted);
+    }
+
+    @Test
+    public void placeholdersKeepTheirIdsAndAreNotRebound() {
+        List<OrderDto> list = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            list.add(null);
+        for (int i = 1; i <= 10; i++)
+            list.add(order(i, "pending"));
+        RowSnapshot before = snapshot(list);
+        RowSnapshot again = snapshot(new ArrayList<>(list));
+
+        assertEquals(0, diff(before, again).rebinds());
+        assertEquals(before.idAt(3), again.idAt(3));
+        assertTrue(before.idAt(3) != before.idAt(4));
+
+        // Trang placeholder cuối được tải → chỉ các dòng đó đổi
+        for (int i = 0; i < 10; i++)
+            list.set(i, order(100 + i, "pending"));
+        RebindCounter loaded = diff(before, snapshot(list));
+        assertEquals(10, loaded.removed);
+        assertEquals(10, loaded.inserted);
+        assertEquals(0, loaded.changed);
+    }
+
+    // ============================
+    // Helpers
+    // ============================
+
+    private static RowSnapshot snapshot(List<OrderDto> list) {
+        return RowSnapshot.of(list, OrderDto::getId, OrderDto::listHash);
+    }
+
+    private static RebindCounter diff(RowSnapshot prev, RowSnapshot next) {
+        RebindCounter counter = new RebindCounter(null);
+        DiffUtil.calculateDiff(prev.diffTo(next), true).dispatchUpdatesTo(counter);
+        return counter;
+    }
+
+    private static OrderDto order(int id, String status) {
+        OrderDto o = new OrderDto();
+        o.id = String.valueOf(id);
+        o.status = status;
+        o.total = 50_000L + id * 1_000L;
+        o.createdAt = "2025-01-01 10:" + (id % 60);
+        OrderLineDto line = new OrderLineDto();
+        line.name = "Phở bò";
+        line.qty = 1 + id % 3;
+        line.price = 45_000L;
+        o.items = Collections.singletonList(line);
+        return o;
+    }
+
+    private static OrderDto copy(OrderDto src) {
+        OrderDto o = new OrderDto();
+        o.id = src.id;
+        o.status = src.status;
+        o.total = src.total;
+        o.createdAt = src.createdAt;
+        o.items = src.items;
+        return o;
+    }
+}
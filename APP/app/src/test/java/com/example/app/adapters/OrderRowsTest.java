@@ -0,0 +1,137 @@
+package com.example.app.adapters;
+
+import com.example.app.model.OrderDto;
+import com.example.app.model.OrderLineDto;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class OrderRowsTest {
+
+    @Test
+    public void displayStringsAreResolvedUpFront() {
+        OrderDto o = order("FF12", "PENDING ");
+        OrderRow r = OrderRows.customer(o, 0);
+
+        assertSame(o, r.order);
+        assertEquals("FF12", r.key);
+        assertEquals("#FF12", r.code);
+        assertEquals("2x Phở bò, 1x Trà đá", r.itemsBrief);
+        assertEquals("95.000 đ", r.total);
+        assertEquals("2025-01-01 10:00:00", r.time);
+        assertEquals("pending", r.status);
+    }
+
+    @Test
+    public void missingIdFallsBackPerRole() {
+        OrderDto o = order(null, "pending");
+        assertEquals("#3", OrderRows.shipper(o, 2).code);
+        assertEquals("#3", OrderRows.customer(o, 2).code);
+        assertEquals("#—", OrderRows.merchant(o, 2).code);
+    }
+
+    @Test
+    public void shipperTreatsAssignedReadyOrderAsDelivering() {
+        OrderDto free = order("1", "ready");
+        OrderRow open = OrderRows.shipper(free, 0);
+        assertEquals(OrderRow.ACCEPT, open.actions);
+        assertEquals(OrderRow.Chip.NEUTRAL, open.chip);
+        assertEquals("chưa nhận", open.statusLabel);
+
+        OrderDto taken = order("1", "ready");
+        taken.shipperId = "s9";
+        OrderRow mine = OrderRows.shipper(taken, 0);
+        assertEquals("shipping", mine.status);
+        assertEquals(OrderRow.ON_THE_WAY | OrderRow.DELIVERED | OrderRow.FAILED, mine.actions);
+        assertEquals(OrderRow.Chip.WARNING, mine.chip);
+        assertEquals("đang giao", mine.statusLabel);
+
+        assertEquals("available", OrderRows.shipper(order("2", null), 0).status);
+    }
+
+    @Test
+    public void backendDeliveringStatusCountsAsInDelivery() {
+        OrderDto o = order("1", "DELIVERING");
+        o.shipperId = "s9";
+        assertTrue(o.isInDelivery());
+        OrderRow r = OrderRows.shipper(o, 0);
+        assertEquals(OrderRow.Chip.WARNING, r.chip);
+        assertEquals("đang giao", r.statusLabel);
+        assertTrue(r.can(OrderRow.DELIVERED));
+
+        assertFalse(order("1", "ready").isInDelivery());
+    }
+
+    @Test
+    public void merchantActionsFollowKitchenFlow() {
+        OrderRow nullStatus = OrderRows.merchant(order("1", null), 0);
+        assertEquals("pending", nullStatus.status);
+        assertEquals(OrderRow.ACCEPT | OrderRow.REJECT, nullStatus.actions);
+
+        OrderRow cooking = OrderRows.merchant(order("1", "COOKING"), 0);
+        assertEquals(OrderRow.READY | OrderRow.REJECT, cooking.actions);
+        assertEquals(OrderRow.Chip.WARNING, cooking.chip);
+
+        OrderRow ready = OrderRows.merchant(order("1", "ready"), 0);
+        assertEquals(OrderRow.COMPLETE, ready.actions);
+        assertEquals(OrderRow.Chip.INFO, ready.chip);
+        assertEquals("sẵn sàng", ready.statusLabel);
+
+        OrderRow rejected = OrderRows.merchant(order("1", "rejected"), 0);
+        assertEquals(0, rejected.actions);
+        assertEquals(OrderRow.Chip.ERROR, rejected.chip);
+    }
+
+    @Test
+    public void customerCanCancelOnlyBeforeCooking() {
+        OrderRow confirmed = OrderRows.customer(order("1", "confirmed"), 0);
+        assertTrue(confirmed.can(OrderRow.CANCEL));
+        assertEquals(OrderRow.Chip.WARNING, confirmed.chip);
+
+        OrderRow cooking = OrderRows.customer(order("1", "cooking"), 0);
+        assertFalse(cooking.can(OrderRow.CANCEL));
+
+        OrderRow handover = OrderRows.customer(order("1", "handover"), 0);
+        assertEquals(OrderRow.Chip.SUCCESS, handover.chip);
+        assertEquals("sẵn sàng", handover.statusLabel);
+    }
+
+    @Test
+    public void hashTracksOnlyWhatIsShown() {
+        OrderDto o = order("7", "cooking");
+        int before = OrderRows.merchant(o, 0).hash;
+
+        // Field không hiển thị trên dòng → không bind lại
+        o.customerEmail = "a@b.c";
+        o.updatedAt = "2025-01-01 11:00:00";
+        assertEquals(before, OrderRows.merchant(o, 0).hash);
+
+        o.status = "ready";
+        assertNotEquals(before, OrderRows.merchant(o, 0).hash);
+    }
+
+    private static OrderDto order(String id, String status) {
+        OrderDto o = new OrderDto();
+        o.id = id;
+        o.status = status;
+        o.total = 95_000L;
+        o.createdAt = "2025-01-01 10:00:00";
+        o.items = Arrays.asList(line("Phở bò", 2, 45_000L), line("Trà đá", 1, 5_000L));
+        return o;
+    }
+
+    private static OrderLineDto line(String name, int qty, long price) {
+        OrderLineDto l = new OrderLineDto();
+        l.name = name;
+        l.qty = qty;
+        l.price = price;
+        return l;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.app.adapters;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class StableIdsTest {
+
+    @Test
+    public void alphanumericKeysDoNotCollide() {
+        StableIds ids = new StableIds();
+        // Lọc chữ số như trước: cả 3 đều thành 12
+        long a = ids.idOf("FF12");
+        long b = ids.idOf("F12");
+        long c = ids.idOf("12");
+
+        assertEquals(3, new HashSet<>(Arrays.asList(a, b, c)).size());
+    }
+
+    @Test
+    public void sameKeyKeepsItsIdAcrossRefreshes() {
+        StableIds ids = new StableIds();
+        long first = ids.idOf("FF2025");
+        ids.idOf("FF2026");
+
+        assertEquals(first, ids.idOf("FF2025"));
+        assertEquals(2, ids.size());
+    }
+
+    @Test
+    public void gsonDoublesMatchIntegerAndStringKeys() {
+        StableIds ids = new StableIds();
+        long fromGson = ids.idOf(5.0);
+
+        assertEquals(fromGson, ids.idOf(5));
+        assertEquals(fromGson, ids.idOf(5L));
+        assertEquals(fromGson, ids.idOf("5"));
+        assertNotEquals(fromGson, ids.idOf(5.5));
+    }
+
+    @Test
+    public void nullKeysGetFreshIds() {
+        StableIds ids = new StableIds();
+        assertNotEquals(ids.idOf(null), ids.idOf(null));
+        assertEquals(0, ids.size());
+    }
+
+    @Test
+    public void idsForListFollowsPositions() {
+        StableIds ids = new StableIds();
+        List<String> first = Arrays.asList("a", "b", "c");
+        long[] before = ids.idsFor(first, s -> s);
+        long[] after = ids.idsFor(Arrays.asList("c", "a", null, "d"), s -> s);
+
+        assertEquals(before[2], after[0]);
+        assertEquals(before[0], after[1]);
+        Set<Long> all = new HashSet<>();
+        for (long id : after)
+            all.add(id);
+        assertEquals(4, all.size());
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.app.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.example.app.model.CartItem;
+
+import org.junit.Test;
+
+public class CartIndexTest {
+
+    private static CartItem item(String id, String productId, double price, String options, int restaurantId) {
+        return new CartItem(id, productId, "Món " + productId, price, 1, null, options, restaurantId, null);
+    }
+
+    @Test
+    public void sameProductAndOptionsIncrementsExistingLine() {
+        CartIndex cart = new CartIndex();
+        assertFalse(cart.add(item("a", "10", 35000, null, 1), 1));
+        assertTrue(cart.add(item("b", " 10 ", 35000, null, 1), 2));
+
+        CartSnapshot s = cart.snapshot();
+        assertEquals(1, s.items.size());
+        assertEquals("a", s.items.get(0).cartItemId);
+        assertEquals(3, s.items.get(0).quantity);
+        assertEquals(105000L, s.subtotal);
+        assertEquals(3, s.itemCount);
+    }
+
+    @Test
+    public void differentOptionsAreSeparateLines() {
+        CartIndex cart = new CartIndex();
+        cart.add(item("a", "10", 35000, "ít đá", 1), 1);
+        cart.add(item("b", "10", 35000, "nhiều đá", 1), 1);
+
+        assertEquals(2, cart.snapshot().items.size());
+        assertSame(cart.findById("b"), cart.find("10", "nhiều đá"));
+    }
+
+    @Test
+    public void totalsFollowQuantityChangesAndRemoval() {
+        CartIndex cart = new CartIndex();
+        cart.add(item("a", "1", 125000, null, 7), 1);
+        cart.add(item("b", "2", 15000, null, 7), 2);
+
+        assertTrue(cart.setQuantity("a", 3));
+        assertEquals(405000L, cart.subtotal());
+        assertEquals(5, cart.itemCount());
+        assertEquals(405000L, cart.snapshot().totalFor(7));
+
+        assertTrue(cart.setQuantity("b", 0));
+        assertEquals(375000L, cart.subtotal());
+        assertEquals(1, cart.snapshot().items.size());
+
+        assertTrue(cart.remove("a"));
+        assertEquals(0L, cart.subtotal());
+        assertEquals(0, cart.itemCount());
+        assertTrue(cart.snapshot().restaurantTotals.isEmpty());
+        assertFalse(cart.remove("a"));
+    }
+
+    @Test
+    public void snapshotIsImmutableCopy() {
+        CartIndex cart = new CartIndex();
+        cart.add(item("a", "1", 20000, null, 1), 1);
+        CartSnapshot before = cart.snapshot();
+        assertSame(before, cart.snapshot());
+
+        cart.setQuantity("a", 4);
+        CartSnapshot after = cart.snapshot();
+        assertNotSame(before, after);
+        assertEquals(1, before.items.get(0).quantity);
+        assertEquals(20000L, before.subtotal);
+        assertEquals(4, after.items.get(0).quantity);
+
+        try {
+            after.items.clear();
+            fail("snapshot list must be unmodifiable");
+        } catch (UnsupportedOperationException expected) {
+            // ok
+        }
+        // Sửa bản sao trong snapshot không làm đổi giỏ
+        after.items.get(0).quantity = 99;
+        assertEquals(4, cart.findById("a").quantity);
+    }
+
+    @Test
+    public void clearResetsEverything() {
+        CartIndex cart = new CartIndex();
+        cart.add(item("a", "1", 20000, null, 1), 2);
+        cart.clear();
+        assertTrue(cart.isEmpty());
+        assertSame(CartSnapshot.EMPTY, cart.snapshot());
+        assertEquals(0, cart.restaurantId());
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.app.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class PageWindowTest {
+
+    private static final int PAGE = 10;
+
+    /** Đơn giản hoá OrderDto: id + status sửa được tại chỗ */
+    private static final class Order {
+        final String id;
+        String status = "pending";
+
+        Order(String id) {
+            this.id = id;
+        }
+    }
+
+    /** Server giả: "o1" mới nhất; request chờ tới khi test gọi {@link #complete()} */
+    private static final class FakeServer implements PageWindow.Source<Order> {
+        final List<Order> orders = new ArrayList<>();
+        final Deque<Object[]> pending = new ArrayDeque<>();
+        final List<Integer> requested = new ArrayList<>();
+
+        FakeServer(int count) {
+            for (int i = 1; i <= count; i++)
+                orders.add(new Order("o" + i));
+        }
+
+        @Override
+        public void load(int page, int pageSize, PageWindow.Result<Order> result) {
+            requested.add(page);
+            pending.add(new Object[] { page, pageSize, result });
+        }
+
+        @SuppressWarnings("unchecked")
+        void complete() {
+            Object[] req = pending.removeFirst();
+            int page = (Integer) req[0];
+            int size = (Integer) req[1];
+            int from = Math.min(orders.size(), (page - 1) * size);
+            int to = Math.min(orders.size(), from + size);
+            List<Order> out = new ArrayList<>();
+            for (Order o : orders.subList(from, to))
+                out.add(copy(o));
+            ((PageWindow.Result<Order>) req[2]).onPage(out);
+        }
+
+        @SuppressWarnings("unchecked")
+        void fail() {
+            Object[] req = pending.removeFirst();
+            ((PageWindow.Result<Order>) req[2]).onError(new IOException("offline"));
+        }
+
+        private static Order copy(Order o) {
+            Order c = new Order(o.id);
+            c.status = o.status;
+            return c;
+        }
+    }
+
+    private List<Order> shown = new ArrayList<>();
+    private int publishes;
+
+    private PageWindow<Order> window(FakeServer server, int maxPages) {
+        return new PageWindow<>(server, o -> o.id, PAGE, 3, maxPages, rows -> {
+            shown = rows;
+            publishes++;
+        });
+    }
+
+    @Test
+    public void firstPageShowsPlaceholdersUntilLoaded() {
+        FakeServer server = new FakeServer(25);
+        PageWindow<Order> w = window(server, 3);
+        w.refresh();
+
+        assertEquals(PAGE, shown.size());
+        assertNull(shown.get(0));
+        assertTrue(w.isLoading());
+
+        server.complete();
+        assertEquals(PAGE, shown.size());
+        assertEquals("o1", shown.get(0).id);
+        assertFalse(w.isLoading());
+    }
+
+    @Test
+    public void prefetchesBeforeReachingTheEnd() {
+        FakeServer server = new FakeServer(25);
+        PageWindow<Order> w = window(server, 3);
+        w.refresh();
+        server.complete();
+
+        // Còn xa cuối (prefetch = 3 dòng) → chưa tải
+        w.onVisible(0, 5);
+        assertEquals(1, server.requested.size());
+
+        w.onVisible(1, 6);
+        assertEquals(2, server.requested.size());
+        assertEquals(Integer.valueOf(2), server.requested.get(1));
+        // Placeholder cho trang đang tải
+        assertEquals(2 * PAGE, shown.size());
+        assertNull(shown.get(PAGE));
+
+        // Đang tải → không gửi trùng
+        w.onVisible(2, 9);
+        assertEquals(2, server.requested.size());
+
+        server.complete();
+        w.onVisible(12, 19);
+        server.complete();
+        // Trang 3 ngắn → hết dữ liệu, không tải thêm
+        assertEquals(25, shown.size());
+        w.onVisible(18, 24);
+        assertEquals(3, server.requested.size());
+    }
+
+    @Test
+    public void windowDropsOldPagesAndReloadsThemOnScrollBack() {
+        FakeServer server = new FakeServer(100);
+        PageWindow<Order> w = window(server, 3);
+        w.refresh();
+        server.complete();
+        for (int page = 2; page <= 5; page++) {
+            int last = shown.size() - 1;
+            w.onVisible(last - 4, last);
+            server.complete();
+        }
+
+        assertEquals(3, w.loadedPages());
+        assertEquals(3, w.firstPage());
+        // 2 trang đầu thành placeholder, vị trí các dòng còn lại giữ nguyên
+        assertEquals(5 * PAGE, shown.size());
+        assertNull(shown.get(0));
+        assertNull(shown.get(2 * PAGE - 1));
+        assertEquals("o21", shown.get(2 * PAGE).id);
+        assertEquals(2, w.stats().pagesDropped);
+        assertTrue(w.stats().peakItems <= 3 * PAGE);
+
+        // Cuộn ngược lên vùng placeholder → tải lại trang 2, bỏ trang 5
+        w.onVisible(2 * PAGE - 2, 2 * PAGE + 5);
+        assertEquals(Integer.valueOf(2), server.requested.get(server.requested.size() - 1));
+        server.complete();
+        assertEquals(2, w.firstPage());
+        assertEquals("o11", shown.get(PAGE).id);
+        assertEquals(4 * PAGE, shown.size());
+    }
+
+    @Test
+    public void statusPatchOnlyTouchesLoadedPages() {
+        FakeServer server = new FakeServer(15);
+        PageWindow<Order> w = window(server, 3);
+        w.refresh();
+        server.complete();
+
+        Order o = w.find("o4");
+        assertNotNull(o);
+        o.status = "cooking";
+        int before = publishes;
+        w.notifyChanged();
+        assertEquals(before + 1, publishes);
+        assertSame(o, shown.get(3));
+        assertEquals("cooking", shown.get(3).status);
+
+        // Trang 2 chưa tải → không tìm thấy
+        assertNull(w.find("o12"));
+    }
+
+    @Test
+    public void newOrderOnTopReloadsFirstPageWithoutLosingRows() {
+        FakeServer server = new FakeServer(30);
+        PageWindow<Order> w = window(server, 3);
+        w.refresh();
+        server.complete();
+        w.onVisible(5, 9);
+        server.complete();
+        assertEquals(2 * PAGE, shown.size());
+
+        // Đơn mới ở đầu: offset dịch 1 → "o10" bị đẩy sang trang 2 (trang 2 đang giữ là bản cũ)
+        server.orders.add(0, new Order("o0"));
+        assertNull(w.find("o0"));
+        w.refreshTop();
+        server.complete();
+
+        assertEquals("o0", shown.get(0).id);
+        assertNotNull(w.find("o10"));
+        assertEquals(2 * PAGE + 1, shown.size());
+        assertUnique(shown);
+    }
+
+    @Test
+    public void rowsRepeatedByShiftedOffsetsAreHidden() {
+        FakeServer server = new FakeServer(30);
+        PageWindow<Order> w = window(server, 3);
+        w.refresh();
+        server.complete();
+
+        // Đơn mới tới trước khi tải trang 2 → trang 2 bắt đầu bằng "o10" đang có ở trang 1
+        server.orders.add(0, new Order("o0"));
+        w.onVisible(5, 9);
+        server.complete();
+
+        assertEquals(2 * PAGE - 1, shown.size());
+        assertEquals(1, w.stats().duplicates);
+        assertUnique(shown);
+    }
+
+    @Test
+    public void droppedPageLeavesAsManyPlaceholdersAsRowsItShowed() {
+        FakeServer server = new FakeServer(100);
+        PageWindow<Order> w = window(server, 3);
+        w.refresh();
+        server.complete();
+        w.onVisible(5, 9);
+        server.complete();
+
+        // Trang 1 tải lại giữ "o10" bị đẩy → 11 dòng; "o10" ở trang 2 bị ẩn
+        server.orders.add(0, new Order("o0"));
+        w.refreshTop();
+        server.complete();
+        int last = shown.size() - 1;
+        w.onVisible(last - 4, last);
+        server.complete();
+        int pos = indexOf(shown, "o25");
+
+        // Trang 4 tới → bỏ trang 1: placeholder = 11 dòng, "o10" của trang 2 vẫn ẩn
+        last = shown.size() - 1;
+        w.onVisible(last - 4, last);
+        server.complete();
+        assertEquals(2, w.firstPage());
+        assertEquals(pos, indexOf(shown, "o25"));
+        for (int i = 0; i < 11; i++)
+            assertNull(shown.get(i));
+        assertEquals("o11", shown.get(11).id);
+        assertNull(w.find("o10"));
+        assertUnique(shown);
+    }
+
+    private static int indexOf(List<Order> rows, String id) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i) != null && rows.get(i).id.equals(id))
+                return i;
+        }
+        return -1;
+    }
+
+    private static void assertUnique(List<Order> rows) {
+        Set<String> ids = new HashSet<>();
+        for (Order o : rows) {
+            if (o != null)
+                assertTrue("duplicate " + o.id, ids.add(o.id));
+        }
+    }
+
+    @Test
+    public void refreshDiscardsInFlightResults() {
+        FakeServer server = new FakeServer(30);
+        PageWindow<Order> w = window(server, 3);
+        w.refresh();
+        server.complete();
+        w.onVisible(5, 9);
+        // Trang 2 đang tải thì người dùng kéo làm mới
+        w.refresh();
+        server.complete(); // trang 2 cũ → bỏ
+        assertEquals(PAGE, shown.size());
+        assertNull(shown.get(0));
+
+        server.complete();
+        assertEquals("o1", shown.get(0).id);
+        assertEquals(PAGE, shown.size());
+    }
+
+    @Test
+    public void errorStopsLoadingAndScrollRetries() {
+        FakeServer server = new FakeServer(30);
+        PageWindow<Order> w = window(server, 3);
+        w.refresh();
+        server.complete();
+        w.onVisible(5, 9);
+        server.fail();
+
+        assertNotNull(w.lastError());
+        assertEquals(PAGE, shown.size());
+        assertEquals(1, w.stats().errors);
+
+        w.onVisible(6, 9);
+        server.complete();
+        assertNull(w.lastError());
+        assertEquals(2 * PAGE, shown.size());
+    }
+
+    @Test
+    public void emptyHistory() {
+        FakeServer server = new FakeServer(0);
+        PageWindow<Order> w = window(server, 3);
+        w.refresh();
+        assertFalse(w.isEmpty());
+        server.complete();
+        assertTrue(w.isEmpty());
+        assertEquals(0, shown.size());
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.app.location;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FixRingBufferTest {
+
+    private static File tempFile() throws IOException {
+        File f = File.createTempFile("uplink", ".buf");
+        f.deleteOnExit();
+        return f;
+    }
+
+    private static LocationFix fix(int i) {
+        return new LocationFix(1_000L * i, 10.77 + i * 1e-5, 106.70 - i * 1e-5, i % 2 == 0 ? 4.5f : Float.NaN);
+    }
+
+    @Test
+    public void survivesReopenInOrder() throws IOException {
+        File f = tempFile();
+        try (FixRingBuffer b = new FixRingBuffer(f, 8)) {
+            for (int i = 0; i < 5; i++)
+                b.append(fix(i));
+            b.drop(2);
+        }
+        try (FixRingBuffer b = new FixRingBuffer(f, 8)) {
+            List<LocationFix> got = b.peek(10);
+            assertEquals(3, got.size());
+            for (int k = 0; k < 3; k++) {
+                LocationFix want = fix(k + 2);
+                assertEquals(want.timeMs, got.get(k).timeMs);
+                assertEquals(want.lat, got.get(k).lat, 1e-7);
+                assertEquals(want.lng, got.get(k).lng, 1e-7);
+                assertEquals(want.hasAccuracy(), got.get(k).hasAccuracy());
+            }
+        }
+    }
+
+    @Test
+    public void fullBufferOverwritesOldest() throws IOException {
+        try (FixRingBuffer b = new FixRingBuffer(tempFile(), 4)) {
+            for (int i = 0; i < 10; i++)
+                b.append(fix(i));
+            assertEquals(4, b.size());
+            assertEquals(6, b.dropped());
+            List<LocationFix> got = b.peek(4);
+            assertEquals(6_000L, got.get(0).timeMs);
+            assertEquals(9_000L, got.get(3).timeMs);
+        }
+    }
+
+    @Test
+    public void capacityChangeResetsFile() throws IOException {
+        File f = tempFile();
+        try (FixRingBuffer b = new FixRingBuffer(f, 4)) {
+            b.append(fix(1));
+        }
+        try (FixRingBuffer b = new FixRingBuffer(f, 16)) {
+            assertTrue(b.isEmpty());
+            assertEquals(16, b.capacity());
+        }
+    }
+}
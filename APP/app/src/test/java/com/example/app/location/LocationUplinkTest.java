@@ -0,0 +1,143 @@
+package com.example.app.location;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LocationUplinkTest {
+
+    /** Server giả lập: giải mã lô như backend, có thể giả lập mất mạng. */
+    private static final class FakeServer implements LocationUplink.Transport {
+        final List<LocationFix> received = new ArrayList<>();
+        int requests;
+        volatile boolean offline;
+
+        @Override
+        public boolean send(byte[] gzipBody, int fixCount) throws IOException {
+            requests++;
+            if (offline)
+                throw new IOException("offline");
+            List<LocationFix> batch = LocationBatch.decode(gzipBody);
+            assertEquals(fixCount, batch.size());
+            received.addAll(batch);
+            return true;
+        }
+    }
+
+    private static LocationUplink uplink(FakeServer server, int maxPending) throws IOException {
+        File f = File.createTempFile("uplink", ".buf");
+        f.deleteOnExit();
+        LocationUplink u = new LocationUplink(new FixRingBuffer(f, 1000), server,
+                Executors.newSingleThreadScheduledExecutor());
+        // Chỉ gửi theo ngưỡng số điểm / flushNow trong test
+        u.setFlushPolicy(TimeUnit.HOURS.toMillis(1), maxPending);
+        return u;
+    }
+
+    /** Tuyến giao ~30 phút, 1 điểm / 5s, đi chéo về hướng đông bắc ~8 m/s. */
+    private static List<LocationFix> track(int n) {
+        List<LocationFix> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            out.add(new LocationFix(1_700_000_000_000L + i * 5_000L,
+                    10.7769 + i * 0.00025, 106.7009 + i * 0.00028, 5f + (i % 3)));
+        return out;
+    }
+
+    @Test
+    public void batchRoundTripsWithinQuantization() throws IOException {
+        List<LocationFix> in = track(50);
+        List<LocationFix> out = LocationBatch.decode(LocationBatch.encode(in));
+        assertEquals(in.size(), out.size());
+        for (int i = 0; i < in.size(); i++) {
+            assertEquals(in.get(i).timeMs, out.get(i).timeMs);
+            assertEquals(in.get(i).lat, out.get(i).lat, 1e-6);
+            assertEquals(in.get(i).lng, out.get(i).lng, 1e-6);
+            assertEquals(in.get(i).accuracyM, out.get(i).accuracyM, 0.5f);
+        }
+    }
+
+    @Test
+    public void replaysInOrderAfterOutage() throws Exception {
+        FakeServer server = new FakeServer();
+        LocationUplink u = uplink(server, 10);
+        List<LocationFix> fixes = track(35);
+
+        server.offline = true;
+        for (LocationFix f : fixes.subList(0, 25))
+            u.offer(f);
+        u.flushNow().get();
+        assertTrue(server.received.isEmpty());
+
+        server.offline = false;
+        for (LocationFix f : fixes.subList(25, 35))
+            u.offer(f);
+        u.flushNow().get();
+
+        assertEquals(35, server.received.size());
+        for (int i = 0; i < 35; i++)
+            assertEquals(fixes.get(i).timeMs, server.received.get(i).timeMs);
+        assertTrue(u.stats().failures > 0);
+        assertEquals(35, u.stats().fixesSent);
+        u.close();
+    }
+
+    @Test
+    public void deliveryMetrics() throws Exception {
+        FakeServer server = new FakeServer();
+        LocationUplink u = uplink(server, 10);
+        LocationUplink.Stats base = u.stats();
+
+        List<LocationFix> fixes = track(360);
+        for (LocationFix f : fixes)
+            u.offer(f);
+        u.flushNow().get();
+
+        LocationUplink.Stats delivery = u.stats().minus(base);
+        assertEquals(360, server.received.size());
+        // 1 request / 10 điểm thay vì 1 request / điểm
+        assertEquals(36, delivery.requests);
+        // JSON lẻ {"lat":..,"lng":..,"accuracy":..} ~55 byte/điểm chưa tính header HTTP
+        assertTrue("bytes/fix = " + delivery.bytesPerFix(), delivery.bytesPerFix() < 12);
+        u.close();
+    }
+
+    @Test
+    public void closeWhileOfflineStillClosesTheFile() throws Exception {
+        FakeServer server = new FakeServer();
+        server.offline = true;
+        File f = File.createTempFile("uplink", ".buf");
+        f.deleteOnExit();
+        FixRingBuffer buffer = new FixRingBuffer(f, 1000);
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        LocationUplink u = new LocationUplink(buffer, server, executor);
+        u.setFlushPolicy(TimeUnit.HOURS.toMillis(1), 100);
+        for (LocationFix fix : track(5))
+            u.offer(fix);
+
+        // Lần gửi cuối lỗi → không hẹn retry trên executor đã shutdown, file vẫn được đóng
+        u.close();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, server.requests);
+        try {
+            buffer.append(track(1).get(0));
+            fail("buffer still open");
+        } catch (IOException expected) {
+            // đã đóng
+        }
+
+        // Điểm chưa gửi còn trong file cho lần mở sau
+        FixRingBuffer reopened = new FixRingBuffer(f, 1000);
+        assertEquals(5, reopened.size());
+        reopened.close();
+    }
+}
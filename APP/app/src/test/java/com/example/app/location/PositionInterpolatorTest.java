@@ -0,0 +1,121 @@
+package com.example.app.location;
+
+import com.example.app.util.GeoMath;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PositionInterpolatorTest {
+
+    private static final double LAT0 = 10.7769;
+    private static final double LNG0 = 106.7009;
+    private static final double M_PER_DEG = 111_195.0;
+    private static final double M_PER_DEG_LNG = M_PER_DEG * Math.cos(Math.toRadians(LAT0));
+
+    /** Phát lại track (m đông/bắc theo thời gian) với nhiễu GPS, fix mỗi {@code everyMs}. */
+    private static PositionInterpolator replay(double[][] truth, long everyMs, double noiseM, long seed) {
+        Random rnd = new Random(seed);
+        PositionInterpolator p = new PositionInterpolator();
+        for (int i = 0; i < truth.length; i++) {
+            double e = truth[i][0] + rnd.nextGaussian() * noiseM;
+            double n = truth[i][1] + rnd.nextGaussian() * noiseM;
+            p.onFix(LAT0 + n / M_PER_DEG, LNG0 + e / M_PER_DEG_LNG, i * everyMs);
+        }
+        return p;
+    }
+
+    private static double dist(LocationFix a, LocationFix b) {
+        return GeoMath.haversineKm(a.lat, a.lng, b.lat, b.lng) * 1000;
+    }
+
+    @Test
+    public void constantDriveIsPredictedFarBetterThanHoldingLastFix() {
+        // 8 m/s về phía đông, fix mỗi 15s
+        double[][] t = new double[40][];
+        for (int i = 0; i < t.length; i++)
+            t[i] = new double[] { i * 15 * 8, 0 };
+        PositionInterpolator.Stats s = replay(t, 15_000, 5, 1).stats();
+
+        assertTrue(s.toString(), s.meanHoldErrorM > 100);
+        assertTrue(s.toString(), s.meanErrorM < 25);
+    }
+
+    @Test
+    public void cornerErrorStaysBelowHoldError() {
+        // Đi đông 10 fix rồi rẽ bắc 10 fix, 6 m/s, fix mỗi 10s
+        double[][] t = new double[21][];
+        for (int i = 0; i <= 10; i++)
+            t[i] = new double[] { i * 60, 0 };
+        for (int i = 11; i <= 20; i++)
+            t[i] = new double[] { 600, (i - 10) * 60 };
+        PositionInterpolator.Stats s = replay(t, 10_000, 3, 2).stats();
+        assertTrue(s.toString(), s.meanErrorM < s.meanHoldErrorM / 2);
+    }
+
+    @Test
+    public void newFixDoesNotMakeThePositionJump() {
+        PositionInterpolator p = new PositionInterpolator();
+        p.onFix(LAT0, LNG0, 0);
+        p.onFix(LAT0, LNG0 + 100 / M_PER_DEG_LNG, 10_000);
+        LocationFix before = p.positionAt(20_000);
+        // Fix thật lệch 40m về phía bắc so với dự đoán
+        p.onFix(LAT0 + 40 / M_PER_DEG, LNG0 + 170 / M_PER_DEG_LNG, 20_000);
+        LocationFix after = p.positionAt(20_000);
+        assertEquals(0, dist(before, after), 0.01);
+
+        // Hết thời gian blend → bám theo quỹ đạo của fix mới: 40m + 1.5s × (0.7 × 4 m/s về bắc)
+        LocationFix settled = p.positionAt(20_000 + PositionInterpolator.BLEND_MS);
+        assertEquals(44.2, (settled.lat - LAT0) * M_PER_DEG, 0.5);
+    }
+
+    @Test
+    public void extrapolationStopsAfterShortHorizon() {
+        PositionInterpolator p = new PositionInterpolator();
+        for (int i = 0; i < 5; i++)
+            p.onFix(LAT0, LNG0 + i * 80 / M_PER_DEG_LNG, i * 10_000L);
+        assertTrue(p.isMoving(45_000));
+        LocationFix far = p.positionAt(40_000 + 60_000);
+        LocationFix farther = p.positionAt(40_000 + 600_000);
+        assertFalse(p.isMoving(100_000));
+        assertEquals(0, dist(far, farther), 0.01);
+        // Không quá 1.5 chu kỳ (15s × 8 m/s = 120m) tính từ fix cuối
+        assertTrue(dist(far, new LocationFix(0, LAT0, LNG0 + 320 / M_PER_DEG_LNG, Float.NaN)) <= 121);
+    }
+
+    @Test
+    public void stationaryJitterDoesNotDrift() {
+        double[][] t = new double[30][];
+        for (int i = 0; i < t.length; i++)
+            t[i] = new double[] { 0, 0 };
+        PositionInterpolator p = replay(t, 15_000, 4, 3);
+        LocationFix shown = p.positionAt(29 * 15_000L + 20_000);
+        assertTrue(dist(shown, new LocationFix(0, LAT0, LNG0, Float.NaN)) < 20);
+    }
+
+    @Test
+    public void lateFixIsExtrapolatedFromItsMeasurementTime() {
+        // 8 m/s về phía đông, đo mỗi 10s; đồng hồ shipper lệch hẳn, fix cuối tới trễ 12s
+        PositionInterpolator p = new PositionInterpolator();
+        long shipperClock = 1_700_000_000_000L;
+        long[] delays = { 1_000, 1_000, 1_000, 1_000, 1_000, 12_000 };
+        long arrival = 0;
+        for (int i = 0; i < delays.length; i++) {
+            arrival = i * 10_000L + delays[i];
+            p.onFix(LAT0, LNG0 + i * 80 / M_PER_DEG_LNG, shipperClock + i * 10_000L, arrival);
+        }
+        assertEquals(8, p.speedMps(), 0.3);
+
+        // Đo lúc 50s (≈ 51s theo đồng hồ máy nhận) → lúc nhận + blend đã đi thêm ~12.5s
+        LocationFix shown = p.positionAt(arrival + PositionInterpolator.BLEND_MS);
+        assertEquals(500, (shown.lng - LNG0) * M_PER_DEG_LNG, 5);
+
+        // Fix cũ tới muộn sau fix mới hơn → bỏ
+        p.onFix(LAT0, LNG0, shipperClock + 40_000L, arrival + 2_000);
+        assertEquals(8, p.speedMps(), 0.3);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.app.location;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SamplingPolicyTest {
+
+    private static final double LAT = 10.7769;
+    private static final double LNG = 106.7009;
+
+    @Test
+    public void deliveringUsesHighAccuracyWhileIdleDoesNot() {
+        SamplingPolicy p = new SamplingPolicy();
+        assertEquals(SamplingPolicy.Accuracy.BALANCED, p.current().accuracy);
+
+        assertTrue(p.setMode(SamplingPolicy.Mode.DELIVERING));
+        assertEquals(SamplingPolicy.Accuracy.HIGH, p.current().accuracy);
+        assertFalse(p.setMode(SamplingPolicy.Mode.DELIVERING));
+    }
+
+    @Test
+    public void motionHasHysteresis() {
+        assertEquals(SamplingPolicy.Motion.STILL, SamplingPolicy.classify(SamplingPolicy.Motion.MOVING, 0.3));
+        // 1.0 m/s: giữa 2 ngưỡng → giữ nguyên mức cũ
+        assertEquals(SamplingPolicy.Motion.STILL, SamplingPolicy.classify(SamplingPolicy.Motion.STILL, 1.0));
+        assertEquals(SamplingPolicy.Motion.MOVING, SamplingPolicy.classify(SamplingPolicy.Motion.MOVING, 1.0));
+        assertEquals(SamplingPolicy.Motion.FAST, SamplingPolicy.classify(SamplingPolicy.Motion.FAST, 8.0));
+        assertEquals(SamplingPolicy.Motion.MOVING, SamplingPolicy.classify(SamplingPolicy.Motion.MOVING, 8.0));
+    }
+
+    @Test
+    public void standingStillRelaxesSamplingAndDerivesSpeedWithoutGpsSpeed() {
+        SamplingPolicy p = new SamplingPolicy();
+        p.setMode(SamplingPolicy.Mode.DELIVERING);
+        long t = 0;
+        boolean changed = false;
+        // Không có speed từ GPS, vị trí gần như không đổi → suy ra đứng yên
+        for (int i = 0; i < 5; i++) {
+            t += 8_000;
+            changed |= p.onFix(LAT + i * 1e-6, LNG, Double.NaN, t);
+        }
+        assertTrue(changed);
+        assertEquals(SamplingPolicy.Motion.STILL, p.motion());
+        assertEquals(SamplingPolicy.Accuracy.BALANCED, p.current().accuracy);
+
+        // Chạy xe ~12 m/s
+        for (int i = 0; i < 5; i++) {
+            t += 5_000;
+            p.onFix(LAT, LNG, 12.0, t);
+        }
+        assertEquals(SamplingPolicy.Motion.FAST, p.motion());
+        assertEquals(SamplingPolicy.Accuracy.HIGH, p.current().accuracy);
+    }
+
+    @Test
+    public void deliveringKeepsTrackTighterThanIdle() {
+        for (SamplingPolicy.Motion m : SamplingPolicy.Motion.values()) {
+            SamplingPolicy.Profile idle = SamplingPolicy.profileFor(SamplingPolicy.Mode.IDLE, m);
+            SamplingPolicy.Profile delivering = SamplingPolicy.profileFor(SamplingPolicy.Mode.DELIVERING, m);
+            assertTrue(delivering.toleranceM < idle.toleranceM);
+            assertTrue(delivering.heartbeatMs < idle.heartbeatMs);
+            assertTrue(delivering.flushDelayMs < idle.flushDelayMs);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.app.location;
+
+import com.example.app.util.GeoMath;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TrajectoryFilterTest {
+
+    private static final double LAT0 = 10.7769;
+    private static final double LNG0 = 106.7009;
+    private static final double M_PER_DEG = 111_195.0;
+    private static final double M_PER_DEG_LNG = M_PER_DEG * Math.cos(Math.toRadians(LAT0));
+
+    /** Track ghi lại: toạ độ thật (m, đông/bắc so với gốc) + nhiễu GPS, 1 fix / 5s. */
+    private static List<LocationFix> track(double[][] truthMeters, double noiseM, long seed) {
+        Random rnd = new Random(seed);
+        List<LocationFix> out = new ArrayList<>();
+        for (int i = 0; i < truthMeters.length; i++) {
+            double e = truthMeters[i][0] + rnd.nextGaussian() * noiseM;
+            double n = truthMeters[i][1] + rnd.nextGaussian() * noiseM;
+            out.add(new LocationFix(i * 5_000L, LAT0 + n / M_PER_DEG, LNG0 + e / M_PER_DEG_LNG,
+                    (float) (noiseM * 1.5)));
+        }
+        return out;
+    }
+
+    private static double[][] straight(int n, double mps) {
+        double[][] t = new double[n][];
+        for (int i = 0; i < n; i++)
+            t[i] = new double[] { i * 5 * mps, 0 };
+        return t;
+    }
+
+    private static List<LocationFix> run(TrajectoryFilter f, List<LocationFix> in) {
+        List<LocationFix> out = new ArrayList<>();
+        for (LocationFix fix : in)
+            out.addAll(f.offer(fix));
+        return out;
+    }
+
+    private static double metersFrom(LocationFix f, double east, double north) {
+        return GeoMath.haversineKm(f.lat, f.lng, LAT0 + north / M_PER_DEG, LNG0 + east / M_PER_DEG_LNG) * 1000;
+    }
+
+    @Test
+    public void straightDriveCollapsesToFewPoints() {
+        TrajectoryFilter f = new TrajectoryFilter();
+        f.configure(10, 60_000);
+        List<LocationFix> out = run(f, track(straight(120, 8), 4, 1));
+
+        assertTrue(f.stats().toString(), f.stats().reductionRatio() > 0.8);
+        // Mọi điểm gửi đi vẫn nằm sát đường thật (trục đông-tây)
+        for (LocationFix p : out)
+            assertTrue(Math.abs((p.lat - LAT0) * M_PER_DEG) < 10);
+    }
+
+    @Test
+    public void stationaryJitterIsDropped() {
+        TrajectoryFilter f = new TrajectoryFilter();
+        f.configure(15, 120_000);
+        double[][] still = new double[60][];
+        for (int i = 0; i < still.length; i++)
+            still[i] = new double[] { 0, 0 };
+        List<LocationFix> out = run(f, track(still, 6, 2));
+
+        // 5 phút đứng yên: điểm đầu + 2 nhịp heartbeat
+        assertTrue("emitted " + out.size(), out.size() <= 3);
+        for (LocationFix p : out)
+            assertTrue(metersFrom(p, 0, 0) < 12);
+    }
+
+    @Test
+    public void cornerIsKept() {
+        // Đi đông 600m rồi rẽ bắc 600m, 8 m/s
+        double[][] l = new double[31][];
+        for (int i = 0; i <= 15; i++)
+            l[i] = new double[] { i * 40, 0 };
+        for (int i = 16; i <= 30; i++)
+            l[i] = new double[] { 600, (i - 15) * 40 };
+        TrajectoryFilter f = new TrajectoryFilter();
+        f.configure(10, 120_000);
+        List<LocationFix> out = run(f, track(l, 3, 3));
+        out.addAll(f.flush());
+
+        double nearest = Double.MAX_VALUE;
+        for (LocationFix p : out)
+            nearest = Math.min(nearest, metersFrom(p, 600, 0));
+        assertTrue("corner miss " + nearest, nearest < 25);
+        assertTrue(out.size() < 10);
+    }
+
+    @Test
+    public void outliersAreRejected() {
+        TrajectoryFilter f = new TrajectoryFilter();
+        List<LocationFix> in = track(straight(10, 8), 2, 4);
+        // Fix sai số 200m và 1 fix nhảy 2km giữa đường
+        in.set(4, new LocationFix(in.get(4).timeMs, in.get(4).lat, in.get(4).lng, 200f));
+        in.set(6, new LocationFix(in.get(6).timeMs, in.get(6).lat + 0.02, in.get(6).lng, 5f));
+        List<LocationFix> out = run(f, in);
+        out.addAll(f.flush());
+
+        assertEquals(2, f.stats().rejected);
+        for (LocationFix p : out)
+            assertTrue(Math.abs((p.lat - LAT0) * M_PER_DEG) < 10);
+    }
+
+    @Test
+    public void repeatedJumpIsAcceptedAsRealMove() {
+        TrajectoryFilter f = new TrajectoryFilter();
+        List<LocationFix> in = new ArrayList<>(track(straight(3, 8), 1, 5));
+        // Ra khỏi hầm: vị trí thật cách 3km, các fix sau đều ở đó
+        for (int i = 0; i < 4; i++)
+            in.add(new LocationFix(20_000L + i * 5_000L, LAT0 + 0.027, LNG0, 5f));
+        List<LocationFix> out = run(f, in);
+        out.addAll(f.flush());
+        assertEquals(2, f.stats().rejected);
+        assertEquals(LAT0 + 0.027, out.get(out.size() - 1).lat, 1e-4);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.app.model;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OrderDtoJsonTest {
+
+    private final Gson gson = new Gson();
+
+    private List<OrderDto> parseList(String json) {
+        return gson.fromJson(json, new TypeToken<List<OrderDto>>() {
+        }.getType());
+    }
+
+    @Test
+    public void customerOrder_numericStringsAndProductName() {
+        String json = "[{\"order_id\":12,\"status\":\"PENDING\",\"total_amount\":\"125000.00\","
+                + "\"created_at\":\"2025-01-02T03:04:05Z\",\"address\":null,"
+                + "\"items\":[{\"product_id\":3,\"quantity\":2,\"price\":\"50000.00\","
+                + "\"line_total\":\"100000.00\",\"product_name\":\"Phở\"}],"
+                + "\"total\":\"125000.00\"}]";
+        List<OrderDto> list = parseList(json);
+        assertEquals(1, list.size());
+        OrderDto o = list.get(0);
+        assertEquals("12", o.getId());
+        assertEquals("pending", o.normalizedStatus());
+        assertEquals(125000L, o.total);
+        assertNull(o.address);
+        assertEquals(1, o.items.size());
+        OrderLineDto line = o.items.get(0);
+        assertEquals("3", line.id);
+        assertEquals("Phở", line.getName());
+        assertEquals(2, line.qty);
+        assertEquals(50000L, line.price);
+        assertEquals(100000L, line.getLineTotal());
+        assertEquals("2x Phở", o.itemsBrief(3));
+    }
+
+    @Test
+    public void aliases_idQtyPrice() {
+        String json = "[{\"_id\":\"FF7\",\"total_amount\":9000,"
+                + "\"items\":[{\"_id\":\"a\",\"qty\":3,\"unit_price\":1500.5,\"title\":\"Trà\"},"
+                + "{\"id\":\"b\",\"amount\":\"2000\"}]}]";
+        OrderDto o = parseList(json).get(0);
+        assertEquals("FF7", o.getId());
+        assertEquals(9000L, o.total);
+        assertEquals(3, o.items.get(0).qty);
+        assertEquals(1501L, o.items.get(0).price);
+        assertEquals(4503L, o.items.get(0).getLineTotal());
+        assertEquals("Món", o.items.get(1).getName());
+        assertEquals(1, o.items.get(1).qty);
+        assertEquals(2000L, o.items.get(1).price);
+    }
+
+    @Test
+    public void formattedMoneyStringsKeepThousandsSeparators() {
+        assertEquals(125000L, parseList("[{\"total\":\"125.000 đ\"}]").get(0).total);
+        assertEquals(1250000L, parseList("[{\"total\":\"1.250.000\"}]").get(0).total);
+        assertEquals(1250000L, parseList("[{\"total\":\"1,250,000\"}]").get(0).total);
+        assertEquals(125001L, parseList("[{\"total\":\"125000.500\"}]").get(0).total);
+        assertEquals(13L, parseList("[{\"total\":\"12.5\"}]").get(0).total);
+        assertEquals(-25000L, parseList("[{\"total\":\"-25.000 đ\"}]").get(0).total);
+    }
+
+    @Test
+    public void totalWinsOverTotalAmountRegardlessOfOrder() {
+        OrderDto a = parseList("[{\"total\":10,\"total_amount\":20}]").get(0);
+        OrderDto b = parseList("[{\"total_amount\":20,\"total\":10}]").get(0);
+        assertEquals(10L, a.total);
+        assertEquals(10L, b.total);
+    }
+
+    @Test
+    public void shipper_nullIdOrNestedObject() {
+        OrderDto none = parseList("[{\"order_id\":1,\"shipper_id\":null}]").get(0);
+        assertFalse(none.hasShipper());
+
+        OrderDto nested = parseList("[{\"order_id\":1,\"shipper\":{\"id\":9,\"name\":\"An\","
+                + "\"lat\":\"10.77\",\"lng\":106.7}}]").get(0);
+        assertTrue(nested.hasShipper());
+        assertEquals("9", nested.shipperId);
+        assertTrue(nested.shipper.hasLocation());
+        assertEquals(10.77, nested.shipper.lat, 1e-9);
+    }
+
+    @Test
+    public void unknownFieldsAndWrongTypesAreSkipped() {
+        String json = "[{\"order_id\":5,\"extra\":{\"a\":[1,2,{\"b\":null}]},\"status\":{\"x\":1},"
+                + "\"items\":\"not-an-array\",\"total\":true}]";
+        OrderDto o = parseList(json).get(0);
+        assertEquals("5", o.getId());
+        assertNull(o.status);
+        assertTrue(o.items.isEmpty());
+        assertEquals(0L, o.total);
+    }
+
+    @Test
+    public void adminWrapper() {
+        String json = "{\"orders\":[{\"id\":4,\"code\":\"ORD-4\",\"total\":\"30000.00\","
+                + "\"customer_name\":\"Bình\",\"restaurant_name\":\"Quán A\"}]}";
+        AdminOrdersPage page = gson.fromJson(json, AdminOrdersPage.class);
+        OrderDto o = page.getOrders().get(0);
+        assertEquals("4", o.getId());
+        assertEquals("ORD-4", o.displayCode());
+        assertEquals(30000L, o.total);
+        assertEquals("Bình", o.customerName);
+    }
+
+    @Test
+    public void roundTrip() {
+        OrderDto o = parseList("[{\"order_id\":7,\"status\":\"READY\",\"total\":1000,"
+                + "\"items\":[{\"product_id\":1,\"quantity\":2,\"price\":500}]}]").get(0);
+        OrderDto back = gson.fromJson(gson.toJson(o), OrderDto.class);
+        assertEquals(o.getId(), back.getId());
+        assertEquals(o.status, back.status);
+        assertEquals(o.total, back.total);
+        assertEquals(2, back.items.get(0).qty);
+        assertEquals(1000L, back.items.get(0).getLineTotal());
+    }
+}
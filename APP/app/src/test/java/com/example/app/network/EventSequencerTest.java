@@ -0,0 +1,95 @@
+package com.example.app.network;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EventSequencerTest {
+
+    private final List<String> delivered = new ArrayList<>();
+    private final EventSequencer seq = new EventSequencer((event, payload) -> delivered.add(payload.toString()));
+
+    private static EventSequencer.Entry entry(long s, String payload) {
+        return new EventSequencer.Entry(s, "orderUpdate", payload);
+    }
+
+    @Test
+    public void missedEventsAreDeliveredBeforeHeldLiveOnesWithoutDuplicates() {
+        seq.onLive("orderUpdate", "a", 10, "e1");
+        assertEquals(10, seq.beginReplay());
+
+        // Socket đã nối lại: event live tới trước khi replay trả về
+        seq.onLive("orderUpdate", "d", 14, "e1");
+        seq.onLive("orderUpdate", "c", 13, "e1");
+        seq.endReplay(Arrays.asList(entry(13, "c"), entry(12, "b")), 14);
+
+        assertEquals(Arrays.asList("a", "b", "c", "d"), delivered);
+        assertEquals(2, seq.replayed());
+        assertEquals(1, seq.duplicates());
+
+        // Event cũ tới muộn bị bỏ
+        seq.onLive("orderUpdate", "c", 13, "e1");
+        assertEquals(4, delivered.size());
+    }
+
+    @Test
+    public void firstConnectSeedsMarkFromServer() {
+        assertEquals(-1, seq.beginReplay());
+        seq.onLive("orderUpdate", "x", 0, null); // server cũ không đánh seq
+        seq.onLive("orderUpdate", "a", 8, "e1");
+        assertFalse(seq.seed("e1", 7));
+        assertEquals(Arrays.asList("x", "a"), delivered);
+        assertEquals(0, seq.resets());
+
+        // Reconnect trước event kế tiếp vẫn replay được từ mốc
+        assertEquals(8, seq.beginReplay());
+    }
+
+    @Test
+    public void reconnectWithoutMarkAsksForResync() {
+        assertEquals(-1, seq.beginReplay());
+        assertFalse(seq.abortReplay());
+        // Lần đầu lấy mốc lỗi, reconnect sau đó có thể đã lỡ event
+        assertEquals(-1, seq.beginReplay());
+        assertTrue(seq.seed("e1", 3));
+
+        seq.forget();
+        assertEquals(-1, seq.beginReplay());
+        assertFalse(seq.seed("e1", 3));
+    }
+
+    @Test
+    public void serverRestartStartsNewSequence() {
+        seq.onLive("orderUpdate", "a", 500, "e1");
+        seq.onLive("orderUpdate", "b", 3, "e2");
+        assertEquals(Arrays.asList("a", "b"), delivered);
+        assertEquals(3, seq.lastSeq());
+    }
+
+    @Test
+    public void resetAdoptsServerMarkAndFlushesHeldEvents() {
+        seq.onLive("orderUpdate", "a", 10, "e1");
+        seq.beginReplay();
+        seq.onLive("orderUpdate", "b", 2, "e2");
+        seq.resetTo("e2", 1);
+        assertEquals(Arrays.asList("a", "b"), delivered);
+        assertEquals(2, seq.lastSeq());
+        assertEquals(1, seq.resets());
+    }
+
+    @Test
+    public void failedReplayKeepsMarkForNextReconnect() {
+        seq.onLive("orderUpdate", "a", 10, "e1");
+        seq.beginReplay();
+        seq.onLive("orderUpdate", "b", 11, "e1");
+        assertTrue(seq.abortReplay());
+        assertEquals(Arrays.asList("a", "b"), delivered);
+        assertEquals(11, seq.beginReplay());
+    }
+}
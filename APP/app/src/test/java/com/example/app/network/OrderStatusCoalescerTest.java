@@ -0,0 +1,93 @@
+package com.example.app.network;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class OrderStatusCoalescerTest {
+
+    /** Frame giả: chỉ chạy khi test gọi {@link #tick()} */
+    private static final class ManualFrames implements OrderStatusCoalescer.FrameScheduler {
+        final List<Runnable> posted = new ArrayList<>();
+
+        @Override
+        public void postFrame(Runnable frame) {
+            posted.add(frame);
+        }
+
+        void tick() {
+            List<Runnable> run = new ArrayList<>(posted);
+            posted.clear();
+            for (Runnable r : run)
+                r.run();
+        }
+    }
+
+    private static Map<String, Object> event(Object orderId, String status) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("orderId", orderId);
+        m.put("status", status);
+        return m;
+    }
+
+    @Test
+    public void burstCollapsesToLatestStatePerOrderInOneFrame() {
+        ManualFrames frames = new ManualFrames();
+        List<List<OrderStatusCoalescer.Update>> delivered = new ArrayList<>();
+        long[] now = { 0 };
+        OrderStatusCoalescer c = new OrderStatusCoalescer(frames, delivered::add, () -> now[0]);
+
+        c.offer(event("1", "confirmed"));
+        c.offer(event("2", "pending"));
+        now[0] = 4_000_000L;
+        c.offer(event("1", "preparing"));
+        c.offer(event(1.0, "shipping")); // Gson decode id số thành double
+        assertEquals(1, frames.posted.size());
+
+        now[0] = 16_000_000L;
+        frames.tick();
+        assertEquals(1, delivered.size());
+        List<OrderStatusCoalescer.Update> batch = delivered.get(0);
+        assertEquals(2, batch.size());
+        assertEquals("1", batch.get(1).orderId);
+        assertEquals("shipping", batch.get(1).status);
+
+        OrderStatusCoalescer.Stats s = c.stats();
+        assertEquals(4, s.received);
+        assertEquals(2, s.delivered);
+        assertEquals(2, s.merged);
+        assertEquals(1, s.frames);
+        // Latency tính từ event đầu tiên của chuỗi bị gộp
+        assertEquals(16.0, s.maxLatencyMs, 1e-9);
+    }
+
+    @Test
+    public void undecodablePayloadsAreDroppedWithoutScheduling() {
+        ManualFrames frames = new ManualFrames();
+        OrderStatusCoalescer c = new OrderStatusCoalescer(frames, u -> { }, () -> 0L);
+        c.offer("not a map");
+        c.offer(event(null, "done"));
+        c.offer(null);
+        assertEquals(0, frames.posted.size());
+        assertEquals(3, c.stats().dropped);
+        assertNull(OrderStatusCoalescer.decode(event("", "x"), 0));
+    }
+
+    @Test
+    public void closedCoalescerDeliversNothing() {
+        ManualFrames frames = new ManualFrames();
+        List<List<OrderStatusCoalescer.Update>> delivered = new ArrayList<>();
+        OrderStatusCoalescer c = new OrderStatusCoalescer(frames, delivered::add, () -> 0L);
+        c.offer(event("9", "done"));
+        c.close();
+        frames.tick();
+        c.offer(event("9", "cancelled"));
+        assertEquals(0, delivered.size());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.app.network;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RoomRefsTest {
+
+    @Test
+    public void onlyFirstJoinAndLastLeaveHitTheSocket() {
+        RoomRefs r = new RoomRefs();
+        assertTrue(r.acquire("42")); // màn hình đầu tiên theo dõi đơn
+        assertFalse(r.acquire("42")); // màn hình thứ 2 cùng đơn
+        assertEquals(2, r.refs("42"));
+
+        assertFalse(r.release("42"));
+        assertTrue(r.release("42"));
+        assertTrue(r.isEmpty());
+    }
+
+    @Test
+    public void unbalancedReleaseIsIgnored() {
+        RoomRefs r = new RoomRefs();
+        assertFalse(r.release("7"));
+        r.acquire("7");
+        assertTrue(r.release("7"));
+        assertFalse(r.release("7"));
+        assertEquals(0, r.refs("7"));
+    }
+
+    @Test
+    public void roomsListedInJoinOrderForRejoin() {
+        RoomRefs r = new RoomRefs();
+        r.acquire("3");
+        r.acquire("1");
+        r.acquire("3");
+        r.acquire("2");
+        r.release("1");
+        assertEquals(Arrays.asList("3", "2"), r.rooms());
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.app.util;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+/**
+ * So chi phí format giá + thời gian trên đường bind 1 màn danh sách đơn:
+ * cách cũ (NumberFormat mới mỗi lần bind, regex + SimpleDateFormat mới mỗi dòng)
+ * ↔ {@link Formats}. Cách cũ lấy từ {@link FormatsTest}.
+ *
+ * Không phải JMH (project không có source set benchmark) và không assert thời gian:
+ * chạy tay (bỏ @Ignore hoặc chạy riêng trong IDE) để đọc ns/op và byte cấp phát/op.
+ * Kết quả giống nhau đã được kiểm trong {@link FormatsTest}.
+ */
+@Ignore("benchmark chạy tay, không phải unit test")
+public class FormatsBenchmarkTest {
+
+    private static final int ROWS = 200;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int ROUNDS = 200;
+
+    @Test
+    public void bindPathOldVsFormats() {
+        long[] totals = new long[ROWS];
+        String[] times = new String[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            totals[i] = 35_000L + (i % 40) * 5_000L;
+            times[i] = String.format(Locale.ROOT, "2025-01-%02d %02d:%02d:00", 1 + i % 28, i % 24, i % 60);
+        }
+        Formats.Timestamps timestamps = new Formats.Timestamps("HH:mm • dd/MM");
+
+        // Làm nóng JIT cho cả 2 đường
+        long sink = run(totals, times, timestamps, true, WARMUP_ROUNDS)
+                + run(totals, times, timestamps, false, WARMUP_ROUNDS);
+
+        Sample old = measure(() -> run(totals, times, timestamps, true, ROUNDS));
+        Sample formats = measure(() -> run(totals, times, timestamps, false, ROUNDS));
+        sink += old.sink + formats.sink;
+
+        long ops = (long) ROWS * ROUNDS;
+        System.out.println(String.format(Locale.US,
+                "bind format (giá + thời gian)/row: old=%.0f ns %.0f B | formats=%.0f ns %.0f B [sink=%d]",
+                (double) old.nanos / ops, old.bytesPerOp(ops),
+                (double) formats.nanos / ops, formats.bytesPerOp(ops), sink));
+    }
+
+    // ============================
+    // Helpers
+    // ============================
+
+    private interface Body {
+        long run();
+    }
+
+    private static final class Sample {
+        final long nanos;
+        /** -1 nếu JVM không đo được byte cấp phát theo thread */
+        final long bytes;
+        final long sink;
+
+        Sample(long nanos, long bytes, long sink) {
+            this.nanos = nanos;
+            this.bytes = bytes;
+            this.sink = sink;
+        }
+
+        double bytesPerOp(long ops) {
+            return bytes < 0 ? Double.NaN : (double) bytes / ops;
+        }
+    }
+
+    private static Sample measure(Body body) {
+        long bytes0 = allocatedBytes();
+        long t0 = System.nanoTime();
+        long sink = body.run();
+        long nanos = System.nanoTime() - t0;
+        long bytes1 = allocatedBytes();
+        return new Sample(nanos, bytes0 < 0 || bytes1 < 0 ? -1 : bytes1 - bytes0, sink);
+    }
+
+    /** Byte đã cấp phát trên thread hiện tại (HotSpot), -1 nếu không hỗ trợ. */
+    private static long allocatedBytes() {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (mx instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) mx).getThreadAllocatedBytes(Thread.currentThread().getId());
+        return -1;
+    }
+
+    private static long run(long[] totals, String[] times, Formats.Timestamps timestamps, boolean old, int rounds) {
+        long len = 0;
+        for (int r = 0; r < rounds; r++) {
+            for (int i = 0; i < ROWS; i++) {
+                String price = old ? FormatsTest.oldVnd(totals[i]) : Formats.vnd(totals[i]);
+                String time = old ? FormatsTest.oldTime(times[i]) : timestamps.format(times[i]);
+                len += price.length() + time.length();
+            }
+        }
+        return len;
+    }
+}
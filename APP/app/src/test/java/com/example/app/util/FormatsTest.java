@@ -0,0 +1,125 @@
+package com.example.app.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+import java.util.TimeZone;
+
+public class FormatsTest {
+
+    @Test
+    public void vndGroupsWithDots() {
+        assertEquals("0 đ", Formats.vnd(0));
+        assertEquals("999 đ", Formats.vnd(999));
+        assertEquals("45.000 đ", Formats.vnd(45_000));
+        assertEquals("1.234.567 đ", Formats.vnd(1_234_567L));
+        assertEquals("-25.000 đ", Formats.vnd(-25_000));
+        assertEquals("45.001 đ", Formats.vnd(45_000.5));
+        assertEquals("1.000", Formats.groupDigits(1_000));
+        assertEquals("9.223.372.036.854.775.807", Formats.groupDigits(Long.MAX_VALUE));
+        assertEquals("-9.223.372.036.854.775.808", Formats.groupDigits(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void repeatedAmountReusesString() {
+        assertSame(Formats.vnd(35_000), Formats.vnd(35_000));
+        assertSame(Formats.groupDigits(35_000), Formats.groupDigits(35_000));
+    }
+
+    @Test
+    public void detectsEveryServerTimestampShape() {
+        // 2025-01-01 10:00 UTC
+        assertEquals("10:00 01/01/2025", utc().format("1735725600000"));
+        assertEquals("10:00 01/01/2025", utc().format("1735725600"));
+        assertEquals("10:00 01/01/2025", utc().format("2025-01-01T17:00:00+07:00"));
+        assertEquals("10:00 01/01/2025", utc().format("2025-01-01T10:00:00.123Z"));
+        assertEquals("10:00 01/01/2025", utc().format("2025-01-01 10:00:00"));
+        assertEquals("10:00 01/01/2025", utc().format("2025-01-01T10:00:00.5"));
+        // Gson trả số dạng Double
+        assertEquals("10:00 01/01/2025", utc().format(1735725600000.0));
+        assertEquals("10:00 01/01/2025", utc().format(1735725600L));
+    }
+
+    @Test
+    public void unreadableValuesAreShownAsIs() {
+        Formats.Timestamps t = utc();
+        assertEquals("", t.format(null));
+        assertEquals("", t.format("   "));
+        assertEquals("hôm qua", t.format("hôm qua"));
+        assertEquals("2025-13-45 10:00:00", t.format("2025-13-45 10:00:00"));
+    }
+
+    @Test
+    public void formatIsDetectedOnceThenReused() {
+        Formats.Timestamps t = utc();
+        for (int i = 0; i < 100; i++)
+            t.format(String.format("2025-01-01T10:%02d:00Z", i % 60));
+        assertEquals(Formats.TimeKind.ISO_OFFSET, t.kind());
+        assertEquals(1, t.detections());
+
+        // Server đổi định dạng → nhận dạng lại 1 lần
+        t.format("2025-01-02 08:30:00");
+        t.format("2025-01-03 08:30:00");
+        assertEquals(Formats.TimeKind.LOCAL_UTC, t.kind());
+        assertEquals(2, t.detections());
+    }
+
+    @Test
+    public void matchesOutputOfThePerBindFormatters() {
+        Formats.Timestamps timestamps = new Formats.Timestamps("HH:mm • dd/MM");
+        for (int i = 0; i < 200; i++) {
+            long total = 35_000L + (i % 40) * 5_000L;
+            String time = String.format(Locale.ROOT, "2025-01-%02d %02d:%02d:00", 1 + i % 28, i % 24, i % 60);
+            assertEquals(oldVnd(total), Formats.vnd(total));
+            assertEquals(oldTime(time), timestamps.format(time));
+        }
+    }
+
+    private static Formats.Timestamps utc() {
+        return new Formats.Timestamps("HH:mm dd/MM/yyyy", ZoneOffset.UTC);
+    }
+
+    // ============================
+    // Cách cũ (chép từ adapter trước khi đổi), dùng chung với FormatsBenchmarkTest
+    // ============================
+
+    static String oldVnd(long amount) {
+        NumberFormat nf = NumberFormat.getNumberInstance(new Locale("vi", "VN"));
+        return nf.format(amount) + " đ";
+    }
+
+    static String oldTime(String raw) {
+        try {
+            String s = raw.trim();
+            if (s.matches("^\\d{13}$"))
+                return fmt(Long.parseLong(s));
+            if (s.matches("^\\d{10}$"))
+                return fmt(Long.parseLong(s) * 1000L);
+            try {
+                return fmt(OffsetDateTime.parse(s).toInstant().toEpochMilli());
+            } catch (Exception ignored) {
+            }
+            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
+            sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+            return fmt(sdf.parse(s).getTime());
+        } catch (Exception e) {
+            return raw;
+        }
+    }
+
+    private static String fmt(long ms) {
+        ZonedDateTime z = ZonedDateTime.ofInstant(Instant.ofEpochMilli(ms), ZoneId.systemDefault());
+        return String.format(Locale.getDefault(), "%02d:%02d • %02d/%02d",
+                z.getHour(), z.getMinute(), z.getDayOfMonth(), z.getMonthValue());
+    }
+}
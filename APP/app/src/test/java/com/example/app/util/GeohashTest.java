@@ -0,0 +1,57 @@
+package com.example.app.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+public class GeohashTest {
+
+    @Test
+    public void encodesKnownPoint() {
+        // Ví dụ chuẩn của geohash.org
+        assertEquals("u4pruydqqvj", Geohash.encode(57.64911, 10.40744, 11));
+        assertEquals("u4pru", Geohash.encode(57.64911, 10.40744, 5));
+    }
+
+    @Test
+    public void centerEncodesBackToSameCell() {
+        String cell = Geohash.encode(10.762622, 106.660172, 6);
+        double[] c = Geohash.center(cell);
+        assertEquals(cell, Geohash.encode(c[0], c[1], 6));
+        double[] b = Geohash.bounds(cell);
+        assertTrue(b[0] <= 10.762622 && 10.762622 <= b[2]);
+        assertTrue(b[1] <= 106.660172 && 106.660172 <= b[3]);
+    }
+
+    @Test
+    public void gpsJitterStaysInCell() {
+        // Tâm ô + vài mét rung vẫn cùng ô
+        String cell = Geohash.encode(10.762622, 106.660172, 6);
+        double[] c = Geohash.center(cell);
+        assertEquals(cell, Geohash.encode(c[0] + 0.00003, c[1] - 0.00003, 6));
+    }
+
+    @Test
+    public void neighborsAreEightDistinctAdjacentCells() {
+        String cell = Geohash.encode(10.762622, 106.660172, 6);
+        String[] n = Geohash.neighbors(cell);
+        assertEquals(8, n.length);
+        Set<String> set = new HashSet<>(Arrays.asList(n));
+        assertEquals(8, set.size());
+        assertFalse(set.contains(cell));
+    }
+
+    @Test
+    public void haversineMatchesKnownDistance() {
+        // Bến Thành → Nhà thờ Đức Bà (TP.HCM) ≈ 0.86 km
+        double km = GeoMath.haversineKm(10.772105, 106.698278, 10.779783, 106.699018);
+        assertEquals(0.857, km, 0.01);
+        assertEquals(0.0, GeoMath.haversineKm(10, 106, 10, 106), 1e-9);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.app.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class SpatialIndexTest {
+
+    private static final class P {
+        final int id;
+        final double lat;
+        final double lng;
+
+        P(int id, double lat, double lng) {
+            this.id = id;
+            this.lat = lat;
+            this.lng = lng;
+        }
+    }
+
+    /** Quán rải ngẫu nhiên quanh TP.HCM (~0.5 độ) */
+    private static List<P> randomPoints(int n, long seed) {
+        Random rnd = new Random(seed);
+        List<P> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            out.add(new P(i, 10.5 + rnd.nextDouble() * 0.5, 106.4 + rnd.nextDouble() * 0.5));
+        return out;
+    }
+
+    private static SpatialIndex<P> index(List<P> pts) {
+        return SpatialIndex.build(pts, p -> p.lat, p -> p.lng);
+    }
+
+    @Test
+    public void nearestMatchesBruteForce() {
+        List<P> pts = randomPoints(2000, 42);
+        SpatialIndex<P> idx = index(pts);
+        Random rnd = new Random(7);
+        for (int q = 0; q < 200; q++) {
+            double lat = 10.5 + rnd.nextDouble() * 0.5;
+            double lng = 106.4 + rnd.nextDouble() * 0.5;
+
+            List<P> brute = new ArrayList<>(pts);
+            Collections.sort(brute, (a, b) -> Double.compare(
+                    GeoMath.haversineKm(lat, lng, a.lat, a.lng), GeoMath.haversineKm(lat, lng, b.lat, b.lng)));
+
+            List<SpatialIndex.Neighbor<P>> got = idx.nearest(lat, lng, 10);
+            assertEquals(10, got.size());
+            for (int i = 0; i < 10; i++) {
+                P expected = brute.get(i);
+                assertEquals(GeoMath.haversineKm(lat, lng, expected.lat, expected.lng), got.get(i).km, 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void withinMatchesBruteForce() {
+        List<P> pts = randomPoints(1500, 3);
+        SpatialIndex<P> idx = index(pts);
+        double lat = 10.77;
+        double lng = 106.69;
+        for (double km : new double[] { 0.5, 2, 5, 15 }) {
+            int expected = 0;
+            for (P p : pts) {
+                if (GeoMath.haversineKm(lat, lng, p.lat, p.lng) <= km)
+                    expected++;
+            }
+            List<SpatialIndex.Neighbor<P>> got = idx.within(lat, lng, km);
+            assertEquals(expected, got.size());
+            for (int i = 1; i < got.size(); i++)
+                assertTrue(got.get(i - 1).km <= got.get(i).km);
+        }
+    }
+
+    @Test
+    public void skipsInvalidCoordinatesAndHandlesEmpty() {
+        List<P> pts = Arrays.asList(new P(1, Double.NaN, 106), new P(2, 0, 0), new P(3, 10.8, 106.7));
+        SpatialIndex<P> idx = index(pts);
+        assertEquals(1, idx.size());
+        assertEquals(3, idx.nearest(10.8, 106.7, 5).get(0).item.id);
+
+        SpatialIndex<P> empty = index(Collections.emptyList());
+        assertTrue(empty.nearest(10.8, 106.7, 3).isEmpty());
+        assertTrue(empty.within(10.8, 106.7, 3).isEmpty());
+    }
+}
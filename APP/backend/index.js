@@ -1162,11 +1162,12 @@ async function assignShipper(orderId) {
           'UPDATE shippers SET available=false WHERE id=$1',
           [shipperId]
         );
-        io.to(`order_${orderId}`).emit('statusUpdate', {
+        emitOrderEvent(`order_${orderId}`, 'statusUpdate', {
+          orderId,
           status: 'PICKED_UP',
           shipperId,
         });
-        io.to(`user_${ord.rows[0].user_id}`).emit('orderUpdate', {
+        emitOrderEvent(`user_${ord.rows[0].user_id}`, 'orderUpdate', {
           orderId,
           status: 'PICKED_UP',
         });
@@ -1190,11 +1191,12 @@ async function assignShipper(orderId) {
   await pool.query('UPDATE shippers SET available=false WHERE id=$1', [
     shipperId,
   ]);
-  io.to(`order_${orderId}`).emit('statusUpdate', {
+  emitOrderEvent(`order_${orderId}`, 'statusUpdate', {
+    orderId,
     status: 'PICKED_UP',
     shipperId,
   });
-  io.to(`user_${ord.rows[0].user_id}`).emit('orderUpdate', {
+  emitOrderEvent(`user_${ord.rows[0].user_id}`, 'orderUpdate', {
     orderId,
     status: 'PICKED_UP',
   });
@@ -1217,20 +1219,113 @@ function canChangeStatus(role, newStatus) {
   return allowed.includes(newStatus);
 }
 
+// ---------- Realtime event log (replay sau khi reconnect) ----------
+// Mọi orderUpdate/statusUpdate được đánh seq tăng dần + ghi vào log vòng trong RAM.
+// App reconnect xong gọi GET /realtime/replay?since=<seq> để lấy phần bị lỡ thay vì tải lại cả list.
+// REALTIME_EPOCH đổi mỗi lần server khởi động → seq cũ không còn so sánh được → client reset.
+const REALTIME_EPOCH = Date.now().toString(36);
+const REALTIME_LOG_MAX = 2000;
+const realtimeLog = [];
+let realtimeSeq = 0;
+
+function emitOrderEvent(room, event, payload) {
+  const entry = {
+    seq: ++realtimeSeq,
+    room,
+    event,
+    payload: { ...payload, seq: realtimeSeq, epoch: REALTIME_EPOCH },
+  };
+  realtimeLog.push(entry);
+  if (realtimeLog.length > REALTIME_LOG_MAX) realtimeLog.shift();
+  io.to(room).emit(event, entry.payload);
+}
+
 // ---------- socket.io ----------
+// Gắn socket với user theo access token: rời room user cũ (đổi tài khoản / đăng xuất), join room mới.
+// Token hết hạn hoặc sai → socket chỉ còn các room order_<id>.
+function bindSocketUser(socket, token) {
+  let payload = null;
+  if (token) {
+    try {
+      payload = jwt.verify(token, JWT_SECRET);
+    } catch (err) {
+      payload = null;
+    }
+  }
+  const prev = socket.data.userId;
+  const next = payload ? payload.id : null;
+  if (prev && prev !== next) {
+    socket.leave(`user_${prev}`);
+    socket.leave('admins');
+  }
+  socket.data.userId = next;
+  if (payload) {
+    socket.join(`user_${payload.id}`);
+    if (payload.role === 'ADMIN') socket.join('admins');
+  }
+  return payload;
+}
+
 io.on('connection', (socket) => {
   console.log('socket connected', socket.id);
+  const auth = socket.handshake.headers.authorization;
+  if (auth && auth.startsWith('Bearer ')) bindSocketUser(socket, auth.slice(7));
+
+  // Token xoay vòng trên kết nối đang mở (app refresh token) → không cần reconnect
+  socket.on('auth', (payload, ack) => {
+    const user = bindSocketUser(socket, payload && payload.token);
+    if (typeof ack === 'function') {
+      ack(user ? { ok: true, userId: user.id, exp: user.exp } : { ok: false });
+    }
+  });
   socket.on('joinOrder', (orderId) => {
     socket.join(`order_${orderId}`);
   });
   socket.on('leaveOrder', (orderId) => {
     socket.leave(`order_${orderId}`);
   });
-  socket.on('identify', (payload) => {
-    if (payload && payload.userId) socket.join(`user_${payload.userId}`);
-    if (payload && payload.role && payload.role === 'ADMIN')
-      socket.join('admins');
-  });
+  // "identify" {userId, role} (app cũ) bị bỏ qua: payload không có xác thực, và room join theo nó
+  // không được bindSocketUser ghi nhận nên đổi tài khoản / đăng xuất không rời được.
+  // Room user_<id> / admins chỉ gắn theo token (handshake + "auth").
+  socket.on('identify', () => {});
+});
+
+// ---------- Realtime replay ----------
+// GET /realtime/replay?since=<seq>&epoch=<epoch>&orders=1,2
+// Trả các event sau `since` thuộc room user_<id> của người gọi + room order_<id> của đơn họ sở hữu.
+// reset=true: epoch khác (server restart) hoặc log vòng đã đè mất event → client phải tải lại.
+app.get('/realtime/replay', requireAuth, async (req, res) => {
+  const since = parseInt(req.query.since, 10) || 0;
+  const oldest = realtimeLog.length > 0 ? realtimeLog[0].seq : realtimeSeq + 1;
+  const reset = req.query.epoch !== REALTIME_EPOCH || since < oldest - 1 || since > realtimeSeq;
+  if (reset) {
+    return res.json({ epoch: REALTIME_EPOCH, seq: realtimeSeq, reset: true, events: [] });
+  }
+
+  try {
+    const rooms = new Set([`user_${req.user.id}`]);
+    const orderIds = String(req.query.orders || '')
+      .split(',')
+      .map((x) => parseInt(x, 10))
+      .filter((x) => Number.isInteger(x));
+    if (orderIds.length > 0) {
+      const owned = req.user.role === 'ADMIN'
+        ? { rows: orderIds.map((id) => ({ id })) }
+        : await pool.query('SELECT id FROM orders WHERE id = ANY($1) AND user_id = $2', [orderIds, req.user.id]);
+      for (const row of owned.rows) rooms.add(`order_${row.id}`);
+    }
+
+    const events = [];
+    for (const e of realtimeLog) {
+      if (e.seq > since && rooms.has(e.room)) {
+        events.push({ seq: e.seq, event: e.event, payload: e.payload });
+      }
+    }
+    res.json({ epoch: REALTIME_EPOCH, seq: realtimeSeq, reset: false, events });
+  } catch (err) {
+    console.error('[REALTIME REPLAY] ❌ Error:', err);
+    res.status(500).json({ error: 'failed_to_replay', message: err.message });
+  }
 });
 
 // ---------- Admin Orders ----------
@@ -1489,7 +1584,7 @@ app.post('/admin/orders/:id/approve-cancel', requireAuth, async (req, res) => {
       await client.query('COMMIT');
 
       // Emit socket event
-      io.to(`user_${order.user_id}`).emit('orderUpdate', {
+      emitOrderEvent(`user_${order.user_id}`, 'orderUpdate', {
         orderId,
         status: 'CANCELED',
       });
@@ -1554,7 +1649,7 @@ app.post('/admin/orders/:id/reject-cancel', requireAuth, async (req, res) => {
     const userId = orderResult.rows[0]?.user_id;
 
     if (userId) {
-      io.to(`user_${userId}`).emit('orderUpdate', {
+      emitOrderEvent(`user_${userId}`, 'orderUpdate', {
         orderId,
         status: previousStatus,
       });
@@ -1896,7 +1991,7 @@ app.post('/orders', requireAuth, async (req, res) => {
       totalAmount,
     };
 
-    io.to(`user_${user_id}`).emit('orderUpdate', notificationPayload);
+    emitOrderEvent(`user_${user_id}`, 'orderUpdate', notificationPayload);
     io.to(`shop_${restaurant_id}`).emit('newOrder', notificationPayload);
     io.to('admins').emit('newOrderAlert', notificationPayload);
 
@@ -2389,7 +2484,7 @@ app.post('/orders/:id/cancel', requireAuth, async (req, res) => {
           userId: order.user_id,
           status: 'CANCELED',
         };
-        io.to(`user_${order.user_id}`).emit('orderUpdate', notificationPayload);
+        emitOrderEvent(`user_${order.user_id}`, 'orderUpdate', notificationPayload);
         io.to('admins').emit('orderCancelled', notificationPayload);
 
         res.json({
@@ -2419,7 +2514,7 @@ app.post('/orders/:id/cancel', requireAuth, async (req, res) => {
           status: 'CANCEL_REQUESTED',
           reason: reason || 'Khách hàng yêu cầu hủy đơn'
         };
-        io.to(`user_${order.user_id}`).emit('orderUpdate', notificationPayload);
+        emitOrderEvent(`user_${order.user_id}`, 'orderUpdate', notificationPayload);
         io.to('admins').emit('newCancelRequest', notificationPayload);
 
         res.json({
@@ -3244,11 +3339,11 @@ app.patch('/merchant/orders/:id/status', requireAuth, async (req, res) => {
 
     // ✅ FIX: Emit socket để customer nhận được update real-time
     if (orderUserId) {
-      io.to(`order_${orderId}`).emit('statusUpdate', {
+      emitOrderEvent(`order_${orderId}`, 'statusUpdate', {
         orderId,
         status: newStatus,
       });
-      io.to(`user_${orderUserId}`).emit('orderUpdate', {
+      emitOrderEvent(`user_${orderUserId}`, 'orderUpdate', {
         orderId,
         status: newStatus,
       });
@@ -3538,12 +3633,12 @@ app.post('/shipper/orders/:id/accept', requireAuth, async (req, res) => {
     const finalStatus = updatedOrderResult.rows[0]?.status || newStatus;
     
     if (orderUserId) {
-      io.to(`order_${orderId}`).emit('statusUpdate', {
+      emitOrderEvent(`order_${orderId}`, 'statusUpdate', {
         orderId,
         status: finalStatus,
         shipperId: user_id,
       });
-      io.to(`user_${orderUserId}`).emit('orderUpdate', {
+      emitOrderEvent(`user_${orderUserId}`, 'orderUpdate', {
         orderId,
         status: finalStatus,
         shipperId: user_id,
@@ -3551,7 +3646,7 @@ app.post('/shipper/orders/:id/accept', requireAuth, async (req, res) => {
     }
     
     if (orderRestaurantId) {
-      io.to(`shop_${orderRestaurantId}`).emit('orderUpdate', {
+      emitOrderEvent(`shop_${orderRestaurantId}`, 'orderUpdate', {
         orderId,
         status: finalStatus,
         shipperId: user_id,
@@ -3647,11 +3742,11 @@ app.patch('/shipper/orders/:id', requireAuth, async (req, res) => {
     const orderUserId = orderInfo.rows[0]?.user_id;
     
     if (orderUserId) {
-      io.to(`order_${orderId}`).emit('statusUpdate', {
+      emitOrderEvent(`order_${orderId}`, 'statusUpdate', {
         orderId,
         status: newStatus,
       });
-      io.to(`user_${orderUserId}`).emit('orderUpdate', {
+      emitOrderEvent(`user_${orderUserId}`, 'orderUpdate', {
         orderId,
         status: newStatus,
       });
@@ -4095,6 +4190,23 @@ app.patch('/shipper/profile', requireAuth, async (req, res) => {
   }
 });
 
+// Phát vị trí shipper: room shipper_<id> + room order_<id> của các đơn shipper đang giao
+// (màn chi tiết đơn của khách chỉ join room order_<id>)
+async function emitShipperLocation(shipperId, payload) {
+  io.to(`shipper_${shipperId}`).emit('shipper:location', payload);
+  try {
+    const active = await pool.query(
+      `SELECT id FROM orders WHERE shipper_id = $1 AND status NOT IN ('DELIVERED', 'COMPLETED', 'CANCELED', 'CANCELLED')`,
+      [shipperId]
+    );
+    for (const row of active.rows) {
+      io.to(`order_${row.id}`).emit('shipper:location', { ...payload, orderId: row.id });
+    }
+  } catch (err) {
+    console.error('[SHIPPER LOCATION] emit to order rooms failed:', err.message);
+  }
+}
+
 // Cập nhật vị trí shipper
 app.post('/shipper/location', requireAuth, async (req, res) => {
   const user_id = req.user.id;
@@ -4117,7 +4229,7 @@ app.post('/shipper/location', requireAuth, async (req, res) => {
     );
 
     // Emit socket event để customer có thể theo dõi
-    io.to(`shipper_${user_id}`).emit('shipper:location', {
+    await emitShipperLocation(user_id, {
       shipperId: user_id,
       lat: parseFloat(lat),
       lng: parseFloat(lng),
@@ -4132,6 +4244,62 @@ app.post('/shipper/location', requireAuth, async (req, res) => {
   }
 });
 
+// Giải mã lô vị trí từ app (LocationBatch v1):
+// { v:1, t:t0, la:lat0E6, ln:lng0E6, d:[dt,dLat,dLng,acc, ...] } — body gzip, bodyParser tự giải nén
+function decodeLocationBatch(body) {
+  if (!body || body.v !== 1 || !Array.isArray(body.d) || body.d.length % 4 !== 0) return null;
+  let t = Number(body.t);
+  let lat = Number(body.la);
+  let lng = Number(body.ln);
+  if (!Number.isFinite(t) || !Number.isFinite(lat) || !Number.isFinite(lng)) return null;
+  const points = [];
+  for (let i = 0; i < body.d.length; i += 4) {
+    t += Number(body.d[i]);
+    lat += Number(body.d[i + 1]);
+    lng += Number(body.d[i + 2]);
+    const acc = Number(body.d[i + 3]);
+    if (!Number.isFinite(t) || !Number.isFinite(lat) || !Number.isFinite(lng)) return null;
+    points.push({ t, lat: lat / 1e6, lng: lng / 1e6, accuracy: acc >= 0 ? acc : null });
+  }
+  return points;
+}
+
+app.post('/shipper/location/batch', requireAuth, async (req, res) => {
+  const user_id = req.user.id;
+  const user_role = req.user.role;
+
+  try {
+    if (user_role !== 'SHIPPER' && user_role !== 'ADMIN') {
+      return res.status(403).json({ error: 'forbidden' });
+    }
+
+    const points = decodeLocationBatch(req.body);
+    if (!points || points.length === 0) {
+      return res.status(400).json({ error: 'invalid_batch' });
+    }
+
+    // Vị trí hiện tại = điểm cuối lô (app gửi các lô theo đúng thứ tự, kể cả khi gửi bù)
+    const last = points[points.length - 1];
+    await pool.query(
+      'UPDATE shippers SET lat = $1, lng = $2, updated_at = NOW() WHERE id = $3',
+      [last.lat, last.lng, user_id]
+    );
+
+    await emitShipperLocation(user_id, {
+      shipperId: user_id,
+      lat: last.lat,
+      lng: last.lng,
+      accuracy: last.accuracy,
+      t: last.t,
+    });
+
+    res.json({ success: true, accepted: points.length });
+  } catch (err) {
+    console.error('[SHIPPER LOCATION BATCH] ❌ Error:', err);
+    res.status(500).json({ error: 'failed_to_update_location', message: err.message });
+  }
+});
+
 // ---------- Merchant Revenue/Stats ----------
 app.get('/merchant/revenue', requireAuth, async (req, res) => {
   const user_id = req.user.id;